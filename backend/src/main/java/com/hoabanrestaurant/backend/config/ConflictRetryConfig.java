@@ -0,0 +1,41 @@
+package com.hoabanrestaurant.backend.config;
+
+import com.hoabanrestaurant.backend.service.impl.ConflictRetry;
+import com.hoabanrestaurant.backend.service.impl.RetryOnConflict;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+
+// Retry xung đột ghi order ở ranh giới service: advisor đứng ngay ngoài advisor @Transactional
+// (order nhỏ hơn = bọc ngoài), áp cho mọi method có @RetryOnConflict.
+@Configuration
+public class ConflictRetryConfig {
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor conflictRetryAdvisor(ObjectProvider<ConflictRetry> conflictRetry) {
+        MethodInterceptor interceptor = inv -> conflictRetry.getObject().run(inv.getMethod().getName(), () -> {
+            try {
+                // proceed() trên bản sao: gọi lại inv.proceed() sẽ bỏ qua các interceptor phía trong
+                // (lần thử 2 chạy không có transaction, order_items ghi lẻ mà order thì rollback)
+                return ((ProxyMethodInvocation) inv).invocableClone().proceed();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+                AnnotationMatchingPointcut.forMethodAnnotation(RetryOnConflict.class), interceptor);
+        advisor.setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+        return advisor;
+    }
+}
@@ -0,0 +1,160 @@
+package com.hoabanrestaurant.backend.config;
+
+import com.hoabanrestaurant.backend.service.MenuSnapshotService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+// Cache response cho các GET công khai của thực đơn (trang chủ, quét QR đều gọi).
+// ETag = digest nội dung menu snapshot (thực đơn + khu vực): mọi instance cùng dữ liệu ra cùng ETag.
+// Snapshot dựng lại sau mỗi lần ghi món/combo/danh mục/khu vực và định kỳ (MenuSnapshotRefreshJob),
+// nên thay đổi từ instance khác cũng đổi ETag chậm nhất sau 1 chu kỳ refresh:
+// - If-None-Match khớp version -> 304 ngay, không chạy controller, không chạm DB
+// - trúng cache -> trả body đã serialize sẵn (gzip nếu client nhận)
+@Component
+@RequiredArgsConstructor
+public class MenuHttpCacheFilter extends OncePerRequestFilter {
+    private static final Set<String> PATHS = Set.of("/v1/dishes", "/v1/combos", "/v1/categories", "/v1/areas");
+
+    private record Entry(String version, String contentType, byte[] body, byte[] gzip) {
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final MenuSnapshotService menuSnapshot;
+
+    @Value("${app.menu.http-cache.enabled:true}")
+    private boolean enabled;
+    @Value("${app.menu.http-cache.max-entries:500}")
+    private int maxEntries;
+    @Value("${app.menu.http-cache.gzip-min-bytes:1024}")
+    private int gzipMinBytes;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private volatile String lastVersion = "";
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !"GET".equals(request.getMethod())
+                || !PATHS.contains(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String v = version();
+        if (!v.equals(lastVersion)) {
+            // thực đơn đổi: các bản theo digest cũ không bao giờ trúng nữa
+            lastVersion = v;
+            evictStale(v);
+        }
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), v)) {
+            meterRegistry.counter("menu.http_cache", "result", "not_modified").increment();
+            writeHeaders(response, v, false);
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        String key = key(request);
+        Entry e = entries.get(key);
+        if (e != null && e.version().equals(v)) {
+            meterRegistry.counter("menu.http_cache", "result", "hit").increment();
+            write(request, response, e);
+            return;
+        }
+
+        meterRegistry.counter("menu.http_cache", "result", "miss").increment();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, wrapper);
+        if (entries.size() >= maxEntries) evictStale(v);
+        if (wrapper.getStatus() != HttpServletResponse.SC_OK || entries.size() >= maxEntries) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+
+        byte[] body = wrapper.getContentAsByteArray();
+        e = new Entry(v, wrapper.getContentType(), body, body.length >= gzipMinBytes ? gzip(body) : null);
+        entries.put(key, e);
+        // có lần ghi xen giữa lúc đang dựng body: bỏ bản vừa lưu, lần sau dựng lại
+        if (!version().equals(v)) entries.remove(key, e);
+
+        wrapper.resetBuffer();
+        write(request, wrapper, e);
+        wrapper.copyBodyToResponse();
+    }
+
+    private void evictStale(String v) {
+        entries.values().removeIf(e -> !e.version().equals(v));
+    }
+
+    private String version() {
+        return menuSnapshot.current().digest();
+    }
+
+    private void write(HttpServletRequest request, HttpServletResponse response, Entry e) throws IOException {
+        String accept = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        boolean gzip = e.gzip() != null && accept != null && accept.contains("gzip");
+        byte[] out = gzip ? e.gzip() : e.body();
+
+        writeHeaders(response, e.version(), gzip);
+        if (gzip) response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        response.setContentType(e.contentType());
+        response.setContentLength(out.length);
+        response.getOutputStream().write(out);
+    }
+
+    // bản gzip và bản thường là 2 biểu diễn khác nhau -> ETag mạnh khác nhau
+    private static void writeHeaders(HttpServletResponse response, String v, boolean gzip) {
+        response.setHeader(HttpHeaders.ETAG, "\"m" + v + (gzip ? "-gz\"" : "\""));
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    private static boolean matches(String ifNoneMatch, String v) {
+        if (ifNoneMatch == null) return false;
+        String plain = "\"m" + v + "\"";
+        String gz = "\"m" + v + "-gz\"";
+        for (String tag : ifNoneMatch.split(",")) {
+            String t = tag.trim();
+            if (t.equals(plain) || t.equals(gz) || t.equals("*")) return true;
+        }
+        return false;
+    }
+
+    // path + query đã sắp xếp, để ?page=0&size=10 và ?size=10&page=0 dùng chung 1 bản
+    private static String key(HttpServletRequest request) {
+        Map<String, String[]> sorted = new TreeMap<>(request.getParameterMap());
+        StringBuilder sb = new StringBuilder(request.getRequestURI());
+        char sep = '?';
+        for (var p : sorted.entrySet()) {
+            for (String val : p.getValue()) {
+                sb.append(sep).append(p.getKey()).append('=').append(val);
+                sep = '&';
+            }
+        }
+        return sb.toString();
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gz = new GZIPOutputStream(bos)) {
+            gz.write(body);
+        }
+        return bos.toByteArray();
+    }
+}
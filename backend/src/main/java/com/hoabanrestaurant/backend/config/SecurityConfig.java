@@ -51,9 +51,13 @@ public class SecurityConfig {
             "/v1/categories",
             "/v1/combos",
             "/v1/dishes",
+            "/v1/dishes/search",
+            "/v1/menu/**",
             "/v1/reviews/latest",
+            "/v1/reservations/slots",
             "/v1/orders/open-by-qr",
             "/v1/orders/*/items",
+            "/v1/orders/*/items:batch",
             "/v1/orders/*",
             "/internal/ai/**",
             "/v1/tables/qr/issue",
@@ -14,6 +14,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -46,11 +47,13 @@ public class AIInternalController {
         return tableService.getTablesStatus();
     }
 
-    // 4) Lấy danh sách khung giờ trống cho đặt bàn
+    // 4) Lấy danh sách khung giờ cho đặt bàn, tính theo ghế trống thật (mặc định: hôm nay, 2 khách)
     @GetMapping("/reservation/slots")
-    public List<Map<String, Object>> getSlots() {
-        // Controller chỉ việc gọi
-        return reservationService.getAvailableSlots();
+    public List<Map<String, Object>> getSlots(
+            @RequestParam(required = false) LocalDate date,
+            @RequestParam(defaultValue = "2") int partySize,
+            @RequestParam(defaultValue = "60") int step) {
+        return reservationService.getAvailableSlots(date != null ? date : LocalDate.now(), partySize, step);
     }
 
     @PostMapping("/reservation/create")
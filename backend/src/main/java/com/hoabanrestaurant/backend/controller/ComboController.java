@@ -3,11 +3,20 @@ package com.hoabanrestaurant.backend.controller;
 
 import com.hoabanrestaurant.backend.dto.request.CreateComboReq;
 import com.hoabanrestaurant.backend.dto.response.ComboDto;
+import com.hoabanrestaurant.backend.dto.response.DishImportResultDto;
 import com.hoabanrestaurant.backend.dto.response.SuggestedMenuDto;
+import com.hoabanrestaurant.backend.enums.ErrorCode;
+import com.hoabanrestaurant.backend.enums.ExportFormat;
 import com.hoabanrestaurant.backend.exception.ApiResponse;
+import com.hoabanrestaurant.backend.exception.BusinessException;
 import com.hoabanrestaurant.backend.service.ComboService;
+import com.hoabanrestaurant.backend.service.DishTransferService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
@@ -18,8 +27,12 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.UUID;
 
@@ -28,6 +41,7 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class ComboController {
     private final ComboService service;
+    private final DishTransferService transferService;
 
     @PreAuthorize("hasAnyRole('ADMIN','STAFF')")
     @PostMapping
@@ -64,6 +78,36 @@ public class ComboController {
         return ApiResponse.ok("Xóa combo thành công");
     }
 
+    // Nhập combo hàng loạt từ CSV/NDJSON (cột như file xuất, món ghi theo tên); dòng lỗi được liệt kê, không làm hỏng cả lô
+    @PreAuthorize("hasAnyRole('ADMIN','STAFF')")
+    @PostMapping("/import")
+    public ApiResponse<DishImportResultDto> importCombos(
+            @RequestParam(defaultValue = "csv") String format,
+            HttpServletRequest request) throws IOException {
+        return ApiResponse.ok(transferService.importCombos(request.getInputStream(), format(format)));
+    }
+
+    // Xuất toàn bộ combo kèm món, stream thẳng từ DB ra response
+    @PreAuthorize("hasAnyRole('ADMIN','STAFF')")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "csv") String format) {
+        ExportFormat fmt = format(format);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"combos." + format.toLowerCase() + "\"")
+                .contentType(fmt == ExportFormat.CSV
+                        ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : MediaType.APPLICATION_NDJSON)
+                .body(out -> transferService.exportCombos(fmt, out));
+    }
+
+    private static ExportFormat format(String format) {
+        try {
+            return ExportFormat.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(ErrorCode.BAD_REQUEST, "format chỉ hỗ trợ csv/ndjson");
+        }
+    }
+
     //recoment system goi y mon theo lich su an uong
     @GetMapping("/suggested")
     public ApiResponse<SuggestedMenuDto> getSuggestedMenu(@AuthenticationPrincipal Jwt jwt) {
@@ -3,12 +3,24 @@ package com.hoabanrestaurant.backend.controller;
 
 import com.hoabanrestaurant.backend.dto.request.CreateDishReq;
 import com.hoabanrestaurant.backend.dto.request.UpdateDishReq;
+import com.hoabanrestaurant.backend.dto.response.CursorPage;
 import com.hoabanrestaurant.backend.dto.response.DishDto;
+import com.hoabanrestaurant.backend.dto.response.DishImportResultDto;
+import com.hoabanrestaurant.backend.dto.response.MenuSearchHitDto;
+import com.hoabanrestaurant.backend.enums.ErrorCode;
+import com.hoabanrestaurant.backend.enums.ExportFormat;
+import com.hoabanrestaurant.backend.enums.MenuStatus;
 import com.hoabanrestaurant.backend.exception.ApiResponse;
+import com.hoabanrestaurant.backend.exception.BusinessException;
 import com.hoabanrestaurant.backend.service.DishService;
+import com.hoabanrestaurant.backend.service.DishTransferService;
+import com.hoabanrestaurant.backend.service.MenuSearchService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -19,7 +31,10 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.UUID;
 
@@ -28,6 +43,8 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class DishController {
     private final DishService service;
+    private final MenuSearchService menuSearchService;
+    private final DishTransferService dishTransferService;
 
     @PreAuthorize("hasAnyRole('ADMIN','STAFF')")
     @PostMapping
@@ -41,27 +58,69 @@ public class DishController {
         return ApiResponse.ok(service.update(id, req));
     }
 
+    // Phân trang keyset: gửi lại nextCursor để lấy trang sau; withTotal=true mới đếm tổng số món
     @GetMapping
-    public ApiResponse<Page<DishDto>> list(
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size,
+    public ApiResponse<CursorPage<DishDto>> list(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int limit,
             @RequestParam(defaultValue = "name") String sortBy,
-            @RequestParam(defaultValue = "asc") String direction
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(defaultValue = "false") boolean withTotal
     ) {
-        return ApiResponse.ok(service.listAll(page, size, sortBy, direction));
+        return ApiResponse.ok(service.listAll(cursor, limit, sortBy, direction, withTotal));
     }
 
     @GetMapping("/all")
     @PreAuthorize("hasAnyRole('ADMIN','STAFF')")
-    public ApiResponse<Page<DishDto>> listAll(@RequestParam(defaultValue = "0") int page,
-                                              @RequestParam(defaultValue = "10") int size,
-                                              @RequestParam(defaultValue = "name") String sortBy,
-                                              @RequestParam(defaultValue = "asc") String direction
+    public ApiResponse<CursorPage<DishDto>> listAll(@RequestParam(required = false) MenuStatus status,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "10") int limit,
+                                                    @RequestParam(defaultValue = "name") String sortBy,
+                                                    @RequestParam(defaultValue = "asc") String direction,
+                                                    @RequestParam(defaultValue = "false") boolean withTotal
     ) {
-        return ApiResponse.ok(service.getAll(page, size, sortBy, direction));
+        return ApiResponse.ok(service.getAll(status, cursor, limit, sortBy, direction, withTotal));
     }
 
 
+    // Nhập món hàng loạt từ CSV/NDJSON (body là nội dung file, cột như file xuất); dòng lỗi được liệt kê, không làm hỏng cả lô
+    @PreAuthorize("hasAnyRole('ADMIN','STAFF')")
+    @PostMapping("/import")
+    public ApiResponse<DishImportResultDto> importDishes(
+            @RequestParam(defaultValue = "csv") String format,
+            HttpServletRequest request) throws IOException {
+        return ApiResponse.ok(dishTransferService.importDishes(request.getInputStream(), format(format)));
+    }
+
+    // Xuất toàn bộ món, stream thẳng từ DB ra response
+    @PreAuthorize("hasAnyRole('ADMIN','STAFF')")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "csv") String format) {
+        ExportFormat fmt = format(format);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"dishes." + format.toLowerCase() + "\"")
+                .contentType(fmt == ExportFormat.CSV
+                        ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : MediaType.APPLICATION_NDJSON)
+                .body(out -> dishTransferService.export(fmt, out));
+    }
+
+    private static ExportFormat format(String format) {
+        try {
+            return ExportFormat.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(ErrorCode.BAD_REQUEST, "format chỉ hỗ trợ csv/ndjson");
+        }
+    }
+
+    // Tìm món + combo (không dấu, chịu gõ sai), đọc từ chỉ mục trong bộ nhớ
+    @GetMapping("/search")
+    public ApiResponse<List<MenuSearchHitDto>> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ApiResponse.ok(menuSearchService.search(q, limit));
+    }
+
     @GetMapping("/by-category/{categoryId}")
     public ApiResponse<List<DishDto>> byCategory(@PathVariable UUID categoryId) {
         return ApiResponse.ok(service.listByCategory(categoryId));
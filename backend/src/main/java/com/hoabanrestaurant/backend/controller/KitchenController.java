@@ -0,0 +1,34 @@
+package com.hoabanrestaurant.backend.controller;
+
+import com.hoabanrestaurant.backend.service.KitchenStreamService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Set;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/v1/kitchen")
+@RequiredArgsConstructor
+public class KitchenController {
+
+    private final KitchenStreamService kitchenStreamService;
+
+    // Màn hình bếp: nhận món mới / đổi số lượng / đổi trạng thái order theo thời gian thực.
+    // categoryId lặp lại để lọc theo trạm; khi reconnect trình duyệt tự gửi Last-Event-ID.
+    @PreAuthorize("hasAnyRole('STAFF','ADMIN')")
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(
+            @RequestParam(name = "categoryId", required = false) Set<UUID> categoryIds,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            @RequestParam(name = "lastEventId", required = false) Long lastEventIdParam) {
+        return kitchenStreamService.subscribe(categoryIds, lastEventId != null ? lastEventId : lastEventIdParam);
+    }
+}
@@ -0,0 +1,24 @@
+package com.hoabanrestaurant.backend.controller;
+
+import com.hoabanrestaurant.backend.dto.response.MenuVersionDto;
+import com.hoabanrestaurant.backend.exception.ApiResponse;
+import com.hoabanrestaurant.backend.service.MenuSnapshotService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/v1/menu")
+@RequiredArgsConstructor
+public class MenuController {
+
+    private final MenuSnapshotService menuSnapshot;
+
+    // Version menu snapshot hiện tại: client so với version đã lưu để biết giá/món đã đổi
+    @GetMapping("/version")
+    public ApiResponse<MenuVersionDto> version() {
+        var snap = menuSnapshot.current();
+        return ApiResponse.ok(new MenuVersionDto(snap.version(), snap.builtAt()));
+    }
+}
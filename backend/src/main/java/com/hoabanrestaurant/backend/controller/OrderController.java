@@ -1,16 +1,32 @@
 package com.hoabanrestaurant.backend.controller;
 
 import com.hoabanrestaurant.backend.dto.request.AddOrderItemReq;
+import com.hoabanrestaurant.backend.dto.request.AddOrderItemsReq;
 import com.hoabanrestaurant.backend.dto.request.ApplyVoucherReq;
 import com.hoabanrestaurant.backend.dto.request.CreateOrderReq;
+import com.hoabanrestaurant.backend.dto.request.OrderFeedFilter;
 import com.hoabanrestaurant.backend.dto.request.OpenByQrReq;
 import com.hoabanrestaurant.backend.dto.request.PayOrderReq;
 import com.hoabanrestaurant.backend.dto.request.UpdateOrderStatusReq;
+import com.hoabanrestaurant.backend.dto.response.CursorPage;
+import com.hoabanrestaurant.backend.dto.response.DailyRevenueDto;
 import com.hoabanrestaurant.backend.dto.response.OrderDto;
+import com.hoabanrestaurant.backend.dto.response.OrderTotalsDriftDto;
+import com.hoabanrestaurant.backend.enums.ErrorCode;
+import com.hoabanrestaurant.backend.enums.ExportFormat;
+import com.hoabanrestaurant.backend.enums.OrderStatus;
+import com.hoabanrestaurant.backend.enums.OrderTypes;
 import com.hoabanrestaurant.backend.exception.ApiResponse;
+import com.hoabanrestaurant.backend.exception.BusinessException;
+import com.hoabanrestaurant.backend.service.IdempotencyService;
+import com.hoabanrestaurant.backend.service.OrderArchiveService;
+import com.hoabanrestaurant.backend.service.OrderExportService;
 import com.hoabanrestaurant.backend.service.OrderService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
@@ -20,9 +36,16 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
@@ -31,7 +54,12 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class OrderController {
 
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
     private final OrderService orderService;
+    private final IdempotencyService idempotency;
+    private final OrderArchiveService orderArchiveService;
+    private final OrderExportService orderExportService;
 
     // Staff mở order tại bàn
     @PreAuthorize("hasAnyRole('STAFF','ADMIN')")
@@ -44,20 +72,36 @@ public class OrderController {
     @PostMapping("/open-by-qr")
     public ApiResponse<OrderDto> openByQr(
             @AuthenticationPrincipal Jwt jwtOrNull,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
             @Valid @RequestBody OpenByQrReq req) {
 
         UUID uid = jwtOrNull != null ?
                 UUID.fromString(jwtOrNull.getClaimAsString("uid")) : null;
 
-        return ApiResponse.ok(orderService.openByQr(uid, req.qrCode(), req.note()));
+        // khách vãng lai không có uid: tách scope theo mã QR của bàn để key của các khách không đụng nhau
+        String scope = "open-by-qr:" + (uid != null ? uid : "qr:" + req.qrCode());
+        return ApiResponse.ok(idempotency.execute(scope, idempotencyKey,
+                req, OrderDto.class, () -> orderService.openByQr(uid, req.qrCode(), req.note())));
     }
 
     // Thêm món vào order (dine-in)
     @PostMapping("/{orderId}/items")
     public ApiResponse<OrderDto> addItem(
             @PathVariable UUID orderId,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
             @Valid @RequestBody AddOrderItemReq req) {
-        return ApiResponse.ok(orderService.addItem(orderId, req));
+        return ApiResponse.ok(idempotency.execute("items:" + orderId, idempotencyKey,
+                req, OrderDto.class, () -> orderService.addItem(orderId, req)));
+    }
+
+    // Gọi món cho cả bàn trong 1 request
+    @PostMapping("/{orderId}/items:batch")
+    public ApiResponse<OrderDto> addItems(
+            @PathVariable UUID orderId,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @Valid @RequestBody AddOrderItemsReq req) {
+        return ApiResponse.ok(idempotency.execute("items-batch:" + orderId, idempotencyKey,
+                req, OrderDto.class, () -> orderService.addItems(orderId, req)));
     }
 
     // Áp voucher chung
@@ -84,8 +128,10 @@ public class OrderController {
     @PostMapping("/{orderId}/pay")
     public ApiResponse<OrderDto> pay(
             @PathVariable UUID orderId,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
             @Valid @RequestBody PayOrderReq req) {
-        return ApiResponse.ok(orderService.pay(orderId, req));
+        return ApiResponse.ok(idempotency.execute("pay:" + orderId, idempotencyKey,
+                req, OrderDto.class, () -> orderService.pay(orderId, req)));
     }
 
     // Xem đơn hàng của user
@@ -96,6 +142,19 @@ public class OrderController {
         return ApiResponse.ok(orderService.getUserOrders(uid));
     }
 
+    // Lịch sử đơn cũ đã chuyển sang archive của user
+    @PreAuthorize("hasRole('CUSTOMER')")
+    @GetMapping("/my-orders/archive")
+    public ApiResponse<CursorPage<OrderDto>> myArchivedOrders(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to) {
+        UUID uid = UUID.fromString(jwt.getClaimAsString("uid"));
+        return ApiResponse.ok(orderArchiveService.getArchived(uid, from, to, cursor, limit));
+    }
+
     // Xem tất cả orders (staff/admin)
     @PreAuthorize("hasAnyRole('STAFF','ADMIN')")
     @GetMapping
@@ -103,6 +162,58 @@ public class OrderController {
         return ApiResponse.ok(orderService.getAllOrders());
     }
 
+    // Feed order cho staff: lọc + phân trang keyset, gửi lại nextCursor để lấy trang sau
+    @PreAuthorize("hasAnyRole('STAFF','ADMIN')")
+    @GetMapping("/feed")
+    public ApiResponse<CursorPage<OrderDto>> feed(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) OrderTypes type,
+            @RequestParam(required = false) UUID tableId,
+            @RequestParam(required = false) UUID userId,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to) {
+        var filter = new OrderFeedFilter(status, type, tableId, userId, from, to);
+        return ApiResponse.ok(orderService.getOrderFeed(filter, cursor, limit));
+    }
+
+    // Xuất order cho kế toán (1 dòng / món, kèm thanh toán + voucher), stream thẳng từ DB ra response
+    @PreAuthorize("hasAnyRole('STAFF','ADMIN')")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam Instant from,
+            @RequestParam Instant to,
+            @RequestParam(defaultValue = "csv") String format) {
+        if (!from.isBefore(to)) throw new BusinessException(ErrorCode.BAD_REQUEST, "Khoảng thời gian không hợp lệ");
+        ExportFormat fmt;
+        try {
+            fmt = ExportFormat.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(ErrorCode.BAD_REQUEST, "format chỉ hỗ trợ csv/ndjson");
+        }
+
+        String filename = "orders_%s_%s.%s".formatted(from, to, format.toLowerCase()).replace(':', '-');
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(fmt == ExportFormat.CSV
+                        ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : MediaType.APPLICATION_NDJSON)
+                .body(out -> orderExportService.export(from, to, fmt, out));
+    }
+
+    // Order đã lưu trữ (PAID/CANCELLED quá hạn), chỉ quét các partition trong [from, to)
+    @PreAuthorize("hasAnyRole('STAFF','ADMIN')")
+    @GetMapping("/archive")
+    public ApiResponse<CursorPage<OrderDto>> archive(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) UUID userId,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to) {
+        return ApiResponse.ok(orderArchiveService.getArchived(userId, from, to, cursor, limit));
+    }
+
     // Xem chi tiết
     @GetMapping("/{orderId}")
     public ApiResponse<OrderDto> getOrder(@PathVariable UUID orderId) {
@@ -120,7 +231,7 @@ public class OrderController {
         return ApiResponse.ok(orderService.updateStatus(id, req, jwt));
     }
 
-    // Cleanup đơn rỗng
+    // Cleanup đơn rỗng (chạy ngay 1 lượt sweeper, không chờ lịch)
     @DeleteMapping("/cleanup-empty")
     @PreAuthorize("hasRole('ADMIN')")
     public ApiResponse<String> cleanEmpty() {
@@ -141,5 +252,31 @@ public class OrderController {
         return ApiResponse.ok(orderService.getRevenueLast7Days());
     }
 
-}
+    // Doanh thu theo ngày / loại order / phương thức thanh toán
+    @PreAuthorize("hasAnyRole('ADMIN','STAFF')")
+    @GetMapping("/stats/revenue")
+    public ApiResponse<List<DailyRevenueDto>> revenue(
+            @RequestParam LocalDate from,
+            @RequestParam LocalDate to) {
+        return ApiResponse.ok(orderService.getRevenue(from, to));
+    }
 
+    // Dựng lại bảng doanh thu từ lịch sử order
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/stats/revenue/rebuild")
+    public ApiResponse<String> rebuildRevenue(
+            @RequestParam LocalDate from,
+            @RequestParam LocalDate to) {
+        int rows = orderService.rebuildRevenue(from, to);
+        return ApiResponse.ok("Đã dựng lại " + rows + " dòng doanh thu");
+    }
+
+    // Đối soát tổng tiền order với order_items (chạy ngay, không chờ job định kỳ)
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/totals/drift")
+    public ApiResponse<List<OrderTotalsDriftDto>> totalsDrift(
+            @RequestParam(defaultValue = "24") long hours) {
+        return ApiResponse.ok(orderService.verifyTotals(Instant.now().minus(Duration.ofHours(hours))));
+    }
+
+}
@@ -4,8 +4,10 @@ import com.hoabanrestaurant.backend.dto.request.AssignTablesReq;
 import com.hoabanrestaurant.backend.dto.request.CancelReservationReq;
 import com.hoabanrestaurant.backend.dto.request.CreateReservationReq;
 import com.hoabanrestaurant.backend.dto.response.ReservationDto;
+import com.hoabanrestaurant.backend.dto.response.ReservationSlotDto;
 import com.hoabanrestaurant.backend.exception.ApiResponse;
 import com.hoabanrestaurant.backend.service.ReservationService;
+import com.hoabanrestaurant.backend.service.ReservationSlotService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -16,8 +18,10 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
@@ -26,6 +30,7 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class ReservationController {
     private final ReservationService service;
+    private final ReservationSlotService slotService;
 
     // Khách tạo đơn (chưa gán bàn)
     @PreAuthorize("hasAnyRole('CUSTOMER','STAFF','ADMIN')")
@@ -85,4 +90,12 @@ public class ReservationController {
     public ApiResponse<?> statsByStatusToday() {
         return ApiResponse.ok(service.getReservationStatsToday());
     }
-}
\ No newline at end of file
+
+    // Khung giờ còn nhận đặt cho ngày + số khách (công khai, dùng cho form đặt bàn)
+    @GetMapping("/slots")
+    public ApiResponse<List<ReservationSlotDto>> slots(@RequestParam LocalDate date,
+                                                       @RequestParam(defaultValue = "2") int partySize,
+                                                       @RequestParam(defaultValue = "30") int step) {
+        return ApiResponse.ok(slotService.slots(date, partySize, step));
+    }
+}
@@ -0,0 +1,13 @@
+package com.hoabanrestaurant.backend.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+// Gọi món cả bàn trong 1 lần (1 "round")
+public record AddOrderItemsReq(
+        @NotEmpty(message = "Danh sách món không được bỏ trống")
+        List<@Valid AddOrderItemReq> items
+) {
+}
@@ -0,0 +1,21 @@
+package com.hoabanrestaurant.backend.dto.request;
+
+import com.hoabanrestaurant.backend.enums.OrderStatus;
+import com.hoabanrestaurant.backend.enums.OrderTypes;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// Bộ lọc feed order cho staff; field null = không lọc
+public record OrderFeedFilter(
+        OrderStatus status,
+        OrderTypes type,
+        UUID tableId,
+        UUID userId,
+        Instant from,
+        Instant to
+) {
+    public static OrderFeedFilter none() {
+        return new OrderFeedFilter(null, null, null, null, null, null);
+    }
+}
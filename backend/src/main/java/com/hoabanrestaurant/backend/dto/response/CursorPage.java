@@ -0,0 +1,18 @@
+package com.hoabanrestaurant.backend.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+// Trang theo cursor (keyset): nextCursor = null khi đã hết dữ liệu
+public record CursorPage<T>(
+        List<T> items,
+        String nextCursor,
+        boolean hasMore,
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        Long total  // chỉ có khi client yêu cầu đếm, mặc định không chạy COUNT
+) {
+    public CursorPage(List<T> items, String nextCursor, boolean hasMore) {
+        this(items, nextCursor, hasMore, null);
+    }
+}
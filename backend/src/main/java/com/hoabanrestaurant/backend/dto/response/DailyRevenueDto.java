@@ -0,0 +1,10 @@
+package com.hoabanrestaurant.backend.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record DailyRevenueDto(
+        LocalDate day, String orderType, String paymentMethod,
+        long orderCount, BigDecimal revenue
+) {
+}
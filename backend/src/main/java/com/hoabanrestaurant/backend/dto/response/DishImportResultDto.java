@@ -0,0 +1,12 @@
+package com.hoabanrestaurant.backend.dto.response;
+
+import java.util.List;
+
+// Kết quả nhập món hàng loạt: dòng lỗi bị bỏ qua, các dòng còn lại vẫn được ghi
+public record DishImportResultDto(
+        long total, long inserted, long updated, long failed,
+        List<RowError> errors  // tối đa vài trăm lỗi đầu tiên; failed là tổng số thật
+) {
+    public record RowError(long row, String name, String message) {
+    }
+}
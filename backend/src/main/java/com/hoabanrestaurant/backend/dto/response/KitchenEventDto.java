@@ -0,0 +1,16 @@
+package com.hoabanrestaurant.backend.dto.response;
+
+import com.hoabanrestaurant.backend.enums.OrderStatus;
+import com.hoabanrestaurant.backend.enums.OrderTypes;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// 1 sự kiện trên màn hình bếp. type: ITEM_ADDED / ITEM_QUANTITY_CHANGED / ITEM_REMOVED / ORDER_STATUS_CHANGED
+public record KitchenEventDto(
+        long id, String type, UUID orderId, UUID tableId, OrderTypes orderType,
+        UUID orderItemId, String itemType, UUID itemId, UUID categoryId,
+        String name, Integer quantity, Integer delta,
+        OrderStatus status, Instant at
+) {
+}
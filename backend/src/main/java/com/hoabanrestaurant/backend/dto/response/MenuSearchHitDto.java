@@ -0,0 +1,17 @@
+package com.hoabanrestaurant.backend.dto.response;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+// Kết quả tìm món/combo; type = DISH / COMBO, score càng cao càng khớp
+public record MenuSearchHitDto(
+        String type,
+        UUID id,
+        String name,
+        String description,
+        String imageUrl,
+        BigDecimal price,
+        UUID categoryId,
+        double score
+) {
+}
@@ -0,0 +1,6 @@
+package com.hoabanrestaurant.backend.dto.response;
+
+import java.time.Instant;
+
+public record MenuVersionDto(long version, Instant builtAt) {
+}
@@ -0,0 +1,13 @@
+package com.hoabanrestaurant.backend.dto.response;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+// Order có tổng tiền lệch so với order_items
+public record OrderTotalsDriftDto(
+        UUID orderId,
+        BigDecimal storedSubtotal, BigDecimal itemsSubtotal,
+        BigDecimal storedTax, BigDecimal expectedTax,
+        BigDecimal storedTotal, BigDecimal expectedTotal
+) {
+}
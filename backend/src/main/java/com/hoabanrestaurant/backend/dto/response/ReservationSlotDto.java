@@ -0,0 +1,12 @@
+package com.hoabanrestaurant.backend.dto.response;
+
+import java.time.LocalTime;
+
+// Một khung giờ đặt bàn trong ngày; available = còn đủ ghế cho số khách đã hỏi
+public record ReservationSlotDto(
+        LocalTime start,
+        LocalTime end,
+        int freeSeats,
+        boolean available
+) {
+}
@@ -11,6 +11,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -65,6 +66,11 @@ public class Order {
     @Column(name = "applied_user_voucher_id")
     private UUID appliedUserVoucherId;
 
+    // tăng mỗi lần ghi, chặn 2 request cùng cộng tiền vào 1 order
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @Builder.Default
     @Column(name = "created_at", nullable = false)
     private Instant createdAt = Instant.now();
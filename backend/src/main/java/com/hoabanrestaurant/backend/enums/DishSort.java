@@ -0,0 +1,16 @@
+package com.hoabanrestaurant.backend.enums;
+
+// Khoá sắp xếp được phép cho danh sách món, mỗi khoá có index (status, cột, id) tương ứng (V24)
+public enum DishSort {
+    NAME("name"), PRICE("price"), CREATED_AT("createdAt");
+
+    private final String property;
+
+    DishSort(String property) {
+        this.property = property;
+    }
+
+    public String property() {
+        return property;
+    }
+}
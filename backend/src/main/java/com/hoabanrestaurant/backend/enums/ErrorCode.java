@@ -14,6 +14,8 @@ public enum ErrorCode {
 
     TOKEN_INVALID("T401", "Token không hợp lệ hoặc đã hết hạn", HttpStatus.UNAUTHORIZED),
     RATE_LIMITED("S429", "Tạm bị khoá, thử lại sau", HttpStatus.TOO_MANY_REQUESTS),
+    CONCURRENT_UPDATE("E409", "Dữ liệu vừa được cập nhật bởi yêu cầu khác, vui lòng thử lại", HttpStatus.CONFLICT),
+    IDEMPOTENCY_KEY_REUSED("E422", "Idempotency-Key đã được dùng cho yêu cầu khác", HttpStatus.UNPROCESSABLE_ENTITY),
 
     VOUCHER_EXPIRED("V400", "Voucher đã hết hạn", HttpStatus.BAD_REQUEST),
     VOUCHER_INACTIVE("V400", "Voucher không khả dụng", HttpStatus.BAD_REQUEST),
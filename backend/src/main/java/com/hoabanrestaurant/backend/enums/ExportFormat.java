@@ -0,0 +1,3 @@
+package com.hoabanrestaurant.backend.enums;
+
+public enum ExportFormat {CSV, NDJSON}
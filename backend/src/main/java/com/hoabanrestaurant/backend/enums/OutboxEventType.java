@@ -0,0 +1,6 @@
+package com.hoabanrestaurant.backend.enums;
+
+public enum OutboxEventType {
+    ORDER_PAID,     // cộng điểm + đánh dấu voucher đã dùng
+    ORDER_RECEIPT   // email hoá đơn
+}
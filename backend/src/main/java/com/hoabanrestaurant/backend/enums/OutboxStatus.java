@@ -0,0 +1,5 @@
+package com.hoabanrestaurant.backend.enums;
+
+public enum OutboxStatus {
+    PENDING, DONE, DEAD
+}
@@ -0,0 +1,7 @@
+package com.hoabanrestaurant.backend.event;
+
+import java.time.Instant;
+
+// Phát sau khi thêm / sửa / xoá khu vực
+public record AreaChangedEvent(Instant at) {
+}
@@ -0,0 +1,7 @@
+package com.hoabanrestaurant.backend.event;
+
+import java.time.Instant;
+
+// Phát sau khi ghi danh mục / món / combo; source = "CATEGORY" / "DISH" / "COMBO"
+public record MenuChangedEvent(String source, Instant at) {
+}
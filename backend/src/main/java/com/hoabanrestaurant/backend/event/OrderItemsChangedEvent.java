@@ -0,0 +1,22 @@
+package com.hoabanrestaurant.backend.event;
+
+import com.hoabanrestaurant.backend.enums.OrderTypes;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+// Phát khi món trong order được thêm / đổi số lượng / xoá (listener nhận sau khi commit)
+public record OrderItemsChangedEvent(
+        UUID orderId, UUID tableId, OrderTypes orderType,
+        List<Line> lines, Instant at
+) {
+    public enum Kind {ADDED, QUANTITY_CHANGED, REMOVED}
+
+    // categoryId = null với combo
+    public record Line(
+            Kind kind, UUID orderItemId, String itemType, UUID itemId, UUID categoryId,
+            String name, int quantity, int delta
+    ) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.hoabanrestaurant.backend.event;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+// Payload outbox ORDER_PAID: điểm đã tính sẵn lúc thanh toán + dữ liệu cộng vào daily_revenue
+// (day = null với các dòng ghi trước khi có bảng daily_revenue: đã được nạp lúc migrate)
+public record OrderPaidPayload(
+        UUID userId, long points, UUID userVoucherId,
+        LocalDate day, String orderType, String paymentMethod, BigDecimal total
+) {
+}
@@ -0,0 +1,8 @@
+package com.hoabanrestaurant.backend.event;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+// Payload outbox ORDER_RECEIPT: đủ dữ liệu để render email, không cần đọc lại order
+public record OrderReceiptPayload(UUID orderId, String email, String fullName, BigDecimal total, long points) {
+}
@@ -0,0 +1,15 @@
+package com.hoabanrestaurant.backend.event;
+
+import com.hoabanrestaurant.backend.enums.OrderStatus;
+import com.hoabanrestaurant.backend.enums.OrderTypes;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+// Phát khi order đổi trạng thái (listener nhận sau khi commit); from = null khi order vừa tạo
+public record OrderStatusChangedEvent(
+        UUID orderId, UUID tableId, OrderTypes orderType,
+        OrderStatus from, OrderStatus to, BigDecimal total, Instant orderCreatedAt, Instant at
+) {
+}
@@ -0,0 +1,10 @@
+package com.hoabanrestaurant.backend.event;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+// Phát sau khi tạo / gán bàn / huỷ lượt đặt. active = còn PENDING/CONFIRMED; tableIds rỗng = chưa gán bàn
+public record ReservationChangedEvent(UUID reservationId, Instant start, Instant end, int partySize,
+                                      List<UUID> tableIds, boolean active) {
+}
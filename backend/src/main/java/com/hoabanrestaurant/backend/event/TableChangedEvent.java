@@ -0,0 +1,7 @@
+package com.hoabanrestaurant.backend.event;
+
+import java.time.Instant;
+
+// Phát sau khi thêm / sửa / xoá bàn (số ghế, trạng thái nhận khách có thể đã đổi)
+public record TableChangedEvent(Instant at) {
+}
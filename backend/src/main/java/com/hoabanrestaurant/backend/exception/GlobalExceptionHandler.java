@@ -7,6 +7,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
@@ -26,6 +27,13 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(ec.status).body(ApiResponse.fail(ec, ex.getMessage()));
     }
 
+    // Ghi đè cùng lúc lên 1 bản ghi có @Version
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<ApiResponse<?>> optimisticLock(ObjectOptimisticLockingFailureException ex) {
+        return ResponseEntity.status(ErrorCode.CONCURRENT_UPDATE.status)
+                .body(ApiResponse.fail(ErrorCode.CONCURRENT_UPDATE, null));
+    }
+
     @ExceptionHandler(BadCredentialsException.class)
     public ResponseEntity<ApiResponse<?>> badCred(BadCredentialsException ex) {
         return ResponseEntity.status(ErrorCode.BAD_CREDENTIALS.status)
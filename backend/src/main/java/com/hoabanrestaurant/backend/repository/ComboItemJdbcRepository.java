@@ -0,0 +1,87 @@
+package com.hoabanrestaurant.backend.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Ghi combo_items bằng JDBC: tạo mới = batch insert; sửa = so với dữ liệu hiện có rồi chỉ
+// insert / update / delete phần khác (mỗi loại 1 batch hoặc 1 câu), sửa giá combo thì không đụng món.
+@Repository
+@RequiredArgsConstructor
+public class ComboItemJdbcRepository {
+    private static final int BATCH_SIZE = 100;
+
+    // Phần chênh giữa món hiện có và món mong muốn (dishId -> số lượng)
+    public record Diff(Map<UUID, Integer> inserts, Map<UUID, Integer> updates, List<UUID> deletes) {
+        public boolean isEmpty() {
+            return inserts.isEmpty() && updates.isEmpty() && deletes.isEmpty();
+        }
+    }
+
+    private final JdbcTemplate jdbc;
+
+    public Map<UUID, Integer> findQuantities(UUID comboId) {
+        Map<UUID, Integer> out = new HashMap<>();
+        jdbc.query("SELECT dish_id, quantity FROM combo_items WHERE combo_id = ?",
+                rs -> {
+                    out.put(rs.getObject("dish_id", UUID.class), rs.getInt("quantity"));
+                }, comboId);
+        return out;
+    }
+
+    public void batchInsert(UUID comboId, Map<UUID, Integer> qtyByDish) {
+        if (qtyByDish.isEmpty()) return;
+        jdbc.batchUpdate("INSERT INTO combo_items (combo_id, dish_id, quantity) VALUES (?, ?, ?)",
+                new ArrayList<>(qtyByDish.entrySet()), BATCH_SIZE, (ps, e) -> {
+                    ps.setObject(1, comboId);
+                    ps.setObject(2, e.getKey());
+                    ps.setInt(3, e.getValue());
+                });
+    }
+
+    // Đồng bộ món của combo về đúng qtyByDish, trả về phần đã ghi
+    public Diff sync(UUID comboId, Map<UUID, Integer> qtyByDish) {
+        Diff diff = diff(findQuantities(comboId), qtyByDish);
+        if (!diff.deletes().isEmpty()) {
+            jdbc.update("DELETE FROM combo_items WHERE combo_id = ? AND dish_id = ANY(?)", ps -> {
+                ps.setObject(1, comboId);
+                ps.setArray(2, ps.getConnection().createArrayOf("uuid", diff.deletes().toArray()));
+            });
+        }
+        if (!diff.updates().isEmpty()) {
+            jdbc.batchUpdate("UPDATE combo_items SET quantity = ? WHERE combo_id = ? AND dish_id = ?",
+                    new ArrayList<>(diff.updates().entrySet()), BATCH_SIZE, (ps, e) -> {
+                        ps.setInt(1, e.getValue());
+                        ps.setObject(2, comboId);
+                        ps.setObject(3, e.getKey());
+                    });
+        }
+        batchInsert(comboId, diff.inserts());
+        return diff;
+    }
+
+    public void deleteByCombo(UUID comboId) {
+        jdbc.update("DELETE FROM combo_items WHERE combo_id = ?", comboId);
+    }
+
+    static Diff diff(Map<UUID, Integer> existing, Map<UUID, Integer> desired) {
+        Map<UUID, Integer> inserts = new HashMap<>();
+        Map<UUID, Integer> updates = new HashMap<>();
+        List<UUID> deletes = new ArrayList<>();
+        desired.forEach((dishId, qty) -> {
+            Integer old = existing.get(dishId);
+            if (old == null) inserts.put(dishId, qty);
+            else if (old.intValue() != qty) updates.put(dishId, qty);
+        });
+        for (UUID dishId : existing.keySet()) {
+            if (!desired.containsKey(dishId)) deletes.add(dishId);
+        }
+        return new Diff(inserts, updates, deletes);
+    }
+}
@@ -2,17 +2,25 @@ package com.hoabanrestaurant.backend.repository;
 
 import com.hoabanrestaurant.backend.entity.ComboItem;
 import com.hoabanrestaurant.backend.entity.ComboItem.Id;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 public interface ComboItemRepository extends JpaRepository<ComboItem, Id> {
 
+    @EntityGraph(attributePaths = "dish")
     List<ComboItem> findByCombo_Id(UUID comboId);
 
-    void deleteAllByComboId(UUID comboId);
+    // Món của nhiều combo trong 1 câu (kèm dish), dùng cho danh sách combo
+    @Query("""
+              SELECT ci FROM ComboItem ci JOIN FETCH ci.dish
+              WHERE ci.combo.id IN :comboIds
+            """)
+    List<ComboItem> findWithDishByComboIdIn(Collection<UUID> comboIds);
 
     @Query("""
               SELECT ci FROM ComboItem ci
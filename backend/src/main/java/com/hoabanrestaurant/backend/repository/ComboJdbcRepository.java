@@ -0,0 +1,99 @@
+package com.hoabanrestaurant.backend.repository;
+
+import com.hoabanrestaurant.backend.enums.MenuStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Nhập / xuất combo hàng loạt: upsert combo theo id rồi thay toàn bộ combo_items của các combo trong lô,
+// đọc bằng con trỏ chỉ-tiến kèm danh sách món gộp sẵn ("dishId*qty|...")
+@Repository
+@RequiredArgsConstructor
+public class ComboJdbcRepository {
+
+    public static final String[] COLUMNS = {
+            "id", "name", "description", "price", "status", "image_url", "min_people", "max_people", "items"
+    };
+
+    // id luôn có (bên gọi đã khớp theo tên hoặc sinh mới); items: dishId -> số lượng
+    public record ComboRow(UUID id, String name, String description, BigDecimal price, MenuStatus status,
+                           String imageUrl, Integer minPeople, Integer maxPeople, Map<UUID, Integer> items) {
+    }
+
+    public record ComboName(UUID id, String name) {
+    }
+
+    private final JdbcTemplate jdbc;
+
+    public List<ComboName> findAllNames() {
+        return jdbc.query("SELECT id, name FROM combos",
+                (rs, i) -> new ComboName(rs.getObject("id", UUID.class), rs.getString("name")));
+    }
+
+    // Cả lô trong 3 câu (gọi trong transaction): upsert combos, xoá món cũ của các combo đó, insert món mới.
+    // Cột min/max_people trống khi nhập thì giữ giá trị đang có.
+    public void upsert(List<ComboRow> rows) {
+        jdbc.batchUpdate("""
+                        INSERT INTO combos (id, name, description, price, status, image_url, min_people, max_people)
+                        VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+                        ON CONFLICT (id) DO UPDATE SET
+                            name = EXCLUDED.name, description = EXCLUDED.description, price = EXCLUDED.price,
+                            status = EXCLUDED.status, image_url = EXCLUDED.image_url,
+                            min_people = COALESCE(EXCLUDED.min_people, combos.min_people),
+                            max_people = COALESCE(EXCLUDED.max_people, combos.max_people),
+                            updated_at = NOW()
+                        """,
+                rows, rows.size(), (ps, r) -> {
+                    ps.setObject(1, r.id());
+                    ps.setString(2, r.name());
+                    ps.setString(3, r.description());
+                    ps.setBigDecimal(4, r.price());
+                    ps.setString(5, r.status().name());
+                    ps.setString(6, r.imageUrl());
+                    ps.setObject(7, r.minPeople(), Types.INTEGER);
+                    ps.setObject(8, r.maxPeople(), Types.INTEGER);
+                });
+
+        jdbc.update("DELETE FROM combo_items WHERE combo_id = ANY(?)", ps -> ps.setArray(1,
+                ps.getConnection().createArrayOf("uuid", rows.stream().map(ComboRow::id).toArray())));
+
+        List<Object[]> items = new ArrayList<>();
+        for (ComboRow r : rows) r.items().forEach((dishId, qty) -> items.add(new Object[]{r.id(), dishId, qty}));
+        if (items.isEmpty()) return;
+        jdbc.batchUpdate("INSERT INTO combo_items (combo_id, dish_id, quantity) VALUES (?, ?, ?)",
+                items, items.size(), (ps, it) -> {
+                    ps.setObject(1, it[0]);
+                    ps.setObject(2, it[1]);
+                    ps.setInt(3, (Integer) it[2]);
+                });
+    }
+
+    // Phải gọi trong transaction (PostgreSQL chỉ dùng cursor phía server khi autocommit = false)
+    public void stream(int fetchSize, RowCallbackHandler handler) {
+        jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                            SELECT c.id, c.name, c.description, c.price, c.status, c.image_url,
+                                   c.min_people, c.max_people,
+                                   COALESCE(string_agg(ci.dish_id || '*' || ci.quantity, '|' ORDER BY ci.dish_id), '')
+                                       AS items
+                            FROM combos c
+                            LEFT JOIN combo_items ci ON ci.combo_id = c.id
+                            GROUP BY c.id
+                            ORDER BY c.name
+                            """,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, handler);
+    }
+}
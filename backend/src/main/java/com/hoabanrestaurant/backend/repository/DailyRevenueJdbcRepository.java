@@ -0,0 +1,105 @@
+package com.hoabanrestaurant.backend.repository;
+
+import com.hoabanrestaurant.backend.dto.response.DailyRevenueDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+// Bảng tổng hợp daily_revenue: mỗi (ngày, loại order, phương thức) 1 dòng
+@Repository
+@RequiredArgsConstructor
+public class DailyRevenueJdbcRepository {
+    private static final int BATCH_SIZE = 100;
+
+    private final JdbcTemplate jdbc;
+
+    // Cộng dồn theo lô; mỗi phần tử là phần tăng thêm của 1 khoá
+    public void addAll(List<DailyRevenueDto> deltas) {
+        if (deltas.isEmpty()) return;
+        jdbc.batchUpdate("""
+                        INSERT INTO daily_revenue (day, order_type, payment_method, order_count, revenue, updated_at)
+                        VALUES (?, ?, ?, ?, ?, NOW())
+                        ON CONFLICT (day, order_type, payment_method)
+                        DO UPDATE SET order_count = daily_revenue.order_count + EXCLUDED.order_count,
+                                      revenue     = daily_revenue.revenue + EXCLUDED.revenue,
+                                      updated_at  = NOW()
+                        """,
+                deltas, BATCH_SIZE, (ps, d) -> {
+                    ps.setDate(1, Date.valueOf(d.day()));
+                    ps.setString(2, d.orderType());
+                    ps.setString(3, d.paymentMethod());
+                    ps.setLong(4, d.orderCount());
+                    ps.setBigDecimal(5, d.revenue());
+                });
+    }
+
+    // [from, to] tính cả 2 đầu
+    public List<DailyRevenueDto> findBetween(LocalDate from, LocalDate to) {
+        return jdbc.query("""
+                        SELECT day, order_type, payment_method, order_count, revenue
+                        FROM daily_revenue
+                        WHERE day BETWEEN ? AND ?
+                        ORDER BY day, order_type, payment_method
+                        """,
+                (rs, i) -> new DailyRevenueDto(
+                        rs.getDate("day").toLocalDate(),
+                        rs.getString("order_type"),
+                        rs.getString("payment_method"),
+                        rs.getLong("order_count"),
+                        rs.getBigDecimal("revenue")),
+                Date.valueOf(from), Date.valueOf(to));
+    }
+
+    // Dựng lại [from, to] từ orders + orders_archive (gọi trong transaction), trả về số dòng tổng hợp.
+    // Order còn việc ORDER_PAID PENDING thì bỏ qua: dispatcher sẽ tự cộng khi xử lý việc đó.
+    // Khoá trước các việc PENDING trong khoảng: chờ lô đang xử lý commit xong, và giữ không cho lô mới
+    // claim (SKIP LOCKED) cho tới khi rebuild commit -> không order nào bị cộng 2 lần hoặc bị sót.
+    public int rebuild(LocalDate from, LocalDate to, ZoneId zone) {
+        Timestamp start = Timestamp.from(from.atStartOfDay(zone).toInstant());
+        Timestamp end = Timestamp.from(to.plusDays(1).atStartOfDay(zone).toInstant());
+        jdbc.query("""
+                        SELECT x.id
+                        FROM order_outbox x
+                        JOIN orders o ON o.id = x.order_id
+                        WHERE x.status = 'PENDING' AND x.event_type = 'ORDER_PAID'
+                          AND o.created_at >= ? AND o.created_at < ?
+                        FOR UPDATE OF x
+                        """,
+                (rs, i) -> rs.getLong(1), start, end);
+        jdbc.update("DELETE FROM daily_revenue WHERE day BETWEEN ? AND ?", Date.valueOf(from), Date.valueOf(to));
+        return jdbc.update("""
+                        INSERT INTO daily_revenue (day, order_type, payment_method, order_count, revenue)
+                        SELECT (o.created_at AT TIME ZONE ?)::date,
+                               o.types,
+                               COALESCE(o.method, 'NONE'),
+                               COUNT(*),
+                               SUM(o.total)
+                        FROM (
+                            SELECT o.id, o.types, o.total, o.created_at,
+                                   (SELECT method FROM payments WHERE order_id = o.id
+                                    ORDER BY created_at DESC LIMIT 1) AS method
+                            FROM orders o
+                            WHERE o.status = 'PAID' AND o.created_at >= ? AND o.created_at < ?
+                              AND NOT EXISTS (SELECT 1 FROM order_outbox x
+                                              WHERE x.order_id = o.id AND x.event_type = 'ORDER_PAID'
+                                                AND x.status = 'PENDING')
+                            UNION ALL
+                            -- order đã chuyển sang archive vẫn tính vào doanh thu (archive chỉ nhận order không còn outbox PENDING)
+                            SELECT o.id, o.types, o.total, o.created_at,
+                                   (SELECT method FROM payments_archive WHERE order_id = o.id
+                                    AND order_created_at = o.created_at
+                                    ORDER BY created_at DESC LIMIT 1) AS method
+                            FROM orders_archive o
+                            WHERE o.status = 'PAID' AND o.created_at >= ? AND o.created_at < ?
+                        ) o
+                        GROUP BY 1, 2, 3
+                        """,
+                zone.getId(), start, end, start, end);
+    }
+}
@@ -0,0 +1,49 @@
+package com.hoabanrestaurant.backend.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+// Đọc món (DISH) của các order PAID theo thứ tự order_id, để gom thành giỏ khi dựng ma trận đồng xuất hiện.
+// Con trỏ chỉ-tiến như OrderExportJdbcRepository: không nạp cả kết quả vào heap.
+@Repository
+@RequiredArgsConstructor
+public class DishCooccurrenceJdbcRepository {
+
+    private static final String ARCHIVE_SQL = """
+            SELECT i.order_id, i.item_id
+            FROM order_items_archive i
+            JOIN orders_archive o ON o.id = i.order_id AND o.created_at = i.order_created_at
+            WHERE i.item_type = 'DISH' AND o.status = 'PAID' AND i.order_created_at >= ?
+            ORDER BY i.order_id
+            """;
+
+    private static final String HOT_SQL = """
+            SELECT i.order_id, i.item_id
+            FROM order_items i
+            JOIN orders o ON o.id = i.order_id
+            WHERE i.item_type = 'DISH' AND o.status = 'PAID' AND o.created_at >= ?
+            ORDER BY i.order_id
+            """;
+
+    private final JdbcTemplate jdbc;
+
+    // Mỗi order nằm trọn ở 1 trong 2 bảng nên các dòng của 1 order luôn liền nhau.
+    // Phải gọi trong transaction (PostgreSQL chỉ dùng cursor phía server khi autocommit = false)
+    public void streamPaidDishLines(Instant since, int fetchSize, RowCallbackHandler handler) {
+        for (String sql : new String[]{ARCHIVE_SQL, HOT_SQL}) {
+            jdbc.query(con -> {
+                PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                ps.setTimestamp(1, Timestamp.from(since));
+                return ps;
+            }, handler);
+        }
+    }
+}
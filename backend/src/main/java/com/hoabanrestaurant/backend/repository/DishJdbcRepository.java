@@ -0,0 +1,100 @@
+package com.hoabanrestaurant.backend.repository;
+
+import com.hoabanrestaurant.backend.enums.MenuStatus;
+import com.hoabanrestaurant.backend.enums.Unit;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.UUID;
+
+// Nhập / xuất món hàng loạt: upsert theo lô (theo id nếu có, không thì theo khoá tự nhiên (category_id, name)),
+// đọc bằng con trỏ chỉ-tiến
+@Repository
+@RequiredArgsConstructor
+public class DishJdbcRepository {
+
+    public static final String[] COLUMNS = {
+            "id", "category_id", "category", "name", "description", "unit", "price", "status", "image_url", "signature"
+    };
+
+    // id null = dòng nhập không có id, upsert theo (category_id, name)
+    public record DishRow(UUID id, UUID categoryId, String name, String description, Unit unit, BigDecimal price,
+                          MenuStatus status, String imageUrl, boolean signature) {
+    }
+
+    public record DishName(UUID id, UUID categoryId, String name, MenuStatus status) {
+    }
+
+    private final JdbcTemplate jdbc;
+
+    public List<DishName> findAllNames() {
+        return jdbc.query("SELECT id, category_id, name, status FROM dishes",
+                (rs, i) -> new DishName(rs.getObject("id", UUID.class), rs.getObject("category_id", UUID.class),
+                        rs.getString("name"), MenuStatus.valueOf(rs.getString("status"))));
+    }
+
+    // Cả lô trong tối đa 2 batch (gọi trong transaction):
+    // - dòng có id: cập nhật đúng món đó (kể cả đổi tên / chuyển danh mục), chưa có thì thêm với id đó
+    // - dòng không id: món đã có cùng (category_id, name) thì cập nhật, giữ id cũ
+    public void upsert(List<DishRow> rows) {
+        List<DishRow> byId = rows.stream().filter(r -> r.id() != null).toList();
+        List<DishRow> byName = rows.stream().filter(r -> r.id() == null).toList();
+        if (!byId.isEmpty()) {
+            batch(byId, """
+                    INSERT INTO dishes (id, category_id, name, description, unit, price, status, image_url, is_signature)
+                    VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+                    ON CONFLICT (id) DO UPDATE SET
+                        category_id = EXCLUDED.category_id, name = EXCLUDED.name,
+                        description = EXCLUDED.description, unit = EXCLUDED.unit, price = EXCLUDED.price,
+                        status = EXCLUDED.status, image_url = EXCLUDED.image_url,
+                        is_signature = EXCLUDED.is_signature, updated_at = NOW()
+                    """);
+        }
+        if (!byName.isEmpty()) {
+            batch(byName, """
+                    INSERT INTO dishes (id, category_id, name, description, unit, price, status, image_url, is_signature)
+                    VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+                    ON CONFLICT (category_id, name) DO UPDATE SET
+                        description = EXCLUDED.description, unit = EXCLUDED.unit, price = EXCLUDED.price,
+                        status = EXCLUDED.status, image_url = EXCLUDED.image_url,
+                        is_signature = EXCLUDED.is_signature, updated_at = NOW()
+                    """);
+        }
+    }
+
+    private void batch(List<DishRow> rows, String sql) {
+        jdbc.batchUpdate(sql, rows, rows.size(), (ps, r) -> {
+            ps.setObject(1, r.id() != null ? r.id() : UUID.randomUUID());
+            ps.setObject(2, r.categoryId());
+            ps.setString(3, r.name());
+            ps.setString(4, r.description());
+            ps.setString(5, r.unit().name());
+            ps.setBigDecimal(6, r.price());
+            ps.setString(7, r.status().name());
+            ps.setString(8, r.imageUrl());
+            ps.setBoolean(9, r.signature());
+        });
+    }
+
+    // Phải gọi trong transaction (PostgreSQL chỉ dùng cursor phía server khi autocommit = false)
+    public void stream(int fetchSize, RowCallbackHandler handler) {
+        jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                            SELECT d.id, d.category_id, c.name AS category, d.name, d.description, d.unit, d.price,
+                                   d.status, d.image_url, COALESCE(d.is_signature, FALSE) AS signature
+                            FROM dishes d
+                            JOIN categories c ON c.id = d.category_id
+                            ORDER BY c.name, d.name
+                            """,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, handler);
+    }
+}
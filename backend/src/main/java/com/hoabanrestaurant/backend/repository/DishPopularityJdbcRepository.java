@@ -0,0 +1,88 @@
+package com.hoabanrestaurant.backend.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Điểm phổ biến món (toàn quán) và sở thích món theo user, xem V23. Ghi bằng upsert cộng dồn nên
+// nhiều instance cùng ghi không mất phần của nhau.
+@Repository
+@RequiredArgsConstructor
+public class DishPopularityJdbcRepository {
+    private static final int BATCH_SIZE = 200;
+
+    public record UserDish(UUID userId, UUID dishId) {
+    }
+
+    public record PaidLine(UUID userId, UUID dishId, int quantity) {
+    }
+
+    private final JdbcTemplate jdbc;
+
+    public Map<UUID, Double> findGlobal() {
+        Map<UUID, Double> out = new HashMap<>();
+        jdbc.query("SELECT dish_id, score FROM dish_popularity",
+                rs -> {
+                    out.put(rs.getObject("dish_id", UUID.class), rs.getDouble("score"));
+                });
+        return out;
+    }
+
+    public Map<UUID, Double> findByUser(UUID userId) {
+        Map<UUID, Double> out = new HashMap<>();
+        jdbc.query("SELECT dish_id, score FROM user_dish_affinity WHERE user_id = ?",
+                rs -> {
+                    out.put(rs.getObject("dish_id", UUID.class), rs.getDouble("score"));
+                }, userId);
+        return out;
+    }
+
+    // Các món (DISH) của 1 order, gộp theo món
+    public List<PaidLine> findDishLines(UUID orderId) {
+        return jdbc.query("""
+                        SELECT o.user_id, i.item_id, SUM(i.quantity) AS qty
+                        FROM orders o
+                        JOIN order_items i ON i.order_id = o.id
+                        WHERE o.id = ? AND i.item_type = 'DISH'
+                        GROUP BY o.user_id, i.item_id
+                        """,
+                (rs, n) -> new PaidLine(rs.getObject("user_id", UUID.class), rs.getObject("item_id", UUID.class),
+                        rs.getInt("qty")),
+                orderId);
+    }
+
+    public void addGlobal(Map<UUID, Double> deltas) {
+        if (deltas.isEmpty()) return;
+        jdbc.batchUpdate("""
+                        INSERT INTO dish_popularity (dish_id, score, updated_at)
+                        VALUES (?, ?, NOW())
+                        ON CONFLICT (dish_id)
+                        DO UPDATE SET score = dish_popularity.score + EXCLUDED.score, updated_at = NOW()
+                        """,
+                new ArrayList<>(deltas.entrySet()), BATCH_SIZE, (ps, e) -> {
+                    ps.setObject(1, e.getKey());
+                    ps.setDouble(2, e.getValue());
+                });
+    }
+
+    public void addUser(Map<UserDish, Double> deltas) {
+        if (deltas.isEmpty()) return;
+        jdbc.batchUpdate("""
+                        INSERT INTO user_dish_affinity (user_id, dish_id, score, updated_at)
+                        VALUES (?, ?, ?, NOW())
+                        ON CONFLICT (user_id, dish_id)
+                        DO UPDATE SET score = user_dish_affinity.score + EXCLUDED.score, updated_at = NOW()
+                        """,
+                new ArrayList<>(deltas.entrySet()), BATCH_SIZE, (ps, e) -> {
+                    ps.setObject(1, e.getKey().userId());
+                    ps.setObject(2, e.getKey().dishId());
+                    ps.setDouble(3, e.getValue());
+                });
+    }
+}
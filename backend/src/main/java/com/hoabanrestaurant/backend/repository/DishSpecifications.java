@@ -0,0 +1,36 @@
+package com.hoabanrestaurant.backend.repository;
+
+import com.hoabanrestaurant.backend.entity.Dish;
+import com.hoabanrestaurant.backend.enums.MenuStatus;
+import jakarta.persistence.criteria.Path;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.UUID;
+
+// Điều kiện cho danh sách món phân trang keyset
+public class DishSpecifications {
+
+    private DishSpecifications() {
+    }
+
+    // status = null: không lọc (trang admin xem cả món tạm dừng)
+    public static Specification<Dish> hasStatus(MenuStatus status) {
+        return (root, query, cb) -> status == null ? null : cb.equal(root.get("status"), status);
+    }
+
+    // Keyset theo (property, id) cùng chiều: lấy các dòng nằm sau dòng cuối của trang trước.
+    // Vế "property >= value" thừa về logic nhưng để planner dùng làm cận quét index (status, property, id)
+    // thay vì quét từ đầu index rồi lọc bỏ.
+    public static <T extends Comparable<? super T>> Specification<Dish> after(
+            String property, T value, UUID id, boolean asc) {
+        return (root, query, cb) -> {
+            Path<T> key = root.get(property);
+            Path<UUID> pk = root.get("id");
+            return asc
+                    ? cb.and(cb.greaterThanOrEqualTo(key, value),
+                    cb.or(cb.greaterThan(key, value), cb.and(cb.equal(key, value), cb.greaterThan(pk, id))))
+                    : cb.and(cb.lessThanOrEqualTo(key, value),
+                    cb.or(cb.lessThan(key, value), cb.and(cb.equal(key, value), cb.lessThan(pk, id))));
+        };
+    }
+}
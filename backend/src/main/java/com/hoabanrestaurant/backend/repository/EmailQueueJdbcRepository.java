@@ -0,0 +1,83 @@
+package com.hoabanrestaurant.backend.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+// Bảng email_queue, thao tác qua JDBC
+@Repository
+@RequiredArgsConstructor
+public class EmailQueueJdbcRepository {
+
+    public record QueuedEmail(long id, String recipient, String subject, String template, String model, int attempts) {
+    }
+
+    private static final RowMapper<QueuedEmail> ROW = (rs, i) -> new QueuedEmail(
+            rs.getLong("id"),
+            rs.getString("recipient"),
+            rs.getString("subject"),
+            rs.getString("template"),
+            rs.getString("model"),
+            rs.getInt("attempts"));
+
+    private final JdbcTemplate jdbc;
+
+    // Trùng email đang chờ (cùng người nhận + dedupe_key) thì bỏ qua
+    public void enqueue(String recipient, String subject, String template, String modelJson, String dedupeKey) {
+        jdbc.update("""
+                        INSERT INTO email_queue (recipient, subject, template, model, dedupe_key)
+                        VALUES (?, ?, ?, CAST(? AS jsonb), ?)
+                        ON CONFLICT (recipient, dedupe_key) WHERE status IN ('PENDING', 'SENDING') DO NOTHING
+                        """,
+                recipient, subject, template, modelJson, dedupeKey);
+    }
+
+    // Nhận 1 lô việc đến hạn và giữ trong `lease`; worker chết giữa chừng thì hết hạn sẽ được nhận lại
+    public List<QueuedEmail> claim(int limit, Duration lease) {
+        return jdbc.query("""
+                        UPDATE email_queue
+                        SET status = 'SENDING', next_attempt_at = ?
+                        WHERE id IN (
+                            SELECT id FROM email_queue
+                            WHERE status IN ('PENDING', 'SENDING') AND next_attempt_at <= NOW()
+                            ORDER BY next_attempt_at, id
+                            LIMIT ?
+                            FOR UPDATE SKIP LOCKED
+                        )
+                        RETURNING id, recipient, subject, template, model::text AS model, attempts
+                        """,
+                ROW, Timestamp.from(Instant.now().plus(lease)), limit);
+    }
+
+    // Gửi xong thì xoá model (có thể chứa mã OTP / thông tin cá nhân)
+    public void markSent(List<Long> ids) {
+        if (ids.isEmpty()) return;
+        jdbc.batchUpdate("""
+                        UPDATE email_queue
+                        SET status = 'SENT', attempts = attempts + 1, sent_at = NOW(), last_error = NULL, model = '{}'::jsonb
+                        WHERE id = ?
+                        """,
+                ids, ids.size(), (ps, id) -> ps.setLong(1, id));
+    }
+
+    // dead = true: bỏ hẳn, ngược lại quay về PENDING chờ tới nextAttemptAt
+    public void markFailed(long id, boolean dead, Instant nextAttemptAt, String error) {
+        jdbc.update("""
+                        UPDATE email_queue
+                        SET status = ?, attempts = attempts + 1, next_attempt_at = ?, last_error = ?
+                        WHERE id = ?
+                        """,
+                dead ? "DEAD" : "PENDING", Timestamp.from(nextAttemptAt), error, id);
+    }
+
+    public long countPending() {
+        Long n = jdbc.queryForObject("SELECT COUNT(*) FROM email_queue WHERE status IN ('PENDING', 'SENDING')", Long.class);
+        return n == null ? 0 : n;
+    }
+}
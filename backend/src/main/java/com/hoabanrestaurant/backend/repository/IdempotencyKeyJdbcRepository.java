@@ -0,0 +1,59 @@
+package com.hoabanrestaurant.backend.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Optional;
+
+// Bảng idempotency_keys, thao tác qua JDBC
+@Repository
+@RequiredArgsConstructor
+public class IdempotencyKeyJdbcRepository {
+
+    public record StoredResponse(String requestHash, String response) {
+    }
+
+    private final JdbcTemplate jdbc;
+
+    // true = giữ được key. Nếu transaction khác đang giữ cùng key, câu lệnh chờ tới khi nó commit/rollback.
+    // Key đã hết hạn (chưa bị job dọn) coi như chưa có: ghi đè và giữ lại cho request mới.
+    public boolean tryReserve(String scope, String key, String requestHash, Instant expiresAt) {
+        return jdbc.update("""
+                        INSERT INTO idempotency_keys (scope, idem_key, request_hash, expires_at)
+                        VALUES (?, ?, ?, ?)
+                        ON CONFLICT (scope, idem_key) DO UPDATE
+                            SET request_hash = EXCLUDED.request_hash,
+                                response     = NULL,
+                                created_at   = NOW(),
+                                expires_at   = EXCLUDED.expires_at
+                            WHERE idempotency_keys.expires_at <= NOW()
+                        """,
+                scope, key, requestHash, Timestamp.from(expiresAt)) == 1;
+    }
+
+    public Optional<StoredResponse> find(String scope, String key) {
+        return jdbc.query("""
+                        SELECT request_hash, response::text AS response
+                        FROM idempotency_keys
+                        WHERE scope = ? AND idem_key = ? AND expires_at > NOW()
+                        """,
+                (rs, i) -> new StoredResponse(rs.getString("request_hash"), rs.getString("response")),
+                scope, key).stream().findFirst();
+    }
+
+    public void saveResponse(String scope, String key, String responseJson) {
+        jdbc.update("UPDATE idempotency_keys SET response = CAST(? AS jsonb) WHERE scope = ? AND idem_key = ?",
+                responseJson, scope, key);
+    }
+
+    public int deleteExpired(int limit) {
+        return jdbc.update("""
+                        DELETE FROM idempotency_keys
+                        WHERE ctid IN (SELECT ctid FROM idempotency_keys WHERE expires_at < NOW() LIMIT ?)
+                        """,
+                limit);
+    }
+}
@@ -0,0 +1,32 @@
+package com.hoabanrestaurant.backend.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.UUID;
+
+// Cộng điểm theo lô bằng upsert nguyên tử (không đọc - sửa - ghi trên entity)
+@Repository
+@RequiredArgsConstructor
+public class LoyaltyAccountJdbcRepository {
+    private static final int BATCH_SIZE = 100;
+
+    private final JdbcTemplate jdbc;
+
+    public void addPoints(Map<UUID, Long> pointsByUser) {
+        if (pointsByUser.isEmpty()) return;
+        jdbc.batchUpdate("""
+                        INSERT INTO loyalty_accounts (user_id, points, updated_at)
+                        VALUES (?, ?, NOW())
+                        ON CONFLICT (user_id)
+                        DO UPDATE SET points = loyalty_accounts.points + EXCLUDED.points, updated_at = NOW()
+                        """,
+                new ArrayList<>(pointsByUser.entrySet()), BATCH_SIZE, (ps, e) -> {
+                    ps.setObject(1, e.getKey());
+                    ps.setLong(2, e.getValue());
+                });
+    }
+}
@@ -0,0 +1,176 @@
+package com.hoabanrestaurant.backend.repository;
+
+import com.hoabanrestaurant.backend.dto.response.OrderItemDto;
+import com.hoabanrestaurant.backend.enums.OrderStatus;
+import com.hoabanrestaurant.backend.enums.OrderTypes;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+// Chuyển order đã chốt sang orders_archive / order_items_archive / payments_archive (partition theo tháng, UTC)
+@Repository
+@RequiredArgsConstructor
+public class OrderArchiveJdbcRepository {
+
+    public record Candidate(UUID id, Instant createdAt) {
+    }
+
+    public record ArchivedOrder(UUID id, UUID userId, UUID tableId, OrderTypes types, OrderStatus status,
+                                BigDecimal subtotal, BigDecimal discount, BigDecimal tax, BigDecimal total,
+                                String note, Instant createdAt) {
+    }
+
+    public record ArchivedItem(UUID orderId, OrderItemDto item) {
+    }
+
+    private static final String[] ARCHIVE_TABLES = {"orders_archive", "order_items_archive", "payments_archive"};
+
+    private final JdbcTemplate jdbc;
+
+    // Khoá 1 lô order đã chốt, cũ hơn cutoff; bỏ qua order còn review (FK) hoặc việc outbox chưa xong.
+    // Phải gọi trong transaction.
+    public List<Candidate> lockCandidates(Instant cutoff, int limit) {
+        return jdbc.query("""
+                        SELECT o.id, o.created_at
+                        FROM orders o
+                        WHERE o.status IN ('PAID', 'CANCELLED')
+                          AND o.created_at < ?
+                          AND NOT EXISTS (SELECT 1 FROM reviews r WHERE r.order_id = o.id)
+                          AND NOT EXISTS (SELECT 1 FROM order_outbox x WHERE x.order_id = o.id AND x.status = 'PENDING')
+                        ORDER BY o.created_at
+                        LIMIT ?
+                        FOR UPDATE OF o SKIP LOCKED
+                        """,
+                (rs, i) -> new Candidate(rs.getObject("id", UUID.class), rs.getTimestamp("created_at").toInstant()),
+                Timestamp.from(cutoff), limit);
+    }
+
+    // created_at nhỏ nhất trong số order đã chốt cũ hơn cutoff, null nếu không còn gì để chuyển
+    public Instant oldestSettled(Instant cutoff) {
+        Timestamp ts = jdbc.queryForObject("""
+                        SELECT MIN(created_at) FROM orders
+                        WHERE status IN ('PAID', 'CANCELLED') AND created_at < ?
+                        """,
+                Timestamp.class, Timestamp.from(cutoff));
+        return ts == null ? null : ts.toInstant();
+    }
+
+    // Tạo partition tháng cho cả 3 bảng archive nếu chưa có
+    public void ensurePartition(YearMonth month) {
+        String suffix = "_p%04d%02d".formatted(month.getYear(), month.getMonthValue());
+        String from = month.atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC).toString();
+        String to = month.plusMonths(1).atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC).toString();
+        for (String table : ARCHIVE_TABLES) {
+            jdbc.execute("CREATE TABLE IF NOT EXISTS %s%s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')"
+                    .formatted(table, suffix, table, from, to));
+        }
+    }
+
+    // Chép order + món + thanh toán sang archive rồi xoá khỏi bảng nóng (FK cascade dọn order_items,
+    // payments, order_outbox). Trả về số order đã chuyển.
+    public int moveAll(Collection<UUID> orderIds) {
+        if (orderIds.isEmpty()) return 0;
+        UUID[] ids = orderIds.toArray(new UUID[0]);
+        PreparedStatementSetter byIds = ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", ids));
+
+        jdbc.update("""
+                INSERT INTO order_items_archive (id, order_id, item_type, item_id, name, unit_price, quantity,
+                                                 line_total, order_created_at)
+                SELECT i.id, i.order_id, i.item_type, i.item_id, i.name, i.unit_price, i.quantity,
+                       i.line_total, o.created_at
+                FROM order_items i
+                JOIN orders o ON o.id = i.order_id
+                WHERE i.order_id = ANY (?)
+                """, byIds);
+        jdbc.update("""
+                INSERT INTO payments_archive (id, order_id, method, amount, status, paid_at, created_at,
+                                              transaction_id, bank_code, card_type, description, extra_data,
+                                              expired_at, order_created_at)
+                SELECT p.id, p.order_id, p.method, p.amount, p.status, p.paid_at, p.created_at,
+                       p.transaction_id, p.bank_code, p.card_type, p.description, p.extra_data,
+                       p.expired_at, o.created_at
+                FROM payments p
+                JOIN orders o ON o.id = p.order_id
+                WHERE p.order_id = ANY (?)
+                """, byIds);
+        jdbc.update("""
+                INSERT INTO orders_archive (id, user_id, table_id, types, status, subtotal, discount, tax, total,
+                                            note, applied_user_voucher_id, version, created_at, updated_at)
+                SELECT id, user_id, table_id, types, status, subtotal, discount, tax, total,
+                       note, applied_user_voucher_id, version, created_at, updated_at
+                FROM orders
+                WHERE id = ANY (?)
+                """, byIds);
+        return jdbc.update("DELETE FROM orders WHERE id = ANY (?)", byIds);
+    }
+
+    // Keyset (created_at DESC, id DESC) trên archive; from/to giới hạn partition cần quét
+    public List<ArchivedOrder> findOrders(UUID userId, Instant from, Instant to,
+                                          Instant afterCreatedAt, UUID afterId, int limit) {
+        StringBuilder sql = new StringBuilder("""
+                SELECT id, user_id, table_id, types, status, subtotal, discount, tax, total, note, created_at
+                FROM orders_archive
+                WHERE created_at >= ? AND created_at < ?
+                """);
+        List<Object> args = new ArrayList<>(List.of(Timestamp.from(from), Timestamp.from(to)));
+        if (userId != null) {
+            sql.append(" AND user_id = ?");
+            args.add(userId);
+        }
+        if (afterCreatedAt != null) {
+            sql.append(" AND (created_at, id) < (?, ?)");
+            args.add(Timestamp.from(afterCreatedAt));
+            args.add(afterId);
+        }
+        sql.append(" ORDER BY created_at DESC, id DESC LIMIT ?");
+        args.add(limit);
+
+        return jdbc.query(sql.toString(), (rs, i) -> new ArchivedOrder(
+                rs.getObject("id", UUID.class),
+                rs.getObject("user_id", UUID.class),
+                rs.getObject("table_id", UUID.class),
+                OrderTypes.valueOf(rs.getString("types")),
+                OrderStatus.valueOf(rs.getString("status")),
+                rs.getBigDecimal("subtotal"),
+                rs.getBigDecimal("discount"),
+                rs.getBigDecimal("tax"),
+                rs.getBigDecimal("total"),
+                rs.getString("note"),
+                rs.getTimestamp("created_at").toInstant()), args.toArray());
+    }
+
+    // Món của 1 trang order archive; from/to cùng khoảng với findOrders để chỉ quét đúng partition
+    public List<ArchivedItem> findItems(Collection<UUID> orderIds, Instant from, Instant to) {
+        if (orderIds.isEmpty()) return List.of();
+        UUID[] ids = orderIds.toArray(new UUID[0]);
+        return jdbc.query("""
+                        SELECT id, order_id, item_type, item_id, name, unit_price, quantity, line_total
+                        FROM order_items_archive
+                        WHERE order_id = ANY (?) AND order_created_at >= ? AND order_created_at < ?
+                        """,
+                ps -> {
+                    ps.setArray(1, ps.getConnection().createArrayOf("uuid", ids));
+                    ps.setTimestamp(2, Timestamp.from(from));
+                    ps.setTimestamp(3, Timestamp.from(to));
+                },
+                (rs, i) -> new ArchivedItem(rs.getObject("order_id", UUID.class), new OrderItemDto(
+                        rs.getObject("id", UUID.class),
+                        rs.getString("item_type"),
+                        rs.getObject("item_id", UUID.class),
+                        rs.getString("name"),
+                        rs.getBigDecimal("unit_price"),
+                        rs.getInt("quantity"),
+                        rs.getBigDecimal("line_total"))));
+    }
+}
@@ -0,0 +1,72 @@
+package com.hoabanrestaurant.backend.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+// Đọc order để xuất file kế toán: 1 dòng / món (order không món vẫn ra 1 dòng), kèm lần thanh toán
+// gần nhất và mã voucher. Con trỏ chỉ-tiến: driver lấy từng fetchSize dòng, không nạp cả kết quả.
+@Repository
+@RequiredArgsConstructor
+public class OrderExportJdbcRepository {
+
+    public static final String[] COLUMNS = {
+            "order_id", "created_at", "status", "order_type", "table_id", "user_id",
+            "subtotal", "discount", "tax", "total", "voucher_code",
+            "payment_method", "payment_status", "payment_amount", "paid_at", "transaction_id",
+            "item_id", "item_type", "item_ref_id", "item_name", "unit_price", "quantity", "line_total"
+    };
+
+    // %1$s = bảng order, %2$s = bảng món, %3$s = bảng thanh toán, %4$s/%5$s = điều kiện cắt partition khi nối món/thanh toán
+    private static final String BRANCH = """
+            SELECT o.id AS order_id, o.created_at, o.status, o.types AS order_type, o.table_id, o.user_id,
+                   o.subtotal, o.discount, o.tax, o.total, v.code AS voucher_code,
+                   p.method AS payment_method, p.status AS payment_status, p.amount AS payment_amount,
+                   p.paid_at, p.transaction_id,
+                   i.id AS item_id, i.item_type, i.item_id AS item_ref_id, i.name AS item_name,
+                   i.unit_price, i.quantity, i.line_total
+            FROM %1$s o
+            LEFT JOIN %2$s i ON i.order_id = o.id %4$s
+            LEFT JOIN LATERAL (
+                SELECT method, status, amount, paid_at, transaction_id
+                FROM %3$s
+                WHERE order_id = o.id %5$s
+                ORDER BY created_at DESC
+                LIMIT 1
+            ) p ON TRUE
+            LEFT JOIN user_vouchers uv ON uv.id = o.applied_user_voucher_id
+            LEFT JOIN vouchers v ON v.id = uv.voucher_id
+            WHERE o.created_at >= ? AND o.created_at < ?
+            ORDER BY o.created_at, o.id, i.id
+            """;
+
+    // order đã lưu trữ (cũ hơn) trước, rồi tới bảng nóng
+    private static final String SQL =
+            "(" + BRANCH.formatted("orders_archive", "order_items_archive", "payments_archive",
+                    "AND i.order_created_at = o.created_at", "AND order_created_at = o.created_at")
+                    + ")\nUNION ALL\n("
+                    + BRANCH.formatted("orders", "order_items", "payments", "", "") + ")";
+
+    private final JdbcTemplate jdbc;
+
+    // Phải gọi trong transaction (PostgreSQL chỉ dùng cursor phía server khi autocommit = false)
+    public void stream(Instant from, Instant to, int fetchSize, RowCallbackHandler handler) {
+        jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            Timestamp f = Timestamp.from(from);
+            Timestamp t = Timestamp.from(to);
+            ps.setTimestamp(1, f);
+            ps.setTimestamp(2, t);
+            ps.setTimestamp(3, f);
+            ps.setTimestamp(4, t);
+            return ps;
+        }, handler);
+    }
+}
@@ -0,0 +1,35 @@
+package com.hoabanrestaurant.backend.repository;
+
+import com.hoabanrestaurant.backend.entity.OrderItem;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+// Ghi order_items bằng JDBC batch (1 round-trip cho cả lô thay vì save() từng dòng)
+@Repository
+@RequiredArgsConstructor
+public class OrderItemJdbcRepository {
+    private static final int BATCH_SIZE = 100;
+
+    private final JdbcTemplate jdbc;
+
+    public void batchInsert(List<OrderItem> items) {
+        if (items.isEmpty()) return;
+        jdbc.batchUpdate("""
+                        INSERT INTO order_items (id, order_id, item_type, item_id, name, unit_price, quantity, line_total)
+                        VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+                        """,
+                items, BATCH_SIZE, (ps, it) -> {
+                    ps.setObject(1, it.getId());
+                    ps.setObject(2, it.getOrder().getId());
+                    ps.setString(3, it.getItemType());
+                    ps.setObject(4, it.getItemId());
+                    ps.setString(5, it.getName());
+                    ps.setBigDecimal(6, it.getUnitPrice());
+                    ps.setInt(7, it.getQuantity());
+                    ps.setBigDecimal(8, it.getLineTotal());
+                });
+    }
+}
@@ -0,0 +1,83 @@
+package com.hoabanrestaurant.backend.repository;
+
+import com.hoabanrestaurant.backend.enums.OutboxEventType;
+import com.hoabanrestaurant.backend.enums.OutboxStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+// Bảng order_outbox, thao tác qua JDBC (claim theo lô với SKIP LOCKED)
+@Repository
+@RequiredArgsConstructor
+public class OrderOutboxJdbcRepository {
+
+    public record OutboxRow(long id, UUID orderId, OutboxEventType type, String payload, int attempts) {
+    }
+
+    private static final RowMapper<OutboxRow> ROW = (rs, i) -> new OutboxRow(
+            rs.getLong("id"),
+            rs.getObject("order_id", UUID.class),
+            OutboxEventType.valueOf(rs.getString("event_type")),
+            rs.getString("payload"),
+            rs.getInt("attempts"));
+
+    private final JdbcTemplate jdbc;
+
+    // Trùng (order_id, event_type) thì bỏ qua -> confirmPaid gọi lại cũng không tạo việc mới
+    public void enqueue(UUID orderId, OutboxEventType type, String payloadJson) {
+        jdbc.update("""
+                        INSERT INTO order_outbox (order_id, event_type, payload)
+                        VALUES (?, ?, CAST(? AS jsonb))
+                        ON CONFLICT (order_id, event_type) DO NOTHING
+                        """,
+                orderId, type.name(), payloadJson);
+    }
+
+    // Khoá 1 lô việc đến hạn; phải gọi trong transaction
+    public List<OutboxRow> claimBatch(OutboxEventType type, int limit) {
+        return jdbc.query("""
+                        SELECT id, order_id, event_type, payload::text AS payload, attempts
+                        FROM order_outbox
+                        WHERE status = 'PENDING' AND event_type = ? AND next_attempt_at <= NOW()
+                        ORDER BY next_attempt_at, id
+                        LIMIT ?
+                        FOR UPDATE SKIP LOCKED
+                        """,
+                ROW, type.name(), limit);
+    }
+
+    // Khoá lại đúng 1 việc (còn PENDING) để xử lý riêng
+    public OutboxRow lockPending(long id) {
+        return jdbc.query("""
+                        SELECT id, order_id, event_type, payload::text AS payload, attempts
+                        FROM order_outbox
+                        WHERE id = ? AND status = 'PENDING'
+                        FOR UPDATE SKIP LOCKED
+                        """,
+                ROW, id).stream().findFirst().orElse(null);
+    }
+
+    public void markDone(List<Long> ids) {
+        jdbc.batchUpdate("""
+                        UPDATE order_outbox
+                        SET status = 'DONE', attempts = attempts + 1, processed_at = NOW(), last_error = NULL
+                        WHERE id = ?
+                        """,
+                ids, ids.size(), (ps, id) -> ps.setLong(1, id));
+    }
+
+    public void markFailed(long id, OutboxStatus status, Instant nextAttemptAt, String error) {
+        jdbc.update("""
+                        UPDATE order_outbox
+                        SET status = ?, attempts = attempts + 1, next_attempt_at = ?, last_error = ?
+                        WHERE id = ?
+                        """,
+                status.name(), Timestamp.from(nextAttemptAt), error, id);
+    }
+}
@@ -4,15 +4,18 @@ import com.hoabanrestaurant.backend.entity.Order;
 import com.hoabanrestaurant.backend.enums.OrderStatus;
 import com.hoabanrestaurant.backend.enums.OrderTypes;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-public interface OrderRepository extends JpaRepository<Order, UUID> {
+public interface OrderRepository extends JpaRepository<Order, UUID>, JpaSpecificationExecutor<Order> {
     List<Order> findByTable_IdAndStatus(UUID tableId, OrderStatus status);
 
     List<Order> findByUser_IdAndStatusOrderByCreatedAtDesc(UUID userId, OrderStatus status);
@@ -21,8 +24,6 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
 
     Optional<Order> findFirstByUser_IdAndStatusAndTypes(UUID userId, OrderStatus status, OrderTypes types);
 
-    List<Order> findAllByOrderByCreatedAtDesc();
-
     @Query("""
                 SELECT o.status, COUNT(o)
                 FROM Order o
@@ -34,18 +35,34 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
             @Param("end") Instant end
     );
 
-    @Query("""
-                SELECT o.createdAt, SUM(o.total)
-                FROM Order o
-                WHERE o.createdAt BETWEEN :from AND :to
-                  AND o.status = :status
-                GROUP BY o.createdAt
-            """)
-    List<Object[]> sumRevenueByCreatedAtBetween(
-            @Param("from") Instant from,
-            @Param("to") Instant to,
-            @Param("status") OrderStatus status
-    );
+    // Đối soát: tổng tiền đang lưu trên order + tổng line_total thực tế của order_items
+    @Query(value = """
+                SELECT o.id, o.subtotal, o.discount, o.tax, o.total,
+                       COALESCE(SUM(oi.line_total), 0)
+                FROM orders o
+                LEFT JOIN order_items oi ON oi.order_id = o.id
+                WHERE o.updated_at >= :since
+                GROUP BY o.id
+            """, nativeQuery = true)
+    List<Object[]> findTotalsWithItemSumUpdatedSince(@Param("since") Instant since);
+
 
 
+    // Xoá 1 lô đơn OPEN không có món, tạo trước :cutoff. Mỗi lô là 1 transaction riêng;
+    // SKIP LOCKED để không tranh khoá với đơn đang được thao tác.
+    @Transactional
+    @Modifying
+    @Query(value = """
+                DELETE FROM orders
+                WHERE id IN (
+                    SELECT o.id FROM orders o
+                    WHERE o.status = 'OPEN'
+                      AND o.created_at < :cutoff
+                      AND NOT EXISTS (SELECT 1 FROM order_items i WHERE i.order_id = o.id)
+                    ORDER BY o.created_at
+                    LIMIT :batchSize
+                    FOR UPDATE SKIP LOCKED
+                )
+            """, nativeQuery = true)
+    int deleteEmptyOpenBatch(@Param("cutoff") Instant cutoff, @Param("batchSize") int batchSize);
 }
@@ -0,0 +1,42 @@
+package com.hoabanrestaurant.backend.repository;
+
+import com.hoabanrestaurant.backend.dto.request.OrderFeedFilter;
+import com.hoabanrestaurant.backend.entity.Order;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// Điều kiện động cho feed order; chỉ sinh predicate cho filter có giá trị để planner chọn đúng index
+public class OrderSpecifications {
+
+    private OrderSpecifications() {
+    }
+
+    public static Specification<Order> matches(OrderFeedFilter f) {
+        return (root, query, cb) -> {
+            List<Predicate> ps = new ArrayList<>();
+            if (f.status() != null) ps.add(cb.equal(root.get("status"), f.status()));
+            if (f.type() != null) ps.add(cb.equal(root.get("types"), f.type()));
+            if (f.tableId() != null) ps.add(cb.equal(root.get("table").get("id"), f.tableId()));
+            if (f.userId() != null) ps.add(cb.equal(root.get("user").get("id"), f.userId()));
+            if (f.from() != null) ps.add(cb.greaterThanOrEqualTo(root.get("createdAt"), f.from()));
+            if (f.to() != null) ps.add(cb.lessThan(root.get("createdAt"), f.to()));
+            return cb.and(ps.toArray(Predicate[]::new));
+        };
+    }
+
+    // Keyset theo (created_at DESC, id DESC): lấy các dòng nằm sau dòng cuối của trang trước
+    public static Specification<Order> before(Instant createdAt, UUID id) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("createdAt"), createdAt),
+                cb.and(
+                        cb.equal(root.get("createdAt"), createdAt),
+                        cb.lessThan(root.get("id"), id)
+                )
+        );
+    }
+}
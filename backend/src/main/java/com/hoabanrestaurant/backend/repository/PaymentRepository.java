@@ -10,4 +10,6 @@ public interface PaymentRepository extends JpaRepository<Payment, UUID> {
 
     Optional<Payment> findByTransactionId(String txnRef);
 
+    Optional<Payment> findFirstByOrder_IdOrderByCreatedAtDesc(UUID orderId);
+
 }
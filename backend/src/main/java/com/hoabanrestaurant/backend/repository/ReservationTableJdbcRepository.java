@@ -0,0 +1,95 @@
+package com.hoabanrestaurant.backend.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+// Đọc các bàn đang bị giữ để nạp / đối soát lịch đặt bàn và sức chứa khung giờ trong bộ nhớ,
+// và kiểm tra trùng giờ có khoá khi gán bàn
+@Repository
+@RequiredArgsConstructor
+public class ReservationTableJdbcRepository {
+
+    public record BookedTable(UUID reservationId, UUID tableId, Instant start, Instant end) {
+    }
+
+    // tableId = null: lượt đặt chưa gán bàn
+    public record ActiveReservation(UUID reservationId, Instant start, Instant end, int partySize, UUID tableId) {
+    }
+
+    private final JdbcTemplate jdbc;
+
+    // Liên kết bàn của các lượt đặt còn hiệu lực (PENDING / CONFIRMED) chưa kết thúc trước endAfter:
+    // lượt đã qua không chặn được khung giờ nào nữa, không nạp vào bộ nhớ
+    public List<BookedTable> findActive(Instant endAfter) {
+        return jdbc.query("""
+                        SELECT l.reservation_id, l.table_id, r.start_time, r.end_time
+                        FROM reservation_tables l
+                        JOIN reservations r ON r.id = l.reservation_id
+                        WHERE r.status IN ('PENDING', 'CONFIRMED')
+                          AND r.end_time > ?
+                        """,
+                (rs, i) -> new BookedTable(
+                        rs.getObject("reservation_id", UUID.class),
+                        rs.getObject("table_id", UUID.class),
+                        rs.getTimestamp("start_time").toInstant(),
+                        rs.getTimestamp("end_time").toInstant()),
+                Timestamp.from(endAfter));
+    }
+
+    // Khoá các bàn sắp gán tới hết transaction (theo thứ tự id để 2 lượt gán chéo bàn không deadlock):
+    // lượt gán khác trên cùng bàn, ở instance nào, phải chờ lượt này commit rồi mới kiểm tra trùng giờ
+    public void lockTables(Collection<UUID> tableIds) {
+        jdbc.query("SELECT id FROM restaurant_tables WHERE id = ANY(?) ORDER BY id FOR UPDATE",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", tableIds.toArray())),
+                rs -> {
+                });
+    }
+
+    // Kiểm tra trùng giờ trực tiếp trên DB (gọi sau lockTables, trong cùng transaction), bỏ qua lượt đặt except
+    public boolean anyOverlap(Collection<UUID> tableIds, Instant start, Instant end, UUID except) {
+        Boolean found = jdbc.query("""
+                        SELECT EXISTS (
+                            SELECT 1
+                            FROM reservation_tables l
+                            JOIN reservations r ON r.id = l.reservation_id
+                            WHERE l.table_id = ANY(?)
+                              AND r.id <> ?
+                              AND r.status IN ('PENDING', 'CONFIRMED')
+                              AND r.start_time < ? AND r.end_time > ?
+                        )
+                        """,
+                ps -> {
+                    ps.setArray(1, ps.getConnection().createArrayOf("uuid", tableIds.toArray()));
+                    ps.setObject(2, except);
+                    ps.setTimestamp(3, Timestamp.from(end));
+                    ps.setTimestamp(4, Timestamp.from(start));
+                },
+                rs -> rs.next() && rs.getBoolean(1));
+        return Boolean.TRUE.equals(found);
+    }
+
+    // Lượt đặt còn hiệu lực giao [from, to), mỗi bàn được gán một dòng (chưa gán bàn: 1 dòng tableId = null)
+    public List<ActiveReservation> findActiveBetween(Instant from, Instant to) {
+        return jdbc.query("""
+                        SELECT r.id, r.start_time, r.end_time, r.party_size, l.table_id
+                        FROM reservations r
+                        LEFT JOIN reservation_tables l ON l.reservation_id = r.id
+                        WHERE r.status IN ('PENDING', 'CONFIRMED')
+                          AND r.start_time < ? AND r.end_time > ?
+                        """,
+                (rs, i) -> new ActiveReservation(
+                        rs.getObject("id", UUID.class),
+                        rs.getTimestamp("start_time").toInstant(),
+                        rs.getTimestamp("end_time").toInstant(),
+                        rs.getInt("party_size"),
+                        rs.getObject("table_id", UUID.class)),
+                Timestamp.from(to), Timestamp.from(from));
+    }
+}
@@ -1,7 +1,6 @@
 // repository/ReservationTableLinkRepository.java
 package com.hoabanrestaurant.backend.repository;
 
-import com.hoabanrestaurant.backend.entity.Reservation;
 import com.hoabanrestaurant.backend.entity.ReservationTableLink;
 import com.hoabanrestaurant.backend.entity.RestaurantTable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -25,15 +24,4 @@ public interface ReservationTableLinkRepository extends JpaRepository<Reservatio
     @Modifying
     @Query("DELETE FROM ReservationTableLink l WHERE l.reservation.id = :reservationId")
     void deleteAllByReservation(UUID reservationId);
-
-    @Query("""
-              SELECT r FROM Reservation r
-              JOIN ReservationTableLink l ON l.reservation = r
-              WHERE l.table.id IN :tableIds
-                AND r.status IN (com.hoabanrestaurant.backend.enums.ReservationStatus.PENDING,
-                                 com.hoabanrestaurant.backend.enums.ReservationStatus.CONFIRMED)
-                AND r.startTime < :endTime
-                AND r.endTime   > :startTime
-            """)
-    List<Reservation> findOverlapsForTables(List<UUID> tableIds, java.time.Instant startTime, java.time.Instant endTime);
 }
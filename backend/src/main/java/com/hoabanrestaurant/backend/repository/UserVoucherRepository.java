@@ -2,7 +2,12 @@ package com.hoabanrestaurant.backend.repository;
 
 import com.hoabanrestaurant.backend.entity.UserVoucher;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -17,4 +22,9 @@ public interface UserVoucherRepository extends JpaRepository<UserVoucher, UUID>
 
     List<UserVoucher> findByUser_IdAndRedeemedFalse(UUID userId);
 
+    // Đánh dấu đã dùng cho cả lô; voucher đã redeemed thì giữ nguyên
+    @Modifying
+    @Query("UPDATE UserVoucher uv SET uv.redeemed = true, uv.redeemedAt = :at WHERE uv.id IN :ids AND uv.redeemed = false")
+    int redeemAll(@Param("ids") Collection<UUID> ids, @Param("at") Instant at);
+
 }
@@ -0,0 +1,19 @@
+package com.hoabanrestaurant.backend.scheduler;
+
+import com.hoabanrestaurant.backend.service.DishPopularityService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Định kỳ ghi điểm phổ biến món đang giữ trong bộ nhớ xuống DB
+@Component
+@RequiredArgsConstructor
+public class DishPopularityFlushJob {
+
+    private final DishPopularityService popularityService;
+
+    @Scheduled(fixedDelayString = "${app.popularity.flush-interval-ms:60000}")
+    public void run() {
+        popularityService.flush();
+    }
+}
@@ -0,0 +1,20 @@
+package com.hoabanrestaurant.backend.scheduler;
+
+import com.hoabanrestaurant.backend.service.DishRecommendService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Dựng lại ma trận "hay gọi cùng" định kỳ (lần đầu ngay sau khi khởi động)
+@Component
+@RequiredArgsConstructor
+public class DishRecommendRebuildJob {
+
+    private final DishRecommendService recommendService;
+
+    @Scheduled(fixedDelayString = "${app.recommend.rebuild-interval-ms:21600000}",
+            initialDelayString = "${app.recommend.initial-delay-ms:60000}")
+    public void run() {
+        recommendService.rebuild();
+    }
+}
@@ -0,0 +1,26 @@
+package com.hoabanrestaurant.backend.scheduler;
+
+import com.hoabanrestaurant.backend.service.EmailService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Xả hàng đợi email theo lô (xem EmailService.dispatchQueued)
+@Component
+@RequiredArgsConstructor
+public class EmailQueueDispatchJob {
+
+    private final EmailService emailService;
+
+    @Value("${app.mail.queue.max-rounds:20}")
+    private int maxRounds;
+
+    @Scheduled(fixedDelayString = "${app.mail.queue.interval-ms:1000}",
+            initialDelayString = "${app.mail.queue.initial-delay-ms:10000}")
+    public void run() {
+        for (int round = 0; round < maxRounds; round++) {
+            if (emailService.dispatchQueued() == 0) break;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.hoabanrestaurant.backend.scheduler;
+
+import com.hoabanrestaurant.backend.service.OrderService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Định kỳ dọn các đơn OPEN không có món (theo lô, xem OrderService.cleanEmptyOrders)
+@Component
+@RequiredArgsConstructor
+public class EmptyOrderSweepJob {
+
+    private final OrderService orderService;
+
+    @Scheduled(fixedDelayString = "${app.orders.empty-sweep.interval-ms:600000}",
+            initialDelayString = "${app.orders.empty-sweep.initial-delay-ms:120000}")
+    public void run() {
+        orderService.cleanEmptyOrders();
+    }
+}
@@ -0,0 +1,20 @@
+package com.hoabanrestaurant.backend.scheduler;
+
+import com.hoabanrestaurant.backend.service.IdempotencyService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Định kỳ xoá Idempotency-Key đã hết hạn
+@Component
+@RequiredArgsConstructor
+public class IdempotencyPurgeJob {
+
+    private final IdempotencyService idempotencyService;
+
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:3600000}",
+            initialDelayString = "${app.idempotency.purge-initial-delay-ms:300000}")
+    public void run() {
+        idempotencyService.purgeExpired();
+    }
+}
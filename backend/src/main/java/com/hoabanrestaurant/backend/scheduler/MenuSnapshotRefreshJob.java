@@ -0,0 +1,20 @@
+package com.hoabanrestaurant.backend.scheduler;
+
+import com.hoabanrestaurant.backend.service.MenuSnapshotService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Dựng lại menu snapshot định kỳ, phòng khi thực đơn bị sửa ngoài service (SQL tay, instance khác)
+@Component
+@RequiredArgsConstructor
+public class MenuSnapshotRefreshJob {
+
+    private final MenuSnapshotService menuSnapshot;
+
+    @Scheduled(fixedDelayString = "${app.menu.snapshot.refresh-ms:300000}",
+            initialDelayString = "${app.menu.snapshot.refresh-ms:300000}")
+    public void run() {
+        menuSnapshot.rebuild();
+    }
+}
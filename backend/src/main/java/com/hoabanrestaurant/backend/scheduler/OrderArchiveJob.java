@@ -0,0 +1,19 @@
+package com.hoabanrestaurant.backend.scheduler;
+
+import com.hoabanrestaurant.backend.service.OrderArchiveService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Hằng đêm chuyển order đã chốt quá hạn sang bảng archive (xem OrderArchiveService.archiveSettled)
+@Component
+@RequiredArgsConstructor
+public class OrderArchiveJob {
+
+    private final OrderArchiveService orderArchiveService;
+
+    @Scheduled(cron = "${app.orders.archive.cron:0 30 3 * * *}")
+    public void run() {
+        orderArchiveService.archiveSettled();
+    }
+}
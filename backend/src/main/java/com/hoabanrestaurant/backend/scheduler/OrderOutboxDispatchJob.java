@@ -0,0 +1,26 @@
+package com.hoabanrestaurant.backend.scheduler;
+
+import com.hoabanrestaurant.backend.service.OrderOutboxService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Xả outbox sau thanh toán: chạy liên tục tới khi hết việc đến hạn (giới hạn số vòng mỗi lượt)
+@Component
+@RequiredArgsConstructor
+public class OrderOutboxDispatchJob {
+
+    private final OrderOutboxService outboxService;
+
+    @Value("${app.orders.outbox.max-rounds:50}")
+    private int maxRounds;
+
+    @Scheduled(fixedDelayString = "${app.orders.outbox.interval-ms:2000}",
+            initialDelayString = "${app.orders.outbox.initial-delay-ms:10000}")
+    public void run() {
+        for (int round = 0; round < maxRounds; round++) {
+            if (outboxService.dispatchBatch() == 0) break;
+        }
+    }
+}
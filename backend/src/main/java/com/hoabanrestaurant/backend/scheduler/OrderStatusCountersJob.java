@@ -0,0 +1,25 @@
+package com.hoabanrestaurant.backend.scheduler;
+
+import com.hoabanrestaurant.backend.service.impl.OrderStatusCounters;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Bộ đếm trạng thái order trong ngày: reset lúc 0h, đối soát với DB định kỳ
+@Component
+@RequiredArgsConstructor
+public class OrderStatusCountersJob {
+
+    private final OrderStatusCounters counters;
+
+    @Scheduled(cron = "0 0 0 * * *")
+    public void rollOver() {
+        counters.rollOver();
+    }
+
+    @Scheduled(fixedDelayString = "${app.orders.status-counters.reconcile-ms:300000}",
+            initialDelayString = "${app.orders.status-counters.reconcile-ms:300000}")
+    public void reconcile() {
+        counters.reconcile();
+    }
+}
@@ -0,0 +1,33 @@
+package com.hoabanrestaurant.backend.scheduler;
+
+import com.hoabanrestaurant.backend.service.OrderService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+// Định kỳ đối soát tổng tiền order (cộng dồn theo delta) với order_items
+@Component
+@RequiredArgsConstructor
+public class OrderTotalsVerifyJob {
+    private static final Logger log = LoggerFactory.getLogger(OrderTotalsVerifyJob.class);
+
+    private final OrderService orderService;
+
+    @Value("${app.orders.totals-verify.lookback-hours:24}")
+    private long lookbackHours;
+
+    @Scheduled(fixedDelayString = "${app.orders.totals-verify.interval-ms:900000}",
+            initialDelayString = "${app.orders.totals-verify.initial-delay-ms:60000}")
+    public void run() {
+        var drifts = orderService.verifyTotals(Instant.now().minus(Duration.ofHours(lookbackHours)));
+        if (!drifts.isEmpty()) {
+            log.warn("Phát hiện {} order lệch tổng tiền trong {} giờ gần nhất", drifts.size(), lookbackHours);
+        }
+    }
+}
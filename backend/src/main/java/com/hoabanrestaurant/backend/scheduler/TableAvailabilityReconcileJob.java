@@ -0,0 +1,23 @@
+package com.hoabanrestaurant.backend.scheduler;
+
+import com.hoabanrestaurant.backend.service.ReservationSlotService;
+import com.hoabanrestaurant.backend.service.TableAvailabilityService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Định kỳ đối soát lịch đặt bàn / sức chứa khung giờ trong bộ nhớ với DB (lần đầu cũng là lần nạp khi khởi động)
+@Component
+@RequiredArgsConstructor
+public class TableAvailabilityReconcileJob {
+
+    private final TableAvailabilityService availabilityService;
+    private final ReservationSlotService slotService;
+
+    @Scheduled(fixedDelayString = "${app.reservation.availability.reconcile-interval-ms:300000}",
+            initialDelayString = "${app.reservation.availability.initial-delay-ms:10000}")
+    public void run() {
+        availabilityService.reconcile();
+        slotService.invalidate();  // sức chứa khung giờ dựng lại khi được hỏi
+    }
+}
@@ -0,0 +1,15 @@
+package com.hoabanrestaurant.backend.service;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface DishPopularityService {
+    // Món bán chạy (điểm giảm dần theo thời gian), cao nhất trước; chỉ món đang phục vụ
+    List<UUID> topDishes(int k);
+
+    // Món user hay gọi (điểm giảm dần theo thời gian), cao nhất trước; chỉ món đang phục vụ
+    List<UUID> topDishesForUser(UUID userId, int k);
+
+    // Ghi phần cộng dồn chưa lưu xuống DB, trả về số dòng đã ghi
+    int flush();
+}
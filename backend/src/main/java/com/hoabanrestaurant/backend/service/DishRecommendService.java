@@ -0,0 +1,12 @@
+package com.hoabanrestaurant.backend.service;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface DishRecommendService {
+    // Món hay được gọi cùng các món user gọi gần đây (không gồm chính các món đó); chỉ món đang phục vụ
+    List<UUID> recommendForUser(UUID userId, int k);
+
+    // Dựng lại ma trận đồng xuất hiện từ lịch sử order (chạy nền, xem DishRecommendRebuildJob)
+    void rebuild();
+}
@@ -2,8 +2,9 @@ package com.hoabanrestaurant.backend.service;
 
 import com.hoabanrestaurant.backend.dto.request.CreateDishReq;
 import com.hoabanrestaurant.backend.dto.request.UpdateDishReq;
+import com.hoabanrestaurant.backend.dto.response.CursorPage;
 import com.hoabanrestaurant.backend.dto.response.DishDto;
-import org.springframework.data.domain.Page;
+import com.hoabanrestaurant.backend.enums.MenuStatus;
 
 import java.util.List;
 import java.util.Map;
@@ -14,9 +15,12 @@ public interface DishService {
 
     DishDto update(UUID dishId, UpdateDishReq req);
 
-    Page<DishDto> listAll(int page, int size, String sortBy, String direction);
+    // Món đang bán, phân trang keyset theo sortBy (name | price | createdAt); withTotal mới chạy COUNT
+    CursorPage<DishDto> listAll(String cursor, int limit, String sortBy, String direction, boolean withTotal);
 
-    Page<DishDto> getAll(int page, int size, String sortBy, String direction);
+    // Trang admin: mọi trạng thái, hoặc lọc theo status
+    CursorPage<DishDto> getAll(MenuStatus status, String cursor, int limit, String sortBy, String direction,
+                               boolean withTotal);
 
     List<Map<String, Object>> getAll();
 
@@ -0,0 +1,22 @@
+package com.hoabanrestaurant.backend.service;
+
+import com.hoabanrestaurant.backend.dto.response.DishImportResultDto;
+import com.hoabanrestaurant.backend.enums.ExportFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public interface DishTransferService {
+    // Nhập món từ CSV/NDJSON (cột như file xuất): thêm mới hoặc cập nhật theo (danh mục, tên), dòng lỗi bỏ qua
+    DishImportResultDto importDishes(InputStream in, ExportFormat format) throws IOException;
+
+    // Xuất toàn bộ món ra CSV/NDJSON, ghi thẳng vào out
+    void export(ExportFormat format, OutputStream out) throws IOException;
+
+    // Nhập combo (cột như file xuất combo): thêm mới hoặc cập nhật theo id / tên, thay toàn bộ món của combo
+    DishImportResultDto importCombos(InputStream in, ExportFormat format) throws IOException;
+
+    // Xuất toàn bộ combo kèm món (theo tên món) ra CSV/NDJSON
+    void exportCombos(ExportFormat format, OutputStream out) throws IOException;
+}
@@ -6,4 +6,10 @@ public interface EmailService {
     void send(String to, String subject, String html);
 
     void sendTemplate(String to, String subject, String template, Map<String, Object> model);
+
+    // Xếp vào hàng đợi, worker nền render + gửi; không giữ request/transaction chờ SMTP
+    void queueTemplate(String to, String subject, String template, Map<String, Object> model);
+
+    // Gửi 1 lô email đến hạn trong hàng đợi, trả về số email đã nhận xử lý
+    int dispatchQueued();
 }
@@ -0,0 +1,11 @@
+package com.hoabanrestaurant.backend.service;
+
+import java.util.function.Supplier;
+
+public interface IdempotencyService {
+    // key = null: chạy bình thường. Key đã dùng: trả lại response đã lưu, không chạy action.
+    <T> T execute(String scope, String key, Object request, Class<T> responseType, Supplier<T> action);
+
+    // xoá key hết hạn, trả về số dòng đã xoá
+    int purgeExpired();
+}
@@ -0,0 +1,11 @@
+package com.hoabanrestaurant.backend.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Set;
+import java.util.UUID;
+
+public interface KitchenStreamService {
+    // categoryIds rỗng = nhận tất cả; lastEventId != null = phát lại các sự kiện bị lỡ khi reconnect
+    SseEmitter subscribe(Set<UUID> categoryIds, Long lastEventId);
+}
@@ -0,0 +1,21 @@
+package com.hoabanrestaurant.backend.service;
+
+import com.hoabanrestaurant.backend.dto.response.ComboDto;
+import com.hoabanrestaurant.backend.dto.response.DishDto;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface MenuSampleService {
+    // k món đang phục vụ, chọn ngẫu nhiên không trùng (không truy vấn DB)
+    List<DishDto> randomDishes(int k);
+
+    // DTO của các món đang phục vụ theo đúng thứ tự ids (lấy từ cache, bỏ món không còn phục vụ)
+    List<DishDto> dishes(List<UUID> ids);
+
+    // tối đa k món signature đang phục vụ (lấy từ cache)
+    List<DishDto> signatureDishes(int k);
+
+    // k combo đang phục vụ, chọn ngẫu nhiên không trùng (không truy vấn DB)
+    List<ComboDto> randomCombos(int k);
+}
@@ -0,0 +1,10 @@
+package com.hoabanrestaurant.backend.service;
+
+import com.hoabanrestaurant.backend.dto.response.MenuSearchHitDto;
+
+import java.util.List;
+
+public interface MenuSearchService {
+    // Tìm món + combo đang phục vụ theo tên/mô tả, không phân biệt dấu, chịu được gõ sai
+    List<MenuSearchHitDto> search(String q, int limit);
+}
@@ -0,0 +1,11 @@
+package com.hoabanrestaurant.backend.service;
+
+import com.hoabanrestaurant.backend.util.MenuSnapshot;
+
+public interface MenuSnapshotService {
+    // Bản hiện tại, đọc không khoá
+    MenuSnapshot current();
+
+    // Dựng lại từ DB và thay bản hiện tại
+    MenuSnapshot rebuild();
+}
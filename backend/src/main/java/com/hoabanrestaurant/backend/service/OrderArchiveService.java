@@ -0,0 +1,15 @@
+package com.hoabanrestaurant.backend.service;
+
+import com.hoabanrestaurant.backend.dto.response.CursorPage;
+import com.hoabanrestaurant.backend.dto.response.OrderDto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public interface OrderArchiveService {
+    // Chuyển order PAID/CANCELLED quá hạn sang bảng archive, trả về số order đã chuyển
+    int archiveSettled();
+
+    // Lịch sử order đã lưu trữ, phân trang keyset theo (createdAt, id); userId = null: mọi user
+    CursorPage<OrderDto> getArchived(UUID userId, Instant from, Instant to, String cursor, int limit);
+}
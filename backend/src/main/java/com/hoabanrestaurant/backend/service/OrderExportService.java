@@ -0,0 +1,12 @@
+package com.hoabanrestaurant.backend.service;
+
+import com.hoabanrestaurant.backend.enums.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+
+public interface OrderExportService {
+    // Ghi thẳng order trong [from, to) ra out theo từng đợt, bộ nhớ không phụ thuộc khoảng ngày
+    void export(Instant from, Instant to, ExportFormat format, OutputStream out) throws IOException;
+}
@@ -0,0 +1,11 @@
+package com.hoabanrestaurant.backend.service;
+
+import com.hoabanrestaurant.backend.entity.Order;
+
+public interface OrderOutboxService {
+    // Ghi việc sau thanh toán vào outbox; gọi trong transaction chuyển order sang PAID
+    void enqueuePaid(Order order);
+
+    // Xử lý 1 lô việc đến hạn, trả về số việc đã xong
+    int dispatchBatch();
+}
@@ -2,16 +2,23 @@ package com.hoabanrestaurant.backend.service;
 
 
 import com.hoabanrestaurant.backend.dto.request.AddOrderItemReq;
+import com.hoabanrestaurant.backend.dto.request.AddOrderItemsReq;
 import com.hoabanrestaurant.backend.dto.request.ApplyVoucherReq;
 import com.hoabanrestaurant.backend.dto.request.CreateOrderReq;
+import com.hoabanrestaurant.backend.dto.request.OrderFeedFilter;
 import com.hoabanrestaurant.backend.dto.request.PayOrderReq;
 import com.hoabanrestaurant.backend.dto.request.UpdateCartItemReq;
 import com.hoabanrestaurant.backend.dto.request.UpdateOrderStatusReq;
+import com.hoabanrestaurant.backend.dto.response.CursorPage;
+import com.hoabanrestaurant.backend.dto.response.DailyRevenueDto;
 import com.hoabanrestaurant.backend.dto.response.OrderDto;
+import com.hoabanrestaurant.backend.dto.response.OrderTotalsDriftDto;
 import com.hoabanrestaurant.backend.entity.Order;
 import org.springframework.security.oauth2.jwt.Jwt;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -23,6 +30,9 @@ public interface OrderService {
 
     OrderDto addItem(UUID orderId, AddOrderItemReq req);
 
+    // Thêm nhiều món 1 lần (gộp dòng trùng, tính tổng 1 lần)
+    OrderDto addItems(UUID orderId, AddOrderItemsReq req);
+
     OrderDto applyVoucher(UUID orderId, ApplyVoucherReq req);
 
     OrderDto pay(UUID orderId, PayOrderReq req);
@@ -45,6 +55,9 @@ public interface OrderService {
 
     List<OrderDto> getAllOrders();
 
+    // Feed order cho staff, phân trang keyset theo (createdAt, id)
+    CursorPage<OrderDto> getOrderFeed(OrderFeedFilter filter, String cursor, int limit);
+
     OrderDto getOrderById(UUID orderId);
 
     OrderDto updateStatus(UUID orderId, UpdateOrderStatusReq req, Jwt jwt);
@@ -58,4 +71,13 @@ public interface OrderService {
 
     Map<String, BigDecimal> getRevenueLast7Days();
 
+    // Doanh thu từ bảng tổng hợp daily_revenue, [from, to] tính cả 2 đầu
+    List<DailyRevenueDto> getRevenue(LocalDate from, LocalDate to);
+
+    // Dựng lại daily_revenue cho [from, to] từ orders
+    int rebuildRevenue(LocalDate from, LocalDate to);
+
+    // Đối soát tổng tiền các order thay đổi từ `since` với order_items
+    List<OrderTotalsDriftDto> verifyTotals(Instant since);
+
 }
\ No newline at end of file
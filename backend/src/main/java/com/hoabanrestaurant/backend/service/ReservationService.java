@@ -3,6 +3,7 @@ package com.hoabanrestaurant.backend.service;
 import com.hoabanrestaurant.backend.dto.request.CreateReservationReq;
 import com.hoabanrestaurant.backend.dto.response.ReservationDto;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -20,7 +21,7 @@ public interface ReservationService {
 
     List<ReservationDto> allReservations();
 
-    List<Map<String, Object>> getAvailableSlots();
+    List<Map<String, Object>> getAvailableSlots(LocalDate date, int partySize, int stepMinutes);
 
     Map<String, Long> getReservationStatsToday();
 }
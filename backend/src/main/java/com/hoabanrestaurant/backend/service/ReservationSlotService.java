@@ -0,0 +1,14 @@
+package com.hoabanrestaurant.backend.service;
+
+import com.hoabanrestaurant.backend.dto.response.ReservationSlotDto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ReservationSlotService {
+    // Các khung giờ trong ngày (bước 15/30/60 phút) kèm số ghế còn nhận khách cho partySize
+    List<ReservationSlotDto> slots(LocalDate date, int partySize, int stepMinutes);
+
+    // Bỏ sức chứa đã dựng, lần hỏi sau dựng lại từ DB
+    void invalidate();
+}
@@ -0,0 +1,17 @@
+package com.hoabanrestaurant.backend.service;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.UUID;
+
+// Lịch đặt bàn trong bộ nhớ, nhất quán dần với DB: dùng cho danh sách bàn trống.
+// Gán bàn vẫn khoá bàn và kiểm tra trùng giờ trên DB (ReservationTableJdbcRepository).
+public interface TableAvailabilityService {
+    // Bàn đã có lượt đặt PENDING/CONFIRMED giao [start, end) chưa; except = lượt đặt được bỏ qua (có thể null)
+    boolean isBooked(UUID tableId, Instant start, Instant end, UUID except);
+
+    boolean anyBooked(Collection<UUID> tableIds, Instant start, Instant end, UUID except);
+
+    // Nạp lại từ reservation_tables, trả về số lượt đặt lệch so với bộ nhớ
+    int reconcile();
+}
@@ -5,13 +5,16 @@ import com.hoabanrestaurant.backend.dto.response.AreaDto;
 import com.hoabanrestaurant.backend.entity.Area;
 import com.hoabanrestaurant.backend.enums.AreaStatus;
 import com.hoabanrestaurant.backend.enums.ErrorCode;
+import com.hoabanrestaurant.backend.event.AreaChangedEvent;
 import com.hoabanrestaurant.backend.exception.BusinessException;
 import com.hoabanrestaurant.backend.mapper.AreaMapper;
 import com.hoabanrestaurant.backend.repository.AreaRepository;
 import com.hoabanrestaurant.backend.service.AreaService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
@@ -20,6 +23,7 @@ import java.util.UUID;
 public class AreaServiceImpl implements AreaService {
     private final AreaRepository repo;
     private final AreaMapper mapper;
+    private final ApplicationEventPublisher events;
 
     @Override
     public AreaDto create(CreateAreaReq req) {
@@ -31,7 +35,9 @@ public class AreaServiceImpl implements AreaService {
                 .description(req.description())
                 .status(req.status() != null ? req.status() : AreaStatus.ACTIVE)
                 .build();
-        return mapper.toDto(repo.save(a));
+        a = repo.save(a);
+        areaChanged();
+        return mapper.toDto(a);
     }
 
     @Override
@@ -47,7 +53,9 @@ public class AreaServiceImpl implements AreaService {
         a.setName(req.name().trim());
         a.setDescription(req.description());
         a.setStatus(req.status() != null ? req.status() : AreaStatus.ACTIVE);
-        return mapper.toDto(repo.save(a));
+        a = repo.save(a);
+        areaChanged();
+        return mapper.toDto(a);
     }
 
     @Override
@@ -55,5 +63,11 @@ public class AreaServiceImpl implements AreaService {
         if (!repo.existsById(id))
             throw new BusinessException(ErrorCode.NOT_FOUND, "Khu vực không tồn tại");
         repo.deleteById(id);
+        areaChanged();
+    }
+
+    // menu snapshot dựng lại -> digest (ETag của GET /v1/areas) đổi theo
+    private void areaChanged() {
+        events.publishEvent(new AreaChangedEvent(Instant.now()));
     }
 }
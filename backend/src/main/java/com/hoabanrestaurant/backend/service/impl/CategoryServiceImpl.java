@@ -6,13 +6,16 @@ import com.hoabanrestaurant.backend.dto.response.CategoryDto;
 import com.hoabanrestaurant.backend.entity.Category;
 import com.hoabanrestaurant.backend.enums.ErrorCode;
 import com.hoabanrestaurant.backend.enums.MenuStatus;
+import com.hoabanrestaurant.backend.event.MenuChangedEvent;
 import com.hoabanrestaurant.backend.exception.BusinessException;
 import com.hoabanrestaurant.backend.mapper.CategoryMapper;
 import com.hoabanrestaurant.backend.repository.CategoryRepository;
 import com.hoabanrestaurant.backend.service.CategoryService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
@@ -21,6 +24,7 @@ import java.util.UUID;
 public class CategoryServiceImpl implements CategoryService {
     private final CategoryRepository repo;
     private final CategoryMapper mapper;
+    private final ApplicationEventPublisher events;
 
     @Override
     public CategoryDto create(CreateCategoryReq req) {
@@ -32,7 +36,9 @@ public class CategoryServiceImpl implements CategoryService {
                 .description(req.description())
                 .status(req.status() != null ? req.status() : MenuStatus.ACTIVE)
                 .build();
-        return mapper.toDto(repo.save(c));
+        c = repo.save(c);
+        menuChanged();
+        return mapper.toDto(c);
     }
 
     @Override
@@ -49,6 +55,13 @@ public class CategoryServiceImpl implements CategoryService {
         if (req.status() != null) {
             c.setStatus(req.status());
         }
-        return mapper.toDto(repo.save(c));
+        c = repo.save(c);
+        menuChanged();
+        return mapper.toDto(c);
+    }
+
+    // menu snapshot dựng lại sau khi ghi
+    private void menuChanged() {
+        events.publishEvent(new MenuChangedEvent("CATEGORY", Instant.now()));
     }
 }
@@ -10,24 +10,26 @@ import com.hoabanrestaurant.backend.entity.ComboItem;
 import com.hoabanrestaurant.backend.entity.Dish;
 import com.hoabanrestaurant.backend.enums.ErrorCode;
 import com.hoabanrestaurant.backend.enums.MenuStatus;
+import com.hoabanrestaurant.backend.event.MenuChangedEvent;
 import com.hoabanrestaurant.backend.exception.BusinessException;
 import com.hoabanrestaurant.backend.mapper.ComboMapper;
-import com.hoabanrestaurant.backend.mapper.DishMapper;
+import com.hoabanrestaurant.backend.repository.ComboItemJdbcRepository;
 import com.hoabanrestaurant.backend.repository.ComboItemRepository;
 import com.hoabanrestaurant.backend.repository.ComboRepository;
 import com.hoabanrestaurant.backend.repository.DishRepository;
-import com.hoabanrestaurant.backend.repository.OrderItemRepository;
 import com.hoabanrestaurant.backend.service.ComboService;
+import com.hoabanrestaurant.backend.service.DishPopularityService;
+import com.hoabanrestaurant.backend.service.DishRecommendService;
+import com.hoabanrestaurant.backend.service.MenuSampleService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -39,10 +41,13 @@ import java.util.stream.Collectors;
 public class ComboServiceImpl implements ComboService {
     private final ComboRepository comboRepo;
     private final ComboItemRepository itemRepo;
+    private final ComboItemJdbcRepository itemJdbcRepo;
     private final DishRepository dishRepo;
     private final ComboMapper mapper;
-    private final OrderItemRepository orderItemRepo;
-    private final DishMapper dishMapper;
+    private final MenuSampleService menuSampler;
+    private final DishPopularityService popularity;
+    private final DishRecommendService recommender;
+    private final ApplicationEventPublisher events;
 
     @Override
     @Transactional
@@ -77,17 +82,10 @@ public class ComboServiceImpl implements ComboService {
                 .imageUrl(req.imageUrl())
                 .status(req.status() != null ? req.status() : MenuStatus.ACTIVE)
                 .build();
-        c = comboRepo.save(c);
-
-        for (Dish d : dishes) {
-            ComboItem link = ComboItem.builder()
-                    .id(new ComboItem.Id(c.getId(), d.getId()))
-                    .combo(c)
-                    .dish(d)
-                    .quantity(qtyMap.get(d.getId()))
-                    .build();
-            itemRepo.save(link);
-        }
+        // flush để có dòng combos trước khi batch insert combo_items (FK)
+        c = comboRepo.saveAndFlush(c);
+        itemJdbcRepo.batchInsert(c.getId(), qtyMap);
+        menuChanged();
 
         // build dto
         return toDto(c, itemsOf(c.getId()), suggested);
@@ -97,20 +95,12 @@ public class ComboServiceImpl implements ComboService {
     public ComboDto get(UUID comboId) {
         Combo c = comboRepo.findById(comboId)
                 .orElseThrow(() -> new BusinessException(ErrorCode.NOT_FOUND, "Combo không tồn tại"));
-        var items = itemsOf(c.getId());
-        var suggested = suggestedSum(items);
-        return toDto(c, items, suggested);
+        return toDto(c, itemRepo.findByCombo_Id(c.getId()));
     }
 
     @Override
     public List<ComboDto> listAll() {
-        List<Combo> combos = comboRepo.findByStatus(MenuStatus.ACTIVE);
-        List<ComboDto> out = new ArrayList<>();
-        for (Combo c : combos) {
-            var items = itemsOf(c.getId());
-            out.add(toDto(c, items, suggestedSum(items)));
-        }
-        return out;
+        return toDtos(comboRepo.findByStatus(MenuStatus.ACTIVE));
     }
 
     @Override
@@ -143,17 +133,9 @@ public class ComboServiceImpl implements ComboService {
         c.setImageUrl(req.imageUrl());
         c.setStatus(req.status() != null ? req.status() : MenuStatus.ACTIVE);
         c = comboRepo.save(c);
-        // Update combo items
-        itemRepo.deleteAllByComboId(c.getId());
-        for (Dish d : dishes) {
-            ComboItem link = ComboItem.builder()
-                    .id(new ComboItem.Id(c.getId(), d.getId()))
-                    .combo(c)
-                    .dish(d)
-                    .quantity(qtyMap.get(d.getId()))
-                    .build();
-            itemRepo.save(link);
-        }
+        // Update combo items: chỉ ghi phần khác so với hiện có
+        itemJdbcRepo.sync(c.getId(), qtyMap);
+        menuChanged();
         // build dto
         return toDto(c, itemsOf(c.getId()), suggested);
     }
@@ -163,8 +145,9 @@ public class ComboServiceImpl implements ComboService {
     public void delete(UUID comboId) {
         Combo c = comboRepo.findById(comboId)
                 .orElseThrow(() -> new BusinessException(ErrorCode.NOT_FOUND, "Combo không tồn tại"));
-        itemRepo.deleteAllByComboId(c.getId());
+        itemJdbcRepo.deleteByCombo(c.getId());
         comboRepo.delete(c);
+        menuChanged();
     }
 
 
@@ -183,14 +166,7 @@ public class ComboServiceImpl implements ComboService {
 
     @Override
     public List<ComboDto> getAllbyAdmin() {
-        List<Combo> combos = comboRepo.findAll();
-        List<ComboDto> out = new ArrayList<>();
-        for (Combo c : combos) {
-            var items = itemsOf(c.getId());
-            out.add(toDto(c, items, suggestedSum(items)));
-        }
-        return out;
-
+        return toDtos(comboRepo.findAll());
     }
 
 
@@ -201,19 +177,43 @@ public class ComboServiceImpl implements ComboService {
                 .toList();
     }
 
-    private ComboDto toDto(Combo c, List<ComboDto.Item> items, java.math.BigDecimal suggested) {
+    // Danh sách combo: món của mọi combo nạp trong 1 câu (join dish), giá gợi ý tính luôn từ các dòng đó
+    // -> số câu SQL cố định dù có bao nhiêu combo
+    private List<ComboDto> toDtos(List<Combo> combos) {
+        if (combos.isEmpty()) return List.of();
+        Map<UUID, List<ComboItem>> rowsByCombo = itemRepo
+                .findWithDishByComboIdIn(combos.stream().map(Combo::getId).toList()).stream()
+                .collect(Collectors.groupingBy(ci -> ci.getId().getComboId()));
+        List<ComboDto> out = new ArrayList<>(combos.size());
+        for (Combo c : combos) out.add(toDto(c, rowsByCombo.getOrDefault(c.getId(), List.of())));
+        return out;
+    }
+
+    private ComboDto toDto(Combo c, List<ComboItem> rows) {
+        var items = rows.stream()
+                .map(ci -> new ComboDto.Item(ci.getDish().getId(), ci.getDish().getName(), ci.getQuantity()))
+                .toList();
+        return toDto(c, items, suggestedSum(rows));
+    }
+
+    private ComboDto toDto(Combo c, List<ComboDto.Item> items, BigDecimal suggested) {
         var base = mapper.toDto(c);
         return new ComboDto(base.id(), base.name(), base.description(), base.price(), base.imageUrl(),
                 base.status(), items, suggested);
     }
 
-    private java.math.BigDecimal suggestedSum(List<ComboDto.Item> items) {
-        if (items.isEmpty()) return java.math.BigDecimal.ZERO;
-        Map<UUID, Integer> qty = items.stream().collect(Collectors.toMap(ComboDto.Item::dishId, ComboDto.Item::quantity));
-        List<Dish> ds = dishRepo.findAllById(new ArrayList<>(qty.keySet()));
-        java.math.BigDecimal s = java.math.BigDecimal.ZERO;
-        for (Dish d : ds) s = s.add(d.getPrice().multiply(java.math.BigDecimal.valueOf(qty.get(d.getId()))));
-        return s;
+    // giá lẻ lấy từ dish đã join sẵn trong các dòng combo_items (không đợi / không lệch theo menu snapshot)
+    private static BigDecimal suggestedSum(List<ComboItem> rows) {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (ComboItem ci : rows) {
+            sum = sum.add(ci.getDish().getPrice().multiply(BigDecimal.valueOf(ci.getQuantity())));
+        }
+        return sum;
+    }
+
+    // menu snapshot dựng lại sau khi ghi (sau commit)
+    private void menuChanged() {
+        events.publishEvent(new MenuChangedEvent("COMBO", Instant.now()));
     }
 
 
@@ -223,94 +223,36 @@ public class ComboServiceImpl implements ComboService {
 
         List<DishDto> result = new ArrayList<>();
 
-        // ===== 1) HISTORY =====
-        var freqRows = orderItemRepo.findDishFrequencyByUser(userId);
-        if (!freqRows.isEmpty()) {
-            result.addAll(buildDishesFromFrequency(freqRows, LIMIT));
-        }
-
-        // Nếu đủ 4 thì return luôn
-        if (result.size() >= LIMIT) return result.subList(0, LIMIT);
+        // ===== 1) HISTORY ===== (chừa chỗ cho món hay gọi cùng)
+        var history = menuSampler.dishes(popularity.topDishesForUser(userId, LIMIT));
+        addDistinct(result, history.subList(0, Math.min(history.size(), LIMIT / 2)), LIMIT);
 
-        // ===== 2) SIGNATURE =====
-        var signatures = dishRepo.findTop4BySignatureTrueAndStatus(MenuStatus.ACTIVE);
-        for (var d : signatures) {
-            if (result.size() >= LIMIT) break;
-            if (result.stream().noneMatch(x -> x.id().equals(d.getId()))) {
-                result.add(dishMapper.toDto(d));
-            }
-        }
+        // ===== 2) HAY GỌI CÙNG ===== (chưa có gợi ý thì lấp bằng phần lịch sử còn lại)
+        addDistinct(result, menuSampler.dishes(recommender.recommendForUser(userId, LIMIT)), LIMIT);
+        addDistinct(result, history, LIMIT);
 
-        if (result.size() >= LIMIT) return result.subList(0, LIMIT);
-
-        // ===== 3) BEST SELLERS =====
-        var best = orderItemRepo.getBestSellers();
-        if (!best.isEmpty()) {
-            var bestList = buildDishesFromFrequency(best, 20); // lấy nhiều để lấp chỗ trống
-            for (var d : bestList) {
-                if (result.size() >= LIMIT) break;
-                if (result.stream().noneMatch(x -> x.id().equals(d.id()))) {
-                    result.add(d);
-                }
-            }
-        }
+        // ===== 3) SIGNATURE =====
+        addDistinct(result, menuSampler.signatureDishes(LIMIT), LIMIT);
 
-        if (result.size() >= LIMIT) return result.subList(0, LIMIT);
+        // ===== 4) BEST SELLERS ===== (lấy dư để lấp chỗ trống)
+        if (result.size() < LIMIT) addDistinct(result, menuSampler.dishes(popularity.topDishes(LIMIT * 2)), LIMIT);
 
-        // ===== 4) RANDOM =====
-        Pageable p = PageRequest.of(0, LIMIT * 2);
-        var randomDishes = dishRepo.findRandomActiveDishes(p);
-        for (var d : randomDishes) {
-            if (result.size() >= LIMIT) break;
-            if (result.stream().noneMatch(x -> x.id().equals(d.getId()))) {
-                result.add(dishMapper.toDto(d));
-            }
-        }
+        // ===== 5) RANDOM =====
+        if (result.size() < LIMIT) addDistinct(result, menuSampler.randomDishes(LIMIT * 2), LIMIT);
 
-        return result.subList(0, Math.min(result.size(), LIMIT));
+        return result;
     }
 
-    /**
-     * Build DishDto từ danh sách tần suất
-     */
-    private List<DishDto> buildDishesFromFrequency(List<Object[]> rows, int limit) {
-        List<UUID> ids = rows.stream()
-                .map(r -> (UUID) r[0])
-                .toList();
-
-        var dishes = dishRepo.findAllById(ids);
-
-        // giữ nguyên thứ tự theo freq
-        dishes.sort(Comparator.comparingInt(d -> ids.indexOf(d.getId())));
-
-        return dishes.stream()
-                .filter(d -> d.getStatus() == MenuStatus.ACTIVE)
-                .limit(limit)
-                .map(dishMapper::toDto)
-                .toList();
+    private static void addDistinct(List<DishDto> result, List<DishDto> more, int limit) {
+        for (var d : more) {
+            if (result.size() >= limit) return;
+            if (result.stream().noneMatch(x -> x.id().equals(d.id()))) result.add(d);
+        }
     }
 
     @Override
     public List<ComboDto> getSuggestedCombos() {
-        Pageable limit = PageRequest.of(0, 4);
-        var combos = comboRepo.findRandomCombos(limit);
-
-        return combos.stream().map(c -> {
-            var items = itemsOf(c.getId());
-            var suggested = suggestedSum(items);
-            var base = mapper.toDto(c);
-
-            return new ComboDto(
-                    base.id(),
-                    base.name(),
-                    base.description(),
-                    base.price(),
-                    base.imageUrl(),
-                    base.status(),
-                    items,
-                    suggested
-            );
-        }).toList();
+        return menuSampler.randomCombos(4);
     }
 
 
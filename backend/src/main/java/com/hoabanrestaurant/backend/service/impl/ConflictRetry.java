@@ -0,0 +1,73 @@
+package com.hoabanrestaurant.backend.service.impl;
+
+import com.hoabanrestaurant.backend.enums.ErrorCode;
+import com.hoabanrestaurant.backend.exception.BusinessException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+// Chạy lại cả transaction khi thua cuộc đua ghi:
+// - @Version của order lệch (2 khách cùng bàn gọi món một lúc)
+// - ux_orders_open_per_table (2 người cùng quét QR mở bàn) -> lần sau sẽ thấy order của người thắng
+// Mỗi lần thử là 1 transaction mới; nếu đang ở trong transaction (vd. IdempotencyService gọi xuống service)
+// thì chạy thẳng, để lớp ngoài cùng giữ transaction tự retry.
+@Component
+@RequiredArgsConstructor
+public class ConflictRetry {
+    private static final Logger log = LoggerFactory.getLogger(ConflictRetry.class);
+    private static final String OPEN_PER_TABLE_INDEX = "ux_orders_open_per_table";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.orders.conflict-retry.max-attempts:3}")
+    private int maxAttempts;
+    @Value("${app.orders.conflict-retry.backoff-ms:20}")
+    private long backoffMs;
+
+    public <T> T run(String op, Supplier<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) return action.get();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (ObjectOptimisticLockingFailureException e) {
+                beforeRetry(op, attempt);
+            } catch (DataIntegrityViolationException e) {
+                if (!isOpenOrderRace(e)) throw e;
+                beforeRetry(op, attempt);
+            }
+        }
+    }
+
+    private void beforeRetry(String op, int attempt) {
+        meterRegistry.counter("orders.conflict.retry", "op", op).increment();
+        if (attempt >= maxAttempts) {
+            log.warn("{}: vẫn xung đột sau {} lần thử", op, attempt);
+            throw new BusinessException(ErrorCode.CONCURRENT_UPDATE);
+        }
+        sleep(attempt);
+    }
+
+    private static boolean isOpenOrderRace(DataIntegrityViolationException e) {
+        String msg = e.getMostSpecificCause().getMessage();
+        return msg != null && msg.contains(OPEN_PER_TABLE_INDEX);
+    }
+
+    // lùi ngẫu nhiên để các request cùng bàn không đụng nhau lần nữa
+    private void sleep(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(backoffMs * attempt + 1));
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ErrorCode.CONCURRENT_UPDATE);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.hoabanrestaurant.backend.service.impl;
+
+import com.hoabanrestaurant.backend.enums.OrderStatus;
+import com.hoabanrestaurant.backend.event.OrderStatusChangedEvent;
+import com.hoabanrestaurant.backend.repository.DishPopularityJdbcRepository;
+import com.hoabanrestaurant.backend.repository.DishPopularityJdbcRepository.UserDish;
+import com.hoabanrestaurant.backend.service.DishPopularityService;
+import com.hoabanrestaurant.backend.service.MenuSnapshotService;
+import com.hoabanrestaurant.backend.util.MenuSnapshot;
+import com.hoabanrestaurant.backend.util.PopularityDecay;
+import com.hoabanrestaurant.backend.util.TopKCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Bộ đếm độ phổ biến món trong bộ nhớ, cộng khi order chuyển PAID (sau commit) thay cho GROUP BY
+// trên toàn bộ order_items mỗi lần gợi ý. Phần cộng dồn gom lại và ghi xuống DB theo định kỳ
+// (DishPopularityFlushJob). Sau lần flush có ghi (hoặc quá reload-interval-ms) bộ đếm được nạp lại từ DB
+// để nhận cả phần của instance khác. Mọi lần đọc DB đều ngoài lock; nạp xong mới vào lock cộng phần
+// pending chưa ghi rồi thay vào.
+@Service
+@RequiredArgsConstructor
+public class DishPopularityServiceImpl implements DishPopularityService {
+    private static final Logger log = LoggerFactory.getLogger(DishPopularityServiceImpl.class);
+
+    private final DishPopularityJdbcRepository repo;
+    private final MenuSnapshotService menuSnapshot;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate tx;
+
+    @Value("${app.popularity.top-size:50}")
+    private int topSize;
+    @Value("${app.popularity.user-top-size:20}")
+    private int userTopSize;
+    @Value("${app.popularity.reload-interval-ms:600000}")
+    private long reloadIntervalMs;
+
+    // lock chỉ bảo vệ pending + việc thay bộ đếm, không giữ trong lúc chạy SQL; đọc top-k chỉ khoá từng TopKCounter
+    private final Object lock = new Object();
+    private final Object flushLock = new Object();
+    private volatile TopKCounter global;
+    private final Map<UUID, TopKCounter> users = new ConcurrentHashMap<>();
+    private Map<UUID, Double> pendingGlobal = new HashMap<>();
+    private Map<UserDish, Double> pendingUser = new HashMap<>();
+    // tăng khi 1 lô pending bắt đầu và kết thúc ghi (lẻ = đang ghi); bản nạp từ DB chỉ được giữ lại
+    // nếu không có lô nào ghi xen giữa, nếu không có thể thiếu đúng phần vừa ghi
+    private long generation;
+    private volatile long lastReload = System.currentTimeMillis();
+
+    @Override
+    public List<UUID> topDishes(int k) {
+        MenuSnapshot menu = menuSnapshot.current();
+        return global().top(k, menu::dishServable);
+    }
+
+    @Override
+    public List<UUID> topDishesForUser(UUID userId, int k) {
+        MenuSnapshot menu = menuSnapshot.current();
+        TopKCounter c = users.get(userId);
+        if (c == null) c = loadUser(userId);
+        return c.top(k, menu::dishServable);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStatusChanged(OrderStatusChangedEvent ev) {
+        if (ev.to() != OrderStatus.PAID) return;
+        try {
+            var lines = repo.findDishLines(ev.orderId());
+            double w = PopularityDecay.weight(ev.at());
+            synchronized (lock) {
+                // bộ đếm chưa nạp thì thôi: phần này nằm trong pending, lúc nạp sẽ được cộng vào
+                TopKCounter g = global;
+                for (var l : lines) {
+                    double delta = w * l.quantity();
+                    if (g != null) g.add(l.dishId(), delta);
+                    pendingGlobal.merge(l.dishId(), delta, Double::sum);
+                    if (l.userId() == null) continue;
+                    TopKCounter u = users.get(l.userId());
+                    if (u != null) u.add(l.dishId(), delta);
+                    pendingUser.merge(new UserDish(l.userId(), l.dishId()), delta, Double::sum);
+                }
+            }
+        } catch (RuntimeException e) {
+            // không để thống kê gợi ý làm hỏng luồng thanh toán; lần nạp lại sau flush sẽ không có order này
+            log.warn("Không cộng được điểm phổ biến cho order {}: {}", ev.orderId(), e.getMessage());
+        }
+    }
+
+    @Override
+    @PreDestroy
+    public int flush() {
+        synchronized (flushLock) {
+            Map<UUID, Double> g;
+            Map<UserDish, Double> u;
+            synchronized (lock) {
+                g = pendingGlobal;
+                u = pendingUser;
+                if (!g.isEmpty() || !u.isEmpty()) {
+                    pendingGlobal = new HashMap<>();
+                    pendingUser = new HashMap<>();
+                    generation++;
+                }
+            }
+
+            int flushed = 0;
+            if (!g.isEmpty() || !u.isEmpty()) {
+                try {
+                    tx.executeWithoutResult(s -> {
+                        repo.addGlobal(g);
+                        repo.addUser(u);
+                    });
+                    flushed = g.size() + u.size();
+                    meterRegistry.counter("menu.popularity.flushed").increment(flushed);
+                } catch (RuntimeException e) {
+                    log.warn("Ghi điểm phổ biến món thất bại, thử lại lần sau: {}", e.getMessage());
+                    synchronized (lock) {
+                        g.forEach((k, v) -> pendingGlobal.merge(k, v, Double::sum));
+                        u.forEach((k, v) -> pendingUser.merge(k, v, Double::sum));
+                    }
+                } finally {
+                    synchronized (lock) {
+                        generation++;
+                    }
+                }
+            }
+
+            // không có gì mới thì giữ nguyên cache; phần của instance khác được nhận sau reload-interval-ms
+            if (flushed > 0 || System.currentTimeMillis() - lastReload >= reloadIntervalMs) reload();
+            return flushed;
+        }
+    }
+
+    // gọi khi giữ flushLock (không lô nào đang ghi): nạp top toàn cục ngoài lock rồi thay vào,
+    // cache theo user bỏ đi và nạp lại lười khi có người hỏi
+    private void reload() {
+        try {
+            TopKCounter g = TopKCounter.of(topSize, repo.findGlobal());
+            synchronized (lock) {
+                pendingGlobal.forEach(g::add);
+                global = g;
+                users.clear();
+            }
+            lastReload = System.currentTimeMillis();
+        } catch (RuntimeException e) {
+            log.warn("Nạp lại điểm phổ biến món thất bại, giữ bộ đếm cũ: {}", e.getMessage());
+        }
+    }
+
+    private TopKCounter global() {
+        TopKCounter g = global;
+        if (g != null) return g;
+        long gen;
+        synchronized (lock) {
+            gen = generation;
+        }
+        TopKCounter loaded = TopKCounter.of(topSize, repo.findGlobal());
+        synchronized (lock) {
+            if (global != null) return global;
+            pendingGlobal.forEach(loaded::add);
+            if (gen == generation && gen % 2 == 0) global = loaded; // có lô ghi xen giữa: dùng tạm, không giữ
+            return loaded;
+        }
+    }
+
+    private TopKCounter loadUser(UUID userId) {
+        long gen;
+        synchronized (lock) {
+            gen = generation;
+        }
+        TopKCounter loaded = TopKCounter.of(userTopSize, repo.findByUser(userId));
+        synchronized (lock) {
+            TopKCounter c = users.get(userId);
+            if (c != null) return c;
+            pendingUser.forEach((k, v) -> {
+                if (k.userId().equals(userId)) loaded.add(k.dishId(), v);
+            });
+            if (gen == generation && gen % 2 == 0) users.put(userId, loaded);
+            return loaded;
+        }
+    }
+}
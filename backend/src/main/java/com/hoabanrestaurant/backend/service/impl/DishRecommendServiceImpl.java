@@ -0,0 +1,156 @@
+package com.hoabanrestaurant.backend.service.impl;
+
+import com.hoabanrestaurant.backend.repository.DishCooccurrenceJdbcRepository;
+import com.hoabanrestaurant.backend.service.DishPopularityService;
+import com.hoabanrestaurant.backend.service.DishRecommendService;
+import com.hoabanrestaurant.backend.service.MenuSnapshotService;
+import com.hoabanrestaurant.backend.util.CooccurrenceMatrix;
+import com.hoabanrestaurant.backend.util.MenuSnapshot;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+// Gợi ý "hay gọi cùng": job nền đọc order_items theo từng order, dựng ma trận đồng xuất hiện món x món,
+// chuẩn hoá thành top-N láng giềng mỗi món. Lúc gợi ý chỉ cộng điểm láng giềng của vài món user gọi
+// gần đây (lấy từ DishPopularityService, đã có trong bộ nhớ) -> không truy vấn DB.
+@Service
+@RequiredArgsConstructor
+public class DishRecommendServiceImpl implements DishRecommendService {
+    private static final Logger log = LoggerFactory.getLogger(DishRecommendServiceImpl.class);
+
+    // dishes đã sắp xếp để tìm chỉ số bằng binarySearch; neighbours/scores đánh theo chỉ số đó
+    private record Model(UUID[] dishes, int[][] neighbours, float[][] scores, Instant builtAt) {
+        int indexOf(UUID id) {
+            int i = Arrays.binarySearch(dishes, id);
+            return i < 0 ? -1 : i;
+        }
+    }
+
+    private final DishCooccurrenceJdbcRepository cooccurrenceRepo;
+    private final DishPopularityService popularity;
+    private final MenuSnapshotService menuSnapshot;
+    private final TransactionTemplate tx;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.recommend.window-days:365}")
+    private int windowDays;
+    @Value("${app.recommend.top-neighbours:10}")
+    private int topNeighbours;
+    @Value("${app.recommend.min-support:2}")
+    private int minSupport;
+    @Value("${app.recommend.max-basket:64}")
+    private int maxBasket;
+    @Value("${app.recommend.seed-dishes:5}")
+    private int seedDishes;
+    @Value("${app.recommend.fetch-size:5000}")
+    private int fetchSize;
+
+    private volatile Model model = new Model(new UUID[0], new int[0][], new float[0][], Instant.EPOCH);
+
+    @Override
+    public List<UUID> recommendForUser(UUID userId, int k) {
+        Model m = model;
+        if (m.dishes().length == 0 || k <= 0) return List.of();
+        List<UUID> seeds = popularity.topDishesForUser(userId, seedDishes);
+        if (seeds.isEmpty()) return List.of();
+
+        int[] seedIdx = new int[seeds.size()];
+        int[] cand = new int[seeds.size() * topNeighbours];
+        float[] score = new float[cand.length];
+        int n = 0;
+        for (int r = 0; r < seeds.size(); r++) {
+            int s = m.indexOf(seeds.get(r));
+            seedIdx[r] = s;
+            if (s < 0) continue;
+            float w = 1f / (r + 1); // món gọi nhiều/gần đây hơn nặng ký hơn
+            int[] nb = m.neighbours()[s];
+            float[] sc = m.scores()[s];
+            for (int t = 0; t < nb.length; t++) {
+                int c = 0;
+                while (c < n && cand[c] != nb[t]) c++;
+                if (c == n) cand[n++] = nb[t];
+                score[c] += w * sc[t];
+            }
+        }
+
+        MenuSnapshot menu = menuSnapshot.current();
+        List<UUID> out = new ArrayList<>(k);
+        boolean[] used = new boolean[n];
+        // n chỉ vài chục: chọn lần lượt phần tử lớn nhất là đủ
+        while (out.size() < k) {
+            int best = -1;
+            for (int c = 0; c < n; c++) {
+                if (!used[c] && (best < 0 || score[c] > score[best])) best = c;
+            }
+            if (best < 0) break;
+            used[best] = true;
+            UUID id = m.dishes()[cand[best]];
+            if (!contains(seedIdx, cand[best]) && menu.dishServable(id)) out.add(id);
+        }
+        return out;
+    }
+
+    @Override
+    public void rebuild() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        UUID[] dishes = menuSnapshot.current().dishes().keySet().toArray(new UUID[0]);
+        Arrays.sort(dishes);
+        CooccurrenceMatrix matrix = new CooccurrenceMatrix(dishes.length, maxBasket);
+
+        // giỏ hiện tại: món của order đang đọc; order dài hơn bộ đệm thì giữ mẫu ngẫu nhiên đều (reservoir),
+        // không giữ mấy dòng đầu theo thứ tự SQL
+        int[] basket = new int[maxBasket * 4];
+        int[] basketSize = {0};
+        int[] basketLines = {0};
+        SplittableRandom random = new SplittableRandom();
+        UUID[] current = {null};
+        long[] lines = {0};
+        Instant since = Instant.now().minus(Duration.ofDays(windowDays));
+
+        TransactionTemplate readOnly = new TransactionTemplate(tx.getTransactionManager());
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(s -> cooccurrenceRepo.streamPaidDishLines(since, fetchSize, rs -> {
+            UUID orderId = rs.getObject(1, UUID.class);
+            if (!orderId.equals(current[0])) {
+                matrix.addBasket(basket, basketSize[0]);
+                basketSize[0] = 0;
+                basketLines[0] = 0;
+                current[0] = orderId;
+            }
+            lines[0]++;
+            int idx = Arrays.binarySearch(dishes, rs.getObject(2, UUID.class));
+            if (idx < 0) return;
+            int seen = basketLines[0]++;
+            if (basketSize[0] < basket.length) basket[basketSize[0]++] = idx;
+            else {
+                int slot = random.nextInt(seen + 1);
+                if (slot < basket.length) basket[slot] = idx;
+            }
+        }));
+        matrix.addBasket(basket, basketSize[0]);
+
+        CooccurrenceMatrix.Neighbours nb = matrix.topNeighbours(topNeighbours, minSupport);
+        model = new Model(dishes, nb.ids(), nb.scores(), Instant.now());
+        long ms = sample.stop(meterRegistry.timer("menu.recommend.rebuild")) / 1_000_000;
+        log.info("Dựng lại gợi ý món: {} dòng, {} order, {} cặp món ({} ms)",
+                lines[0], matrix.baskets(), matrix.pairCount(), ms);
+    }
+
+    private static boolean contains(int[] a, int v) {
+        for (int x : a) if (x == v) return true;
+        return false;
+    }
+}
@@ -2,23 +2,30 @@ package com.hoabanrestaurant.backend.service.impl;
 
 import com.hoabanrestaurant.backend.dto.request.CreateDishReq;
 import com.hoabanrestaurant.backend.dto.request.UpdateDishReq;
+import com.hoabanrestaurant.backend.dto.response.CursorPage;
 import com.hoabanrestaurant.backend.dto.response.DishDto;
 import com.hoabanrestaurant.backend.entity.Category;
 import com.hoabanrestaurant.backend.entity.Dish;
+import com.hoabanrestaurant.backend.enums.DishSort;
 import com.hoabanrestaurant.backend.enums.ErrorCode;
 import com.hoabanrestaurant.backend.enums.MenuStatus;
+import com.hoabanrestaurant.backend.event.MenuChangedEvent;
 import com.hoabanrestaurant.backend.exception.BusinessException;
 import com.hoabanrestaurant.backend.mapper.DishMapper;
 import com.hoabanrestaurant.backend.repository.CategoryRepository;
 import com.hoabanrestaurant.backend.repository.DishRepository;
+import com.hoabanrestaurant.backend.repository.DishSpecifications;
 import com.hoabanrestaurant.backend.service.DishService;
+import com.hoabanrestaurant.backend.util.CursorCodec;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -27,9 +34,12 @@ import java.util.UUID;
 @Service
 @RequiredArgsConstructor
 public class DishServiceImpl implements DishService {
+    private static final int PAGE_MAX_LIMIT = 1000;
+
     private final CategoryRepository categoryRepo;
     private final DishRepository dishRepo;
     private final DishMapper mapper;
+    private final ApplicationEventPublisher events;
 
     @Override
     public DishDto create(CreateDishReq req) {
@@ -49,7 +59,9 @@ public class DishServiceImpl implements DishService {
                 .status(req.status() != null ? req.status() : MenuStatus.ACTIVE)
                 .build();
 
-        return mapper.toDto(dishRepo.save(d));
+        d = dishRepo.save(d);
+        menuChanged();
+        return mapper.toDto(d);
     }
 
     @Override
@@ -65,31 +77,81 @@ public class DishServiceImpl implements DishService {
         if (req.signature() != null) {
             d.setSignature(req.signature());
         }
-        return mapper.toDto(dishRepo.save(d));
+        d = dishRepo.save(d);
+        menuChanged();
+        return mapper.toDto(d);
     }
 
     @Override
-    public Page<DishDto> listAll(int page, int size, String sortBy, String direction) {
-        Sort sort = direction.equalsIgnoreCase("asc")
-                ? Sort.by(sortBy).ascending()
-                : Sort.by(sortBy).descending();
-
-        Pageable pageable = PageRequest.of(page, size, sort);
-
-        return dishRepo.findByStatus(MenuStatus.ACTIVE, pageable).map(mapper::toDto);
+    public CursorPage<DishDto> listAll(String cursor, int limit, String sortBy, String direction, boolean withTotal) {
+        return page(MenuStatus.ACTIVE, cursor, limit, sortBy, direction, withTotal);
     }
 
     @Override
-    public Page<DishDto> getAll(int page, int size, String sortBy, String direction) {
-        Sort sort = direction.equalsIgnoreCase("asc")
-                ? Sort.by(sortBy).ascending()
-                : Sort.by(sortBy).descending();
+    public CursorPage<DishDto> getAll(MenuStatus status, String cursor, int limit, String sortBy, String direction,
+                                      boolean withTotal) {
+        return page(status, cursor, limit, sortBy, direction, withTotal);
+    }
+
+    // Keyset theo (sortBy, id): trang sâu tốn như trang đầu, không OFFSET
+    private CursorPage<DishDto> page(MenuStatus status, String cursor, int limit, String sortBy, String direction,
+                                     boolean withTotal) {
+        DishSort sort = sortOf(sortBy);
+        boolean asc = !"desc".equalsIgnoreCase(direction);
+        String order = sort.name() + (asc ? ":asc" : ":desc");
+        int size = Math.max(1, Math.min(limit, PAGE_MAX_LIMIT));
+
+        Specification<Dish> filter = DishSpecifications.hasStatus(status);
+        Specification<Dish> spec = filter;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] key = CursorCodec.decode(cursor, 3);
+            // cursor chỉ hợp lệ với đúng kiểu sắp xếp đã sinh ra nó
+            if (!key[0].equals(order)) throw new BusinessException(ErrorCode.BAD_REQUEST, "Cursor không hợp lệ");
+            spec = spec.and(after(sort, key[1], key[2], asc));
+        }
 
-        Pageable pageable = PageRequest.of(page, size, sort);
+        // lấy dư 1 dòng để biết còn trang sau; nạp luôn category cho mapper (tránh N+1)
+        Sort by = Sort.by(asc ? Sort.Direction.ASC : Sort.Direction.DESC, sort.property(), "id");
+        List<Dish> rows = dishRepo.findBy(spec, q -> q.sortBy(by).project("category").limit(size + 1).all());
+        boolean hasMore = rows.size() > size;
+        List<Dish> page = hasMore ? rows.subList(0, size) : rows;
 
-        return dishRepo.findAll(pageable).map(mapper::toDto);
+        String next = null;
+        if (hasMore) {
+            Dish last = page.get(page.size() - 1);
+            next = CursorCodec.encode(order, keyOf(sort, last), last.getId().toString());
+        }
+        Long total = withTotal ? dishRepo.count(filter) : null;
+        return new CursorPage<>(mapper.toDtoList(page), next, hasMore, total);
     }
 
+    private static DishSort sortOf(String sortBy) {
+        for (DishSort s : DishSort.values()) {
+            if (s.property().equalsIgnoreCase(sortBy)) return s;
+        }
+        throw new BusinessException(ErrorCode.BAD_REQUEST, "sortBy chỉ hỗ trợ name/price/createdAt");
+    }
+
+    private static String keyOf(DishSort sort, Dish d) {
+        return switch (sort) {
+            case NAME -> d.getName();
+            case PRICE -> d.getPrice().toPlainString();
+            case CREATED_AT -> d.getCreatedAt().toString();
+        };
+    }
+
+    private static Specification<Dish> after(DishSort sort, String value, String id, boolean asc) {
+        try {
+            UUID lastId = UUID.fromString(id);
+            return switch (sort) {
+                case NAME -> DishSpecifications.after(sort.property(), value, lastId, asc);
+                case PRICE -> DishSpecifications.after(sort.property(), new BigDecimal(value), lastId, asc);
+                case CREATED_AT -> DishSpecifications.after(sort.property(), Instant.parse(value), lastId, asc);
+            };
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new BusinessException(ErrorCode.BAD_REQUEST, "Cursor không hợp lệ");
+        }
+    }
 
     @Override
     public List<DishDto> listByCategory(UUID categoryId) {
@@ -108,6 +170,7 @@ public class DishServiceImpl implements DishService {
         Dish d = dishRepo.findById(dishId)
                 .orElseThrow(() -> new BusinessException(ErrorCode.NOT_FOUND, "Món không tồn tại"));
         dishRepo.delete(d);
+        menuChanged();
     }
 
     @Override
@@ -123,4 +186,8 @@ public class DishServiceImpl implements DishService {
                 .toList();
     }
 
+    // menu snapshot dựng lại sau khi ghi
+    private void menuChanged() {
+        events.publishEvent(new MenuChangedEvent("DISH", Instant.now()));
+    }
 }
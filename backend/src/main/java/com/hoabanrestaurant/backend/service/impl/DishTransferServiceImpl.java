@@ -0,0 +1,685 @@
+package com.hoabanrestaurant.backend.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hoabanrestaurant.backend.dto.response.DishImportResultDto;
+import com.hoabanrestaurant.backend.entity.Category;
+import com.hoabanrestaurant.backend.enums.ErrorCode;
+import com.hoabanrestaurant.backend.enums.ExportFormat;
+import com.hoabanrestaurant.backend.enums.MenuStatus;
+import com.hoabanrestaurant.backend.enums.Unit;
+import com.hoabanrestaurant.backend.event.MenuChangedEvent;
+import com.hoabanrestaurant.backend.exception.BusinessException;
+import com.hoabanrestaurant.backend.repository.CategoryRepository;
+import com.hoabanrestaurant.backend.repository.ComboJdbcRepository;
+import com.hoabanrestaurant.backend.repository.ComboJdbcRepository.ComboName;
+import com.hoabanrestaurant.backend.repository.ComboJdbcRepository.ComboRow;
+import com.hoabanrestaurant.backend.repository.DishJdbcRepository;
+import com.hoabanrestaurant.backend.repository.DishJdbcRepository.DishName;
+import com.hoabanrestaurant.backend.repository.DishJdbcRepository.DishRow;
+import com.hoabanrestaurant.backend.service.DishTransferService;
+import com.hoabanrestaurant.backend.util.CsvReader;
+import com.hoabanrestaurant.backend.util.CsvWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static com.hoabanrestaurant.backend.repository.DishJdbcRepository.COLUMNS;
+
+// Nhập / xuất thực đơn món hàng loạt (mở chi nhánh mới, sao lưu). Nhập: đọc từng dòng, kiểm tra trùng tên
+// trên chỉ mục tên trong bộ nhớ (thay cho existsBy... mỗi dòng), ghi theo lô bằng upsert; lô lỗi ở DB thì
+// ghi lại từng dòng để chỉ ra đúng dòng hỏng, các dòng khác vẫn vào. Dòng có cột id (file xuất ra rồi sửa)
+// cập nhật đúng món theo id, kể cả khi đã đổi tên; không có id mới khớp theo (danh mục, tên).
+// Combo nhập / xuất cùng cách, cột items liệt kê món theo tên ("Phở bò*2|Trà đá"), tra trên chỉ mục tên món
+// trong bộ nhớ; tên trùng ở nhiều danh mục (hoặc có ký tự | *) thì dùng id món.
+@Service
+@RequiredArgsConstructor
+public class DishTransferServiceImpl implements DishTransferService {
+    private static final Logger log = LoggerFactory.getLogger(DishTransferServiceImpl.class);
+    private static final int MAX_ERRORS = 500;
+
+    private final DishJdbcRepository dishJdbcRepo;
+    private final ComboJdbcRepository comboJdbcRepo;
+    private final CategoryRepository categoryRepo;
+    private final TransactionTemplate tx;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher events;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.menu.import.batch-size:1000}")
+    private int batchSize;
+    @Value("${app.menu.export.fetch-size:1000}")
+    private int fetchSize;
+
+    private record Pending(long row, DishRow dish, boolean exists) {
+    }
+
+    private record PendingCombo(long row, ComboRow combo, boolean exists) {
+    }
+
+    // bộ đếm + lỗi từng dòng của 1 lần nhập
+    private static class Result {
+        final List<DishImportResultDto.RowError> errors = new ArrayList<>();
+        long total, inserted, updated, failed;
+
+        void fail(long row, String name, String message) {
+            failed++;
+            if (errors.size() < MAX_ERRORS) errors.add(new DishImportResultDto.RowError(row, name, message));
+        }
+
+        void count(boolean exists) {
+            if (exists) updated++;
+            else inserted++;
+        }
+
+        DishImportResultDto toDto() {
+            return new DishImportResultDto(total, inserted, updated, failed, errors);
+        }
+    }
+
+    // trạng thái 1 lần nhập món
+    private final class Import extends Result {
+        final Set<UUID> categoryIds = new HashSet<>();
+        final Map<String, UUID> categoriesByName = new HashMap<>();
+        // categoryId -> tên thường -> món đang lưu (UNIQUE(category_id, name) phân biệt hoa thường)
+        final Map<UUID, Map<String, DishName>> names = new HashMap<>();
+        final Set<UUID> ids = new HashSet<>();
+        final Set<String> seen = new HashSet<>();
+        final Set<UUID> seenIds = new HashSet<>();
+        final List<Pending> batch = new ArrayList<>(batchSize);
+    }
+
+    // trạng thái 1 lần nhập combo
+    private final class ComboImport extends Result {
+        final DishIndex dishes;
+        final Set<UUID> ids = new HashSet<>();
+        final Map<String, ComboName> names = new HashMap<>();  // tên thường -> combo đang lưu
+        final Set<String> seen = new HashSet<>();
+        final Set<UUID> seenIds = new HashSet<>();
+        final List<PendingCombo> batch = new ArrayList<>(batchSize);
+
+        ComboImport(DishIndex dishes) {
+            this.dishes = dishes;
+        }
+    }
+
+    // Chỉ mục món trong bộ nhớ cho cột items của combo: theo id, và theo tên thường khi tên chỉ có ở 1 danh mục
+    private static final class DishIndex {
+        final Map<UUID, DishName> byId = new HashMap<>();
+        final Map<String, DishName> byName = new HashMap<>();
+        final Set<String> ambiguous = new HashSet<>();
+
+        DishIndex(List<DishName> dishes) {
+            for (DishName d : dishes) {
+                byId.put(d.id(), d);
+                String key = d.name().trim().toLowerCase(Locale.ROOT);
+                if (byName.putIfAbsent(key, d) != null) ambiguous.add(key);
+            }
+        }
+
+        // tên món nếu đọc ngược lại được đúng món này, không thì id
+        String ref(UUID id) {
+            DishName d = byId.get(id);
+            if (d == null) return id.toString();
+            String key = d.name().trim().toLowerCase(Locale.ROOT);
+            boolean plain = !ambiguous.contains(key) && d.name().indexOf('|') < 0 && d.name().indexOf('*') < 0
+                    && !isUuid(d.name().trim());
+            return plain ? d.name().trim() : id.toString();
+        }
+
+        DishName resolve(String ref) {
+            if (isUuid(ref)) {
+                DishName d = byId.get(UUID.fromString(ref));
+                if (d == null) throw new IllegalArgumentException("Món " + ref + " không tồn tại");
+                return d;
+            }
+            String key = ref.toLowerCase(Locale.ROOT);
+            if (ambiguous.contains(key))
+                throw new IllegalArgumentException("Tên món '" + ref + "' có ở nhiều danh mục, dùng id món");
+            DishName d = byName.get(key);
+            if (d == null) throw new IllegalArgumentException("Món '" + ref + "' không tồn tại");
+            return d;
+        }
+    }
+
+    @Override
+    public DishImportResultDto importDishes(InputStream in, ExportFormat format) throws IOException {
+        long started = System.nanoTime();
+        Import im = new Import();
+        for (Category c : categoryRepo.findAll()) {
+            im.categoryIds.add(c.getId());
+            im.categoriesByName.putIfAbsent(c.getName().trim().toLowerCase(Locale.ROOT), c.getId());
+        }
+        for (DishName d : dishJdbcRepo.findAllNames()) {
+            im.ids.add(d.id());
+            im.names.computeIfAbsent(d.categoryId(), k -> new HashMap<>())
+                    .putIfAbsent(d.name().toLowerCase(Locale.ROOT), d);
+        }
+
+        try {
+            read(in, format, im, (row, values) -> accept(im, row, values));
+        } finally {
+            flush(im);
+            finish(im, "DISH", started);
+        }
+        return im.toDto();
+    }
+
+    @Override
+    public DishImportResultDto importCombos(InputStream in, ExportFormat format) throws IOException {
+        long started = System.nanoTime();
+        ComboImport im = new ComboImport(new DishIndex(dishJdbcRepo.findAllNames()));
+        for (ComboName c : comboJdbcRepo.findAllNames()) {
+            im.ids.add(c.id());
+            im.names.putIfAbsent(c.name().trim().toLowerCase(Locale.ROOT), c);
+        }
+
+        try {
+            read(in, format, im, (row, values) -> acceptCombo(im, row, values));
+        } finally {
+            flushCombos(im);
+            finish(im, "COMBO", started);
+        }
+        return im.toDto();
+    }
+
+    private void finish(Result im, String type, long started) {
+        if (im.inserted + im.updated > 0) events.publishEvent(new MenuChangedEvent(type, Instant.now()));
+        String kind = type.toLowerCase(Locale.ROOT);
+        meterRegistry.counter("menu.import.rows", "type", kind, "result", "ok").increment(im.inserted + im.updated);
+        meterRegistry.counter("menu.import.rows", "type", kind, "result", "failed").increment(im.failed);
+        log.info("Nhập {}: {} dòng, {} thêm, {} cập nhật, {} lỗi ({} ms)", kind, im.total, im.inserted, im.updated,
+                im.failed, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @FunctionalInterface
+    private interface RowHandler {
+        void accept(long row, Map<String, String> values);
+    }
+
+    private void read(InputStream in, ExportFormat format, Result im, RowHandler handler) throws IOException {
+        if (format == ExportFormat.CSV) readCsv(in, im, handler);
+        else readNdjson(in, im, handler);
+    }
+
+    private void readCsv(InputStream in, Result im, RowHandler handler) throws IOException {
+        CsvReader csv = new CsvReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024));
+        List<String> header = csv.next();
+        if (header == null) throw new BusinessException(ErrorCode.BAD_REQUEST, "File rỗng");
+        List<String> columns = header.stream().map(h -> h.trim().toLowerCase(Locale.ROOT)).toList();
+        if (!columns.contains("name")) throw new BusinessException(ErrorCode.BAD_REQUEST, "Thiếu cột name");
+
+        List<String> cells;
+        while ((cells = readCsvRecord(csv, im)) != null) {
+            Map<String, String> row = new HashMap<>();
+            for (int i = 0; i < columns.size() && i < cells.size(); i++) row.put(columns.get(i), cells.get(i));
+            handler.accept(csv.record() - 1, row); // dòng 1 = bản ghi đầu tiên sau header
+        }
+    }
+
+    private static List<String> readCsvRecord(CsvReader csv, Result im) throws IOException {
+        try {
+            return csv.next();
+        } catch (IllegalStateException e) {
+            // hỏng cấu trúc (thiếu " đóng) thì không đọc tiếp được: báo lỗi dòng đó, giữ phần đã nhập
+            im.total++;
+            im.fail(csv.record() - 1, null, e.getMessage());
+            return null;
+        }
+    }
+
+    private void readNdjson(InputStream in, Result im, RowHandler handler) throws IOException {
+        long row = 0;
+        try (MappingIterator<JsonNode> it = objectMapper.readerFor(JsonNode.class).readValues(in)) {
+            while (true) {
+                JsonNode node;
+                try {
+                    if (!it.hasNextValue()) break;
+                    node = it.nextValue();
+                } catch (JsonProcessingException e) {
+                    im.total++;
+                    im.fail(row + 1, null, "JSON không hợp lệ: " + e.getOriginalMessage());
+                    break;
+                }
+                row++;
+                Map<String, String> values = new HashMap<>();
+                for (var f : node.properties()) {
+                    JsonNode v = f.getValue();
+                    // mảng / object (vd. items của combo) giữ nguyên dạng JSON
+                    values.put(f.getKey().toLowerCase(Locale.ROOT),
+                            v.isNull() ? null : v.isContainerNode() ? v.toString() : v.asText());
+                }
+                handler.accept(row, values);
+            }
+        }
+    }
+
+    private void accept(Import im, long row, Map<String, String> values) {
+        im.total++;
+        String name = trim(values.get("name"));
+        if (name == null) {
+            im.fail(row, null, "Thiếu tên món");
+            return;
+        }
+        UUID id;
+        try {
+            String raw = trim(values.get("id"));
+            id = raw == null ? null : UUID.fromString(raw);
+        } catch (IllegalArgumentException e) {
+            im.fail(row, name, "id không hợp lệ");
+            return;
+        }
+
+        UUID categoryId = category(im, trim(values.get("category_id")), trim(values.get("category")));
+        if (categoryId == null) {
+            im.fail(row, name, "Danh mục không tồn tại");
+            return;
+        }
+
+        Unit unit;
+        MenuStatus status;
+        BigDecimal price;
+        try {
+            String u = trim(values.get("unit"));
+            unit = u == null ? Unit.PORTION : Unit.valueOf(u.toUpperCase(Locale.ROOT));
+            String s = trim(values.get("status"));
+            status = s == null ? MenuStatus.ACTIVE : MenuStatus.valueOf(s.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            im.fail(row, name, "unit/status không hợp lệ");
+            return;
+        }
+        try {
+            String p = trim(values.get("price"));
+            price = p == null ? null : new BigDecimal(p);
+        } catch (NumberFormatException e) {
+            price = null;
+        }
+        if (price == null || price.signum() < 0) {
+            im.fail(row, name, "Giá không hợp lệ");
+            return;
+        }
+
+        String key = name.toLowerCase(Locale.ROOT);
+        DishName stored = im.names.getOrDefault(categoryId, Map.of()).get(key);
+        if (id != null && stored != null && !stored.id().equals(id)) {
+            im.fail(row, name, "Tên món trùng với món khác trong cùng danh mục");
+            return;
+        }
+        if (id != null && !im.seenIds.add(id)) {
+            im.fail(row, name, "Trùng id món ở dòng trước");
+            return;
+        }
+        if (!im.seen.add(categoryId + "\u0000" + key)) {
+            im.fail(row, name, "Trùng tên món trong cùng danh mục ở dòng trước");
+            return;
+        }
+        // có id: cập nhật đúng món đó (đổi tên được); không id mà trùng tên khác hoa thường: ghi đè món đang có
+        String signature = trim(values.get("signature"));
+        DishRow dish = new DishRow(id, categoryId, id == null && stored != null ? stored.name() : name,
+                trim(values.get("description")), unit, price, status, trim(values.get("image_url")),
+                "true".equalsIgnoreCase(signature) || "1".equals(signature));
+
+        im.batch.add(new Pending(row, dish, id != null ? im.ids.contains(id) : stored != null));
+        if (im.batch.size() >= batchSize) flush(im);
+    }
+
+    private UUID category(Import im, String id, String name) {
+        if (id != null) {
+            try {
+                UUID uuid = UUID.fromString(id);
+                if (im.categoryIds.contains(uuid)) return uuid;
+            } catch (IllegalArgumentException ignored) {
+                // rơi xuống tìm theo tên
+            }
+        }
+        return name == null ? null : im.categoriesByName.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    private void flush(Import im) {
+        if (im.batch.isEmpty()) return;
+        List<Pending> batch = new ArrayList<>(im.batch);
+        im.batch.clear();
+        try {
+            tx.executeWithoutResult(s -> dishJdbcRepo.upsert(batch.stream().map(Pending::dish).toList()));
+            batch.forEach(p -> im.count(p.exists()));
+        } catch (DataAccessException e) {
+            // lô hỏng: ghi lại từng dòng (mỗi dòng 1 transaction) để biết dòng nào lỗi
+            for (Pending p : batch) {
+                try {
+                    tx.executeWithoutResult(s -> dishJdbcRepo.upsert(List.of(p.dish())));
+                    im.count(p.exists());
+                } catch (DataAccessException rowError) {
+                    im.fail(p.row(), p.dish().name(), "Lỗi ghi DB: " + rootMessage(rowError));
+                }
+            }
+        }
+    }
+
+    private void acceptCombo(ComboImport im, long row, Map<String, String> values) {
+        im.total++;
+        String name = trim(values.get("name"));
+        if (name == null) {
+            im.fail(row, null, "Thiếu tên combo");
+            return;
+        }
+        UUID id;
+        MenuStatus status;
+        BigDecimal price;
+        Integer minPeople;
+        Integer maxPeople;
+        try {
+            String raw = trim(values.get("id"));
+            id = raw == null ? null : UUID.fromString(raw);
+        } catch (IllegalArgumentException e) {
+            im.fail(row, name, "id không hợp lệ");
+            return;
+        }
+        try {
+            String s = trim(values.get("status"));
+            status = s == null ? MenuStatus.ACTIVE : MenuStatus.valueOf(s.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            im.fail(row, name, "status không hợp lệ");
+            return;
+        }
+        try {
+            String p = trim(values.get("price"));
+            price = p == null ? null : new BigDecimal(p);
+        } catch (NumberFormatException e) {
+            price = null;
+        }
+        if (price == null || price.signum() < 0) {
+            im.fail(row, name, "Giá không hợp lệ");
+            return;
+        }
+        try {
+            minPeople = people(values.get("min_people"));
+            maxPeople = people(values.get("max_people"));
+        } catch (IllegalArgumentException e) {
+            im.fail(row, name, "min_people/max_people không hợp lệ");
+            return;
+        }
+        if (minPeople != null && maxPeople != null && minPeople > maxPeople) {
+            im.fail(row, name, "min_people lớn hơn max_people");
+            return;
+        }
+        Map<UUID, Integer> items;
+        try {
+            items = items(im.dishes, trim(values.get("items")));
+        } catch (IllegalArgumentException e) {
+            im.fail(row, name, e.getMessage());
+            return;
+        }
+
+        String key = name.toLowerCase(Locale.ROOT);
+        ComboName stored = im.names.get(key);
+        if (id != null && stored != null && !stored.id().equals(id)) {
+            im.fail(row, name, "Tên combo trùng với combo khác");
+            return;
+        }
+        if (id != null && !im.seenIds.add(id)) {
+            im.fail(row, name, "Trùng id combo ở dòng trước");
+            return;
+        }
+        if (!im.seen.add(key)) {
+            im.fail(row, name, "Trùng tên combo ở dòng trước");
+            return;
+        }
+        // không id: khớp combo đang có theo tên (không phân biệt hoa thường), giữ id + tên cũ; không có thì tạo id mới
+        UUID target = id != null ? id : stored != null ? stored.id() : UUID.randomUUID();
+        ComboRow combo = new ComboRow(target, id == null && stored != null ? stored.name() : name,
+                trim(values.get("description")), price, status, trim(values.get("image_url")),
+                minPeople, maxPeople, items);
+
+        im.batch.add(new PendingCombo(row, combo, id != null ? im.ids.contains(id) : stored != null));
+        if (im.batch.size() >= batchSize) flushCombos(im);
+    }
+
+    private static Integer people(String raw) {
+        String v = trim(raw);
+        if (v == null) return null;
+        int n = Integer.parseInt(v);
+        if (n < 1) throw new IllegalArgumentException();
+        return n;
+    }
+
+    // "Phở bò*2|Trà đá" (CSV) hoặc [{"dish_id": ..., "dish": ..., "quantity": 2}] (NDJSON); trùng món thì cộng dồn
+    private Map<UUID, Integer> items(DishIndex dishes, String raw) {
+        Map<UUID, Integer> out = new LinkedHashMap<>();
+        if (raw != null && raw.startsWith("[")) {
+            JsonNode array;
+            try {
+                array = objectMapper.readTree(raw);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("items không hợp lệ");
+            }
+            for (JsonNode it : array) {
+                String ref = trim(it.path("dish_id").asText(null));
+                if (ref == null) ref = trim(it.path("dish").asText(null));
+                if (ref == null) throw new IllegalArgumentException("items thiếu món");
+                add(out, dishes.resolve(ref), it.path("quantity").asInt(1));
+            }
+        } else if (raw != null) {
+            for (String token : raw.split("\\|")) {
+                String ref = token.trim();
+                if (ref.isEmpty()) continue;
+                int qty = 1;
+                int star = ref.lastIndexOf('*');
+                if (star >= 0) {
+                    try {
+                        qty = Integer.parseInt(ref.substring(star + 1).trim());
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Số lượng không hợp lệ: " + ref);
+                    }
+                    ref = ref.substring(0, star).trim();
+                }
+                add(out, dishes.resolve(ref), qty);
+            }
+        }
+        if (out.isEmpty()) throw new IllegalArgumentException("Combo cần ít nhất 1 món");
+        return out;
+    }
+
+    private static void add(Map<UUID, Integer> items, DishName dish, int qty) {
+        if (qty < 1) throw new IllegalArgumentException("Số lượng món '" + dish.name() + "' phải từ 1");
+        if (dish.status() != MenuStatus.ACTIVE)
+            throw new IllegalArgumentException("Món '" + dish.name() + "' đang không hoạt động");
+        items.merge(dish.id(), qty, Integer::sum);
+    }
+
+    private void flushCombos(ComboImport im) {
+        if (im.batch.isEmpty()) return;
+        List<PendingCombo> batch = new ArrayList<>(im.batch);
+        im.batch.clear();
+        try {
+            tx.executeWithoutResult(s -> comboJdbcRepo.upsert(batch.stream().map(PendingCombo::combo).toList()));
+            batch.forEach(p -> im.count(p.exists()));
+        } catch (DataAccessException e) {
+            for (PendingCombo p : batch) {
+                try {
+                    tx.executeWithoutResult(s -> comboJdbcRepo.upsert(List.of(p.combo())));
+                    im.count(p.exists());
+                } catch (DataAccessException rowError) {
+                    im.fail(p.row(), p.combo().name(), "Lỗi ghi DB: " + rootMessage(rowError));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void export(ExportFormat format, OutputStream out) throws IOException {
+        write(format, out, COLUMNS, dishJdbcRepo::stream, null);
+    }
+
+    @Override
+    public void exportCombos(ExportFormat format, OutputStream out) throws IOException {
+        DishIndex dishes = new DishIndex(dishJdbcRepo.findAllNames());
+        write(format, out, ComboJdbcRepository.COLUMNS, comboJdbcRepo::stream, (gen, items) -> {
+            // NDJSON: mảng món có cả id lẫn tên; CSV: tên món (id nếu tên không đọc ngược lại được)
+            if (gen == null) {
+                StringBuilder sb = new StringBuilder();
+                for (String[] it : parseAgg(items)) {
+                    if (!sb.isEmpty()) sb.append('|');
+                    sb.append(dishes.ref(UUID.fromString(it[0])));
+                    if (!"1".equals(it[1])) sb.append('*').append(it[1]);
+                }
+                return sb.toString();
+            }
+            gen.writeArrayFieldStart("items");
+            for (String[] it : parseAgg(items)) {
+                DishName d = dishes.byId.get(UUID.fromString(it[0]));
+                gen.writeStartObject();
+                gen.writeStringField("dish_id", it[0]);
+                if (d != null) gen.writeStringField("dish", d.name());
+                gen.writeNumberField("quantity", Integer.parseInt(it[1]));
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+            return null;
+        });
+    }
+
+    // "dishId*qty|dishId*qty" do string_agg dựng
+    private static List<String[]> parseAgg(String items) {
+        List<String[]> out = new ArrayList<>();
+        if (items == null || items.isEmpty()) return out;
+        for (String it : items.split("\\|")) {
+            int star = it.indexOf('*');
+            out.add(new String[]{it.substring(0, star), it.substring(star + 1)});
+        }
+        return out;
+    }
+
+    @FunctionalInterface
+    private interface Source {
+        void stream(int fetchSize, RowCallbackHandler handler);
+    }
+
+    // ghi cột cuối theo cách riêng (items của combo): CSV trả chuỗi ô, NDJSON tự ghi field rồi trả null
+    @FunctionalInterface
+    private interface LastColumn {
+        String write(JsonGenerator gen, String value) throws IOException;
+    }
+
+    // last = null: mọi cột ghi dạng chuỗi
+    private void write(ExportFormat format, OutputStream out, String[] columns, Source source, LastColumn last)
+            throws IOException {
+        Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        JsonGenerator gen = null;
+        if (format == ExportFormat.CSV) {
+            w.write('\uFEFF'); // BOM để Excel đọc đúng tiếng Việt
+            w.write(String.join(",", columns));
+            w.write("\r\n");
+        } else {
+            gen = objectMapper.getFactory().createGenerator(w);
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            gen.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+            gen.setRootValueSeparator(null);
+        }
+
+        TransactionTemplate readOnly = new TransactionTemplate(tx.getTransactionManager());
+        readOnly.setReadOnly(true);
+        JsonGenerator json = gen;
+        try {
+            readOnly.executeWithoutResult(s -> source.stream(fetchSize, rs -> {
+                try {
+                    String[] row = new String[columns.length];
+                    for (int c = 0; c < row.length; c++) row[c] = text(rs, c + 1);
+                    if (json == null) writeCsv(w, row, last);
+                    else writeJson(json, w, columns, row, last);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause(); // client ngắt kết nối giữa chừng
+        }
+        w.flush();
+    }
+
+    private static void writeCsv(Writer w, String[] row, LastColumn last) throws IOException {
+        for (int c = 0; c < row.length; c++) {
+            if (c > 0) w.write(',');
+            String v = last != null && c == row.length - 1 ? last.write(null, row[c]) : row[c];
+            if (v != null) w.write(CsvWriter.escape(v));
+        }
+        w.write("\r\n");
+    }
+
+    private static void writeJson(JsonGenerator gen, Writer w, String[] columns, String[] row, LastColumn last)
+            throws IOException {
+        gen.writeStartObject();
+        for (int c = 0; c < row.length; c++) {
+            if (last != null && c == row.length - 1) last.write(gen, row[c]);
+            else if (row[c] == null) gen.writeNullField(columns[c]);
+            else gen.writeStringField(columns[c], row[c]);
+        }
+        gen.writeEndObject();
+        gen.flush();
+        w.write('\n');
+    }
+
+    private static String text(ResultSet rs, int col) {
+        try {
+            Object v = rs.getObject(col);
+            return v == null ? null : v.toString();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Không đọc được dữ liệu xuất", e);
+        }
+    }
+
+    private static boolean isUuid(String s) {
+        if (s.length() != 36) return false;
+        try {
+            UUID.fromString(s);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static String trim(String s) {
+        if (s == null) return null;
+        String t = s.trim();
+        return t.isEmpty() ? null : t;
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable t = e;
+        while (t.getCause() != null) t = t.getCause();
+        return t.getMessage();
+    }
+}
@@ -1,35 +1,90 @@
 package com.hoabanrestaurant.backend.service.impl;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hoabanrestaurant.backend.repository.EmailQueueJdbcRepository;
+import com.hoabanrestaurant.backend.repository.EmailQueueJdbcRepository.QueuedEmail;
 import com.hoabanrestaurant.backend.service.EmailService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 import org.thymeleaf.context.Context;
 import org.thymeleaf.spring6.SpringTemplateEngine;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 @RequiredArgsConstructor
 public class EmailServiceImpl implements EmailService {
+    private static final Logger log = LoggerFactory.getLogger(EmailServiceImpl.class);
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+
     private final JavaMailSender mailSender;
     private final SpringTemplateEngine templateEngine;
+    private final EmailQueueJdbcRepository queueRepo;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
     @Value("${app.mail.from:Hoa Ban <no-reply@hoaban.vn>}")
     private String from;
+    @Value("${app.mail.queue.workers:2}")
+    private int workers;
+    @Value("${app.mail.queue.batch-size:50}")
+    private int batchSize;
+    @Value("${app.mail.queue.max-attempts:6}")
+    private int maxAttempts;
+    @Value("${app.mail.queue.backoff-ms:30000}")
+    private long backoffMs;
+    @Value("${app.mail.queue.lease-ms:300000}")
+    private long leaseMs;
+
+    private final AtomicLong queueDepth = new AtomicLong();
+    private ExecutorService pool;
+
+    @PostConstruct
+    void init() {
+        pool = Executors.newFixedThreadPool(workers);
+        meterRegistry.gauge("mail.queue.depth", queueDepth);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdown();
+    }
 
     @Override
     public void send(String to, String subject, String html) {
         try {
-            var mime = mailSender.createMimeMessage();
-            var helper = new MimeMessageHelper(mime, "UTF-8");
-            helper.setFrom(from);
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(html, true);
-            mailSender.send(mime);
+            mailSender.send(buildMessage(to, subject, html));
         } catch (Exception e) {
             throw new RuntimeException("Gửi email thất bại", e);
         }
@@ -37,7 +92,133 @@ public class EmailServiceImpl implements EmailService {
 
     @Override
     public void sendTemplate(String to, String subject, String template, Map<String, Object> model) {
-        String html = templateEngine.process(template, new Context(Locale.forLanguageTag("vi"), model));
-        send(to, subject, html);
+        send(to, subject, render(template, model));
+    }
+
+    @Override
+    public void queueTemplate(String to, String subject, String template, Map<String, Object> model) {
+        // TreeMap để cùng nội dung luôn ra cùng JSON -> cùng dedupe_key
+        String modelJson = toJson(new TreeMap<>(model));
+        queueRepo.enqueue(to, subject, template, modelJson, sha256(subject + "\n" + template + "\n" + modelJson));
+    }
+
+    @Override
+    public int dispatchQueued() {
+        List<QueuedEmail> batch = queueRepo.claim(batchSize, Duration.ofMillis(leaseMs));
+        if (!batch.isEmpty()) {
+            // chia lô cho các worker; mỗi worker gửi phần của mình qua 1 kết nối SMTP
+            int parts = Math.min(workers, batch.size());
+            List<Future<?>> futures = new ArrayList<>(parts);
+            for (int w = 0; w < parts; w++) {
+                List<QueuedEmail> chunk = new ArrayList<>();
+                for (int i = w; i < batch.size(); i += parts) chunk.add(batch.get(i));
+                futures.add(pool.submit(() -> sendChunk(chunk)));
+            }
+            for (Future<?> f : futures) {
+                try {
+                    f.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    log.error("Worker gửi email lỗi", e.getCause());
+                }
+            }
+        }
+        queueDepth.set(queueRepo.countPending());
+        return batch.size();
+    }
+
+    private void sendChunk(List<QueuedEmail> chunk) {
+        Map<MimeMessage, QueuedEmail> byMessage = new IdentityHashMap<>();
+        for (QueuedEmail q : chunk) {
+            try {
+                byMessage.put(buildMessage(q.recipient(), q.subject(),
+                        render(q.template(), fromJson(q.model()))), q);
+            } catch (Exception e) {
+                fail(q, e);
+            }
+        }
+        if (byMessage.isEmpty()) return;
+
+        List<QueuedEmail> sent = new ArrayList<>(byMessage.values());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            mailSender.send(byMessage.keySet().toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            // chỉ các message trong failedMessages là lỗi, phần còn lại đã gửi
+            if (e.getFailedMessages().isEmpty()) {
+                sent.forEach(q -> fail(q, e));
+                sent.clear();
+            }
+            e.getFailedMessages().forEach((msg, ex) -> {
+                QueuedEmail q = byMessage.get(msg);
+                if (q != null) {
+                    sent.remove(q);
+                    fail(q, ex);
+                }
+            });
+        } catch (MailException e) {
+            sent.forEach(q -> fail(q, e));
+            sent.clear();
+        } finally {
+            sample.stop(meterRegistry.timer("mail.send.latency"));
+        }
+
+        queueRepo.markSent(sent.stream().map(QueuedEmail::id).toList());
+        meterRegistry.counter("mail.sent").increment(sent.size());
+    }
+
+    private void fail(QueuedEmail q, Exception e) {
+        int attempts = q.attempts() + 1;
+        boolean dead = attempts >= maxAttempts;
+        Duration delay = Duration.ofMillis(backoffMs).multipliedBy(1L << Math.min(attempts - 1, 20));
+        if (delay.compareTo(MAX_BACKOFF) > 0) delay = MAX_BACKOFF;
+
+        String error = String.valueOf(e.getMessage());
+        if (error.length() > 500) error = error.substring(0, 500);
+        queueRepo.markFailed(q.id(), dead, Instant.now().plus(delay), error);
+
+        meterRegistry.counter(dead ? "mail.dead" : "mail.retry").increment();
+        if (dead) log.error("Email #{} tới {} thất bại {} lần, bỏ qua: {}", q.id(), q.recipient(), attempts, error);
+        else log.warn("Email #{} tới {} lỗi (lần {}), thử lại sau {}s", q.id(), q.recipient(), attempts, delay.toSeconds());
+    }
+
+    private MimeMessage buildMessage(String to, String subject, String html) throws MessagingException {
+        var mime = mailSender.createMimeMessage();
+        var helper = new MimeMessageHelper(mime, "UTF-8");
+        helper.setFrom(from);
+        helper.setTo(to);
+        helper.setSubject(subject);
+        helper.setText(html, true);
+        return mime;
+    }
+
+    private String render(String template, Map<String, Object> model) {
+        return templateEngine.process(template, new Context(Locale.forLanguageTag("vi"), model));
+    }
+
+    private String toJson(Map<String, Object> model) {
+        try {
+            return objectMapper.writeValueAsString(model);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Không serialize được model email", e);
+        }
+    }
+
+    private Map<String, Object> fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, new TypeReference<>() {
+            });
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Model email không hợp lệ", e);
+        }
+    }
+
+    private static String sha256(String s) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(s.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
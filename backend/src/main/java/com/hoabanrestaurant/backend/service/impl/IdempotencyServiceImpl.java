@@ -0,0 +1,99 @@
+package com.hoabanrestaurant.backend.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hoabanrestaurant.backend.enums.ErrorCode;
+import com.hoabanrestaurant.backend.exception.BusinessException;
+import com.hoabanrestaurant.backend.repository.IdempotencyKeyJdbcRepository;
+import com.hoabanrestaurant.backend.service.IdempotencyService;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+// Giữ key + chạy nghiệp vụ + lưu response trong 1 transaction:
+// - retry sau khi đã xong: đọc response đã lưu, không đụng tới orders
+// - 2 request trùng chạy song song: request sau chờ ở unique index rồi nhận response của request trước
+// - nghiệp vụ lỗi: rollback luôn key, client retry được
+// - thua cuộc đua version/mở bàn: chạy lại cả transaction kèm key, xem ConflictRetry
+//   (không có key thì @RetryOnConflict trên service order tự retry)
+@Service
+@RequiredArgsConstructor
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private final IdempotencyKeyJdbcRepository repo;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate tx;
+    private final MeterRegistry meterRegistry;
+    private final ConflictRetry conflictRetry;
+
+    @Value("${app.idempotency.ttl-hours:24}")
+    private long ttlHours;
+    @Value("${app.idempotency.purge-batch-size:1000}")
+    private int purgeBatchSize;
+
+    @Override
+    public <T> T execute(String scope, String key, Object request, Class<T> responseType, Supplier<T> action) {
+        String op = scope.substring(0, scope.indexOf(':'));
+        if (key == null || key.isBlank()) return action.get();  // service order tự retry (@RetryOnConflict)
+        if (key.length() > 128) throw new BusinessException(ErrorCode.BAD_REQUEST, "Idempotency-Key quá dài");
+
+        String hash = sha256(toJson(request));
+        return conflictRetry.run(op, () -> tx.execute(s -> {
+            if (!repo.tryReserve(scope, key, hash, Instant.now().plus(Duration.ofHours(ttlHours)))) {
+                var stored = repo.find(scope, key)
+                        .orElseThrow(() -> new BusinessException(ErrorCode.CONCURRENT_UPDATE));
+                if (!stored.requestHash().equals(hash)) throw new BusinessException(ErrorCode.IDEMPOTENCY_KEY_REUSED);
+                meterRegistry.counter("idempotency.replayed", "scope", op).increment();
+                return fromJson(stored.response(), responseType);
+            }
+            T result = action.get();
+            repo.saveResponse(scope, key, toJson(result));
+            return result;
+        }));
+    }
+
+    @Override
+    public int purgeExpired() {
+        int total = 0;
+        int n;
+        do {
+            n = repo.deleteExpired(purgeBatchSize);
+            total += n;
+        } while (n == purgeBatchSize);
+        return total;
+    }
+
+    private String toJson(Object o) {
+        try {
+            return objectMapper.writeValueAsString(o);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Không serialize được dữ liệu idempotency", e);
+        }
+    }
+
+    private <T> T fromJson(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Response idempotency không hợp lệ", e);
+        }
+    }
+
+    private static String sha256(String s) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(s.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
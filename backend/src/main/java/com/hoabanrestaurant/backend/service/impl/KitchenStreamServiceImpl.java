@@ -0,0 +1,171 @@
+package com.hoabanrestaurant.backend.service.impl;
+
+import com.hoabanrestaurant.backend.dto.response.KitchenEventDto;
+import com.hoabanrestaurant.backend.event.OrderItemsChangedEvent;
+import com.hoabanrestaurant.backend.event.OrderStatusChangedEvent;
+import com.hoabanrestaurant.backend.service.KitchenStreamService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
+
+// Đẩy thay đổi món/trạng thái order tới màn hình bếp qua SSE.
+// Mỗi tablet có hàng đợi giới hạn + 1 virtual thread gửi; đầy hàng đợi thì ngắt kết nối,
+// client reconnect với Last-Event-ID và được phát lại từ bộ đệm gần nhất.
+@Service
+public class KitchenStreamServiceImpl implements KitchenStreamService {
+    private static final Logger log = LoggerFactory.getLogger(KitchenStreamServiceImpl.class);
+
+    @Value("${app.kitchen-stream.replay-size:1000}")
+    private int replaySize;
+    @Value("${app.kitchen-stream.subscriber-buffer:256}")
+    private int subscriberBuffer;
+    @Value("${app.kitchen-stream.timeout-ms:1800000}")
+    private long timeoutMs;
+    @Value("${app.kitchen-stream.heartbeat-ms:15000}")
+    private long heartbeatMs;
+
+    private final Object lock = new Object();
+    private final ArrayDeque<KitchenEventDto> replay = new ArrayDeque<>();
+    private final Set<Subscriber> subscribers = new CopyOnWriteArraySet<>();
+    private long seq;
+
+    @Override
+    public SseEmitter subscribe(Set<UUID> categoryIds, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber sub = new Subscriber(emitter, categoryIds == null ? Set.of() : Set.copyOf(categoryIds),
+                new ArrayBlockingQueue<>(subscriberBuffer));
+
+        // đăng ký + lấy phần phát lại trong cùng 1 khoá để không lỡ/trùng sự kiện
+        synchronized (lock) {
+            if (lastEventId != null) {
+                long oldest = replay.isEmpty() ? seq + 1 : replay.peekFirst().id();
+                if (lastEventId < oldest - 1 || lastEventId > seq) {
+                    // đã trôi khỏi bộ đệm (hoặc server restart): báo client tải lại feed
+                    sub.queue.offer(resync());
+                } else {
+                    for (KitchenEventDto e : replay) {
+                        if (e.id() > lastEventId && sub.accepts(e) && !sub.queue.offer(e)) {
+                            sub.queue.clear();
+                            sub.queue.offer(resync());
+                            break;
+                        }
+                    }
+                }
+            }
+            subscribers.add(sub);
+        }
+
+        emitter.onCompletion(sub::close);
+        emitter.onTimeout(sub::close);
+        emitter.onError(e -> sub.close());
+        sub.sender = Thread.ofVirtual().name("kitchen-sse").start(sub::drain);
+        return emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onItemsChanged(OrderItemsChangedEvent ev) {
+        synchronized (lock) {
+            for (var line : ev.lines()) {
+                String type = switch (line.kind()) {
+                    case ADDED -> "ITEM_ADDED";
+                    case QUANTITY_CHANGED -> "ITEM_QUANTITY_CHANGED";
+                    case REMOVED -> "ITEM_REMOVED";
+                };
+                publish(new KitchenEventDto(++seq, type, ev.orderId(), ev.tableId(), ev.orderType(),
+                        line.orderItemId(), line.itemType(), line.itemId(), line.categoryId(),
+                        line.name(), line.quantity(), line.delta(), null, ev.at()));
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStatusChanged(OrderStatusChangedEvent ev) {
+        synchronized (lock) {
+            publish(new KitchenEventDto(++seq, "ORDER_STATUS_CHANGED", ev.orderId(), ev.tableId(), ev.orderType(),
+                    null, null, null, null, null, null, null, ev.to(), ev.at()));
+        }
+    }
+
+    // gọi trong lock
+    private void publish(KitchenEventDto e) {
+        replay.addLast(e);
+        while (replay.size() > replaySize) replay.removeFirst();
+
+        List<Subscriber> slow = new ArrayList<>();
+        for (Subscriber s : subscribers) {
+            if (s.accepts(e) && !s.queue.offer(e)) slow.add(s);
+        }
+        for (Subscriber s : slow) {
+            log.warn("Kitchen SSE client chậm, đầy {} sự kiện -> ngắt kết nối", subscriberBuffer);
+            s.emitter.complete();
+            s.close();
+        }
+    }
+
+    private KitchenEventDto resync() {
+        return new KitchenEventDto(seq, "RESYNC", null, null, null, null, null, null, null,
+                null, null, null, null, Instant.now());
+    }
+
+    private final class Subscriber {
+        final SseEmitter emitter;
+        final Set<UUID> categories;
+        final BlockingQueue<KitchenEventDto> queue;
+        volatile Thread sender;
+        volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, Set<UUID> categories, BlockingQueue<KitchenEventDto> queue) {
+            this.emitter = emitter;
+            this.categories = categories;
+            this.queue = queue;
+        }
+
+        // trạng thái order và combo (không có category) gửi cho mọi trạm
+        boolean accepts(KitchenEventDto e) {
+            return categories.isEmpty() || e.categoryId() == null || categories.contains(e.categoryId());
+        }
+
+        void drain() {
+            try {
+                while (!closed) {
+                    KitchenEventDto e = queue.poll(heartbeatMs, TimeUnit.MILLISECONDS);
+                    if (e == null) {
+                        emitter.send(SseEmitter.event().comment("ping"));
+                    } else {
+                        emitter.send(SseEmitter.event().id(String.valueOf(e.id())).name(e.type()).data(e));
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | IllegalStateException e) {
+                // client đã đóng kết nối
+                close();
+            }
+        }
+
+        void close() {
+            if (closed) return;
+            closed = true;
+            subscribers.remove(this);
+            queue.clear();
+            Thread t = sender;
+            if (t != null && t != Thread.currentThread()) t.interrupt();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.hoabanrestaurant.backend.service.impl;
+
+import com.hoabanrestaurant.backend.dto.response.ComboDto;
+import com.hoabanrestaurant.backend.dto.response.DishDto;
+import com.hoabanrestaurant.backend.service.MenuSampleService;
+import com.hoabanrestaurant.backend.service.MenuSnapshotService;
+import com.hoabanrestaurant.backend.util.MenuSnapshot;
+import com.hoabanrestaurant.backend.util.RandomSampler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Thay cho ORDER BY RANDOM(): DTO của món/combo đang phục vụ dựng sẵn thành mảng theo version của
+// menu snapshot; mỗi lần gợi ý chỉ bốc k chỉ số ngẫu nhiên trên mảng.
+@Service
+@RequiredArgsConstructor
+public class MenuSampleServiceImpl implements MenuSampleService {
+
+    private record Pool(long version, DishDto[] dishes, Map<UUID, DishDto> dishById, List<DishDto> signatures,
+                        ComboDto[] combos) {
+    }
+
+    private final MenuSnapshotService menuSnapshot;
+
+    private volatile Pool pool = new Pool(-1, new DishDto[0], Map.of(), List.of(), new ComboDto[0]);
+
+    @Override
+    public List<DishDto> randomDishes(int k) {
+        return pick(pool().dishes(), k);
+    }
+
+    @Override
+    public List<DishDto> dishes(List<UUID> ids) {
+        Map<UUID, DishDto> byId = pool().dishById();
+        List<DishDto> out = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            DishDto d = byId.get(id);
+            if (d != null) out.add(d);
+        }
+        return out;
+    }
+
+    @Override
+    public List<DishDto> signatureDishes(int k) {
+        List<DishDto> all = pool().signatures();
+        return all.subList(0, Math.min(Math.max(k, 0), all.size()));
+    }
+
+    @Override
+    public List<ComboDto> randomCombos(int k) {
+        return pick(pool().combos(), k);
+    }
+
+    private static <T> List<T> pick(T[] items, int k) {
+        int[] idx = RandomSampler.sample(items.length, k, ThreadLocalRandom.current());
+        List<T> out = new ArrayList<>(idx.length);
+        for (int i : idx) out.add(items[i]);
+        return out;
+    }
+
+    private Pool pool() {
+        MenuSnapshot menu = menuSnapshot.current();
+        Pool cur = pool;
+        if (cur.version() == menu.version()) return cur;
+        synchronized (this) {
+            cur = pool;
+            if (cur.version() != menu.version()) {
+                cur = build(menu);
+                pool = cur;
+            }
+            return cur;
+        }
+    }
+
+    // chỉ món/combo đang phục vụ (MenuSnapshot.dishServable, dùng chung với tìm kiếm / gợi ý)
+    private static Pool build(MenuSnapshot menu) {
+        List<DishDto> dishes = new ArrayList<>(menu.dishes().size());
+        for (var d : menu.dishes().values()) {
+            if (!menu.dishServable(d.id())) continue;
+            String categoryName = menu.category(d.categoryId()).map(MenuSnapshot.CategoryEntry::name).orElse(null);
+            dishes.add(new DishDto(d.id(), d.categoryId(), categoryName,
+                    d.name(), d.description(), d.unit(), d.price(), d.imageUrl(), d.signature(), d.status()));
+        }
+        List<ComboDto> combos = new ArrayList<>(menu.combos().size());
+        for (var c : menu.combos().values()) {
+            if (!c.active()) continue;
+            List<ComboDto.Item> items = c.items().stream()
+                    .map(l -> new ComboDto.Item(l.dishId(), l.dishName(), l.quantity()))
+                    .toList();
+            combos.add(new ComboDto(c.id(), c.name(), c.description(), c.price(), c.imageUrl(), c.status(),
+                    items, c.suggestedSum()));
+        }
+        Map<UUID, DishDto> dishById = new HashMap<>(dishes.size() * 2);
+        for (DishDto d : dishes) dishById.put(d.id(), d);
+        List<DishDto> signatures = dishes.stream().filter(d -> Boolean.TRUE.equals(d.signature())).toList();
+        return new Pool(menu.version(), dishes.toArray(new DishDto[0]), dishById, signatures,
+                combos.toArray(new ComboDto[0]));
+    }
+}
@@ -0,0 +1,85 @@
+package com.hoabanrestaurant.backend.service.impl;
+
+import com.hoabanrestaurant.backend.dto.response.MenuSearchHitDto;
+import com.hoabanrestaurant.backend.service.MenuSearchService;
+import com.hoabanrestaurant.backend.service.MenuSnapshotService;
+import com.hoabanrestaurant.backend.util.MenuSnapshot;
+import com.hoabanrestaurant.backend.util.TrigramIndex;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// Chỉ mục trigram dựng từ menu snapshot. Snapshot có version mới (sau khi ghi thực đơn) thì lần tìm
+// kế tiếp dựng lại chỉ mục, tái dùng phần phân tích của các món không đổi tên/mô tả.
+@Service
+@RequiredArgsConstructor
+public class MenuSearchServiceImpl implements MenuSearchService {
+    private static final Logger log = LoggerFactory.getLogger(MenuSearchServiceImpl.class);
+    private static final int MAX_LIMIT = 50;
+
+    private record Item(String type, UUID id, String name, String description, String imageUrl,
+                        BigDecimal price, UUID categoryId) {
+    }
+
+    private record Indexed(long version, TrigramIndex<Item> index) {
+    }
+
+    private final MenuSnapshotService menuSnapshot;
+
+    @Value("${app.menu.search.min-score:0.3}")
+    private double minScore;
+
+    private volatile Indexed indexed = new Indexed(-1, TrigramIndex.build(List.of()));
+
+    @Override
+    public List<MenuSearchHitDto> search(String q, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        return index().search(q, size, minScore).stream()
+                .map(h -> {
+                    Item it = h.value();
+                    return new MenuSearchHitDto(it.type(), it.id(), it.name(), it.description(), it.imageUrl(),
+                            it.price(), it.categoryId(), Math.round(h.score() * 1000) / 1000.0);
+                })
+                .toList();
+    }
+
+    private TrigramIndex<Item> index() {
+        MenuSnapshot menu = menuSnapshot.current();
+        Indexed cur = indexed;
+        if (cur.version() == menu.version()) return cur.index();
+        synchronized (this) {
+            cur = indexed;
+            if (cur.version() != menu.version()) {
+                long started = System.nanoTime();
+                cur = new Indexed(menu.version(), TrigramIndex.build(docs(menu), cur.index()));
+                indexed = cur;
+                log.debug("Chỉ mục tìm kiếm menu v{}: {} mục ({} ms)", menu.version(), cur.index().size(),
+                        (System.nanoTime() - started) / 1_000_000);
+            }
+            return cur.index();
+        }
+    }
+
+    // chỉ món/combo đang phục vụ; món thuộc danh mục đã tắt cũng bỏ
+    private static List<TrigramIndex.Doc<Item>> docs(MenuSnapshot menu) {
+        List<TrigramIndex.Doc<Item>> docs = new ArrayList<>(menu.dishes().size() + menu.combos().size());
+        for (var d : menu.dishes().values()) {
+            if (!menu.dishServable(d.id())) continue;
+            docs.add(new TrigramIndex.Doc<>(new Item("DISH", d.id(), d.name(), d.description(), d.imageUrl(),
+                    d.price(), d.categoryId()), d.name(), d.description()));
+        }
+        for (var c : menu.combos().values()) {
+            if (!c.active()) continue;
+            docs.add(new TrigramIndex.Doc<>(new Item("COMBO", c.id(), c.name(), c.description(), c.imageUrl(),
+                    c.price(), null), c.name(), c.description()));
+        }
+        return docs;
+    }
+}
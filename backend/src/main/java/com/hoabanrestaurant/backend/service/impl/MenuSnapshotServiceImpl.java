@@ -0,0 +1,147 @@
+package com.hoabanrestaurant.backend.service.impl;
+
+import com.hoabanrestaurant.backend.entity.Area;
+import com.hoabanrestaurant.backend.entity.ComboItem;
+import com.hoabanrestaurant.backend.event.AreaChangedEvent;
+import com.hoabanrestaurant.backend.event.MenuChangedEvent;
+import com.hoabanrestaurant.backend.repository.AreaRepository;
+import com.hoabanrestaurant.backend.repository.CategoryRepository;
+import com.hoabanrestaurant.backend.repository.ComboItemRepository;
+import com.hoabanrestaurant.backend.repository.ComboRepository;
+import com.hoabanrestaurant.backend.repository.DishRepository;
+import com.hoabanrestaurant.backend.service.MenuSnapshotService;
+import com.hoabanrestaurant.backend.util.MenuSnapshot;
+import com.hoabanrestaurant.backend.util.MenuSnapshot.CategoryEntry;
+import com.hoabanrestaurant.backend.util.MenuSnapshot.ComboEntry;
+import com.hoabanrestaurant.backend.util.MenuSnapshot.ComboLine;
+import com.hoabanrestaurant.backend.util.MenuSnapshot.DishEntry;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class MenuSnapshotServiceImpl implements MenuSnapshotService {
+    private static final Logger log = LoggerFactory.getLogger(MenuSnapshotServiceImpl.class);
+
+    private final CategoryRepository categoryRepo;
+    private final DishRepository dishRepo;
+    private final ComboRepository comboRepo;
+    private final ComboItemRepository comboItemRepo;
+    private final AreaRepository areaRepo;
+
+    // bắt đầu từ thời điểm khởi động để version sau restart vẫn lớn hơn version cũ; chỉ tăng khi nội dung đổi
+    private final AtomicLong versions = new AtomicLong(System.currentTimeMillis());
+    private volatile MenuSnapshot current = MenuSnapshot.EMPTY;
+
+    @Override
+    public MenuSnapshot current() {
+        return current;
+    }
+
+    // 5 query cho toàn bộ thực đơn + khu vực; dựng tuần tự để bản mới không bị bản cũ ghi đè
+    @Override
+    @Transactional(readOnly = true)
+    public synchronized MenuSnapshot rebuild() {
+        long started = System.nanoTime();
+
+        Map<UUID, CategoryEntry> categories = categoryRepo.findAll().stream()
+                .collect(Collectors.toMap(c -> c.getId(), c -> new CategoryEntry(c.getId(), c.getName(), c.getStatus())));
+
+        Map<UUID, DishEntry> dishes = dishRepo.findAll().stream()
+                .collect(Collectors.toMap(d -> d.getId(), d -> new DishEntry(
+                        d.getId(), d.getCategory().getId(), d.getName(), d.getDescription(), d.getImageUrl(),
+                        d.getUnit(), d.isSignature(), d.getPrice(), d.getStatus())));
+
+        // id nhúng có sẵn combo_id / dish_id, không phải nạp quan hệ lazy
+        Map<UUID, List<ComboLine>> linesByCombo = new HashMap<>();
+        for (ComboItem ci : comboItemRepo.findAll()) {
+            DishEntry d = dishes.get(ci.getId().getDishId());
+            linesByCombo.computeIfAbsent(ci.getId().getComboId(), k -> new ArrayList<>())
+                    .add(new ComboLine(ci.getId().getDishId(), d != null ? d.name() : null, ci.getQuantity()));
+        }
+
+        Map<UUID, ComboEntry> combos = new HashMap<>();
+        for (var c : comboRepo.findAll()) {
+            // sắp theo món để cùng dữ liệu luôn ra cùng digest
+            List<ComboLine> lines = linesByCombo.getOrDefault(c.getId(), List.of()).stream()
+                    .sorted(Comparator.comparing(ComboLine::dishId)).toList();
+            BigDecimal suggested = BigDecimal.ZERO;
+            for (ComboLine l : lines) {
+                DishEntry d = dishes.get(l.dishId());
+                if (d != null) suggested = suggested.add(d.price().multiply(BigDecimal.valueOf(l.quantity())));
+            }
+            combos.put(c.getId(), new ComboEntry(c.getId(), c.getName(), c.getDescription(), c.getImageUrl(),
+                    c.getPrice(), c.getStatus(), lines, suggested));
+        }
+
+        String digest = digest(categories, dishes, combos, areaRepo.findAll());
+        if (digest.equals(current.digest())) {
+            log.debug("Menu snapshot v{} không đổi ({} ms)", current.version(), (System.nanoTime() - started) / 1_000_000);
+            return current;
+        }
+
+        MenuSnapshot next = new MenuSnapshot(versions.incrementAndGet(), digest, Instant.now(), categories, dishes, combos);
+        current = next;
+        log.debug("Menu snapshot v{}: {} danh mục, {} món, {} combo ({} ms)", next.version(),
+                categories.size(), dishes.size(), combos.size(), (System.nanoTime() - started) / 1_000_000);
+        return next;
+    }
+
+    // SHA-256 của mọi bản ghi sắp theo id (toString của record là cố định) -> chỉ phụ thuộc dữ liệu,
+    // không phụ thuộc instance hay lần khởi động
+    private static String digest(Map<UUID, CategoryEntry> categories, Map<UUID, DishEntry> dishes,
+                                 Map<UUID, ComboEntry> combos, List<Area> areas) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            for (Map<UUID, ?> part : List.of(categories, dishes, combos)) {
+                for (Object e : new TreeMap<>(part).values()) md.update((e + "\n").getBytes(StandardCharsets.UTF_8));
+                md.update((byte) 0);
+            }
+            areas.stream().sorted(Comparator.comparing(Area::getId)).forEach(a -> md.update(
+                    (a.getId() + "|" + a.getName() + "|" + a.getDescription() + "|" + a.getStatus() + "\n")
+                            .getBytes(StandardCharsets.UTF_8)));
+            return HexFormat.of().formatHex(md.digest(), 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuild();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMenuChanged(MenuChangedEvent ev) {
+        rebuild();
+    }
+
+    // khu vực không phải thực đơn nhưng nằm trong digest (ETag của GET /v1/areas)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAreaChanged(AreaChangedEvent ev) {
+        rebuild();
+    }
+}
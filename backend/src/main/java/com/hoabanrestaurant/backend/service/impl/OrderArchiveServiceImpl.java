@@ -0,0 +1,127 @@
+package com.hoabanrestaurant.backend.service.impl;
+
+import com.hoabanrestaurant.backend.dto.response.CursorPage;
+import com.hoabanrestaurant.backend.dto.response.OrderDto;
+import com.hoabanrestaurant.backend.dto.response.OrderItemDto;
+import com.hoabanrestaurant.backend.enums.ErrorCode;
+import com.hoabanrestaurant.backend.exception.BusinessException;
+import com.hoabanrestaurant.backend.repository.OrderArchiveJdbcRepository;
+import com.hoabanrestaurant.backend.repository.OrderArchiveJdbcRepository.ArchivedItem;
+import com.hoabanrestaurant.backend.repository.OrderArchiveJdbcRepository.ArchivedOrder;
+import com.hoabanrestaurant.backend.repository.OrderArchiveJdbcRepository.Candidate;
+import com.hoabanrestaurant.backend.service.OrderArchiveService;
+import com.hoabanrestaurant.backend.util.CursorCodec;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class OrderArchiveServiceImpl implements OrderArchiveService {
+    private static final Logger log = LoggerFactory.getLogger(OrderArchiveServiceImpl.class);
+    private static final int MAX_LIMIT = 100;
+
+    private final OrderArchiveJdbcRepository archiveRepo;
+    private final TransactionTemplate tx;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.orders.archive.min-age-days:180}")
+    private long minAgeDays;
+    @Value("${app.orders.archive.batch-size:500}")
+    private int batchSize;
+    @Value("${app.orders.archive.max-batches:200}")
+    private int maxBatches;
+    @Value("${app.orders.archive.default-range-days:365}")
+    private long defaultRangeDays;
+
+    @Override
+    public int archiveSettled() {
+        Instant cutoff = Instant.now().minus(Duration.ofDays(minAgeDays));
+        Instant oldest = archiveRepo.oldestSettled(cutoff);
+        if (oldest == null) return 0;
+
+        // tạo đủ partition tháng trước, ngoài các transaction chuyển dữ liệu (DDL khoá bảng cha)
+        YearMonth last = YearMonth.from(cutoff.atZone(ZoneOffset.UTC));
+        for (YearMonth m = YearMonth.from(oldest.atZone(ZoneOffset.UTC)); !m.isAfter(last); m = m.plusMonths(1)) {
+            archiveRepo.ensurePartition(m);
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        int total = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            // mỗi lô 1 transaction ngắn: khoá order, chép sang archive, xoá khỏi bảng nóng
+            Integer moved = tx.execute(s -> {
+                List<Candidate> rows = archiveRepo.lockCandidates(cutoff, batchSize);
+                return archiveRepo.moveAll(rows.stream().map(Candidate::id).toList());
+            });
+            int n = moved == null ? 0 : moved;
+            total += n;
+            if (n < batchSize) break;
+        }
+
+        long nanos = sample.stop(meterRegistry.timer("orders.archive.duration"));
+        meterRegistry.counter("orders.archive.moved").increment(total);
+        if (total > 0) {
+            log.info("Đã chuyển {} order cũ hơn {} ngày sang archive trong {} ms",
+                    total, minAgeDays, Duration.ofNanos(nanos).toMillis());
+        }
+        return total;
+    }
+
+    @Override
+    public CursorPage<OrderDto> getArchived(UUID userId, Instant from, Instant to, String cursor, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : end.minus(Duration.ofDays(defaultRangeDays));
+        if (!start.isBefore(end)) throw new BusinessException(ErrorCode.BAD_REQUEST, "Khoảng thời gian không hợp lệ");
+
+        Instant afterCreatedAt = null;
+        UUID afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] key = CursorCodec.decode(cursor, 2);
+            try {
+                afterCreatedAt = Instant.parse(key[0]);
+                afterId = UUID.fromString(key[1]);
+            } catch (DateTimeParseException | IllegalArgumentException e) {
+                throw new BusinessException(ErrorCode.BAD_REQUEST, "Cursor không hợp lệ");
+            }
+        }
+
+        List<ArchivedOrder> rows = archiveRepo.findOrders(userId, start, end, afterCreatedAt, afterId, size + 1);
+        boolean hasMore = rows.size() > size;
+        List<ArchivedOrder> page = hasMore ? rows.subList(0, size) : rows;
+
+        Map<UUID, List<OrderItemDto>> itemsByOrder = archiveRepo
+                .findItems(page.stream().map(ArchivedOrder::id).toList(), start, end).stream()
+                .collect(Collectors.groupingBy(ArchivedItem::orderId,
+                        Collectors.mapping(ArchivedItem::item, Collectors.toList())));
+
+        List<OrderDto> dtos = page.stream().map(o -> new OrderDto(
+                o.id(), o.userId(), o.tableId(), o.types(), o.status(),
+                o.subtotal(), o.discount(), o.tax(), o.total(), o.note(),
+                itemsByOrder.getOrDefault(o.id(), List.of()),
+                null)).toList();
+
+        String next = null;
+        if (hasMore) {
+            ArchivedOrder lastRow = page.get(page.size() - 1);
+            next = CursorCodec.encode(lastRow.createdAt().toString(), lastRow.id().toString());
+        }
+        return new CursorPage<>(dtos, next, hasMore);
+    }
+}
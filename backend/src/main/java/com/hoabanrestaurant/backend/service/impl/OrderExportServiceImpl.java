@@ -0,0 +1,149 @@
+package com.hoabanrestaurant.backend.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hoabanrestaurant.backend.enums.ExportFormat;
+import com.hoabanrestaurant.backend.repository.OrderExportJdbcRepository;
+import com.hoabanrestaurant.backend.service.OrderExportService;
+import com.hoabanrestaurant.backend.util.CsvWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import static com.hoabanrestaurant.backend.repository.OrderExportJdbcRepository.COLUMNS;
+
+@Service
+@RequiredArgsConstructor
+public class OrderExportServiceImpl implements OrderExportService {
+
+    private final OrderExportJdbcRepository exportRepo;
+    private final TransactionTemplate tx;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.orders.export.fetch-size:1000}")
+    private int fetchSize;
+    @Value("${app.orders.export.flush-rows:1000}")
+    private int flushRows;
+
+    @Override
+    public void export(Instant from, Instant to, ExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        RowWriter rows = format == ExportFormat.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+        rows.header();
+
+        // transaction chỉ đọc: cursor phía server cần autocommit = false; SELECT không giữ khoá dòng nào
+        TransactionTemplate readOnly = new TransactionTemplate(tx.getTransactionManager());
+        readOnly.setReadOnly(true);
+        readOnly.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        long[] count = {0};
+        try {
+            readOnly.executeWithoutResult(s -> exportRepo.stream(from, to, fetchSize, rs -> {
+                try {
+                    rows.write(rs);
+                    // đẩy từng đợt xuống client thay vì giữ trong buffer
+                    if (++count[0] % flushRows == 0) writer.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause(); // client ngắt kết nối giữa chừng
+        } finally {
+            sample.stop(meterRegistry.timer("orders.export.duration", "format", format.name()));
+            meterRegistry.counter("orders.export.rows", "format", format.name()).increment(count[0]);
+        }
+        writer.flush();
+    }
+
+    private interface RowWriter {
+        void header() throws IOException;
+
+        void write(ResultSet rs) throws IOException;
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer w;
+
+        CsvRowWriter(Writer w) {
+            this.w = w;
+        }
+
+        @Override
+        public void header() throws IOException {
+            w.write('\uFEFF'); // BOM để Excel đọc đúng tiếng Việt
+            w.write(String.join(",", COLUMNS));
+            w.write("\r\n");
+        }
+
+        @Override
+        public void write(ResultSet rs) throws IOException {
+            for (int c = 0; c < COLUMNS.length; c++) {
+                if (c > 0) w.write(',');
+                String v = text(rs, c + 1);
+                if (v != null) w.write(CsvWriter.escape(v));
+            }
+            w.write("\r\n");
+        }
+    }
+
+    private final class NdjsonRowWriter implements RowWriter {
+        private final Writer w;
+        private final JsonGenerator gen;
+
+        NdjsonRowWriter(Writer w) throws IOException {
+            this.w = w;
+            this.gen = objectMapper.getFactory().createGenerator(w);
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            gen.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+            gen.setRootValueSeparator(null); // mỗi object 1 dòng, tự xuống dòng bên dưới
+        }
+
+        @Override
+        public void header() {
+        }
+
+        @Override
+        public void write(ResultSet rs) throws IOException {
+            gen.writeStartObject();
+            for (int c = 0; c < COLUMNS.length; c++) {
+                String v = text(rs, c + 1);
+                if (v == null) gen.writeNullField(COLUMNS[c]);
+                else gen.writeStringField(COLUMNS[c], v);
+            }
+            gen.writeEndObject();
+            gen.flush(); // xuống Writer (vẫn có buffer), không phải xuống socket
+            w.write('\n');
+        }
+    }
+
+    // Mọi cột xuất dạng chuỗi: số tiền giữ nguyên scale, thời gian theo ISO-8601 UTC
+    private static String text(ResultSet rs, int col) {
+        try {
+            Object v = rs.getObject(col);
+            if (v == null) return null;
+            if (v instanceof Timestamp ts) return ts.toInstant().toString();
+            return v.toString();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Không đọc được dữ liệu xuất", e);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.hoabanrestaurant.backend.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hoabanrestaurant.backend.dto.response.DailyRevenueDto;
+import com.hoabanrestaurant.backend.entity.Order;
+import com.hoabanrestaurant.backend.enums.OutboxEventType;
+import com.hoabanrestaurant.backend.enums.OutboxStatus;
+import com.hoabanrestaurant.backend.event.OrderPaidPayload;
+import com.hoabanrestaurant.backend.event.OrderReceiptPayload;
+import com.hoabanrestaurant.backend.repository.DailyRevenueJdbcRepository;
+import com.hoabanrestaurant.backend.repository.LoyaltyAccountJdbcRepository;
+import com.hoabanrestaurant.backend.repository.OrderOutboxJdbcRepository;
+import com.hoabanrestaurant.backend.repository.OrderOutboxJdbcRepository.OutboxRow;
+import com.hoabanrestaurant.backend.repository.PaymentRepository;
+import com.hoabanrestaurant.backend.repository.UserVoucherRepository;
+import com.hoabanrestaurant.backend.service.EmailService;
+import com.hoabanrestaurant.backend.service.OrderOutboxService;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Outbox sau thanh toán: confirmPaid chỉ ghi 1-2 dòng outbox, phần còn lại chạy nền
+// (điểm, voucher, doanh thu ngày, email).
+// ORDER_PAID xử lý theo lô (1 transaction / lô, lỗi thì tách từng việc);
+// ORDER_RECEIPT gửi từng email. Lỗi -> thử lại với backoff, quá số lần -> DEAD.
+@Service
+@RequiredArgsConstructor
+public class OrderOutboxServiceImpl implements OrderOutboxService {
+    private static final Logger log = LoggerFactory.getLogger(OrderOutboxServiceImpl.class);
+
+    private static final long POINT_PER_VND = 1000; // 1 điểm / 1,000đ
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+
+    private final OrderOutboxJdbcRepository outboxRepo;
+    private final LoyaltyAccountJdbcRepository loyaltyJdbcRepo;
+    private final UserVoucherRepository userVoucherRepo;
+    private final PaymentRepository paymentRepo;
+    private final DailyRevenueJdbcRepository revenueRepo;
+    private final EmailService emailService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate tx;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.orders.outbox.batch-size:100}")
+    private int batchSize;
+    @Value("${app.orders.outbox.max-attempts:8}")
+    private int maxAttempts;
+    @Value("${app.orders.outbox.backoff-ms:5000}")
+    private long backoffMs;
+    @Value("${app.orders.outbox.receipt-email-enabled:false}")
+    private boolean receiptEmailEnabled;
+
+    @Override
+    public void enqueuePaid(Order order) {
+        var user = order.getUser();
+        long points = user == null ? 0
+                : order.getTotal().divide(BigDecimal.valueOf(POINT_PER_VND), 0, RoundingMode.FLOOR).longValue();
+
+        // doanh thu tính theo ngày tạo order (giống báo cáo cũ)
+        LocalDate day = order.getCreatedAt().atZone(ZoneId.systemDefault()).toLocalDate();
+        String method = paymentRepo.findFirstByOrder_IdOrderByCreatedAtDesc(order.getId())
+                .map(p -> p.getMethod().name()).orElse("NONE");
+
+        outboxRepo.enqueue(order.getId(), OutboxEventType.ORDER_PAID,
+                toJson(new OrderPaidPayload(user != null ? user.getId() : null, points, order.getAppliedUserVoucherId(),
+                        day, order.getTypes().name(), method, order.getTotal())));
+
+        if (receiptEmailEnabled && user != null && user.getEmail() != null) {
+            outboxRepo.enqueue(order.getId(), OutboxEventType.ORDER_RECEIPT,
+                    toJson(new OrderReceiptPayload(order.getId(), user.getEmail(), user.getFullName(),
+                            order.getTotal(), points)));
+        }
+    }
+
+    @Override
+    public int dispatchBatch() {
+        return dispatchPaid() + dispatchReceipts();
+    }
+
+    private int dispatchPaid() {
+        try {
+            Integer done = tx.execute(s -> {
+                List<OutboxRow> rows = outboxRepo.claimBatch(OutboxEventType.ORDER_PAID, batchSize);
+                if (rows.isEmpty()) return 0;
+                applyPaid(rows);
+                outboxRepo.markDone(rows.stream().map(OutboxRow::id).toList());
+                return rows.size();
+            });
+            count(OutboxEventType.ORDER_PAID, done);
+            return done == null ? 0 : done;
+        } catch (RuntimeException e) {
+            log.warn("Lô ORDER_PAID lỗi, xử lý lại từng việc: {}", e.getMessage());
+            return dispatchOneByOne(OutboxEventType.ORDER_PAID);
+        }
+    }
+
+    private int dispatchReceipts() {
+        return dispatchOneByOne(OutboxEventType.ORDER_RECEIPT);
+    }
+
+    // Mỗi việc 1 transaction riêng: 1 dòng hỏng không chặn cả lô
+    private int dispatchOneByOne(OutboxEventType type) {
+        List<OutboxRow> candidates = tx.execute(s -> outboxRepo.claimBatch(type, batchSize));
+        if (candidates == null || candidates.isEmpty()) return 0;
+
+        int done = 0;
+        for (OutboxRow candidate : candidates) {
+            try {
+                Boolean ok = tx.execute(s -> {
+                    OutboxRow row = outboxRepo.lockPending(candidate.id());
+                    if (row == null) return false; // instance khác đã xử lý
+                    if (type == OutboxEventType.ORDER_PAID) applyPaid(List.of(row));
+                    else sendReceipt(row);
+                    outboxRepo.markDone(List.of(row.id()));
+                    return true;
+                });
+                if (Boolean.TRUE.equals(ok)) done++;
+            } catch (RuntimeException e) {
+                fail(candidate, e);
+            }
+        }
+        count(type, done);
+        return done;
+    }
+
+    private void applyPaid(List<OutboxRow> rows) {
+        Map<UUID, Long> pointsByUser = new HashMap<>();
+        List<UUID> vouchers = new ArrayList<>();
+        Map<RevenueKey, DailyRevenueDto> revenue = new HashMap<>();
+        for (OutboxRow row : rows) {
+            OrderPaidPayload p = fromJson(row.payload(), OrderPaidPayload.class);
+            if (p.userId() != null && p.points() > 0) pointsByUser.merge(p.userId(), p.points(), Long::sum);
+            if (p.userVoucherId() != null) vouchers.add(p.userVoucherId());
+            if (p.day() != null) {
+                revenue.merge(new RevenueKey(p.day(), p.orderType(), p.paymentMethod()),
+                        new DailyRevenueDto(p.day(), p.orderType(), p.paymentMethod(), 1, p.total()),
+                        (a, b) -> new DailyRevenueDto(a.day(), a.orderType(), a.paymentMethod(),
+                                a.orderCount() + b.orderCount(), a.revenue().add(b.revenue())));
+            }
+        }
+        loyaltyJdbcRepo.addPoints(pointsByUser);
+        if (!vouchers.isEmpty()) userVoucherRepo.redeemAll(vouchers, Instant.now());
+        revenueRepo.addAll(new ArrayList<>(revenue.values()));
+    }
+
+    private record RevenueKey(LocalDate day, String orderType, String paymentMethod) {
+    }
+
+    private void sendReceipt(OutboxRow row) {
+        OrderReceiptPayload p = fromJson(row.payload(), OrderReceiptPayload.class);
+        emailService.queueTemplate(
+                p.email(),
+                "Hóa đơn thanh toán – Hoa Ban",
+                "email/order_paid.html",
+                Map.of(
+                        "fullName", p.fullName() != null ? p.fullName() : "",
+                        "orderId", p.orderId().toString(),
+                        "total", p.total().toPlainString(),
+                        "points", p.points()
+                )
+        );
+    }
+
+    private void fail(OutboxRow row, RuntimeException e) {
+        int attempts = row.attempts() + 1;
+        boolean dead = attempts >= maxAttempts;
+        // backoff lũy thừa: 5s, 10s, 20s, ... tối đa 1 giờ
+        Duration delay = Duration.ofMillis(backoffMs).multipliedBy(1L << Math.min(attempts - 1, 20));
+        if (delay.compareTo(MAX_BACKOFF) > 0) delay = MAX_BACKOFF;
+
+        String error = String.valueOf(e.getMessage());
+        if (error.length() > 500) error = error.substring(0, 500);
+        outboxRepo.markFailed(row.id(), dead ? OutboxStatus.DEAD : OutboxStatus.PENDING, Instant.now().plus(delay), error);
+
+        if (dead) {
+            meterRegistry.counter("orders.outbox.dead", "type", row.type().name()).increment();
+            log.error("Outbox {} của order {} thất bại {} lần, chuyển DEAD: {}", row.type(), row.orderId(), attempts, error);
+        } else {
+            log.warn("Outbox {} của order {} lỗi (lần {}), thử lại sau {}s", row.type(), row.orderId(), attempts, delay.toSeconds());
+        }
+    }
+
+    private void count(OutboxEventType type, Integer done) {
+        if (done != null && done > 0) {
+            meterRegistry.counter("orders.outbox.processed", "type", type.name()).increment(done);
+        }
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Không serialize được payload outbox", e);
+        }
+    }
+
+    private <T> T fromJson(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Payload outbox không hợp lệ", e);
+        }
+    }
+}
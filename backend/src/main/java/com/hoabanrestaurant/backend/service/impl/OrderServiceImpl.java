@@ -1,14 +1,18 @@
 package com.hoabanrestaurant.backend.service.impl;
 
 import com.hoabanrestaurant.backend.dto.request.AddOrderItemReq;
+import com.hoabanrestaurant.backend.dto.request.AddOrderItemsReq;
 import com.hoabanrestaurant.backend.dto.request.ApplyVoucherReq;
 import com.hoabanrestaurant.backend.dto.request.CreateOrderReq;
+import com.hoabanrestaurant.backend.dto.request.OrderFeedFilter;
 import com.hoabanrestaurant.backend.dto.request.PayOrderReq;
 import com.hoabanrestaurant.backend.dto.request.UpdateCartItemReq;
 import com.hoabanrestaurant.backend.dto.request.UpdateOrderStatusReq;
+import com.hoabanrestaurant.backend.dto.response.CursorPage;
+import com.hoabanrestaurant.backend.dto.response.DailyRevenueDto;
 import com.hoabanrestaurant.backend.dto.response.OrderDto;
 import com.hoabanrestaurant.backend.dto.response.OrderItemDto;
-import com.hoabanrestaurant.backend.entity.LoyaltyAccount;
+import com.hoabanrestaurant.backend.dto.response.OrderTotalsDriftDto;
 import com.hoabanrestaurant.backend.entity.Order;
 import com.hoabanrestaurant.backend.entity.OrderItem;
 import com.hoabanrestaurant.backend.entity.Payment;
@@ -22,30 +26,45 @@ import com.hoabanrestaurant.backend.enums.PaymentMethod;
 import com.hoabanrestaurant.backend.enums.PaymentStatus;
 import com.hoabanrestaurant.backend.enums.VoucherStatus;
 import com.hoabanrestaurant.backend.enums.VoucherType;
+import com.hoabanrestaurant.backend.event.OrderItemsChangedEvent;
+import com.hoabanrestaurant.backend.event.OrderStatusChangedEvent;
 import com.hoabanrestaurant.backend.exception.BusinessException;
-import com.hoabanrestaurant.backend.repository.ComboRepository;
-import com.hoabanrestaurant.backend.repository.DishRepository;
-import com.hoabanrestaurant.backend.repository.LoyaltyAccountRepository;
+import com.hoabanrestaurant.backend.repository.DailyRevenueJdbcRepository;
+import com.hoabanrestaurant.backend.repository.OrderItemJdbcRepository;
 import com.hoabanrestaurant.backend.repository.OrderItemRepository;
 import com.hoabanrestaurant.backend.repository.OrderRepository;
+import com.hoabanrestaurant.backend.repository.OrderSpecifications;
 import com.hoabanrestaurant.backend.repository.PaymentRepository;
 import com.hoabanrestaurant.backend.repository.RestaurantTableRepository;
 import com.hoabanrestaurant.backend.repository.UserVoucherRepository;
 import com.hoabanrestaurant.backend.repository.VoucherRepository;
 import com.hoabanrestaurant.backend.service.EmailService;
+import com.hoabanrestaurant.backend.service.MenuSnapshotService;
+import com.hoabanrestaurant.backend.service.OrderOutboxService;
 import com.hoabanrestaurant.backend.service.OrderService;
+import com.hoabanrestaurant.backend.util.CursorCodec;
+import com.hoabanrestaurant.backend.util.MenuSnapshot;
 import com.hoabanrestaurant.backend.util.QrSigner;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
-import java.util.HashMap;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -55,22 +74,36 @@ import java.util.stream.Collectors;
 @Service
 @RequiredArgsConstructor
 public class OrderServiceImpl implements OrderService {
+    private static final Logger log = LoggerFactory.getLogger(OrderServiceImpl.class);
+
     private final OrderRepository orderRepo;
     private final OrderItemRepository itemRepo;
+    private final OrderItemJdbcRepository itemJdbcRepo;
     private final PaymentRepository paymentRepo;
-    private final DishRepository dishRepo;
-    private final ComboRepository comboRepo;
     private final RestaurantTableRepository tableRepo;
     private final VoucherRepository voucherRepo;
     private final UserVoucherRepository userVoucherRepo;
-    private final LoyaltyAccountRepository loyaltyRepo;
     private final EmailService emailService;
+    private final OrderOutboxService outboxService;
+    private final DailyRevenueJdbcRepository revenueRepo;
+    private final OrderStatusCounters statusCounters;
+    private final MenuSnapshotService menuSnapshot;
     private final QrSigner qrSigner;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher events;
+
+    @Value("${app.orders.empty-sweep.min-age-minutes:30}")
+    private long emptySweepMinAgeMinutes;
+    @Value("${app.orders.empty-sweep.batch-size:500}")
+    private int emptySweepBatchSize;
+    @Value("${app.orders.empty-sweep.max-batches:200}")
+    private int emptySweepMaxBatches;
 
-    private static final BigDecimal TAX_RATE = new BigDecimal("0.08"); // ví dụ 8%
-    private static final long POINT_PER_VND = 1000; // 1 điểm / 1,000đ
+    private static final int FEED_MAX_LIMIT = 100;
+    private static final Sort FEED_SORT = Sort.by(Sort.Direction.DESC, "createdAt", "id");
 
     @Override
+    @RetryOnConflict
     @Transactional
     public OrderDto create(UUID userIdOrNull, CreateOrderReq req) {
         Order o = new Order();
@@ -97,27 +130,33 @@ public class OrderServiceImpl implements OrderService {
             o.setUser(user);
         }
         o = orderRepo.save(o);
+        publishStatus(o, null); // order mới: null -> OPEN
         return toDto(o, List.of(), null);
     }
 
     @Override
+    @RetryOnConflict
     @Transactional
     public OrderDto addItem(UUID orderId, AddOrderItemReq req) {
         Order o = orderRepo.findById(orderId)
                 .orElseThrow(() -> new BusinessException(ErrorCode.NOT_FOUND, "Order không tồn tại"));
         if (o.getStatus() != OrderStatus.OPEN) throw new BusinessException(ErrorCode.BAD_REQUEST, "Order không còn mở");
 
+        // giá + trạng thái đọc từ menu snapshot trong bộ nhớ, không query dishes/combos
+        MenuSnapshot menu = menuSnapshot.current();
         String type = req.itemType().toUpperCase();
         String name;
         BigDecimal unitPrice;
+        UUID categoryId = null;
         if ("DISH".equals(type)) {
-            var d = dishRepo.findById(req.itemId()).orElseThrow(() -> new BusinessException(ErrorCode.NOT_FOUND, "Món không tồn tại"));
-            name = d.getName();
-            unitPrice = d.getPrice();
+            var d = activeDish(menu, req.itemId());
+            name = d.name();
+            unitPrice = d.price();
+            categoryId = d.categoryId();
         } else if ("COMBO".equals(type)) {
-            var c = comboRepo.findById(req.itemId()).orElseThrow(() -> new BusinessException(ErrorCode.NOT_FOUND, "Combo không tồn tại"));
-            name = c.getName();
-            unitPrice = c.getPrice();
+            var c = activeCombo(menu, req.itemId());
+            name = c.name();
+            unitPrice = c.price();
         } else throw new BusinessException(ErrorCode.BAD_REQUEST, "itemType chỉ hỗ trợ DISH/COMBO");
 
         BigDecimal line = unitPrice.multiply(BigDecimal.valueOf(req.quantity()));
@@ -126,11 +165,79 @@ public class OrderServiceImpl implements OrderService {
                 .name(name).unitPrice(unitPrice).quantity(req.quantity()).lineTotal(line).build();
         itemRepo.save(it);
 
-        recalcTotals(o);
+        // chỉ cộng phần của dòng mới, không cộng lại toàn bộ order_items
+        OrderTotals.applyLineDelta(o, line);
+        orderRepo.save(o);
+        publishLines(o, List.of(new OrderItemsChangedEvent.Line(OrderItemsChangedEvent.Kind.ADDED,
+                it.getId(), type, req.itemId(), categoryId, name, req.quantity(), req.quantity())));
+        return toDto(o, itemRepo.findByOrder_Id(o.getId()), null);
+    }
+
+    @Override
+    @RetryOnConflict
+    @Transactional
+    public OrderDto addItems(UUID orderId, AddOrderItemsReq req) {
+        Order o = orderRepo.findById(orderId)
+                .orElseThrow(() -> new BusinessException(ErrorCode.NOT_FOUND, "Order không tồn tại"));
+        if (o.getStatus() != OrderStatus.OPEN) throw new BusinessException(ErrorCode.BAD_REQUEST, "Order không còn mở");
+
+        // Gộp các dòng trùng món/combo thành 1 dòng, giữ thứ tự gọi
+        Map<LineKey, Integer> qtyByLine = new LinkedHashMap<>();
+        for (AddOrderItemReq r : req.items()) {
+            if (r.itemType() == null || r.itemId() == null)
+                throw new BusinessException(ErrorCode.BAD_REQUEST, "Thiếu itemType/itemId");
+            if (r.quantity() <= 0)
+                throw new BusinessException(ErrorCode.BAD_REQUEST, "Số lượng phải >= 1");
+            String type = r.itemType().toUpperCase();
+            if (!"DISH".equals(type) && !"COMBO".equals(type))
+                throw new BusinessException(ErrorCode.BAD_REQUEST, "itemType chỉ hỗ trợ DISH/COMBO");
+            qtyByLine.merge(new LineKey(type, r.itemId()), r.quantity(), Integer::sum);
+        }
+
+        // giá + trạng thái của cả lượt gọi món đọc từ cùng 1 menu snapshot
+        MenuSnapshot menu = menuSnapshot.current();
+
+        List<OrderItem> lines = new ArrayList<>(qtyByLine.size());
+        List<OrderItemsChangedEvent.Line> changed = new ArrayList<>(qtyByLine.size());
+        BigDecimal added = BigDecimal.ZERO;
+        for (var e : qtyByLine.entrySet()) {
+            LineKey k = e.getKey();
+            String name;
+            BigDecimal unitPrice;
+            UUID categoryId = null;
+            if ("DISH".equals(k.type())) {
+                var d = activeDish(menu, k.itemId());
+                name = d.name();
+                unitPrice = d.price();
+                categoryId = d.categoryId();
+            } else {
+                var c = activeCombo(menu, k.itemId());
+                name = c.name();
+                unitPrice = c.price();
+            }
+            BigDecimal line = unitPrice.multiply(BigDecimal.valueOf(e.getValue()));
+            OrderItem it = OrderItem.builder()
+                    .id(UUID.randomUUID()).order(o).itemType(k.type()).itemId(k.itemId())
+                    .name(name).unitPrice(unitPrice).quantity(e.getValue()).lineTotal(line).build();
+            lines.add(it);
+            changed.add(new OrderItemsChangedEvent.Line(OrderItemsChangedEvent.Kind.ADDED,
+                    it.getId(), k.type(), k.itemId(), categoryId, name, e.getValue(), e.getValue()));
+            added = added.add(line);
+        }
+
+        itemJdbcRepo.batchInsert(lines);
+
+        OrderTotals.applyLineDelta(o, added);
+        orderRepo.save(o);
+        publishLines(o, changed);
         return toDto(o, itemRepo.findByOrder_Id(o.getId()), null);
     }
 
+    private record LineKey(String type, UUID itemId) {
+    }
+
     @Override
+    @RetryOnConflict
     @Transactional
     public OrderDto applyVoucher(UUID orderId, ApplyVoucherReq req) {
         Order o = orderRepo.findById(orderId)
@@ -145,12 +252,13 @@ public class OrderServiceImpl implements OrderService {
         BigDecimal discount = calcDiscount(v, o.getSubtotal());
         o.setDiscount(discount);
 
-        recalcTotals(o);
+        OrderTotals.refresh(o);
         orderRepo.save(o);
         return toDto(o, itemRepo.findByOrder_Id(o.getId()), v.getCode());
     }
 
     @Override
+    @RetryOnConflict
     @Transactional
     public OrderDto pay(UUID orderId, PayOrderReq req) {
 
@@ -163,6 +271,7 @@ public class OrderServiceImpl implements OrderService {
 
         // ================ CASE 1: COD = Thu tiền khi giao hàng ================
         if (req.method() == PaymentMethod.COD) {
+            OrderStatus before = o.getStatus();
             o.setStatus(OrderStatus.UNPAID); // chưa thanh toán
 
             // không tạo payment succeeded
@@ -177,19 +286,20 @@ public class OrderServiceImpl implements OrderService {
             paymentRepo.save(p);
 
             orderRepo.save(o);
-
-//            if (o.getUser() != null) {
-//                emailService.sendTemplate(
-//                        o.getUser().getEmail(),
-//                        "Đặt hàng thành công – Hoa Ban Restaurant",
-//                        "email/order_created_cod.html",
-//                        Map.of(
-//                                "fullName", o.getUser().getFullName(),
-//                                "orderId", o.getId().toString(),
-//                                "total", o.getTotal().toPlainString()
-//                        )
-//                );
-//            }
+            publishStatus(o, before);
+
+            if (o.getUser() != null && o.getUser().getEmail() != null) {
+                emailService.queueTemplate(
+                        o.getUser().getEmail(),
+                        "Đặt hàng thành công – Hoa Ban Restaurant",
+                        "email/order_created_cod.html",
+                        Map.of(
+                                "fullName", o.getUser().getFullName() != null ? o.getUser().getFullName() : "",
+                                "orderId", o.getId().toString(),
+                                "total", o.getTotal().toPlainString()
+                        )
+                );
+            }
 
 
             return toDto(o, itemRepo.findByOrder_Id(o.getId()), null);
@@ -234,60 +344,53 @@ public class OrderServiceImpl implements OrderService {
             return; // tránh double-paid
         }
 
+        OrderStatus before = order.getStatus();
         order.setStatus(OrderStatus.PAID);
 
-        // Redeem voucher
-        if (order.getAppliedUserVoucherId() != null) {
-            userVoucherRepo.findById(order.getAppliedUserVoucherId())
-                    .ifPresent(uv -> {
-                        if (!uv.isRedeemed()) {
-                            uv.setRedeemed(true);
-                            uv.setRedeemedAt(Instant.now());
-                            userVoucherRepo.save(uv);
-                        }
-                    });
-        }
-
-        // Loyalty + email
-        if (order.getUser() != null) {
-            addLoyaltyPoints(order.getUser().getId(), order.getTotal());
-
-            long earned = order.getTotal()
-                    .divide(BigDecimal.valueOf(1000), 0, RoundingMode.FLOOR)
-                    .longValue();
-
-//            emailService.sendTemplate(
-//                    order.getUser().getEmail(),
-//                    "Hóa đơn thanh toán – Hoa Ban",
-//                    "email/order_paid.html",
-//                    Map.of(
-//                            "fullName", order.getUser().getFullName(),
-//                            "orderId", order.getId().toString(),
-//                            "total", order.getTotal().toPlainString(),
-//                            "points", earned
-//                    )
-//            );
-        }
+        // Cộng điểm, dùng voucher, email hoá đơn: ghi outbox cùng transaction, dispatcher xử lý nền
+        outboxService.enqueuePaid(order);
 
         orderRepo.save(order);
+        publishStatus(order, before);
     }
 
 
     // ===== Helpers =====
 
+    // Sự kiện chỉ tới listener sau khi transaction commit (xem KitchenStreamServiceImpl)
+    private void publishLines(Order o, List<OrderItemsChangedEvent.Line> lines) {
+        if (lines.isEmpty()) return;
+        events.publishEvent(new OrderItemsChangedEvent(o.getId(), tableIdOf(o), o.getTypes(), lines, Instant.now()));
+    }
 
-    private void recalcTotals(Order o) {
-        var items = itemRepo.findByOrder_Id(o.getId());
-        BigDecimal subtotal = items.stream().map(OrderItem::getLineTotal).reduce(BigDecimal.ZERO, BigDecimal::add);
-        BigDecimal tax = subtotal.subtract(o.getDiscount()).multiply(TAX_RATE).max(BigDecimal.ZERO);
-        BigDecimal total = subtotal.subtract(o.getDiscount()).add(tax).max(BigDecimal.ZERO);
+    private void publishStatus(Order o, OrderStatus from) {
+        if (from == o.getStatus()) return;
+        events.publishEvent(new OrderStatusChangedEvent(o.getId(), tableIdOf(o), o.getTypes(),
+                from, o.getStatus(), o.getTotal(), o.getCreatedAt(), Instant.now()));
+    }
 
-        o.setSubtotal(subtotal);
-        o.setTax(tax);
-        o.setTotal(total);
-        orderRepo.save(o);
+    private static UUID tableIdOf(Order o) {
+        return o.getTable() != null ? o.getTable().getId() : null;
     }
 
+    private UUID categoryOf(OrderItem it) {
+        if (!"DISH".equals(it.getItemType())) return null;
+        return menuSnapshot.current().dish(it.getItemId()).map(MenuSnapshot.DishEntry::categoryId).orElse(null);
+    }
+
+    private static MenuSnapshot.DishEntry activeDish(MenuSnapshot menu, UUID dishId) {
+        var d = menu.dish(dishId).orElseThrow(() -> new BusinessException(ErrorCode.NOT_FOUND, "Món không tồn tại"));
+        if (!d.active()) throw new BusinessException(ErrorCode.BAD_REQUEST, "Món '" + d.name() + "' đang không phục vụ");
+        return d;
+    }
+
+    private static MenuSnapshot.ComboEntry activeCombo(MenuSnapshot menu, UUID comboId) {
+        var c = menu.combo(comboId).orElseThrow(() -> new BusinessException(ErrorCode.NOT_FOUND, "Combo không tồn tại"));
+        if (!c.active()) throw new BusinessException(ErrorCode.BAD_REQUEST, "Combo '" + c.name() + "' đang không phục vụ");
+        return c;
+    }
+
+
     private void validateVoucherUsable(Voucher v, BigDecimal subtotal) {
         var now = Instant.now();
         if (v.getStatus() != VoucherStatus.ACTIVE)
@@ -310,19 +413,6 @@ public class OrderServiceImpl implements OrderService {
         return disc;
     }
 
-    private void addLoyaltyPoints(UUID userId, BigDecimal total) {
-        long earn = total.divide(BigDecimal.valueOf(POINT_PER_VND), 0, RoundingMode.FLOOR).longValue(); // floor(total/1000)
-        LoyaltyAccount acc = loyaltyRepo.findById(userId).orElseGet(() -> {
-            LoyaltyAccount a = new LoyaltyAccount();
-            a.setUserId(userId);
-            a.setPoints(0);
-            return a;
-        });
-        acc.setPoints(acc.getPoints() + earn);
-        acc.setUpdatedAt(Instant.now());
-        loyaltyRepo.save(acc);
-    }
-
     private OrderDto toDto(Order o, List<OrderItem> items, String voucherCode) {
         List<OrderItemDto> itemDtos = items.stream().map(i ->
                 new OrderItemDto(i.getId(), i.getItemType(), i.getItemId(), i.getName(), i.getUnitPrice(), i.getQuantity(), i.getLineTotal())
@@ -373,11 +463,13 @@ public class OrderServiceImpl implements OrderService {
         o.setUpdatedAt(Instant.now());
 
         o = orderRepo.save(o);
+        publishStatus(o, null); // order mới: null -> OPEN
 
         return toDto(o, List.of(), null);
     }
 
     @Override
+    @RetryOnConflict
     @Transactional
     public OrderDto addItemToCart(UUID userId, AddOrderItemReq req) {
 
@@ -396,6 +488,7 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
+    @RetryOnConflict
     @Transactional
     public OrderDto updateCartItem(UUID userId, UUID itemId, UpdateCartItemReq req) {
 
@@ -411,24 +504,33 @@ public class OrderServiceImpl implements OrderService {
                 .orElseThrow(() -> new BusinessException(ErrorCode.NOT_FOUND, "Mục không tồn tại trong giỏ"));
 
         int newQuantity = req.quantity();
+        int oldQuantity = item.getQuantity();
+        BigDecimal oldLine = item.getLineTotal();
 
         if (newQuantity <= 0) {
             itemRepo.delete(item);
+            OrderTotals.applyLineDelta(cart, oldLine.negate());
         } else {
             item.setQuantity(newQuantity);
             item.setLineTotal(
                     item.getUnitPrice().multiply(BigDecimal.valueOf(newQuantity))
             );
             itemRepo.save(item);
+            OrderTotals.applyLineDelta(cart, item.getLineTotal().subtract(oldLine));
         }
 
-        recalcTotals(cart);
+        orderRepo.save(cart);
+        publishLines(cart, List.of(new OrderItemsChangedEvent.Line(
+                newQuantity <= 0 ? OrderItemsChangedEvent.Kind.REMOVED : OrderItemsChangedEvent.Kind.QUANTITY_CHANGED,
+                item.getId(), item.getItemType(), item.getItemId(), categoryOf(item), item.getName(),
+                Math.max(newQuantity, 0), Math.max(newQuantity, 0) - oldQuantity)));
 
         return toDto(cart, itemRepo.findByOrder_Id(cart.getId()), null);
     }
 
 
     @Override
+    @RetryOnConflict
     @Transactional
     public OrderDto removeCartItem(UUID userId, UUID itemId) {
 
@@ -444,7 +546,11 @@ public class OrderServiceImpl implements OrderService {
                 .orElseThrow(() -> new BusinessException(ErrorCode.NOT_FOUND, "Mục không tồn tại trong giỏ"));
 
         itemRepo.delete(item);
-        recalcTotals(cart);
+        OrderTotals.applyLineDelta(cart, item.getLineTotal().negate());
+        orderRepo.save(cart);
+        publishLines(cart, List.of(new OrderItemsChangedEvent.Line(OrderItemsChangedEvent.Kind.REMOVED,
+                item.getId(), item.getItemType(), item.getItemId(), categoryOf(item), item.getName(),
+                0, -item.getQuantity())));
 
         return toDto(cart, itemRepo.findByOrder_Id(cart.getId()), null);
     }
@@ -458,6 +564,7 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
+    @RetryOnConflict
     @Transactional
     public OrderDto applyUserVoucher(UUID orderId, UUID userId, UUID userVoucherId) {
 
@@ -481,7 +588,7 @@ public class OrderServiceImpl implements OrderService {
         o.setDiscount(discount);
         o.setAppliedUserVoucherId(uv.getId());
         userVoucherRepo.save(uv);
-        recalcTotals(o);
+        OrderTotals.refresh(o);
         orderRepo.save(o);
 
         return toDto(o, itemRepo.findByOrder_Id(o.getId()), v.getCode());
@@ -489,23 +596,52 @@ public class OrderServiceImpl implements OrderService {
 
     @Override
     public List<OrderDto> getUserOrders(UUID userId) {
-        List<Order> orders = orderRepo.findByUser_IdAndStatusOrderByCreatedAtDesc(userId, OrderStatus.PAID);
-        return orders.stream()
-                .map(order -> {
-                    List<OrderItem> items = itemRepo.findByOrder_Id(order.getId());
-                    return toDto(order, items, null);
-                })
-                .toList();
+        return toDtos(orderRepo.findByUser_IdAndStatusOrderByCreatedAtDesc(userId, OrderStatus.PAID));
     }
 
 
     @Override
     public List<OrderDto> getAllOrders() {
-        List<Order> orders = orderRepo.findAllByOrderByCreatedAtDesc();
-        return orders.stream().map(order -> {
-            List<OrderItem> items = itemRepo.findByOrder_Id(order.getId());
-            return toDto(order, items, null);
-        }).toList();
+        // Giữ endpoint cũ: chỉ trả trang đầu của feed
+        return getOrderFeed(OrderFeedFilter.none(), null, FEED_MAX_LIMIT).items();
+    }
+
+    @Override
+    public CursorPage<OrderDto> getOrderFeed(OrderFeedFilter filter, String cursor, int limit) {
+        int size = Math.max(1, Math.min(limit, FEED_MAX_LIMIT));
+
+        Specification<Order> spec = OrderSpecifications.matches(filter);
+        if (cursor != null && !cursor.isBlank()) {
+            String[] key = CursorCodec.decode(cursor, 2);
+            try {
+                spec = spec.and(OrderSpecifications.before(Instant.parse(key[0]), UUID.fromString(key[1])));
+            } catch (DateTimeParseException | IllegalArgumentException e) {
+                throw new BusinessException(ErrorCode.BAD_REQUEST, "Cursor không hợp lệ");
+            }
+        }
+
+        // lấy dư 1 dòng để biết còn trang sau hay không (không cần COUNT)
+        List<Order> rows = orderRepo.findBy(spec, q -> q.sortBy(FEED_SORT).limit(size + 1).all());
+        boolean hasMore = rows.size() > size;
+        List<Order> page = hasMore ? rows.subList(0, size) : rows;
+
+        String next = null;
+        if (hasMore) {
+            Order last = page.get(page.size() - 1);
+            next = CursorCodec.encode(last.getCreatedAt().toString(), last.getId().toString());
+        }
+        return new CursorPage<>(toDtos(page), next, hasMore);
+    }
+
+    // Dựng DTO cho nhiều order, item được nạp 1 lần cho cả danh sách
+    private List<OrderDto> toDtos(List<Order> orders) {
+        if (orders.isEmpty()) return List.of();
+        Map<UUID, List<OrderItem>> itemsByOrder = itemRepo.findByOrder_IdIn(orders.stream().map(Order::getId).toList())
+                .stream()
+                .collect(Collectors.groupingBy(i -> i.getOrder().getId()));
+        return orders.stream()
+                .map(o -> toDto(o, itemsByOrder.getOrDefault(o.getId(), List.of()), null))
+                .toList();
     }
 
     @Override
@@ -517,30 +653,32 @@ public class OrderServiceImpl implements OrderService {
     }
 
 
+    // Không bọc transaction: mỗi lô DELETE tự commit, tránh giữ khoá lâu trên bảng orders
     @Override
-    @Transactional
     public int cleanEmptyOrders() {
-        List<Order> emptyOrders = orderRepo.findAll().stream()
-                .filter(o ->
-                        o.getStatus() == OrderStatus.OPEN &&   // chỉ xoá đơn trạng thái OPEN
-                                (
-                                        o.getTotal() == null ||
-                                                o.getTotal().compareTo(BigDecimal.ZERO) == 0 ||
-                                                itemRepo.findByOrder_Id(o.getId()).isEmpty()
-                                )
-                )
-                .toList();
-
-        emptyOrders.forEach(order -> {
-            itemRepo.deleteAllByOrder_Id(order.getId());
-            orderRepo.delete(order);
-        });
+        // chỉ xoá đơn OPEN đã tạo đủ lâu, tránh xoá đơn khách vừa mở bàn chưa kịp gọi món
+        Instant cutoff = Instant.now().minus(Duration.ofMinutes(emptySweepMinAgeMinutes));
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        int total = 0;
+        for (int batch = 0; batch < emptySweepMaxBatches; batch++) {
+            int deleted = orderRepo.deleteEmptyOpenBatch(cutoff, emptySweepBatchSize);
+            total += deleted;
+            if (deleted < emptySweepBatchSize) break;
+        }
 
-        return emptyOrders.size();
+        long nanos = sample.stop(meterRegistry.timer("orders.empty_sweep.duration"));
+        meterRegistry.counter("orders.empty_sweep.deleted").increment(total);
+        if (total > 0) {
+            log.info("Đã xoá {} đơn trống trong {} ms", total, Duration.ofNanos(nanos).toMillis());
+            statusCounters.reconcile(); // xoá theo lô không phát sự kiện từng đơn
+        }
+        return total;
     }
 
 
     @Override
+    @RetryOnConflict
     @Transactional
     public OrderDto openByQr(UUID userIdOrNull, String qrCode, String note) {
         // 1) Verify QR
@@ -551,8 +689,9 @@ public class OrderServiceImpl implements OrderService {
         }
         UUID tableId = decoded.tableId();
 
-        // 2) Load bàn + khóa bi quan
-        var table = tableRepo.findByIdForUpdate(tableId)
+        // 2) Load bàn, không khoá: 2 người quét cùng lúc thì ux_orders_open_per_table chọn người thắng,
+        //    người thua bị lỗi unique ở bước 4 và được ConflictRetry chạy lại -> rơi vào nhánh 3
+        var table = tableRepo.findById(tableId)
                 .orElseThrow(() -> new BusinessException(ErrorCode.NOT_FOUND, "Bàn không tồn tại"));
 
         // 3) THAY ĐỔI LOGIC: Tìm order đang OPEN
@@ -582,12 +721,14 @@ public class OrderServiceImpl implements OrderService {
             o.setUser(user);
         }
 
-        o = orderRepo.save(o);
+        o = orderRepo.saveAndFlush(o); // flush ngay để va chạm unique index lộ ra trong lần thử này
+        publishStatus(o, null); // order mới: null -> OPEN
         return toDto(o, List.of(), null);
     }
 
 
     @Override
+    @RetryOnConflict
     @Transactional
     public OrderDto updateStatus(UUID orderId, UpdateOrderStatusReq req, Jwt jwt) {
 
@@ -709,30 +850,16 @@ public class OrderServiceImpl implements OrderService {
 
         o.setUpdatedAt(Instant.now());
         orderRepo.save(o);
+        // chuyển sang PAID đã được phát trong confirmPaid
+        if (o.getStatus() != OrderStatus.PAID) publishStatus(o, current);
 
         return toDto(o, itemRepo.findByOrder_Id(o.getId()), null);
     }
 
     @Override
     public Map<String, Long> getOrderStatsToday() {
-
-        ZoneId zone = ZoneId.systemDefault();
-        LocalDate today = LocalDate.now(zone);
-
-        Instant start = today.atStartOfDay(zone).toInstant();
-        Instant end = today.plusDays(1).atStartOfDay(zone).toInstant();
-
-        List<Object[]> stats = orderRepo.countByStatusBetween(start, end);
-
-        Map<String, Long> result = new HashMap<>();
-
-        for (Object[] row : stats) {
-            OrderStatus status = (OrderStatus) row[0];
-            Long count = (Long) row[1];
-            result.put(status.name(), count);
-        }
-
-        return result;
+        // đọc bộ đếm trong bộ nhớ, không query DB
+        return statusCounters.snapshot();
     }
 
     @Override
@@ -747,24 +874,9 @@ public class OrderServiceImpl implements OrderService {
             dailyRevenue.put(today.minusDays(i), BigDecimal.ZERO);
         }
 
-        Instant from = today.minusDays(6)
-                .atStartOfDay(zone)
-                .toInstant();
-
-        Instant to = today.plusDays(1)
-                .atStartOfDay(zone)
-                .toInstant();
-
-        List<Object[]> rows = orderRepo.sumRevenueByCreatedAtBetween(
-                from, to, OrderStatus.PAID
-        );
-
-        for (Object[] row : rows) {
-            Instant createdAt = (Instant) row[0];
-            BigDecimal total = (BigDecimal) row[1];
-
-            LocalDate day = createdAt.atZone(zone).toLocalDate();
-            dailyRevenue.put(day, dailyRevenue.getOrDefault(day, BigDecimal.ZERO).add(total));
+        // đọc bảng tổng hợp: tối đa vài dòng / ngày, không quét orders
+        for (DailyRevenueDto row : revenueRepo.findBetween(today.minusDays(6), today)) {
+            dailyRevenue.merge(row.day(), row.revenue(), BigDecimal::add);
         }
 
         // Convert key -> String cho frontend
@@ -777,5 +889,42 @@ public class OrderServiceImpl implements OrderService {
                 ));
     }
 
+    @Override
+    public List<DailyRevenueDto> getRevenue(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) throw new BusinessException(ErrorCode.BAD_REQUEST, "Khoảng ngày không hợp lệ");
+        return revenueRepo.findBetween(from, to);
+    }
+
+    @Override
+    @Transactional
+    public int rebuildRevenue(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) throw new BusinessException(ErrorCode.BAD_REQUEST, "Khoảng ngày không hợp lệ");
+        return revenueRepo.rebuild(from, to, ZoneId.systemDefault());
+    }
+
+    @Override
+    public List<OrderTotalsDriftDto> verifyTotals(Instant since) {
+        List<OrderTotalsDriftDto> drifts = new ArrayList<>();
+        for (Object[] row : orderRepo.findTotalsWithItemSumUpdatedSince(since)) {
+            UUID id = (UUID) row[0];
+            BigDecimal subtotal = (BigDecimal) row[1];
+            BigDecimal discount = (BigDecimal) row[2];
+            BigDecimal tax = (BigDecimal) row[3];
+            BigDecimal total = (BigDecimal) row[4];
+            BigDecimal itemsSum = (BigDecimal) row[5];
+
+            BigDecimal expectedTax = OrderTotals.taxOf(itemsSum, discount);
+            BigDecimal expectedTotal = OrderTotals.totalOf(itemsSum, discount);
+
+            if (subtotal.compareTo(itemsSum) != 0
+                    || tax.compareTo(expectedTax) != 0
+                    || total.compareTo(expectedTotal) != 0) {
+                log.warn("Order {} lệch tổng tiền: subtotal={} (items={}), tax={} (expected={}), total={} (expected={})",
+                        id, subtotal, itemsSum, tax, expectedTax, total, expectedTotal);
+                drifts.add(new OrderTotalsDriftDto(id, subtotal, itemsSum, tax, expectedTax, total, expectedTotal));
+            }
+        }
+        return drifts;
+    }
 
 }
@@ -0,0 +1,101 @@
+package com.hoabanrestaurant.backend.service.impl;
+
+import com.hoabanrestaurant.backend.enums.OrderStatus;
+import com.hoabanrestaurant.backend.event.OrderStatusChangedEvent;
+import com.hoabanrestaurant.backend.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Đếm số order tạo trong ngày theo trạng thái, giữ trong bộ nhớ cho dashboard staff.
+// Cộng/trừ theo OrderStatusChangedEvent; sang ngày mới thì reset; định kỳ đối soát lại với DB.
+@Service
+@RequiredArgsConstructor
+public class OrderStatusCounters {
+    private static final Logger log = LoggerFactory.getLogger(OrderStatusCounters.class);
+
+    private final OrderRepository orderRepo;
+
+    private final ZoneId zone = ZoneId.systemDefault();
+    private volatile Day current = new Day(LocalDate.now(zone));
+
+    private static final class Day {
+        final LocalDate date;
+        final EnumMap<OrderStatus, LongAdder> counts = new EnumMap<>(OrderStatus.class);
+
+        Day(LocalDate date) {
+            this.date = date;
+            for (OrderStatus s : OrderStatus.values()) counts.put(s, new LongAdder());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStatusChanged(OrderStatusChangedEvent ev) {
+        Day day = today();
+        // chỉ đếm order tạo trong ngày hiện tại (giống thống kê cũ theo createdAt)
+        if (ev.orderCreatedAt() == null || !ev.orderCreatedAt().atZone(zone).toLocalDate().equals(day.date)) return;
+        if (ev.from() != null) day.counts.get(ev.from()).decrement();
+        day.counts.get(ev.to()).increment();
+    }
+
+    public Map<String, Long> snapshot() {
+        Day day = today();
+        Map<String, Long> result = new LinkedHashMap<>();
+        day.counts.forEach((status, n) -> {
+            long v = n.sum();
+            if (v > 0) result.put(status.name(), v);
+        });
+        return result;
+    }
+
+    // Sang ngày mới (gọi lúc 0h và khi đọc/ghi thấy đã qua ngày)
+    public void rollOver() {
+        today();
+    }
+
+    // Nạp lại từ DB; sự kiện commit trong lúc đang query có thể lệch tới lần đối soát sau
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcile() {
+        LocalDate date = LocalDate.now(zone);
+        Day fresh = new Day(date);
+        var rows = orderRepo.countByStatusBetween(
+                date.atStartOfDay(zone).toInstant(), date.plusDays(1).atStartOfDay(zone).toInstant());
+        for (Object[] row : rows) {
+            fresh.counts.get((OrderStatus) row[0]).add((Long) row[1]);
+        }
+
+        Day old = current;
+        if (old.date.equals(date)) {
+            for (OrderStatus s : OrderStatus.values()) {
+                long before = old.counts.get(s).sum();
+                long after = fresh.counts.get(s).sum();
+                if (before != after) log.debug("Đối soát bộ đếm {}: {} -> {}", s, before, after);
+            }
+        }
+        current = fresh;
+    }
+
+    private Day today() {
+        Day day = current;
+        LocalDate now = LocalDate.now(zone);
+        if (!day.date.equals(now)) {
+            synchronized (this) {
+                if (!current.date.equals(now)) current = new Day(now);
+                day = current;
+            }
+        }
+        return day;
+    }
+}
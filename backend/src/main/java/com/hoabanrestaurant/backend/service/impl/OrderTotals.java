@@ -0,0 +1,53 @@
+package com.hoabanrestaurant.backend.service.impl;
+
+import com.hoabanrestaurant.backend.entity.Order;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+
+/**
+ * Tính tổng tiền order theo kiểu cộng dồn (delta):
+ * mỗi lần thêm/sửa/xoá 1 dòng chỉ cần cộng phần chênh lệch vào subtotal,
+ * tax/total suy ra từ subtotal + discount nên không phải đọc lại toàn bộ order_items.
+ */
+final class OrderTotals {
+
+    static final BigDecimal TAX_RATE = new BigDecimal("0.08"); // ví dụ 8%
+
+    private OrderTotals() {
+    }
+
+    /**
+     * Cộng chênh lệch của 1 dòng (lineTotal mới - lineTotal cũ) vào order.
+     * Không chặn subtotal về 0: nếu cộng dồn bị lệch thì để số âm lộ ra cho OrderTotalsVerifyJob bắt.
+     */
+    static void applyLineDelta(Order o, BigDecimal delta) {
+        BigDecimal subtotal = o.getSubtotal() == null ? BigDecimal.ZERO : o.getSubtotal();
+        apply(o, subtotal.add(delta));
+    }
+
+    /**
+     * Tính lại tax/total khi discount đổi (subtotal giữ nguyên).
+     */
+    static void refresh(Order o) {
+        apply(o, o.getSubtotal() == null ? BigDecimal.ZERO : o.getSubtotal());
+    }
+
+    static void apply(Order o, BigDecimal subtotal) {
+        BigDecimal discount = o.getDiscount() == null ? BigDecimal.ZERO : o.getDiscount();
+        o.setSubtotal(subtotal);
+        o.setTax(taxOf(subtotal, discount));
+        o.setTotal(totalOf(subtotal, discount));
+        o.setUpdatedAt(Instant.now());
+    }
+
+    static BigDecimal taxOf(BigDecimal subtotal, BigDecimal discount) {
+        return subtotal.subtract(discount).multiply(TAX_RATE).max(BigDecimal.ZERO)
+                .setScale(2, RoundingMode.HALF_UP);
+    }
+
+    static BigDecimal totalOf(BigDecimal subtotal, BigDecimal discount) {
+        return subtotal.subtract(discount).add(taxOf(subtotal, discount)).max(BigDecimal.ZERO);
+    }
+}
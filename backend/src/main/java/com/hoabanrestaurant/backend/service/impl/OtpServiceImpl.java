@@ -55,7 +55,7 @@ public class OtpServiceImpl implements OtpService {
 
             // gửi email
             Map<String, Object> model = Map.of("code", code, "ttlMinutes", ttlMinutes);
-            emailService.sendTemplate(user.getEmail(), "Mã OTP đổi mật khẩu", "email/otp.html", model);
+            emailService.queueTemplate(user.getEmail(), "Mã OTP đổi mật khẩu", "email/otp.html", model);
         }
     }
 
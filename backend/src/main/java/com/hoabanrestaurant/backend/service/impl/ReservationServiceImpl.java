@@ -2,27 +2,31 @@ package com.hoabanrestaurant.backend.service.impl;
 
 import com.hoabanrestaurant.backend.dto.request.CreateReservationReq;
 import com.hoabanrestaurant.backend.dto.response.ReservationDto;
+import com.hoabanrestaurant.backend.dto.response.ReservationSlotDto;
 import com.hoabanrestaurant.backend.entity.Reservation;
 import com.hoabanrestaurant.backend.entity.ReservationTableLink;
 import com.hoabanrestaurant.backend.entity.RestaurantTable;
 import com.hoabanrestaurant.backend.entity.User;
 import com.hoabanrestaurant.backend.enums.ErrorCode;
 import com.hoabanrestaurant.backend.enums.ReservationStatus;
+import com.hoabanrestaurant.backend.event.ReservationChangedEvent;
 import com.hoabanrestaurant.backend.exception.BusinessException;
 import com.hoabanrestaurant.backend.mapper.ReservationMapper;
 import com.hoabanrestaurant.backend.repository.ReservationRepository;
+import com.hoabanrestaurant.backend.repository.ReservationTableJdbcRepository;
 import com.hoabanrestaurant.backend.repository.ReservationTableLinkRepository;
 import com.hoabanrestaurant.backend.repository.RestaurantTableRepository;
 import com.hoabanrestaurant.backend.repository.UserRepository;
 import com.hoabanrestaurant.backend.service.EmailService;
 import com.hoabanrestaurant.backend.service.ReservationService;
+import com.hoabanrestaurant.backend.service.ReservationSlotService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.time.LocalDate;
-import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
@@ -41,6 +45,9 @@ public class ReservationServiceImpl implements ReservationService {
     private final ReservationTableLinkRepository linkRepo;
     private final ReservationMapper mapper;
     private final EmailService emailService;
+    private final ReservationTableJdbcRepository bookedRepo;
+    private final ReservationSlotService slotService;
+    private final ApplicationEventPublisher events;
 
     @Override
     public ReservationDto create(UUID userId, CreateReservationReq req) {
@@ -61,6 +68,7 @@ public class ReservationServiceImpl implements ReservationService {
                 .build();
 
         r = resRepo.save(r);
+        changed(r, List.of());
         return toDtoWithTables(r, List.of());
     }
 
@@ -73,18 +81,17 @@ public class ReservationServiceImpl implements ReservationService {
         if (r.getStatus() == ReservationStatus.CANCELLED || r.getStatus() == ReservationStatus.COMPLETED)
             throw new BusinessException(ErrorCode.BAD_REQUEST, "Trạng thái đơn không cho phép gán bàn");
 
-        // Kiểm tra trùng giờ trên các bàn được gán
-        List<Reservation> overlaps = linkRepo.findOverlapsForTables(tableIds, r.getStartTime(), r.getEndTime());
-        // loại chính nó (nếu có) trong danh sách overlaps
-        boolean hasOtherOverlap = overlaps.stream().anyMatch(x -> !x.getId().equals(reservationId));
-        if (hasOtherOverlap)
-            throw new BusinessException(ErrorCode.BAD_REQUEST, "Một hoặc nhiều bàn đã được đặt trong khung giờ này");
-
         // Load thực thể bàn + validate sức chứa
         List<RestaurantTable> tables = tableRepo.findAllById(tableIds);
         if (tables.size() != tableIds.size())
             throw new BusinessException(ErrorCode.NOT_FOUND, "Có bàn không tồn tại");
 
+        // Kiểm tra trùng giờ trên DB, không dùng lịch trong bộ nhớ (chỉ nhất quán dần, chưa thấy lượt gán
+        // ở instance khác / đang commit): khoá các bàn rồi mới đọc, bỏ qua chính lượt đặt này
+        bookedRepo.lockTables(tableIds);
+        if (bookedRepo.anyOverlap(tableIds, r.getStartTime(), r.getEndTime(), reservationId))
+            throw new BusinessException(ErrorCode.BAD_REQUEST, "Một hoặc nhiều bàn đã được đặt trong khung giờ này");
+
         int totalSeats = tables.stream().mapToInt(RestaurantTable::getSeats).sum();
         if (totalSeats < r.getPartySize())
             throw new BusinessException(ErrorCode.BAD_REQUEST, "Tổng chỗ ngồi của bàn gán không đủ cho số khách");
@@ -103,16 +110,19 @@ public class ReservationServiceImpl implements ReservationService {
         // Có thể set CONFIRMED ngay khi gán bàn
         r.setStatus(ReservationStatus.CONFIRMED);
         resRepo.save(r);
-//        emailService.sendTemplate(
-//                r.getUser().getEmail(),
-//                "Xác nhận đặt bàn – Hoa Ban",
-//                "email/reservation_confirm.html",
-//                Map.of("fullName", r.getUser().getFullName(),
-//                        "start", r.getStartTime(),
-//                        "end", r.getEndTime(),
-//                        "partySize", r.getPartySize(),
-//                        "reservationId", r.getId().toString())
-//        );
+        changed(r, tables.stream().map(RestaurantTable::getId).toList());
+        if (r.getUser() != null && r.getUser().getEmail() != null) {
+            emailService.queueTemplate(
+                    r.getUser().getEmail(),
+                    "Xác nhận đặt bàn – Hoa Ban",
+                    "email/reservation_confirm.html",
+                    Map.of("fullName", r.getUser().getFullName() != null ? r.getUser().getFullName() : "",
+                            "start", r.getStartTime().toString(),
+                            "end", r.getEndTime().toString(),
+                            "partySize", r.getPartySize(),
+                            "reservationId", r.getId().toString())
+            );
+        }
 
         return toDtoWithTables(r, tables);
     }
@@ -132,6 +142,7 @@ public class ReservationServiceImpl implements ReservationService {
         r.setCancelReason(reason);
         r.setCanceledBy("USER:" + r.getUser().getEmail());
         resRepo.save(r);
+        changed(r, List.of());
     }
 
     @Override
@@ -146,6 +157,7 @@ public class ReservationServiceImpl implements ReservationService {
         r.setCancelReason(reason);
         r.setCanceledBy((staffEmail != null ? (staffEmail.startsWith("ADMIN") ? "ADMIN:" : "STAFF:") : "STAFF:") + staffEmail);
         resRepo.save(r);
+        changed(r, List.of());
     }
 
     @Override
@@ -162,6 +174,14 @@ public class ReservationServiceImpl implements ReservationService {
                 .toList();
     }
 
+    // Lịch đặt bàn + sức chứa khung giờ trong bộ nhớ cập nhật sau commit; lượt đặt đã huỷ không còn giữ bàn
+    // (liên kết vẫn giữ lại trong DB để xem lịch sử)
+    private void changed(Reservation r, List<UUID> tableIds) {
+        boolean active = r.getStatus() == ReservationStatus.PENDING || r.getStatus() == ReservationStatus.CONFIRMED;
+        events.publishEvent(new ReservationChangedEvent(r.getId(), r.getStartTime(), r.getEndTime(),
+                r.getPartySize(), tableIds, active));
+    }
+
     private ReservationDto toDtoWithTables(Reservation r, List<RestaurantTable> tables) {
         List<ReservationDto.TableBrief> tb = tables.stream()
                 .map(t -> new ReservationDto.TableBrief(t.getId(), t.getCode()))
@@ -179,33 +199,22 @@ public class ReservationServiceImpl implements ReservationService {
     }
 
 
+    // Dạng gọn cho chatbot: id, start, end, status (AVAILABLE / FULL), freeSeats
     @Override
-    public List<Map<String, Object>> getAvailableSlots() {
-
-        final LocalTime START_TIME = LocalTime.of(10, 0);
-        final LocalTime END_TIME = LocalTime.of(22, 0);
-        final int SLOT_DURATION_MINUTES = 60;
-        final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
-
-        List<Map<String, Object>> slots = new ArrayList<>();
-        LocalTime currentSlotStart = START_TIME;
-        long fakeId = 1;
-
-        while (currentSlotStart.isBefore(END_TIME)) {
-            LocalTime currentSlotEnd = currentSlotStart.plusMinutes(SLOT_DURATION_MINUTES);
-
-            Map<String, Object> slotMap = new HashMap<>();
-            slotMap.put("id", fakeId++);
-            slotMap.put("start", currentSlotStart.format(FORMATTER));
-            slotMap.put("end", currentSlotEnd.format(FORMATTER));
-            slotMap.put("status", "AVAILABLE"); // optional but useful for AI
-
-            slots.add(slotMap);
-
-            currentSlotStart = currentSlotEnd;
+    public List<Map<String, Object>> getAvailableSlots(LocalDate date, int partySize, int stepMinutes) {
+        DateTimeFormatter fmt = DateTimeFormatter.ofPattern("HH:mm");
+        List<Map<String, Object>> out = new ArrayList<>();
+        long id = 1;
+        for (ReservationSlotDto slot : slotService.slots(date, partySize, stepMinutes)) {
+            Map<String, Object> m = new HashMap<>();
+            m.put("id", id++);
+            m.put("start", slot.start().format(fmt));
+            m.put("end", slot.end().format(fmt));
+            m.put("status", slot.available() ? "AVAILABLE" : "FULL");
+            m.put("freeSeats", slot.freeSeats());
+            out.add(m);
         }
-
-        return slots;
+        return out;
     }
 
     @Override
@@ -0,0 +1,183 @@
+package com.hoabanrestaurant.backend.service.impl;
+
+import com.hoabanrestaurant.backend.dto.response.ReservationSlotDto;
+import com.hoabanrestaurant.backend.entity.RestaurantTable;
+import com.hoabanrestaurant.backend.enums.ErrorCode;
+import com.hoabanrestaurant.backend.enums.TableStatus;
+import com.hoabanrestaurant.backend.event.ReservationChangedEvent;
+import com.hoabanrestaurant.backend.event.TableChangedEvent;
+import com.hoabanrestaurant.backend.exception.BusinessException;
+import com.hoabanrestaurant.backend.repository.ReservationTableJdbcRepository;
+import com.hoabanrestaurant.backend.repository.ReservationTableJdbcRepository.ActiveReservation;
+import com.hoabanrestaurant.backend.repository.RestaurantTableRepository;
+import com.hoabanrestaurant.backend.service.ReservationSlotService;
+import com.hoabanrestaurant.backend.util.SeatCapacityDay;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+// Sức chứa khung giờ đặt bàn theo ngày: mỗi ngày một SeatCapacityDay (ô 15 phút) dựng từ số ghế các bàn
+// AVAILABLE và lượt đặt còn hiệu lực, giữ vài ngày gần nhất trong bộ nhớ. Mỗi lần tạo / gán bàn / huỷ
+// chỉ cộng trừ đúng các ô của lượt đặt đó (sau commit); sửa bàn hoặc đối soát định kỳ thì dựng lại.
+@Service
+@RequiredArgsConstructor
+public class ReservationSlotServiceImpl implements ReservationSlotService {
+    private static final int BUCKET_MINUTES = 15;
+    private static final long BUCKET_SECONDS = BUCKET_MINUTES * 60L;
+
+    private final RestaurantTableRepository tableRepo;
+    private final ReservationTableJdbcRepository repo;
+
+    @Value("${app.reservation.slots.open-time:10:00}")
+    private String openTime;
+    @Value("${app.reservation.slots.last-seating:22:00}")
+    private String lastSeating;
+    @Value("${app.reservation.slots.stay-minutes:120}")
+    private int stayMinutes;
+    @Value("${app.reservation.slots.horizon-days:30}")
+    private int horizonDays;
+    @Value("${app.reservation.slots.cache-days:31}")
+    private int cacheDays;
+
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    // tables rỗng = lượt đặt chưa gán bàn, chiếm partySize ghế trên tổng
+    private record Hold(int from, int to, int[] tables, int partySize) {
+    }
+
+    private record Day(Instant open, SeatCapacityDay capacity, Map<UUID, Integer> tableIndex, Map<UUID, Hold> holds) {
+    }
+
+    private final Object lock = new Object();
+    private final Map<LocalDate, Day> days = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<LocalDate, Day> eldest) {
+            return size() > cacheDays;
+        }
+    };
+
+    @Override
+    public List<ReservationSlotDto> slots(LocalDate date, int partySize, int stepMinutes) {
+        if (stepMinutes != 15 && stepMinutes != 30 && stepMinutes != 60)
+            throw new BusinessException(ErrorCode.BAD_REQUEST, "Bước khung giờ chỉ hỗ trợ 15/30/60 phút");
+        if (partySize < 1)
+            throw new BusinessException(ErrorCode.BAD_REQUEST, "Số khách không hợp lệ");
+        // endpoint công khai: ngày ngoài khoảng nhận đặt bàn thì từ chối trước khi dựng (đọc DB trong lock)
+        LocalDate today = LocalDate.now(zone);
+        if (date.isBefore(today) || date.isAfter(today.plusDays(horizonDays)))
+            throw new BusinessException(ErrorCode.BAD_REQUEST,
+                    "Chỉ xem được khung giờ từ hôm nay đến " + horizonDays + " ngày tới");
+
+        int window = (stayMinutes + BUCKET_MINUTES - 1) / BUCKET_MINUTES;
+        int[] free;
+        Instant open;
+        synchronized (lock) {
+            Day d = days.computeIfAbsent(date, this::build);
+            free = d.capacity().freeSeats(stepMinutes / BUCKET_MINUTES, window);
+            open = d.open();
+        }
+
+        Instant now = Instant.now();
+        List<ReservationSlotDto> out = new ArrayList<>(free.length);
+        for (int k = 0; k < free.length; k++) {
+            Instant start = open.plus(Duration.ofMinutes((long) k * stepMinutes));
+            LocalTime from = start.atZone(zone).toLocalTime();
+            out.add(new ReservationSlotDto(from, from.plusMinutes(stayMinutes), free[k],
+                    free[k] >= partySize && start.isAfter(now)));
+        }
+        return out;
+    }
+
+    @Override
+    public void invalidate() {
+        synchronized (lock) {
+            days.clear();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onReservationChanged(ReservationChangedEvent ev) {
+        synchronized (lock) {
+            for (Day d : days.values()) {
+                release(d, ev.reservationId());
+                if (ev.active()) hold(d, ev.reservationId(), ev.start(), ev.end(), ev.partySize(), ev.tableIds());
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTableChanged(TableChangedEvent ev) {
+        invalidate();
+    }
+
+    // Gọi trong lock: sự kiện commit trong lúc đọc DB sẽ chờ rồi áp lại (release + hold), không bị tính 2 lần
+    private Day build(LocalDate date) {
+        LocalTime open = LocalTime.parse(openTime);
+        long minutes = Duration.between(open, LocalTime.parse(lastSeating)).toMinutes() + stayMinutes;
+        int buckets = (int) ((minutes + BUCKET_MINUTES - 1) / BUCKET_MINUTES);
+
+        List<RestaurantTable> tables = tableRepo.findByStatusOrderByArea_NameAscCodeAsc(TableStatus.AVAILABLE);
+        int[] seats = new int[tables.size()];
+        Map<UUID, Integer> index = new HashMap<>();
+        for (int i = 0; i < seats.length; i++) {
+            seats[i] = tables.get(i).getSeats();
+            index.put(tables.get(i).getId(), i);
+        }
+
+        Instant start = date.atTime(open).atZone(zone).toInstant();
+        Day d = new Day(start, new SeatCapacityDay(seats, buckets), index, new HashMap<>());
+        Instant end = start.plus(Duration.ofMinutes((long) buckets * BUCKET_MINUTES));
+
+        Map<UUID, List<ActiveReservation>> rows = new LinkedHashMap<>();
+        for (ActiveReservation r : repo.findActiveBetween(start, end)) {
+            rows.computeIfAbsent(r.reservationId(), k -> new ArrayList<>()).add(r);
+        }
+        rows.forEach((id, links) -> {
+            ActiveReservation r = links.get(0);
+            List<UUID> tableIds = links.stream().map(ActiveReservation::tableId).filter(Objects::nonNull).toList();
+            hold(d, id, r.start(), r.end(), r.partySize(), tableIds);
+        });
+        return d;
+    }
+
+    private static void hold(Day d, UUID id, Instant start, Instant end, int partySize, List<UUID> tableIds) {
+        int from = (int) Math.floorDiv(Duration.between(d.open(), start).toSeconds(), BUCKET_SECONDS);
+        int to = (int) -Math.floorDiv(-Duration.between(d.open(), end).toSeconds(), BUCKET_SECONDS);
+        if (to <= 0 || from >= d.capacity().buckets()) return;
+
+        Hold h;
+        if (tableIds.isEmpty()) {
+            h = new Hold(from, to, new int[0], partySize);
+            d.capacity().pending(from, to, partySize);
+        } else {
+            // bàn đang UNAVAILABLE không nằm trong sức chứa, bỏ qua
+            int[] idx = tableIds.stream().map(d.tableIndex()::get).filter(Objects::nonNull)
+                    .mapToInt(Integer::intValue).toArray();
+            h = new Hold(from, to, idx, 0);
+            d.capacity().hold(idx, from, to, 1);
+        }
+        d.holds().put(id, h);
+    }
+
+    private static void release(Day d, UUID id) {
+        Hold h = d.holds().remove(id);
+        if (h == null) return;
+        if (h.partySize() > 0) d.capacity().pending(h.from(), h.to(), -h.partySize());
+        else d.capacity().hold(h.tables(), h.from(), h.to(), -1);
+    }
+}
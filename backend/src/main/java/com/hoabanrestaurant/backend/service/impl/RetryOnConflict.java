@@ -0,0 +1,13 @@
+package com.hoabanrestaurant.backend.service.impl;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Đánh dấu method ghi order cần chạy lại khi thua cuộc đua version / mở bàn (xem ConflictRetry).
+// Interceptor (ConflictRetryConfig) bọc NGOÀI @Transactional nên mỗi lần thử là 1 transaction mới.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnConflict {
+}
@@ -0,0 +1,155 @@
+package com.hoabanrestaurant.backend.service.impl;
+
+import com.hoabanrestaurant.backend.event.ReservationChangedEvent;
+import com.hoabanrestaurant.backend.repository.ReservationTableJdbcRepository;
+import com.hoabanrestaurant.backend.repository.ReservationTableJdbcRepository.BookedTable;
+import com.hoabanrestaurant.backend.service.TableAvailabilityService;
+import com.hoabanrestaurant.backend.util.IntervalArray;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Lịch đặt bàn trong bộ nhớ: mỗi bàn một IntervalArray các khoảng đang bị giữ, thay cho NOT IN query
+// trên reservation_tables mỗi lần liệt kê bàn trống. Nạp lần đầu khi cần, cập nhật khi gán bàn / huỷ (sau commit),
+// định kỳ đối soát lại với DB (TableAvailabilityReconcileJob) để nhận thay đổi từ instance khác hoặc bị lỡ.
+// Chỉ nhất quán dần nên không dùng để chặn đặt trùng: assignTables khoá bàn và kiểm tra lại trên DB.
+// Chỉ giữ lượt đặt chưa kết thúc (trừ hao grace-minutes cho khách ngồi quá giờ); mỗi lần đối soát bỏ các lượt đã qua.
+@Service
+@RequiredArgsConstructor
+public class TableAvailabilityServiceImpl implements TableAvailabilityService {
+    private static final Logger log = LoggerFactory.getLogger(TableAvailabilityServiceImpl.class);
+
+    private final ReservationTableJdbcRepository repo;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.reservation.availability.grace-minutes:30}")
+    private int graceMinutes;
+
+    private record Booking(long start, long end, Set<UUID> tables) {
+    }
+
+    // ghi (áp sự kiện, nạp, đối soát) đi qua lock; đọc chỉ lấy IntervalArray bất biến của từng bàn
+    private final Object lock = new Object();
+    private volatile Map<UUID, IntervalArray> byTable;  // null = chưa nạp
+    private Map<UUID, Booking> byReservation = new HashMap<>();
+
+    @Override
+    public boolean isBooked(UUID tableId, Instant start, Instant end, UUID except) {
+        IntervalArray a = tables().get(tableId);
+        return a != null && a.overlaps(start.toEpochMilli(), end.toEpochMilli(), except);
+    }
+
+    @Override
+    public boolean anyBooked(Collection<UUID> tableIds, Instant start, Instant end, UUID except) {
+        Map<UUID, IntervalArray> m = tables();
+        long s = start.toEpochMilli();
+        long e = end.toEpochMilli();
+        for (UUID id : tableIds) {
+            IntervalArray a = m.get(id);
+            if (a != null && a.overlaps(s, e, except)) return true;
+        }
+        return false;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onReservationChanged(ReservationChangedEvent ev) {
+        synchronized (lock) {
+            Map<UUID, IntervalArray> m = byTable;
+            if (m == null) return;  // chưa nạp: lần nạp đầu sẽ đọc cả thay đổi vừa commit
+            Booking old = byReservation.remove(ev.reservationId());
+            if (old != null) {
+                for (UUID t : old.tables()) m.computeIfPresent(t, (k, a) -> a.without(ev.reservationId()));
+            }
+            if (!ev.active() || ev.tableIds().isEmpty()) return;
+            Booking b = new Booking(ev.start().toEpochMilli(), ev.end().toEpochMilli(), Set.copyOf(ev.tableIds()));
+            byReservation.put(ev.reservationId(), b);
+            for (UUID t : b.tables()) {
+                m.put(t, m.getOrDefault(t, IntervalArray.EMPTY).with(b.start(), b.end(), ev.reservationId()));
+            }
+        }
+    }
+
+    // Giữ lock trong lúc đọc DB: sự kiện commit sau thời điểm đọc sẽ chờ và áp lên bản mới, không bị mất
+    @Override
+    public int reconcile() {
+        synchronized (lock) {
+            boolean first = byTable == null;
+            long cutoff = Instant.now().minus(Duration.ofMinutes(graceMinutes)).toEpochMilli();
+            Map<UUID, Booking> fresh = load(Instant.ofEpochMilli(cutoff));
+            int drift = 0;
+            if (!first) {
+                for (var e : fresh.entrySet()) {
+                    if (!e.getValue().equals(byReservation.get(e.getKey()))) drift++;
+                }
+                // lượt đã kết thúc biến khỏi DB là bình thường, không tính lệch
+                for (var e : byReservation.entrySet()) {
+                    if (!fresh.containsKey(e.getKey()) && e.getValue().end() > cutoff) drift++;
+                }
+            }
+            byTable = index(fresh);
+            byReservation = fresh;
+            if (first) meterRegistry.gauge("reservations.availability.bookings", this, x -> x.byReservation.size());
+            if (drift > 0) {
+                meterRegistry.counter("reservations.availability.drift").increment(drift);
+                log.warn("Lịch đặt bàn trong bộ nhớ lệch {} lượt đặt so với DB, đã nạp lại", drift);
+            }
+            return drift;
+        }
+    }
+
+    private Map<UUID, IntervalArray> tables() {
+        Map<UUID, IntervalArray> m = byTable;
+        if (m != null) return m;
+        synchronized (lock) {
+            if (byTable == null) reconcile();
+            return byTable;
+        }
+    }
+
+    private Map<UUID, Booking> load(Instant endAfter) {
+        Map<UUID, Booking> out = new HashMap<>();
+        for (BookedTable row : repo.findActive(endAfter)) {
+            out.computeIfAbsent(row.reservationId(), k -> new Booking(
+                            row.start().toEpochMilli(), row.end().toEpochMilli(), new HashSet<>()))
+                    .tables().add(row.tableId());
+        }
+        return out;
+    }
+
+    private static Map<UUID, IntervalArray> index(Map<UUID, Booking> bookings) {
+        Map<UUID, List<UUID>> idsByTable = new HashMap<>();
+        for (var e : bookings.entrySet()) {
+            for (UUID t : e.getValue().tables()) idsByTable.computeIfAbsent(t, k -> new ArrayList<>()).add(e.getKey());
+        }
+        Map<UUID, IntervalArray> out = new ConcurrentHashMap<>(idsByTable.size() * 2);
+        idsByTable.forEach((table, ids) -> {
+            int n = ids.size();
+            long[] s = new long[n];
+            long[] e = new long[n];
+            for (int i = 0; i < n; i++) {
+                Booking b = bookings.get(ids.get(i));
+                s[i] = b.start();
+                e[i] = b.end();
+            }
+            out.put(table, IntervalArray.of(s, e, ids.toArray(UUID[]::new), n));
+        });
+        return out;
+    }
+}
@@ -5,12 +5,16 @@ import com.hoabanrestaurant.backend.dto.response.TableDto;
 import com.hoabanrestaurant.backend.entity.Area;
 import com.hoabanrestaurant.backend.entity.RestaurantTable;
 import com.hoabanrestaurant.backend.enums.ErrorCode;
+import com.hoabanrestaurant.backend.enums.TableStatus;
+import com.hoabanrestaurant.backend.event.TableChangedEvent;
 import com.hoabanrestaurant.backend.exception.BusinessException;
 import com.hoabanrestaurant.backend.mapper.TableMapper;
 import com.hoabanrestaurant.backend.repository.AreaRepository;
 import com.hoabanrestaurant.backend.repository.RestaurantTableRepository;
+import com.hoabanrestaurant.backend.service.TableAvailabilityService;
 import com.hoabanrestaurant.backend.service.TableService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
@@ -25,6 +29,8 @@ public class TableServiceImpl implements TableService {
     private final AreaRepository areaRepo;
     private final RestaurantTableRepository tableRepo;
     private final TableMapper mapper;
+    private final TableAvailabilityService availability;
+    private final ApplicationEventPublisher events;
 
     @Override
     public TableDto create(CreateTableReq req) {
@@ -43,7 +49,9 @@ public class TableServiceImpl implements TableService {
                         : com.hoabanrestaurant.backend.enums.TableStatus.UNAVAILABLE)
                 .build();
 
-        return mapper.toDto(tableRepo.save(t));
+        t = tableRepo.save(t);
+        tableChanged();
+        return mapper.toDto(t);
     }
 
     @Override
@@ -93,7 +101,9 @@ public class TableServiceImpl implements TableService {
                         ? com.hoabanrestaurant.backend.enums.TableStatus.AVAILABLE
                         : com.hoabanrestaurant.backend.enums.TableStatus.UNAVAILABLE)
                 .build();
-        return mapper.toDto(tableRepo.save(table));
+        table = tableRepo.save(table);
+        tableChanged();
+        return mapper.toDto(table);
     }
 
     @Override
@@ -102,6 +112,7 @@ public class TableServiceImpl implements TableService {
             throw new BusinessException(ErrorCode.NOT_FOUND, "Bàn không tồn tại");
         }
         tableRepo.deleteById(id);
+        tableChanged();
     }
 
     @Override
@@ -109,7 +120,8 @@ public class TableServiceImpl implements TableService {
         if (startTime.isAfter(endTime)) {
             throw new BusinessException(ErrorCode.BAD_REQUEST, "Thời gian bắt đầu phải trước thời gian kết thúc");
         }
-        return mapper.toDtoList(tableRepo.findAvailableTables(startTime, endTime));
+        return mapper.toDtoList(free(tableRepo.findByStatusOrderByArea_NameAscCodeAsc(TableStatus.AVAILABLE),
+                startTime, endTime));
     }
 
     @Override
@@ -120,6 +132,18 @@ public class TableServiceImpl implements TableService {
         if (!areaRepo.existsById(areaId)) {
             throw new BusinessException(ErrorCode.NOT_FOUND, "Khu vực không tồn tại");
         }
-        return mapper.toDtoList(tableRepo.findAvailableTablesByArea(areaId, startTime, endTime));
+        return mapper.toDtoList(free(tableRepo.findByArea_IdAndStatusOrderByCodeAsc(areaId, TableStatus.AVAILABLE),
+                startTime, endTime));
+    }
+
+    private List<RestaurantTable> free(List<RestaurantTable> tables, Instant startTime, Instant endTime) {
+        return tables.stream()
+                .filter(t -> !availability.isBooked(t.getId(), startTime, endTime, null))
+                .toList();
+    }
+
+    // sức chứa khung giờ đặt bàn dựng lại theo số ghế mới
+    private void tableChanged() {
+        events.publishEvent(new TableChangedEvent(Instant.now()));
     }
 }
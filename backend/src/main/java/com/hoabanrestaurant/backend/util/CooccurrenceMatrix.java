@@ -0,0 +1,143 @@
+package com.hoabanrestaurant.backend.util;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Ma trận đồng xuất hiện thưa giữa các món (chỉ số 0..size-1): mỗi "giỏ" (order) cộng 1 cho từng cặp
+ * món phân biệt trong giỏ. Cặp (i, j), i < j, gói thành 1 khoá long trong {@link LongIntHashMap}, nên bộ nhớ
+ * chỉ phụ thuộc số cặp thực sự xuất hiện (tối đa size²/2), không phụ thuộc số dòng order đã đọc.
+ */
+public final class CooccurrenceMatrix {
+
+    // Láng giềng của từng món, giảm dần theo độ tương tự
+    public record Neighbours(int[][] ids, float[][] scores) {
+    }
+
+    private final int size;
+    private final int maxBasket;
+    private final int[] itemCounts;
+    private final LongIntHashMap pairs;
+    private final RandomGenerator random;
+    private long baskets;
+
+    public CooccurrenceMatrix(int size, int maxBasket) {
+        this(size, maxBasket, new SplittableRandom());
+    }
+
+    public CooccurrenceMatrix(int size, int maxBasket, RandomGenerator random) {
+        this.size = size;
+        this.maxBasket = maxBasket;
+        this.itemCounts = new int[size];
+        this.pairs = new LongIntHashMap(Math.min(size * 16, 1 << 20));
+        this.random = random;
+    }
+
+    // items[0..n) có thể trùng, bị sắp xếp lại tại chỗ. Giỏ có hơn maxBasket món phân biệt thì lấy ngẫu nhiên
+    // maxBasket món (cắt theo thứ tự chỉ số sẽ luôn bỏ cùng những món cuối danh sách)
+    public void addBasket(int[] items, int n) {
+        Arrays.sort(items, 0, n);
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (distinct == 0 || items[i] != items[distinct - 1]) items[distinct++] = items[i];
+        }
+        if (distinct == 0) return;
+        if (distinct > maxBasket) {
+            // Fisher-Yates dừng sau maxBasket bước, rồi sắp lại phần giữ để khoá cặp luôn (nhỏ, lớn)
+            for (int i = 0; i < maxBasket; i++) {
+                int j = i + random.nextInt(distinct - i);
+                int t = items[i];
+                items[i] = items[j];
+                items[j] = t;
+            }
+            distinct = maxBasket;
+            Arrays.sort(items, 0, distinct);
+        }
+        baskets++;
+        for (int a = 0; a < distinct; a++) {
+            itemCounts[items[a]]++;
+            for (int b = a + 1; b < distinct; b++) pairs.addTo(((long) items[a] << 32) | items[b], 1);
+        }
+    }
+
+    public long baskets() {
+        return baskets;
+    }
+
+    public int pairCount() {
+        return pairs.size();
+    }
+
+    // Số giỏ có cả i và j (không phân biệt thứ tự)
+    public int count(int i, int j) {
+        return i == j ? itemCounts[i] : pairs.get(((long) Math.min(i, j) << 32) | Math.max(i, j));
+    }
+
+    /**
+     * Chuẩn hoá cosine: sim(i, j) = c(i, j) / sqrt(n(i) * n(j)), bỏ cặp xuất hiện ít hơn minSupport lần,
+     * rồi giữ topN láng giềng cho mỗi món bằng min-heap trên mảng.
+     */
+    public Neighbours topNeighbours(int topN, int minSupport) {
+        int[][] ids = new int[size][topN];
+        float[][] scores = new float[size][topN];
+        int[] counts = new int[size];
+        pairs.forEach((key, c) -> {
+            if (c < minSupport) return;
+            int i = (int) (key >>> 32);
+            int j = (int) key;
+            float sim = (float) (c / Math.sqrt((double) itemCounts[i] * itemCounts[j]));
+            offer(ids[i], scores[i], counts, i, j, sim);
+            offer(ids[j], scores[j], counts, j, i, sim);
+        });
+        for (int i = 0; i < size; i++) {
+            int n = counts[i];
+            sortDescending(ids[i], scores[i], n);
+            ids[i] = Arrays.copyOf(ids[i], n);
+            scores[i] = Arrays.copyOf(scores[i], n);
+        }
+        return new Neighbours(ids, scores);
+    }
+
+    private static void offer(int[] heapIds, float[] heapScores, int[] counts, int owner, int id, float score) {
+        int n = counts[owner];
+        if (n < heapIds.length) {
+            heapIds[n] = id;
+            heapScores[n] = score;
+            counts[owner] = n + 1;
+            for (int c = n; c > 0; ) { // sift up
+                int p = (c - 1) >>> 1;
+                if (heapScores[p] <= heapScores[c]) break;
+                swap(heapIds, heapScores, c, p);
+                c = p;
+            }
+        } else if (n > 0 && score > heapScores[0]) {
+            heapIds[0] = id;
+            heapScores[0] = score;
+            for (int c = 0; ; ) { // sift down
+                int l = 2 * c + 1, r = l + 1, min = c;
+                if (l < n && heapScores[l] < heapScores[min]) min = l;
+                if (r < n && heapScores[r] < heapScores[min]) min = r;
+                if (min == c) break;
+                swap(heapIds, heapScores, c, min);
+                c = min;
+            }
+        }
+    }
+
+    // n nhỏ (topN) nên sắp xếp chèn là đủ
+    private static void sortDescending(int[] ids, float[] scores, int n) {
+        for (int i = 1; i < n; i++) {
+            for (int k = i; k > 0 && scores[k] > scores[k - 1]; k--) swap(ids, scores, k, k - 1);
+        }
+    }
+
+    private static void swap(int[] ids, float[] scores, int a, int b) {
+        int t = ids[a];
+        ids[a] = ids[b];
+        ids[b] = t;
+        float s = scores[a];
+        scores[a] = scores[b];
+        scores[b] = s;
+    }
+}
@@ -0,0 +1,104 @@
+package com.hoabanrestaurant.backend.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Đọc CSV (RFC 4180) từng bản ghi một từ Reader, không nạp cả file: hỗ trợ ô trong ngoặc kép,
+ * "" trong ô, xuống dòng trong ô, CRLF/LF và BOM đầu file (file xuất từ Excel).
+ */
+public final class CsvReader {
+    private final Reader in;
+    private final StringBuilder cell = new StringBuilder();
+    private int pending = -2; // ký tự đã đọc trước; -2 = chưa có
+    private boolean started;
+    private long record;
+
+    public CsvReader(Reader in) {
+        this.in = in;
+    }
+
+    // số thứ tự (từ 1) của bản ghi vừa trả về bởi next()
+    public long record() {
+        return record;
+    }
+
+    // bản ghi kế tiếp, null khi hết file; dòng trống bị bỏ qua. File hỏng cấu trúc -> IllegalStateException
+    public List<String> next() throws IOException {
+        while (true) {
+            int c = read();
+            if (c == -1) return null;
+            if (c == '\r' || c == '\n') {
+                if (c == '\r') skipLf();
+                continue;
+            }
+            unread(c);
+            record++;
+            return readRecord();
+        }
+    }
+
+    private List<String> readRecord() throws IOException {
+        List<String> cells = new ArrayList<>();
+        cell.setLength(0);
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        while (true) {
+            int c = read();
+            if (quoted) {
+                if (c == -1) throw new IllegalStateException("Thiếu dấu \" đóng ở bản ghi " + record);
+                if (c == '"') {
+                    int n = read();
+                    if (n == '"') {
+                        cell.append('"');
+                    } else {
+                        quoted = false;
+                        unread(n);
+                    }
+                } else {
+                    cell.append((char) c);
+                }
+                continue;
+            }
+            if (c == '"' && cell.isEmpty() && !wasQuoted) {
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+                wasQuoted = false;
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r') skipLf();
+                cells.add(cell.toString());
+                return cells;
+            } else {
+                cell.append((char) c);
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (pending != -2) {
+            int c = pending;
+            pending = -2;
+            return c;
+        }
+        int c = in.read();
+        if (!started) {
+            started = true;
+            if (c == '\uFEFF') c = in.read();
+        }
+        return c;
+    }
+
+    private void unread(int c) {
+        pending = c;
+    }
+
+    private void skipLf() throws IOException {
+        int n = read();
+        if (n != '\n') unread(n);
+    }
+}
@@ -0,0 +1,17 @@
+package com.hoabanrestaurant.backend.util;
+
+// Ghi ô CSV (RFC 4180): bọc ngoặc kép khi ô có dấu phẩy, ngoặc kép hoặc xuống dòng
+public final class CsvWriter {
+
+    private CsvWriter() {
+    }
+
+    public static String escape(String v) {
+        boolean quote = false;
+        for (int i = 0; i < v.length() && !quote; i++) {
+            char ch = v.charAt(i);
+            quote = ch == ',' || ch == '"' || ch == '\n' || ch == '\r';
+        }
+        return quote ? '"' + v.replace("\"", "\"\"") + '"' : v;
+    }
+}
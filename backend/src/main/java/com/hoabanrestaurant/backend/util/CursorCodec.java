@@ -0,0 +1,34 @@
+package com.hoabanrestaurant.backend.util;
+
+import com.hoabanrestaurant.backend.enums.ErrorCode;
+import com.hoabanrestaurant.backend.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Mã hoá cursor cho phân trang keyset: các giá trị khoá của dòng cuối trang,
+ * nối bằng '\n' rồi base64url để client chỉ việc gửi lại nguyên chuỗi.
+ */
+public class CursorCodec {
+    private static final String SEP = "\n";
+
+    private CursorCodec() {
+    }
+
+    public static String encode(String... parts) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.join(SEP, parts).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String[] decode(String cursor, int expectedParts) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEP, -1);
+            if (parts.length != expectedParts) throw new IllegalArgumentException();
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(ErrorCode.BAD_REQUEST, "Cursor không hợp lệ");
+        }
+    }
+}
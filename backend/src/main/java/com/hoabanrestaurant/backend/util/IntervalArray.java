@@ -0,0 +1,110 @@
+package com.hoabanrestaurant.backend.util;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Các khoảng [start, end) đã đặt của một bàn, xếp theo start, kèm maxEnd tích luỹ (max end của
+ * mọi khoảng từ đầu đến vị trí i). Hỏi "có khoảng nào giao [s, e)" = tìm nhị phân khoảng cuối có
+ * start < e rồi lùi lại chừng nào maxEnd còn > s, nên thường chỉ chạm vài phần tử.
+ * <p>
+ * Bất biến: thêm / bỏ trả về mảng mới (mỗi bàn chỉ vài chục lượt đặt đang mở), đọc không cần khoá.
+ */
+public final class IntervalArray {
+    public static final IntervalArray EMPTY = new IntervalArray(new long[0], new long[0], new UUID[0]);
+
+    private final long[] starts;
+    private final long[] ends;
+    private final long[] maxEnds;
+    private final UUID[] ids;
+
+    private IntervalArray(long[] starts, long[] ends, UUID[] ids) {
+        this.starts = starts;
+        this.ends = ends;
+        this.ids = ids;
+        this.maxEnds = new long[starts.length];
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < ends.length; i++) {
+            max = Math.max(max, ends[i]);
+            maxEnds[i] = max;
+        }
+    }
+
+    public int size() {
+        return starts.length;
+    }
+
+    // Có khoảng nào (khác except) giao [start, end) không
+    public boolean overlaps(long start, long end, UUID except) {
+        for (int i = firstAtOrAfter(end) - 1; i >= 0 && maxEnds[i] > start; i--) {
+            if (ends[i] > start && !ids[i].equals(except)) return true;
+        }
+        return false;
+    }
+
+    // Thêm (hoặc thay) khoảng của id
+    public IntervalArray with(long start, long end, UUID id) {
+        IntervalArray base = without(id);
+        int n = base.size();
+        int pos = base.firstAtOrAfter(start + 1);  // sau các khoảng cùng start
+        long[] s = new long[n + 1];
+        long[] e = new long[n + 1];
+        UUID[] ids = new UUID[n + 1];
+        System.arraycopy(base.starts, 0, s, 0, pos);
+        System.arraycopy(base.ends, 0, e, 0, pos);
+        System.arraycopy(base.ids, 0, ids, 0, pos);
+        s[pos] = start;
+        e[pos] = end;
+        ids[pos] = id;
+        System.arraycopy(base.starts, pos, s, pos + 1, n - pos);
+        System.arraycopy(base.ends, pos, e, pos + 1, n - pos);
+        System.arraycopy(base.ids, pos, ids, pos + 1, n - pos);
+        return new IntervalArray(s, e, ids);
+    }
+
+    public IntervalArray without(UUID id) {
+        int n = size();
+        for (int i = 0; i < n; i++) {
+            if (!ids[i].equals(id)) continue;
+            if (n == 1) return EMPTY;
+            long[] s = new long[n - 1];
+            long[] e = new long[n - 1];
+            UUID[] rest = new UUID[n - 1];
+            System.arraycopy(starts, 0, s, 0, i);
+            System.arraycopy(ends, 0, e, 0, i);
+            System.arraycopy(ids, 0, rest, 0, i);
+            System.arraycopy(starts, i + 1, s, i, n - i - 1);
+            System.arraycopy(ends, i + 1, e, i, n - i - 1);
+            System.arraycopy(ids, i + 1, rest, i, n - i - 1);
+            return new IntervalArray(s, e, rest);
+        }
+        return this;
+    }
+
+    // Dựng một lần từ danh sách chưa sắp xếp (nạp lúc khởi động / đối soát)
+    public static IntervalArray of(long[] starts, long[] ends, UUID[] ids, int n) {
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Long.compare(starts[a], starts[b]));
+        long[] s = new long[n];
+        long[] e = new long[n];
+        UUID[] sortedIds = new UUID[n];
+        for (int i = 0; i < n; i++) {
+            s[i] = starts[order[i]];
+            e[i] = ends[order[i]];
+            sortedIds[i] = ids[order[i]];
+        }
+        return new IntervalArray(s, e, sortedIds);
+    }
+
+    // vị trí đầu tiên có start >= x
+    private int firstAtOrAfter(long x) {
+        int lo = 0, hi = starts.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (starts[mid] < x) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,82 @@
+package com.hoabanrestaurant.backend.util;
+
+import java.util.Arrays;
+
+/**
+ * Map long -> int địa chỉ mở (dò tuyến tính) trên 2 mảng nguyên thuỷ, không boxing.
+ * Chỉ nhận khoá không âm (-1 đánh dấu ô trống); không hỗ trợ xoá.
+ */
+public final class LongIntHashMap {
+    private static final long EMPTY = -1L;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private int mask;
+
+    public LongIntHashMap(int expected) {
+        int cap = Integer.highestOneBit(Math.max(16, (int) (expected / LOAD_FACTOR)) - 1) << 1;
+        alloc(cap);
+    }
+
+    public interface EntryConsumer {
+        void accept(long key, int value);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int get(long key) {
+        int i = slot(key);
+        return keys[i] == key ? values[i] : 0;
+    }
+
+    // cộng delta vào giá trị của key (chưa có thì coi như 0), trả về giá trị mới
+    public int addTo(long key, int delta) {
+        if (key < 0) throw new IllegalArgumentException("Khoá phải không âm: " + key);
+        int i = slot(key);
+        if (keys[i] == key) return values[i] += delta;
+        keys[i] = key;
+        values[i] = delta;
+        if (++size > keys.length * LOAD_FACTOR) rehash();
+        return delta;
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) consumer.accept(keys[i], values[i]);
+        }
+    }
+
+    private int slot(long key) {
+        int i = mix(key) & mask;
+        while (keys[i] != EMPTY && keys[i] != key) i = (i + 1) & mask;
+        return i;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        alloc(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY) continue;
+            int s = slot(oldKeys[i]);
+            keys[s] = oldKeys[i];
+            values[s] = oldValues[i];
+        }
+    }
+
+    private void alloc(int cap) {
+        keys = new long[cap];
+        Arrays.fill(keys, EMPTY);
+        values = new int[cap];
+        mask = cap - 1;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
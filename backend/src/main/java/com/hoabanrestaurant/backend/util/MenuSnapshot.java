@@ -0,0 +1,104 @@
+package com.hoabanrestaurant.backend.util;
+
+import com.hoabanrestaurant.backend.enums.MenuStatus;
+import com.hoabanrestaurant.backend.enums.Unit;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+// Ảnh chụp bất biến của thực đơn (danh mục, món, combo, giá, trạng thái).
+// Đọc không cần khoá; khi thực đơn đổi thì dựng bản mới với version lớn hơn rồi thay cả object
+// (dựng lại mà nội dung không đổi thì giữ nguyên bản cũ, version không tăng).
+public final class MenuSnapshot {
+
+    public record CategoryEntry(UUID id, String name, MenuStatus status) {
+    }
+
+    public record DishEntry(UUID id, UUID categoryId, String name, String description, String imageUrl,
+                            Unit unit, boolean signature, BigDecimal price, MenuStatus status) {
+        public boolean active() {
+            return status == MenuStatus.ACTIVE;
+        }
+    }
+
+    public record ComboLine(UUID dishId, String dishName, int quantity) {
+    }
+
+    // suggestedSum = tổng giá lẻ các món trong combo
+    public record ComboEntry(UUID id, String name, String description, String imageUrl, BigDecimal price,
+                             MenuStatus status, List<ComboLine> items, BigDecimal suggestedSum) {
+        public boolean active() {
+            return status == MenuStatus.ACTIVE;
+        }
+    }
+
+    public static final MenuSnapshot EMPTY = new MenuSnapshot(0, "0", Instant.EPOCH, Map.of(), Map.of(), Map.of());
+
+    private final long version;
+    private final String digest;
+    private final Instant builtAt;
+    private final Map<UUID, CategoryEntry> categories;
+    private final Map<UUID, DishEntry> dishes;
+    private final Map<UUID, ComboEntry> combos;
+
+    public MenuSnapshot(long version, String digest, Instant builtAt,
+                        Map<UUID, CategoryEntry> categories,
+                        Map<UUID, DishEntry> dishes,
+                        Map<UUID, ComboEntry> combos) {
+        this.version = version;
+        this.digest = digest;
+        this.builtAt = builtAt;
+        this.categories = Map.copyOf(categories);
+        this.dishes = Map.copyOf(dishes);
+        this.combos = Map.copyOf(combos);
+    }
+
+    public long version() {
+        return version;
+    }
+
+    // băm nội dung thực đơn + khu vực: giống nhau trên mọi instance khi dữ liệu giống nhau (dùng làm ETag)
+    public String digest() {
+        return digest;
+    }
+
+    public Instant builtAt() {
+        return builtAt;
+    }
+
+    public Optional<CategoryEntry> category(UUID id) {
+        return Optional.ofNullable(categories.get(id));
+    }
+
+    public Optional<DishEntry> dish(UUID id) {
+        return Optional.ofNullable(dishes.get(id));
+    }
+
+    public Optional<ComboEntry> combo(UUID id) {
+        return Optional.ofNullable(combos.get(id));
+    }
+
+    // món đang phục vụ: món ACTIVE và danh mục của nó không bị tắt
+    public boolean dishServable(UUID id) {
+        DishEntry d = dishes.get(id);
+        if (d == null || !d.active()) return false;
+        CategoryEntry c = categories.get(d.categoryId());
+        return c == null || c.status() == MenuStatus.ACTIVE;
+    }
+
+    public Map<UUID, CategoryEntry> categories() {
+        return categories;
+    }
+
+    public Map<UUID, DishEntry> dishes() {
+        return dishes;
+    }
+
+    public Map<UUID, ComboEntry> combos() {
+        return combos;
+    }
+}
@@ -0,0 +1,22 @@
+package com.hoabanrestaurant.backend.util;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Giảm dần theo thời gian kiểu "forward decay": sự kiện lúc t có trọng số 2^((t - LANDMARK) / HALF_LIFE).
+ * Chia mọi điểm cho trọng số của "bây giờ" sẽ ra điểm đã bán rã, nhưng phép chia chung không đổi thứ hạng,
+ * nên chỉ cần cộng dồn, không phải quét lại để giảm điểm. Double đủ cho ~80 năm kể từ LANDMARK.
+ * Hằng số phải trùng với migration V23 (điểm nạp từ lịch sử).
+ */
+public final class PopularityDecay {
+    public static final Instant LANDMARK = Instant.parse("2025-01-01T00:00:00Z");
+    public static final Duration HALF_LIFE = Duration.ofDays(30);
+
+    private PopularityDecay() {
+    }
+
+    public static double weight(Instant at) {
+        return Math.pow(2, (double) (at.getEpochSecond() - LANDMARK.getEpochSecond()) / HALF_LIFE.toSeconds());
+    }
+}
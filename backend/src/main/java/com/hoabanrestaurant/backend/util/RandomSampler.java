@@ -0,0 +1,51 @@
+package com.hoabanrestaurant.backend.util;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Chọn k chỉ số phân biệt trong [0, n) bằng Fisher–Yates dừng sau k bước, trên hoán vị đồng nhất
+ * "ảo": chỉ ghi nhớ các vị trí đã bị đổi chỗ nên không cần mảng n phần tử, không đụng mảng dùng chung.
+ * Chi phí O(k²) với k rất nhỏ (vài món gợi ý), không phụ thuộc n.
+ */
+public final class RandomSampler {
+
+    private RandomSampler() {
+    }
+
+    public static int[] sample(int n, int k, RandomGenerator rnd) {
+        int size = Math.max(0, Math.min(k, n));
+        int[] out = new int[size];
+        // vị trí j (>= i) đã bị đổi chỗ -> giá trị đang nằm ở đó
+        int[] movedPos = new int[size];
+        int[] movedVal = new int[size];
+        int moved = 0;
+        for (int i = 0; i < size; i++) {
+            int j = i + rnd.nextInt(n - i);
+            int atJ = lookup(movedPos, movedVal, moved, j);
+            int atI = lookup(movedPos, movedVal, moved, i);
+            out[i] = atJ;
+            // vị trí i không bao giờ được đọc lại, chỉ cần nhớ j
+            if (j != i) moved = put(movedPos, movedVal, moved, j, atI);
+        }
+        return out;
+    }
+
+    private static int lookup(int[] pos, int[] val, int size, int p) {
+        for (int m = 0; m < size; m++) {
+            if (pos[m] == p) return val[m];
+        }
+        return p;
+    }
+
+    private static int put(int[] pos, int[] val, int size, int p, int v) {
+        for (int m = 0; m < size; m++) {
+            if (pos[m] == p) {
+                val[m] = v;
+                return size;
+            }
+        }
+        pos[size] = p;
+        val[size] = v;
+        return size + 1;
+    }
+}
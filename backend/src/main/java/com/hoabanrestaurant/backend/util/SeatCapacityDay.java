@@ -0,0 +1,69 @@
+package com.hoabanrestaurant.backend.util;
+
+/**
+ * Sức chứa chỗ ngồi của một ngày, chia theo ô thời gian cố định (vd. 15 phút).
+ * Mỗi bàn một dãy bộ đếm "số lượt đặt đang giữ bàn ở ô này", thêm một dãy bộ đếm số khách của các
+ * lượt đặt chưa gán bàn (vẫn phải chừa chỗ cho họ). Cập nhật theo từng lượt đặt, còn tính cả ma trận
+ * khung giờ trong ngày chỉ tốn O(số bàn x số ô), không phụ thuộc số lượt đặt.
+ * <p>
+ * Không thread-safe, bên gọi tự khoá.
+ */
+public final class SeatCapacityDay {
+    private final int buckets;
+    private final int[] seats;
+    private final int[] held;      // [bàn * buckets + ô]
+    private final int[] pending;   // [ô] số khách chưa gán bàn
+
+    public SeatCapacityDay(int[] seats, int buckets) {
+        this.buckets = buckets;
+        this.seats = seats.clone();
+        this.held = new int[seats.length * buckets];
+        this.pending = new int[buckets];
+    }
+
+    public int buckets() {
+        return buckets;
+    }
+
+    // delta = +1 khi giữ, -1 khi trả các bàn trong [from, to)
+    public void hold(int[] tables, int from, int to, int delta) {
+        int lo = Math.max(0, from);
+        int hi = Math.min(buckets, to);
+        for (int t : tables) {
+            int base = t * buckets;
+            for (int b = lo; b < hi; b++) held[base + b] += delta;
+        }
+    }
+
+    // Lượt đặt chưa gán bàn: partySize âm khi bỏ ra
+    public void pending(int from, int to, int partySize) {
+        for (int b = Math.max(0, from), hi = Math.min(buckets, to); b < hi; b++) pending[b] += partySize;
+    }
+
+    /**
+     * Số ghế còn nhận khách cho từng khung bắt đầu ở ô k * step và kéo dài window ô:
+     * tổng ghế của các bàn trống suốt khung, trừ số khách chưa gán bàn lớn nhất trong khung.
+     * Khung thứ k chỉ tồn tại khi k * step + window <= buckets.
+     */
+    public int[] freeSeats(int step, int window) {
+        int starts = window > buckets ? 0 : (buckets - window) / step + 1;
+        int[] free = new int[starts];
+        if (starts == 0) return free;
+
+        // run[b] = số ô trống liên tiếp của bàn tính từ ô b
+        int[] run = new int[buckets + 1];
+        for (int t = 0; t < seats.length; t++) {
+            int base = t * buckets;
+            for (int b = buckets - 1; b >= 0; b--) run[b] = held[base + b] == 0 ? run[b + 1] + 1 : 0;
+            for (int k = 0; k < starts; k++) {
+                if (run[k * step] >= window) free[k] += seats[t];
+            }
+        }
+        for (int k = 0; k < starts; k++) {
+            int max = 0;
+            for (int b = k * step, end = b + window; b < end; b++) max = Math.max(max, pending[b]);
+            free[k] = Math.max(0, free[k] - max);
+        }
+        return free;
+    }
+}
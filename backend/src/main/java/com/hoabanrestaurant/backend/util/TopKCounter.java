@@ -0,0 +1,68 @@
+package com.hoabanrestaurant.backend.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Bộ đếm điểm theo id, luôn giữ sẵn top-{@code capacity} theo điểm. Điểm chỉ tăng (xem {@link PopularityDecay})
+ * nên id ngoài top chỉ có thể vào top khi chính nó được cộng: so với phần tử nhỏ nhất của top là đủ,
+ * cộng điểm O(log capacity), đọc top-k O(k). Thread-safe.
+ */
+public final class TopKCounter {
+
+    private record Entry(UUID id, double score) {
+    }
+
+    private static final Comparator<Entry> ORDER = Comparator.comparingDouble(Entry::score)
+            .thenComparing(Entry::id);
+
+    private final int capacity;
+    private final Map<UUID, Double> scores = new HashMap<>();
+    private final TreeSet<Entry> top = new TreeSet<>(ORDER); // nhỏ nhất trước
+
+    public TopKCounter(int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    public static TopKCounter of(int capacity, Map<UUID, Double> scores) {
+        TopKCounter c = new TopKCounter(capacity);
+        scores.forEach(c::add);
+        return c;
+    }
+
+    public synchronized void add(UUID id, double delta) {
+        Double old = scores.get(id);
+        double score = (old == null ? 0 : old) + delta;
+        scores.put(id, score);
+        if (old != null && top.remove(new Entry(id, old))) {
+            top.add(new Entry(id, score));
+            return;
+        }
+        if (top.size() < capacity) {
+            top.add(new Entry(id, score));
+        } else if (ORDER.compare(new Entry(id, score), top.first()) > 0) {
+            top.pollFirst();
+            top.add(new Entry(id, score));
+        }
+    }
+
+    // tối đa k id điểm cao nhất thoả filter, giảm dần theo điểm
+    public synchronized List<UUID> top(int k, Predicate<UUID> filter) {
+        List<UUID> out = new ArrayList<>(Math.min(k, top.size()));
+        for (var it = top.descendingIterator(); it.hasNext() && out.size() < k; ) {
+            UUID id = it.next().id();
+            if (filter.test(id)) out.add(id);
+        }
+        return out;
+    }
+
+    public synchronized int size() {
+        return scores.size();
+    }
+}
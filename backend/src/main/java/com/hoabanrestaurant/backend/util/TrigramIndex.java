@@ -0,0 +1,195 @@
+package com.hoabanrestaurant.backend.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Chỉ mục trigram bất biến cho tìm kiếm mờ trên tên + mô tả (kiểu pg_trgm: mỗi từ đệm "  w ").
+ * Văn bản được chuẩn hoá bằng {@link VietnameseText} nên gõ không dấu / sai 1-2 ký tự vẫn ra.
+ * Điểm = hệ số Dice giữa trigram truy vấn và tên, cộng thêm phần phủ mô tả và thưởng khi tên chứa
+ * nguyên cụm truy vấn. Truy vấn chỉ đụng tới posting của các trigram có trong truy vấn.
+ */
+public final class TrigramIndex<T> {
+
+    public record Doc<T>(T value, String name, String description) {
+    }
+
+    public record Hit<T>(T value, double score) {
+    }
+
+    // phần phân tích văn bản của 1 tài liệu, dùng lại được khi dựng lại chỉ mục mà tên/mô tả không đổi
+    private record Analyzed(String textKey, String name, String[] nameGrams, String[] descGrams) {
+    }
+
+    private static final double DESC_WEIGHT = 0.25;
+    private static final double CONTAINS_BONUS = 0.5;
+    private static final double PREFIX_BONUS = 0.25;
+    private static final int[] EMPTY = new int[0];
+
+    // bộ đếm theo tài liệu, mỗi luồng 1 bộ dùng lại giữa các truy vấn; sau mỗi lần chỉ xoá các ô đã chạm
+    // nên chi phí theo số tài liệu khớp, không theo kích thước chỉ mục
+    private static final class Scratch {
+        final int[] nameHits;
+        final int[] descHits;
+        final int[] touched;
+
+        Scratch(int n) {
+            nameHits = new int[n];
+            descHits = new int[n];
+            touched = new int[n];
+        }
+    }
+
+    private final List<T> values;
+    private final Analyzed[] analyzed;
+    private final Map<String, int[]> namePostings;
+    private final Map<String, int[]> descPostings;
+    private final ThreadLocal<Scratch> scratch;
+
+    private TrigramIndex(List<T> values, Analyzed[] analyzed) {
+        this.values = values;
+        this.analyzed = analyzed;
+        this.namePostings = postings(analyzed, Analyzed::nameGrams);
+        this.descPostings = postings(analyzed, Analyzed::descGrams);
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(analyzed.length));
+    }
+
+    public static <T> TrigramIndex<T> build(List<Doc<T>> docs) {
+        return build(docs, null);
+    }
+
+    // previous != null: tài liệu có tên + mô tả y hệt lần trước thì không phân tích lại
+    public static <T> TrigramIndex<T> build(List<Doc<T>> docs, TrigramIndex<?> previous) {
+        Map<String, Analyzed> reuse = new HashMap<>();
+        if (previous != null) {
+            for (Analyzed a : previous.analyzed) reuse.put(a.textKey(), a);
+        }
+        List<T> values = new ArrayList<>(docs.size());
+        Analyzed[] analyzed = new Analyzed[docs.size()];
+        for (int i = 0; i < docs.size(); i++) {
+            Doc<T> d = docs.get(i);
+            String key = d.name() + '\u0000' + (d.description() == null ? "" : d.description());
+            Analyzed a = reuse.get(key);
+            if (a == null) {
+                String name = VietnameseText.normalize(d.name());
+                a = new Analyzed(key, name, grams(name), grams(VietnameseText.normalize(d.description())));
+            }
+            values.add(d.value());
+            analyzed[i] = a;
+        }
+        return new TrigramIndex<>(List.copyOf(values), analyzed);
+    }
+
+    public int size() {
+        return analyzed.length;
+    }
+
+    public List<Hit<T>> search(String query, int limit, double minScore) {
+        String q = VietnameseText.normalize(query);
+        if (q.isEmpty() || limit <= 0) return List.of();
+        String[] qGrams = grams(q);
+
+        Scratch sc = scratch.get();
+        int[] nameHits = sc.nameHits;
+        int[] descHits = sc.descHits;
+        int[] touched = sc.touched;
+        int touchedCount = 0;
+        for (String g : qGrams) {
+            for (int doc : namePostings.getOrDefault(g, EMPTY)) {
+                if (nameHits[doc]++ == 0 && descHits[doc] == 0) touched[touchedCount++] = doc;
+            }
+            for (int doc : descPostings.getOrDefault(g, EMPTY)) {
+                if (descHits[doc]++ == 0 && nameHits[doc] == 0) touched[touchedCount++] = doc;
+            }
+        }
+
+        // giữ top-k bằng min-heap trên mảng, không tạo Hit cho các tài liệu bị loại
+        int[] heapDoc = new int[Math.min(limit, Math.max(touchedCount, 1))];
+        double[] heapScore = new double[heapDoc.length];
+        int heapSize = 0;
+        for (int t = 0; t < touchedCount; t++) {
+            int doc = touched[t];
+            Analyzed a = analyzed[doc];
+            double score = 2.0 * nameHits[doc] / (qGrams.length + a.nameGrams().length)
+                    + DESC_WEIGHT * descHits[doc] / qGrams.length;
+            // chỉ tên có đủ mọi trigram của truy vấn mới có thể chứa nguyên cụm
+            if (nameHits[doc] == qGrams.length && a.name().contains(q)) {
+                score += a.name().startsWith(q) ? CONTAINS_BONUS + PREFIX_BONUS : CONTAINS_BONUS;
+            }
+            nameHits[doc] = 0;
+            descHits[doc] = 0;
+            if (score < minScore) continue;
+            if (heapSize < heapDoc.length) {
+                heapDoc[heapSize] = doc;
+                heapScore[heapSize] = score;
+                siftUp(heapDoc, heapScore, heapSize++);
+            } else if (score > heapScore[0]) {
+                heapDoc[0] = doc;
+                heapScore[0] = score;
+                siftDown(heapDoc, heapScore, heapSize);
+            }
+        }
+
+        List<Hit<T>> hits = new ArrayList<>(heapSize);
+        for (int i = 0; i < heapSize; i++) hits.add(new Hit<>(values.get(heapDoc[i]), heapScore[i]));
+        hits.sort((x, y) -> Double.compare(y.score(), x.score()));
+        return hits;
+    }
+
+    private static void siftUp(int[] doc, double[] score, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (score[parent] <= score[i]) return;
+            swap(doc, score, i, parent);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(int[] doc, double[] score, int size) {
+        int i = 0;
+        while (true) {
+            int l = 2 * i + 1, r = l + 1, min = i;
+            if (l < size && score[l] < score[min]) min = l;
+            if (r < size && score[r] < score[min]) min = r;
+            if (min == i) return;
+            swap(doc, score, i, min);
+            i = min;
+        }
+    }
+
+    private static void swap(int[] doc, double[] score, int a, int b) {
+        int d = doc[a];
+        doc[a] = doc[b];
+        doc[b] = d;
+        double s = score[a];
+        score[a] = score[b];
+        score[b] = s;
+    }
+
+    // trigram phân biệt của chuỗi đã chuẩn hoá, mỗi từ đệm 2 khoảng trắng trước, 1 khoảng trắng sau
+    static String[] grams(String normalized) {
+        if (normalized.isEmpty()) return new String[0];
+        Set<String> out = new LinkedHashSet<>();
+        for (String w : normalized.split(" ")) {
+            if (w.isEmpty()) continue;
+            String padded = "  " + w + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) out.add(padded.substring(i, i + 3));
+        }
+        return out.toArray(new String[0]);
+    }
+
+    private static Map<String, int[]> postings(Analyzed[] docs, Function<Analyzed, String[]> gramsOf) {
+        Map<String, List<Integer>> tmp = new HashMap<>();
+        for (int i = 0; i < docs.length; i++) {
+            for (String g : gramsOf.apply(docs[i])) tmp.computeIfAbsent(g, k -> new ArrayList<>()).add(i);
+        }
+        Map<String, int[]> out = new HashMap<>(tmp.size() * 2);
+        tmp.forEach((g, ids) -> out.put(g, ids.stream().mapToInt(Integer::intValue).toArray()));
+        return out;
+    }
+}
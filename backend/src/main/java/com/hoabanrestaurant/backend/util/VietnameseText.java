@@ -0,0 +1,24 @@
+package com.hoabanrestaurant.backend.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Chuẩn hoá tiếng Việt để so khớp: chữ thường, tách dấu (NFD) rồi bỏ dấu, đ -> d,
+ * ký tự không phải chữ/số thành khoảng trắng. "Phở Bò Tái-Nạm" -> "pho bo tai nam".
+ */
+public final class VietnameseText {
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALNUM = Pattern.compile("[^a-z0-9]+");
+
+    private VietnameseText() {
+    }
+
+    public static String normalize(String s) {
+        if (s == null || s.isEmpty()) return "";
+        String lower = s.toLowerCase(Locale.ROOT).replace('đ', 'd');
+        String stripped = MARKS.matcher(Normalizer.normalize(lower, Normalizer.Form.NFD)).replaceAll("");
+        return NON_ALNUM.matcher(stripped).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,6 @@
+-- Khoá lạc quan cho orders: tổng tiền được cộng dồn theo từng dòng món
+ALTER TABLE orders
+    ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+-- Job đối soát tổng tiền chỉ quét các order vừa thay đổi
+CREATE INDEX IF NOT EXISTS idx_orders_updated_at ON orders(updated_at);
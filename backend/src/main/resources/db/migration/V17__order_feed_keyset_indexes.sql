@@ -0,0 +1,12 @@
+-- Feed order cho staff: phân trang keyset theo (created_at DESC, id DESC)
+-- kèm lọc theo status / types / bàn / khách.
+CREATE INDEX IF NOT EXISTS idx_orders_created_id        ON orders(created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_orders_status_created_id ON orders(status, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_orders_types_created_id  ON orders(types, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_orders_table_created_id  ON orders(table_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_orders_user_created_id   ON orders(user_id, created_at DESC, id DESC);
+
+-- Các index đơn cột cũ đã được prefix của index tổ hợp bao phủ
+DROP INDEX IF EXISTS idx_orders_user;
+DROP INDEX IF EXISTS idx_orders_table;
+DROP INDEX IF EXISTS idx_orders_status;
@@ -0,0 +1,18 @@
+-- ===== OUTBOX sau thanh toán (cộng điểm, dùng voucher, email hoá đơn) =====
+-- Ghi cùng transaction với việc chuyển order sang PAID; dispatcher nền xử lý sau.
+CREATE TABLE IF NOT EXISTS order_outbox (
+    id              BIGSERIAL PRIMARY KEY,
+    order_id        UUID NOT NULL REFERENCES orders(id) ON DELETE CASCADE,
+    event_type      TEXT NOT NULL,                    -- ORDER_PAID / ORDER_RECEIPT
+    payload         JSONB NOT NULL,
+    status          TEXT NOT NULL DEFAULT 'PENDING',  -- PENDING/DONE/DEAD
+    attempts        INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    last_error      TEXT,
+    created_at      TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    processed_at    TIMESTAMPTZ,
+    UNIQUE (order_id, event_type)                     -- mỗi order chỉ 1 lần cộng điểm / 1 email
+);
+
+CREATE INDEX IF NOT EXISTS idx_order_outbox_pending
+    ON order_outbox(event_type, next_attempt_at, id) WHERE status = 'PENDING';
@@ -0,0 +1,23 @@
+-- ===== HÀNG ĐỢI EMAIL =====
+-- Request chỉ ghi 1 dòng; worker nền render template + gửi SMTP theo lô.
+CREATE TABLE IF NOT EXISTS email_queue (
+    id              BIGSERIAL PRIMARY KEY,
+    recipient       TEXT NOT NULL,
+    subject         TEXT NOT NULL,
+    template        TEXT NOT NULL,
+    model           JSONB NOT NULL,
+    dedupe_key      TEXT NOT NULL,                    -- hash(subject, template, model)
+    status          TEXT NOT NULL DEFAULT 'PENDING',  -- PENDING/SENDING/SENT/DEAD
+    attempts        INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMPTZ NOT NULL DEFAULT NOW(), -- với SENDING: hạn giữ việc của worker
+    last_error      TEXT,
+    created_at      TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    sent_at         TIMESTAMPTZ
+);
+
+-- cùng 1 người nhận, cùng nội dung, đang chờ gửi -> không xếp thêm
+CREATE UNIQUE INDEX IF NOT EXISTS uq_email_queue_dedupe
+    ON email_queue(recipient, dedupe_key) WHERE status IN ('PENDING', 'SENDING');
+
+CREATE INDEX IF NOT EXISTS idx_email_queue_due
+    ON email_queue(next_attempt_at, id) WHERE status IN ('PENDING', 'SENDING');
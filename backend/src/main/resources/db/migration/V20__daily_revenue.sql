@@ -0,0 +1,26 @@
+-- ===== DOANH THU THEO NGÀY (bảng tổng hợp) =====
+-- Cộng dồn khi order PAID (qua order_outbox); ngày tính theo created_at của order.
+CREATE TABLE IF NOT EXISTS daily_revenue (
+    day            DATE NOT NULL,
+    order_type     TEXT NOT NULL,            -- DINE_IN / DELIVERY
+    payment_method TEXT NOT NULL,            -- CASH / COD / VNPAY / NONE
+    order_count    BIGINT NOT NULL DEFAULT 0,
+    revenue        NUMERIC(14,2) NOT NULL DEFAULT 0,
+    updated_at     TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (day, order_type, payment_method)
+);
+
+-- Nạp lịch sử (theo timezone của DB; có thể dựng lại theo timezone app qua API rebuild)
+INSERT INTO daily_revenue (day, order_type, payment_method, order_count, revenue)
+SELECT (o.created_at AT TIME ZONE current_setting('TimeZone'))::date,
+       o.types,
+       COALESCE(p.method, 'NONE'),
+       COUNT(*),
+       SUM(o.total)
+FROM orders o
+LEFT JOIN LATERAL (
+    SELECT method FROM payments WHERE order_id = o.id ORDER BY created_at DESC LIMIT 1
+) p ON TRUE
+WHERE o.status = 'PAID'
+GROUP BY 1, 2, 3
+ON CONFLICT (day, order_type, payment_method) DO NOTHING;
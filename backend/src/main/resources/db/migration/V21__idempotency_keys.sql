@@ -0,0 +1,14 @@
+-- ===== IDEMPOTENCY-KEY =====
+-- Lưu response của các request ghi (pay, thêm món, mở bàn QR) để client retry nhận lại đúng kết quả.
+-- Dòng được ghi trong cùng transaction với nghiệp vụ: request trùng chạy song song sẽ chờ ở unique index.
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    scope        TEXT NOT NULL,            -- vd: pay:<orderId>
+    idem_key     TEXT NOT NULL,
+    request_hash TEXT NOT NULL,
+    response     JSONB,
+    created_at   TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    expires_at   TIMESTAMPTZ NOT NULL,
+    PRIMARY KEY (scope, idem_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expires ON idempotency_keys(expires_at);
@@ -0,0 +1,64 @@
+-- ===== LƯU TRỮ ORDER ĐÃ CHỐT =====
+-- orders / order_items / payments giữ nguyên (còn FK, ux_orders_open_per_table, reviews, outbox trỏ vào).
+-- Order PAID/CANCELLED quá hạn được chuyển sang các bảng *_archive, chia partition theo tháng tạo order,
+-- nên bảng nóng chỉ còn dữ liệu gần đây. Partition tháng do OrderArchiveJob tạo trước khi chuyển.
+
+CREATE TABLE IF NOT EXISTS orders_archive (
+    id                      UUID NOT NULL,
+    user_id                 UUID,
+    table_id                UUID,
+    types                   TEXT NOT NULL,
+    status                  TEXT NOT NULL,
+    subtotal                NUMERIC(12,2) NOT NULL,
+    discount                NUMERIC(12,2) NOT NULL,
+    tax                     NUMERIC(12,2) NOT NULL,
+    total                   NUMERIC(12,2) NOT NULL,
+    note                    TEXT,
+    applied_user_voucher_id UUID,
+    version                 BIGINT NOT NULL,
+    created_at              TIMESTAMPTZ NOT NULL,
+    updated_at              TIMESTAMPTZ NOT NULL,
+    archived_at             TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE INDEX IF NOT EXISTS idx_orders_archive_user_created
+    ON orders_archive(user_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_orders_archive_created
+    ON orders_archive(created_at DESC, id DESC);
+
+CREATE TABLE IF NOT EXISTS order_items_archive (
+    id               UUID NOT NULL,
+    order_id         UUID NOT NULL,
+    item_type        TEXT NOT NULL,
+    item_id          UUID NOT NULL,
+    name             TEXT NOT NULL,
+    unit_price       NUMERIC(12,2) NOT NULL,
+    quantity         INT NOT NULL,
+    line_total       NUMERIC(12,2) NOT NULL,
+    order_created_at TIMESTAMPTZ NOT NULL,      -- khoá partition, trùng tháng với order
+    PRIMARY KEY (id, order_created_at)
+) PARTITION BY RANGE (order_created_at);
+
+CREATE INDEX IF NOT EXISTS idx_order_items_archive_order ON order_items_archive(order_id);
+
+CREATE TABLE IF NOT EXISTS payments_archive (
+    id               UUID NOT NULL,
+    order_id         UUID NOT NULL,
+    method           TEXT NOT NULL,
+    amount           NUMERIC(12,2) NOT NULL,
+    status           TEXT NOT NULL,
+    paid_at          TIMESTAMPTZ,
+    created_at       TIMESTAMPTZ NOT NULL,
+    transaction_id   VARCHAR(64),
+    bank_code        VARCHAR(32),
+    card_type        VARCHAR(32),
+    description      VARCHAR(255),
+    extra_data       VARCHAR(1024),
+    expired_at       TIMESTAMPTZ,
+    order_created_at TIMESTAMPTZ NOT NULL,
+    PRIMARY KEY (id, order_created_at)
+) PARTITION BY RANGE (order_created_at);
+
+CREATE INDEX IF NOT EXISTS idx_payments_archive_order ON payments_archive(order_id);
+-- (job chọn order cần chuyển qua idx_orders_status_created_id của V17)
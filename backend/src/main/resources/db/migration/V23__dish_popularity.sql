@@ -0,0 +1,40 @@
+-- ===== ĐỘ PHỔ BIẾN MÓN (best seller + sở thích từng user) =====
+-- Điểm giảm dần theo thời gian (bán rã 30 ngày) theo kiểu "forward decay": mỗi phần ăn lúc t cộng
+-- 2^((t - 2025-01-01) / 30 ngày), nên thứ hạng giữa các món không đổi khi thời gian trôi và chỉ cần
+-- cộng dồn. Hằng số trùng với PopularityDecay. Bộ đếm trong bộ nhớ ghi xuống đây theo định kỳ.
+-- Không có FK: món/user bị xoá chỉ để lại dòng thừa, lúc gợi ý đã lọc theo thực đơn đang phục vụ.
+CREATE TABLE IF NOT EXISTS dish_popularity (
+    dish_id    UUID PRIMARY KEY,
+    score      DOUBLE PRECISION NOT NULL DEFAULT 0,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+CREATE TABLE IF NOT EXISTS user_dish_affinity (
+    user_id    UUID NOT NULL,
+    dish_id    UUID NOT NULL,
+    score      DOUBLE PRECISION NOT NULL DEFAULT 0,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (user_id, dish_id)
+);
+
+-- Nạp lịch sử từ các order đã PAID (cả bảng lưu trữ); updated_at của order ~ lúc thanh toán
+CREATE TEMP TABLE paid_dish_lines ON COMMIT DROP AS
+SELECT o.user_id, i.item_id AS dish_id,
+       i.quantity * power(2, EXTRACT(EPOCH FROM (o.updated_at - TIMESTAMPTZ '2025-01-01 00:00:00+00')) / 2592000.0) AS w
+FROM orders o
+JOIN order_items i ON i.order_id = o.id
+WHERE o.status = 'PAID' AND i.item_type = 'DISH'
+UNION ALL
+SELECT o.user_id, i.item_id,
+       i.quantity * power(2, EXTRACT(EPOCH FROM (o.updated_at - TIMESTAMPTZ '2025-01-01 00:00:00+00')) / 2592000.0)
+FROM orders_archive o
+JOIN order_items_archive i ON i.order_id = o.id AND i.order_created_at = o.created_at
+WHERE o.status = 'PAID' AND i.item_type = 'DISH';
+
+INSERT INTO dish_popularity (dish_id, score)
+SELECT dish_id, SUM(w) FROM paid_dish_lines GROUP BY dish_id
+ON CONFLICT (dish_id) DO NOTHING;
+
+INSERT INTO user_dish_affinity (user_id, dish_id, score)
+SELECT user_id, dish_id, SUM(w) FROM paid_dish_lines WHERE user_id IS NOT NULL GROUP BY user_id, dish_id
+ON CONFLICT (user_id, dish_id) DO NOTHING;
@@ -0,0 +1,8 @@
+-- Danh sách món phân trang keyset: mỗi khoá sắp xếp cho phép (name, price, created_at) có index
+-- (status, khoá, id) để trang nào cũng chỉ quét đúng số dòng cần lấy
+CREATE INDEX IF NOT EXISTS idx_dishes_status_name       ON dishes(status, name, id);
+CREATE INDEX IF NOT EXISTS idx_dishes_status_price      ON dishes(status, price, id);
+CREATE INDEX IF NOT EXISTS idx_dishes_status_created_at ON dishes(status, created_at, id);
+
+-- đã có các index trên bắt đầu bằng status
+DROP INDEX IF EXISTS idx_dishes_status;
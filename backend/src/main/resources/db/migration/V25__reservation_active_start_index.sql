@@ -0,0 +1,3 @@
+-- Dựng sức chứa khung giờ theo ngày: chỉ đọc lượt đặt còn hiệu lực giao với ngày đó
+CREATE INDEX IF NOT EXISTS idx_reservations_active_start
+    ON reservations(start_time) WHERE status IN ('PENDING', 'CONFIRMED');
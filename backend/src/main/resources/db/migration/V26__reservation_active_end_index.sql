@@ -0,0 +1,3 @@
+-- Nạp / đối soát lịch đặt bàn trong bộ nhớ: chỉ đọc lượt đặt còn hiệu lực chưa kết thúc
+CREATE INDEX IF NOT EXISTS idx_reservations_active_end
+    ON reservations(end_time) WHERE status IN ('PENDING', 'CONFIRMED');
@@ -0,0 +1,53 @@
+package com.hoabanrestaurant.backend;
+
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+// Benchmark chạy trên PostgreSQL thật, đủ schema Flyway + dữ liệu seed:
+// - mặc định bật container postgres:16 (Testcontainers, cần Docker)
+// - có DB sẵn thì đặt PERF_DB_URL (+ PERF_DB_USER / PERF_DB_PASSWORD) để dùng luôn, DB nên trống
+// Không có cả hai thì các benchmark con bị bỏ qua.
+@SpringBootTest(properties = {
+        "spring.config.name=application.example",
+        "spring.jpa.show-sql=false",
+        "logging.level.root=WARN"
+})
+@EnabledIf("com.hoabanrestaurant.backend.PostgresBenchmarkSupport#databaseAvailable")
+public abstract class PostgresBenchmarkSupport {
+
+    private static final String EXTERNAL_URL = System.getenv("PERF_DB_URL");
+    private static PostgreSQLContainer<?> postgres;
+
+    static boolean databaseAvailable() {
+        return EXTERNAL_URL != null || DockerClientFactory.instance().isDockerAvailable();
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        if (EXTERNAL_URL != null) {
+            registry.add("spring.datasource.url", () -> EXTERNAL_URL);
+            registry.add("spring.datasource.username", () -> System.getenv().getOrDefault("PERF_DB_USER", "postgres"));
+            registry.add("spring.datasource.password", () -> System.getenv().getOrDefault("PERF_DB_PASSWORD", ""));
+            return;
+        }
+        synchronized (PostgresBenchmarkSupport.class) {
+            if (postgres == null) {
+                postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+                postgres.start(); // Ryuk dọn container khi JVM kết thúc
+            }
+        }
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    protected static long percentile(long[] sortedNanos, double p) {
+        if (sortedNanos.length == 0) return 0;
+        int i = (int) Math.ceil(p * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, Math.min(i, sortedNanos.length - 1))];
+    }
+}
@@ -0,0 +1,91 @@
+package com.hoabanrestaurant.backend.service.impl;
+
+import com.hoabanrestaurant.backend.PostgresBenchmarkSupport;
+import com.hoabanrestaurant.backend.dto.response.DishImportResultDto;
+import com.hoabanrestaurant.backend.enums.ExportFormat;
+import com.hoabanrestaurant.backend.service.DishTransferService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Nhập 50k món CSV vào PostgreSQL thật (upsert theo lô), nhập lại cùng file (toàn bộ là cập nhật), xuất ra,
+// rồi nhập 5k combo có món ghi theo tên; in thời gian từng bước để so giữa các lần đo
+class DishTransferImportBenchmark extends PostgresBenchmarkSupport {
+
+    private static final int DISHES = 50_000;
+    private static final int COMBOS = 5_000;
+
+    @Autowired
+    private DishTransferService transferService;
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private final String prefix = "bench-" + UUID.randomUUID().toString().substring(0, 8);
+    private final UUID drinks = UUID.randomUUID();
+    private final UUID mains = UUID.randomUUID();
+
+    @AfterEach
+    void cleanUp() {
+        jdbc.update("DELETE FROM combos WHERE name LIKE ?", prefix + "%");
+        jdbc.update("DELETE FROM dishes WHERE category_id IN (?, ?)", drinks, mains);
+        jdbc.update("DELETE FROM categories WHERE id IN (?, ?)", drinks, mains);
+    }
+
+    @Test
+    void importsFiftyThousandRows() throws Exception {
+        jdbc.update("INSERT INTO categories (id, name) VALUES (?, ?), (?, ?)",
+                drinks, prefix + " Đồ uống", mains, prefix + " Món chính");
+
+        StringBuilder csv = new StringBuilder("category,name,description,unit,price\n");
+        for (int i = 0; i < DISHES; i++) {
+            csv.append(prefix).append(i % 2 == 0 ? " Đồ uống" : " Món chính").append(",Món số ").append(i)
+                    .append(",\"Mô tả, món ").append(i).append("\",PORTION,").append(10_000 + i).append('\n');
+        }
+        byte[] body = csv.toString().getBytes(StandardCharsets.UTF_8);
+
+        long started = System.nanoTime();
+        DishImportResultDto first = transferService.importDishes(new ByteArrayInputStream(body), ExportFormat.CSV);
+        long insertMs = (System.nanoTime() - started) / 1_000_000;
+
+        started = System.nanoTime();
+        DishImportResultDto again = transferService.importDishes(new ByteArrayInputStream(body), ExportFormat.CSV);
+        long updateMs = (System.nanoTime() - started) / 1_000_000;
+
+        started = System.nanoTime();
+        ByteArrayOutputStream exported = new ByteArrayOutputStream();
+        transferService.export(ExportFormat.CSV, exported);
+        long exportMs = (System.nanoTime() - started) / 1_000_000;
+
+        StringBuilder combos = new StringBuilder("name,price,items\n");
+        for (int i = 0; i < COMBOS; i++) {
+            combos.append(prefix).append(" Combo ").append(i).append(",").append(99_000 + i).append(",Món số ")
+                    .append(i).append("*2|Món số ").append(i + 1).append("|Món số ").append(i + 2).append('\n');
+        }
+        started = System.nanoTime();
+        DishImportResultDto comboResult = transferService.importCombos(
+                new ByteArrayInputStream(combos.toString().getBytes(StandardCharsets.UTF_8)), ExportFormat.CSV);
+        long comboMs = (System.nanoTime() - started) / 1_000_000;
+
+        System.out.printf("Nhập 50k món (PostgreSQL): thêm %d ms, nhập lại (cập nhật) %d ms, xuất %d ms (%d KB); "
+                        + "5k combo %d ms%n",
+                insertMs, updateMs, exportMs, exported.size() / 1024, comboMs);
+
+        assertThat(first.inserted()).isEqualTo(DISHES);
+        assertThat(again.updated()).isEqualTo(DISHES);
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM dishes WHERE category_id IN (?, ?)", Long.class,
+                drinks, mains)).isEqualTo(DISHES);
+        assertThat(comboResult.inserted()).isEqualTo(COMBOS);
+        assertThat(jdbc.queryForObject("""
+                SELECT COALESCE(SUM(ci.quantity), 0) FROM combo_items ci
+                JOIN combos c ON c.id = ci.combo_id WHERE c.name LIKE ?
+                """, Long.class, prefix + "%")).isEqualTo(4L * COMBOS);
+    }
+}
@@ -0,0 +1,157 @@
+package com.hoabanrestaurant.backend.service.impl;
+
+import com.hoabanrestaurant.backend.PostgresBenchmarkSupport;
+import com.hoabanrestaurant.backend.dto.request.AddOrderItemReq;
+import com.hoabanrestaurant.backend.exception.BusinessException;
+import com.hoabanrestaurant.backend.service.OrderService;
+import com.hoabanrestaurant.backend.util.QrSigner;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Nhiều khách cùng 1 bàn ghi order cùng lúc, so thông lượng + p99 giữa cách cũ và cách mới:
+// - mở bàn: khoá restaurant_tables FOR UPDATE (cũ) vs để ux_orders_open_per_table chọn người thắng + retry (mới)
+// - gọi món: không retry, xung đột @Version trả 409 ngay vs ConflictRetry chạy lại transaction
+// Bản cũ của gọi món (không có @Version) mất cập nhật, không dựng lại được nên so với "không retry".
+class OrderConcurrencyBenchmark extends PostgresBenchmarkSupport {
+
+    private static final int GUESTS = 16;
+    private static final int OPEN_ROUNDS = 50;
+    private static final int ADDS_PER_GUEST = 25;
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private QrSigner qrSigner;
+    @Autowired
+    private JdbcTemplate jdbc;
+    @Autowired
+    private PlatformTransactionManager txManager;
+    @Autowired
+    private ConflictRetry conflictRetry;
+
+    @Test
+    void openByQrSameTable() throws Exception {
+        List<UUID> tables = jdbc.queryForList("SELECT id FROM restaurant_tables ORDER BY code", UUID.class);
+        TransactionTemplate tx = new TransactionTemplate(txManager);
+
+        for (boolean locked : new boolean[]{true, false}) {
+            List<Long> latencies = new ArrayList<>();
+            long wall = 0;
+            for (int round = 0; round < OPEN_ROUNDS; round++) {
+                UUID tableId = tables.get(round % tables.size());
+                jdbc.update("UPDATE orders SET status = 'CANCELLED' WHERE table_id = ? AND status = 'OPEN'", tableId);
+                String qr = qrSigner.issue(tableId, Duration.ofMinutes(5));
+                Set<UUID> orderIds = ConcurrentHashMap.newKeySet();
+
+                Supplier<UUID> open = locked
+                        ? () -> tx.execute(s -> {
+                            jdbc.queryForObject("SELECT id FROM restaurant_tables WHERE id = ? FOR UPDATE", UUID.class, tableId);
+                            return orderService.openByQr(null, qr, null).id();
+                        })
+                        : () -> orderService.openByQr(null, qr, null).id();
+                Run run = race(GUESTS, 1, () -> orderIds.add(open.get()));
+                latencies.addAll(run.latencies());
+                wall += run.wallNanos();
+
+                assertThat(run.failed()).isZero();
+                assertThat(orderIds).hasSize(1); // mọi khách cùng bàn nhận cùng 1 order
+            }
+            report(locked ? "mở bàn, khoá FOR UPDATE (cũ)" : "mở bàn, unique index + retry (mới)",
+                    latencies, 0, wall);
+        }
+    }
+
+    @Test
+    void addItemSameOrder() throws Exception {
+        UUID tableId = jdbc.queryForObject("SELECT id FROM restaurant_tables ORDER BY code DESC LIMIT 1", UUID.class);
+        UUID dishId = jdbc.queryForObject("SELECT id FROM dishes WHERE status = 'ACTIVE' ORDER BY name LIMIT 1", UUID.class);
+        int configured = (int) ReflectionTestUtils.getField(conflictRetry, "maxAttempts");
+
+        for (int maxAttempts : new int[]{1, configured}) {
+            jdbc.update("UPDATE orders SET status = 'CANCELLED' WHERE table_id = ? AND status = 'OPEN'", tableId);
+            UUID orderId = orderService.openByQr(null, qrSigner.issue(tableId, Duration.ofMinutes(5)), null).id();
+            ReflectionTestUtils.setField(conflictRetry, "maxAttempts", maxAttempts);
+            Run run;
+            try {
+                run = race(GUESTS, ADDS_PER_GUEST, () -> orderService.addItem(orderId, new AddOrderItemReq("DISH", dishId, 1)));
+            } finally {
+                ReflectionTestUtils.setField(conflictRetry, "maxAttempts", configured);
+            }
+            report(maxAttempts == 1 ? "gọi món, không retry (409 ngay)" : "gọi món, retry tối đa " + maxAttempts + " lần",
+                    run.latencies(), run.failed(), run.wallNanos());
+
+            // dù thắng hay thua, subtotal phải đúng bằng tổng các dòng đã ghi (không mất cập nhật)
+            BigDecimal subtotal = jdbc.queryForObject("SELECT subtotal FROM orders WHERE id = ?", BigDecimal.class, orderId);
+            BigDecimal items = jdbc.queryForObject("SELECT COALESCE(SUM(line_total), 0) FROM order_items WHERE order_id = ?",
+                    BigDecimal.class, orderId);
+            Integer lines = jdbc.queryForObject("SELECT COUNT(*) FROM order_items WHERE order_id = ?", Integer.class, orderId);
+            assertThat(subtotal).isEqualByComparingTo(items);
+            assertThat(lines).isEqualTo(run.latencies().size());
+        }
+    }
+
+    private record Run(List<Long> latencies, int failed, long wallNanos) {
+    }
+
+    // GUESTS luồng cùng xuất phát, mỗi luồng gọi `perGuest` lần; chỉ tính latency các lần thành công
+    private static Run race(int guests, int perGuest, Runnable call) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(guests);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger failed = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int g = 0; g < guests; g++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perGuest; i++) {
+                        long t0 = System.nanoTime();
+                        try {
+                            call.run();
+                            latencies.add(System.nanoTime() - t0);
+                        } catch (BusinessException e) {
+                            failed.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            long started = System.nanoTime();
+            start.countDown();
+            for (Future<?> f : futures) f.get();
+            return new Run(new ArrayList<>(latencies), failed.get(), System.nanoTime() - started);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void report(String label, List<Long> latencies, int failed, long wallNanos) {
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        System.out.printf("%-40s ok=%5d lỗi=%4d  %7.1f ok/s  p50=%6.2f ms  p99=%6.2f ms%n", label,
+                sorted.length, failed, sorted.length / (wallNanos / 1e9),
+                percentile(sorted, 0.50) / 1e6, percentile(sorted, 0.99) / 1e6);
+    }
+}
@@ -0,0 +1,99 @@
+package com.hoabanrestaurant.backend.service.impl;
+
+import com.hoabanrestaurant.backend.dto.response.ReservationSlotDto;
+import com.hoabanrestaurant.backend.entity.RestaurantTable;
+import com.hoabanrestaurant.backend.enums.TableStatus;
+import com.hoabanrestaurant.backend.event.ReservationChangedEvent;
+import com.hoabanrestaurant.backend.repository.ReservationTableJdbcRepository;
+import com.hoabanrestaurant.backend.repository.ReservationTableJdbcRepository.ActiveReservation;
+import com.hoabanrestaurant.backend.repository.RestaurantTableRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// 500 bàn, 10k lượt đặt trong 30 ngày: thời gian dựng một ngày, độ trễ trung bình / p99 của cả ma trận
+// khung giờ trong ngày (khung 15 phút) và của một lần cập nhật sau commit
+class ReservationSlotBenchmark {
+
+    @Test
+    void computesWholeDayMatrixForFiveHundredTables() {
+        LocalDate day = LocalDate.now().plusDays(1);
+        Random rnd = new Random(5);
+        List<RestaurantTable> tables = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            tables.add(RestaurantTable.builder().id(UUID.randomUUID()).code("T" + i)
+                    .seats(2 + 2 * rnd.nextInt(4)).status(TableStatus.AVAILABLE).build());
+        }
+        List<ActiveReservation> rows = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            Instant start = day.plusDays(rnd.nextInt(30)).atTime(10, 0).atZone(ZoneId.systemDefault()).toInstant()
+                    .plusSeconds(1800L * rnd.nextInt(25));
+            UUID table = rnd.nextInt(4) == 0 ? null : tables.get(rnd.nextInt(500)).getId();
+            rows.add(new ActiveReservation(UUID.randomUUID(), start, start.plusSeconds(7200), 1 + rnd.nextInt(6), table));
+        }
+
+        RestaurantTableRepository tableRepo = mock(RestaurantTableRepository.class);
+        ReservationTableJdbcRepository repo = mock(ReservationTableJdbcRepository.class);
+        when(tableRepo.findByStatusOrderByArea_NameAscCodeAsc(TableStatus.AVAILABLE)).thenReturn(tables);
+        when(repo.findActiveBetween(any(), any())).thenAnswer(inv -> {
+            Instant from = inv.getArgument(0);
+            Instant to = inv.getArgument(1);
+            return rows.stream().filter(r -> r.start().isBefore(to) && r.end().isAfter(from)).toList();
+        });
+        ReservationSlotServiceImpl service = new ReservationSlotServiceImpl(tableRepo, repo);
+        ReflectionTestUtils.setField(service, "openTime", "10:00");
+        ReflectionTestUtils.setField(service, "lastSeating", "22:00");
+        ReflectionTestUtils.setField(service, "stayMinutes", 120);
+        ReflectionTestUtils.setField(service, "horizonDays", 30);
+        ReflectionTestUtils.setField(service, "cacheDays", 31);
+
+        long buildStart = System.nanoTime();
+        for (int d = 0; d < 30; d++) service.slots(day.plusDays(d), 2, 15);
+        double buildMs = (System.nanoTime() - buildStart) / 1e6 / 30;
+
+        for (int i = 0; i < 2_000; i++) service.slots(day.plusDays(i % 30), 1 + i % 8, 15); // warm-up
+
+        int runs = 5_000;
+        long[] nanos = new long[runs];
+        int available = 0;
+        for (int i = 0; i < runs; i++) {
+            long t = System.nanoTime();
+            List<ReservationSlotDto> slots = service.slots(day.plusDays(i % 30), 1 + i % 8, 15);
+            nanos[i] = System.nanoTime() - t;
+            for (ReservationSlotDto s : slots) if (s.available()) available++;
+        }
+        Arrays.sort(nanos);
+
+        // tạo rồi huỷ một lượt có bàn: chỉ cộng trừ các ô của lượt đó trên mọi ngày đang giữ
+        long[] updates = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            ActiveReservation r = rows.get(i % rows.size());
+            UUID id = UUID.randomUUID();
+            List<UUID> tableIds = r.tableId() == null ? List.of() : List.of(r.tableId());
+            long t = System.nanoTime();
+            service.onReservationChanged(new ReservationChangedEvent(id, r.start(), r.end(), r.partySize(), tableIds, true));
+            service.onReservationChanged(new ReservationChangedEvent(id, r.start(), r.end(), r.partySize(), tableIds, false));
+            updates[i] = (System.nanoTime() - t) / 2;
+        }
+        Arrays.sort(updates);
+
+        System.out.printf("ReservationSlots 500 bàn / 10k lượt: dựng ngày %.1f ms, ma trận ngày avg %.1f µs, p99 %.1f µs, "
+                        + "cập nhật avg %.1f µs, p99 %.1f µs%n",
+                buildMs, Arrays.stream(nanos).average().orElse(0) / 1000, nanos[(int) (runs * 0.99)] / 1000.0,
+                Arrays.stream(updates).average().orElse(0) / 1000, updates[(int) (runs * 0.99)] / 1000.0);
+        assertThat(available).isPositive();
+    }
+}
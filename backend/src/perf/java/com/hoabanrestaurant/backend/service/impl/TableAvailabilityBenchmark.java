@@ -0,0 +1,137 @@
+package com.hoabanrestaurant.backend.service.impl;
+
+import com.hoabanrestaurant.backend.PostgresBenchmarkSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 500 bàn x 10k lượt đặt (1-3 bàn mỗi lượt, nửa đã kết thúc, nửa rải trong 30 ngày tới) trên PostgreSQL:
+// thời gian nạp lịch (findActive chỉ đọc lượt chưa kết thúc), độ trễ hỏi 500 bàn cho một khung giờ,
+// và kết quả phải khớp quét tuyến tính trên các lượt chưa kết thúc
+class TableAvailabilityBenchmark extends PostgresBenchmarkSupport {
+
+    private static final int TABLES = 500;
+    private static final int RESERVATIONS = 10_000;
+
+    @Autowired
+    private TableAvailabilityServiceImpl availability;
+    @Autowired
+    private JdbcTemplate jdbc;
+    @Value("${app.reservation.availability.grace-minutes:30}")
+    private int graceMinutes;
+
+    private final UUID areaId = UUID.randomUUID();
+
+    @AfterEach
+    void cleanUp() {
+        jdbc.update("""
+                DELETE FROM reservations WHERE id IN (
+                    SELECT l.reservation_id FROM reservation_tables l
+                    JOIN restaurant_tables t ON t.id = l.table_id WHERE t.area_id = ?)
+                """, areaId);
+        jdbc.update("DELETE FROM restaurant_tables WHERE area_id = ?", areaId);
+        jdbc.update("DELETE FROM areas WHERE id = ?", areaId);
+        availability.reconcile();
+    }
+
+    @Test
+    void answersFiveHundredTablesOverTenThousandReservations() {
+        Random rnd = new Random(11);
+        jdbc.update("INSERT INTO areas (id, name) VALUES (?, ?)", areaId, "Benchmark " + areaId);
+        List<UUID> tables = new ArrayList<>();
+        List<Object[]> tableRows = new ArrayList<>();
+        for (int i = 0; i < TABLES; i++) {
+            UUID id = UUID.randomUUID();
+            tables.add(id);
+            tableRows.add(new Object[]{id, areaId, "B" + i, 2 + 2 * rnd.nextInt(4)});
+        }
+        jdbc.batchUpdate("INSERT INTO restaurant_tables (id, area_id, code, seats) VALUES (?, ?, ?, ?)", tableRows);
+
+        UUID userId = jdbc.queryForObject("SELECT id FROM users LIMIT 1", UUID.class);
+        Instant base = Instant.now().truncatedTo(ChronoUnit.HOURS);
+        List<Object[]> resRows = new ArrayList<>();
+        List<Object[]> linkRows = new ArrayList<>();
+        Map<UUID, List<Instant[]>> upcomingByTable = new HashMap<>();
+        Instant cutoff = Instant.now().minus(Duration.ofMinutes(graceMinutes));
+        int upcoming = 0;
+        for (int i = 0; i < RESERVATIONS; i++) {
+            UUID id = UUID.randomUUID();
+            Instant start = base.plus(Duration.ofMinutes(30L * (rnd.nextInt(60 * 48) - 30 * 48)));
+            Instant end = start.plus(Duration.ofMinutes(60 + 30L * rnd.nextInt(4)));
+            resRows.add(new Object[]{id, userId, Timestamp.from(start), Timestamp.from(end), 2, "CONFIRMED"});
+            boolean pending = end.isAfter(cutoff);
+            if (pending) upcoming++;
+            Set<UUID> picked = new HashSet<>();
+            for (int k = 1 + rnd.nextInt(3); k > 0; k--) picked.add(tables.get(rnd.nextInt(TABLES)));
+            for (UUID t : picked) {
+                linkRows.add(new Object[]{id, t});
+                if (pending) upcomingByTable.computeIfAbsent(t, x -> new ArrayList<>()).add(new Instant[]{start, end});
+            }
+        }
+        jdbc.batchUpdate("""
+                INSERT INTO reservations (id, user_id, start_time, end_time, party_size, status)
+                VALUES (?, ?, ?, ?, ?, ?)
+                """, resRows);
+        jdbc.batchUpdate("INSERT INTO reservation_tables (reservation_id, table_id) VALUES (?, ?)", linkRows);
+
+        long[] loads = new long[5];
+        for (int i = 0; i < loads.length; i++) {
+            long t = System.nanoTime();
+            availability.reconcile();
+            loads[i] = System.nanoTime() - t;
+        }
+        Arrays.sort(loads);
+
+        int windows = 2_000;
+        Instant[] starts = new Instant[windows];
+        for (int w = 0; w < windows; w++) starts[w] = base.plus(Duration.ofMinutes(15L * rnd.nextInt(30 * 96)));
+        for (int w = 0; w < windows; w++) { // warm-up
+            for (UUID table : tables) availability.isBooked(table, starts[w], starts[w].plus(Duration.ofHours(2)), null);
+        }
+        long[] nanos = new long[windows];
+        int free = 0;
+        for (int w = 0; w < windows; w++) {
+            Instant s = starts[w];
+            Instant e = s.plus(Duration.ofHours(2));
+            long t = System.nanoTime();
+            for (UUID table : tables) if (!availability.isBooked(table, s, e, null)) free++;
+            nanos[w] = System.nanoTime() - t;
+        }
+        Arrays.sort(nanos);
+
+        int expected = 0;
+        for (Instant s : starts) {
+            Instant e = s.plus(Duration.ofHours(2));
+            for (UUID table : tables) {
+                boolean booked = upcomingByTable.getOrDefault(table, List.of()).stream()
+                        .anyMatch(r -> r[0].isBefore(e) && r[1].isAfter(s));
+                if (!booked) expected++;
+            }
+        }
+
+        System.out.printf("TableAvailability PG: %d lượt (%d chưa kết thúc), %d liên kết; nạp median %d ms; "
+                        + "500 bàn / khung giờ avg %.1f µs, p99 %.1f µs%n",
+                RESERVATIONS, upcoming, linkRows.size(), loads[loads.length / 2] / 1_000_000,
+                Arrays.stream(nanos).average().orElse(0) / 1000, percentile(nanos, 0.99) / 1000.0);
+        assertThat(free).isEqualTo(expected);
+        assertThat(free).isPositive();
+    }
+}
@@ -0,0 +1,42 @@
+package com.hoabanrestaurant.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 2 triệu dòng order (~400k order): thời gian + heap còn giữ chỉ theo số cặp món, không theo số dòng
+class CooccurrenceMatrixBenchmark {
+
+    @Test
+    void streamsMillionsOfLinesWithBoundedState() {
+        int dishes = 300;
+        Runtime rt = Runtime.getRuntime();
+        System.gc();
+        long heapBefore = rt.totalMemory() - rt.freeMemory();
+
+        CooccurrenceMatrix m = new CooccurrenceMatrix(dishes, 64);
+        Random rnd = new Random(7);
+        int[] basket = new int[96];
+        long lines = 0;
+        long started = System.nanoTime();
+        while (lines < 2_000_000) {
+            // thỉnh thoảng có order tiệc dài hơn maxBasket
+            int n = rnd.nextInt(1000) == 0 ? 65 + rnd.nextInt(32) : 1 + rnd.nextInt(9);
+            for (int i = 0; i < n; i++) basket[i] = rnd.nextInt(dishes);
+            m.addBasket(basket, n);
+            lines += n;
+        }
+        CooccurrenceMatrix.Neighbours nb = m.topNeighbours(10, 2);
+        long ms = (System.nanoTime() - started) / 1_000_000;
+
+        System.gc();
+        long heapAfter = rt.totalMemory() - rt.freeMemory();
+        System.out.printf("CooccurrenceMatrix: %d dòng, %d order, %d cặp, %d ms, heap giữ lại ~%d KB%n",
+                lines, m.baskets(), m.pairCount(), ms, Math.max(0, heapAfter - heapBefore) / 1024);
+
+        assertThat(m.pairCount()).isLessThanOrEqualTo(dishes * (dishes - 1) / 2);
+        for (int[] row : nb.ids()) assertThat(row).hasSize(10);
+    }
+}
@@ -0,0 +1,52 @@
+package com.hoabanrestaurant.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 10k món tổng hợp: thời gian dựng chỉ mục, độ trễ trung bình / p99 của truy vấn có lỗi gõ
+class TrigramIndexBenchmark {
+
+    @Test
+    void searchesTenThousandItems() {
+        String[] words = {"phở", "bò", "gà", "bún", "chả", "nướng", "chiên", "xào", "lẩu", "cá", "tôm", "mực",
+                "đậu", "hũ", "rau", "muống", "cơm", "rang", "canh", "chua", "sả", "ớt", "tỏi", "mật", "ong",
+                "heo", "quay", "vịt", "kho", "tiêu", "hấp", "gừng", "nấm", "trứng", "cuốn", "nem", "giò"};
+        Random rnd = new Random(42);
+        List<TrigramIndex.Doc<Integer>> docs = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            docs.add(new TrigramIndex.Doc<>(i, phrase(words, rnd, 2 + rnd.nextInt(3)) + " " + i,
+                    phrase(words, rnd, 6 + rnd.nextInt(6))));
+        }
+        long buildStart = System.nanoTime();
+        TrigramIndex<Integer> index = TrigramIndex.build(docs);
+        long buildMs = (System.nanoTime() - buildStart) / 1_000_000;
+
+        String[] queries = {"pho bo", "ga nuogn", "lau ca", "tom chien sa", "com rnag", "nam xao toi", "vit quay"};
+        for (int i = 0; i < 2_000; i++) index.search(queries[i % queries.length], 20, 0.3); // warm-up
+
+        int runs = 5_000;
+        long[] nanos = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long t = System.nanoTime();
+            var hits = index.search(queries[i % queries.length], 20, 0.3);
+            nanos[i] = System.nanoTime() - t;
+            assertThat(hits).isNotEmpty();
+        }
+        Arrays.sort(nanos);
+        double avgUs = Arrays.stream(nanos).average().orElse(0) / 1000;
+        double p99Us = nanos[(int) (runs * 0.99)] / 1000.0;
+        System.out.printf("TrigramIndex 10k: build %d ms, search avg %.1f µs, p99 %.1f µs%n", buildMs, avgUs, p99Us);
+    }
+
+    private static String phrase(String[] words, Random rnd, int n) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < n; i++) sb.append(i == 0 ? "" : " ").append(words[rnd.nextInt(words.length)]);
+        return sb.toString();
+    }
+}
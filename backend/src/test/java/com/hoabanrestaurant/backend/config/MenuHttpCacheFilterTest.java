@@ -0,0 +1,132 @@
+package com.hoabanrestaurant.backend.config;
+
+import com.hoabanrestaurant.backend.service.MenuSnapshotService;
+import com.hoabanrestaurant.backend.util.MenuSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MenuHttpCacheFilterTest {
+
+    private final MenuSnapshotService menuSnapshot = mock(MenuSnapshotService.class);
+    private final MenuHttpCacheFilter filter = new MenuHttpCacheFilter(new SimpleMeterRegistry(), menuSnapshot);
+
+    // controller giả: đếm số lần thực sự chạy, body đủ dài để được gzip
+    private final AtomicInteger controllerCalls = new AtomicInteger();
+    private final String body = "{\"data\":[" + "{\"name\":\"Phở bò\"},".repeat(200) + "{}]}";
+    private final FilterChain chain = (req, res) -> {
+        controllerCalls.incrementAndGet();
+        res.setContentType("application/json");
+        res.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+    };
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "maxEntries", 500);
+        ReflectionTestUtils.setField(filter, "gzipMinBytes", 1024);
+        digest("aaaa");
+    }
+
+    @Test
+    void answersNotModifiedWithoutRunningController() throws Exception {
+        MockHttpServletResponse first = get("/v1/dishes", null, null);
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(first.getHeader("ETag")).isEqualTo("\"maaaa\"");
+        assertThat(first.getContentAsString(StandardCharsets.UTF_8)).isEqualTo(body);
+
+        MockHttpServletResponse second = get("/v1/dishes", "\"maaaa\"", null);
+        assertThat(second.getStatus()).isEqualTo(304);
+        assertThat(second.getContentLength()).isZero();
+        assertThat(second.getHeader("ETag")).isEqualTo("\"maaaa\"");
+        assertThat(controllerCalls).hasValue(1);
+    }
+
+    @Test
+    void servesGzipFromCacheToClientsThatAcceptIt() throws Exception {
+        get("/v1/dishes", null, null);
+        MockHttpServletResponse zipped = get("/v1/dishes", null, "gzip, deflate");
+
+        assertThat(controllerCalls).hasValue(1);
+        assertThat(zipped.getHeader("Content-Encoding")).isEqualTo("gzip");
+        assertThat(zipped.getHeader("ETag")).isEqualTo("\"maaaa-gz\"");
+        assertThat(zipped.getHeader("Vary")).isEqualTo("Accept-Encoding");
+        assertThat(zipped.getContentAsByteArray().length).isLessThan(body.length());
+        try (var in = new GZIPInputStream(new ByteArrayInputStream(zipped.getContentAsByteArray()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(body);
+        }
+        // ETag của bản gzip cũng được chấp nhận khi revalidate
+        assertThat(get("/v1/dishes", "\"maaaa-gz\"", "gzip").getStatus()).isEqualTo(304);
+    }
+
+    @Test
+    void menuChangeInvalidatesEtagAndCachedBody() throws Exception {
+        get("/v1/combos", null, null);
+        digest("bbbb"); // snapshot dựng lại với nội dung khác
+
+        MockHttpServletResponse stale = get("/v1/combos", "\"maaaa\"", null);
+        assertThat(stale.getStatus()).isEqualTo(200);
+        assertThat(stale.getHeader("ETag")).isEqualTo("\"mbbbb\"");
+        assertThat(controllerCalls).hasValue(2);
+
+        get("/v1/combos", null, null);
+        assertThat(controllerCalls).hasValue(2); // bản mới đã vào cache
+    }
+
+    @Test
+    void evictsOldVersionsInsteadOfStoppingAtCapacity() throws Exception {
+        ReflectionTestUtils.setField(filter, "maxEntries", 2);
+        get("/v1/dishes", null, null);
+        get("/v1/combos", null, null);
+        digest("bbbb");
+
+        get("/v1/categories", null, null);
+        get("/v1/categories", null, null);
+        assertThat(controllerCalls).hasValue(3); // lần 2 trúng cache dù trước đó map đã đầy
+
+        get("/v1/areas", null, null);
+        get("/v1/dishes", null, null);
+        get("/v1/dishes", null, null);
+        assertThat(controllerCalls).hasValue(6); // đầy bản đang dùng: /v1/dishes không được lưu thêm
+        @SuppressWarnings("unchecked")
+        Map<String, ?> entries = (Map<String, ?>) ReflectionTestUtils.getField(filter, "entries");
+        assertThat(entries).hasSize(2);
+    }
+
+    @Test
+    void ignoresOtherPathsAndMethods() throws Exception {
+        MockHttpServletRequest post = new MockHttpServletRequest("POST", "/v1/dishes");
+        filter.doFilter(post, new MockHttpServletResponse(), chain);
+        get("/v1/orders", null, null);
+        get("/v1/orders", null, null);
+        assertThat(controllerCalls).hasValue(3);
+    }
+
+    private void digest(String d) {
+        when(menuSnapshot.current()).thenReturn(new MenuSnapshot(1, d, Instant.now(), Map.of(), Map.of(), Map.of()));
+    }
+
+    private MockHttpServletResponse get(String path, String ifNoneMatch, String acceptEncoding) throws Exception {
+        MockHttpServletRequest req = new MockHttpServletRequest("GET", path);
+        if (ifNoneMatch != null) req.addHeader("If-None-Match", ifNoneMatch);
+        if (acceptEncoding != null) req.addHeader("Accept-Encoding", acceptEncoding);
+        MockHttpServletResponse res = new MockHttpServletResponse();
+        filter.doFilter(req, res, chain);
+        return res;
+    }
+}
@@ -0,0 +1,72 @@
+package com.hoabanrestaurant.backend.repository;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.invocation.Invocation;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.spy;
+
+// Đếm số câu lệnh gửi xuống DB khi sửa combo lớn: chỉ SELECT so sánh + các lô ghi phần chênh lệch
+class ComboItemJdbcRepositoryTest {
+
+    private static final int BATCH_SIZE = 100;
+
+    @ParameterizedTest
+    @ValueSource(ints = {10, 100, 1000})
+    void updateOnlyWritesTheDiff(int size) {
+        UUID comboId = UUID.randomUUID();
+        Map<UUID, Integer> existing = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) existing.put(UUID.randomUUID(), 1);
+
+        // chỉ đổi giá combo: món giữ nguyên
+        long unchanged = statements(comboId, existing, new LinkedHashMap<>(existing));
+
+        // đổi số lượng 10% món, bỏ 10%, thêm 10%
+        Map<UUID, Integer> desired = new LinkedHashMap<>(existing);
+        int k = 0;
+        for (UUID dishId : existing.keySet()) {
+            if (k % 10 == 0) desired.put(dishId, 2);
+            else if (k % 10 == 1) desired.remove(dishId);
+            k++;
+        }
+        for (int i = 0; i < size / 10; i++) desired.put(UUID.randomUUID(), 1);
+        long mixed = statements(comboId, existing, desired);
+        ComboItemJdbcRepository.Diff diff = ComboItemJdbcRepository.diff(existing, desired);
+        assertThat(diff.updates()).hasSize(size / 10);
+        assertThat(diff.deletes()).hasSize(size / 10);
+        assertThat(diff.inserts()).hasSize(size / 10);
+
+        assertThat(unchanged).isEqualTo(1); // chỉ SELECT so sánh
+        assertThat(mixed).isLessThanOrEqualTo(1 + 1 + 3L * ((size / 10 + BATCH_SIZE - 1) / BATCH_SIZE));
+    }
+
+    // số round-trip: SELECT hiện có + mỗi lô batch (100 dòng) + mỗi câu update đơn
+    private static long statements(UUID comboId, Map<UUID, Integer> existing, Map<UUID, Integer> desired) {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        ComboItemJdbcRepository repo = spy(new ComboItemJdbcRepository(jdbc));
+        doReturn(existing).when(repo).findQuantities(comboId);
+
+        repo.sync(comboId, desired);
+
+        long count = 1;
+        for (Invocation inv : mockingDetails(jdbc).getInvocations()) {
+            String name = inv.getMethod().getName();
+            if (name.equals("update")) count++;
+            if (name.equals("batchUpdate")) {
+                int rows = ((Collection<?>) inv.getArgument(1)).size();
+                count += (rows + BATCH_SIZE - 1) / BATCH_SIZE;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,107 @@
+package com.hoabanrestaurant.backend.service.impl;
+
+import com.hoabanrestaurant.backend.entity.Combo;
+import com.hoabanrestaurant.backend.entity.ComboItem;
+import com.hoabanrestaurant.backend.entity.Dish;
+import com.hoabanrestaurant.backend.enums.MenuStatus;
+import com.hoabanrestaurant.backend.mapper.ComboMapperImpl;
+import com.hoabanrestaurant.backend.repository.ComboItemJdbcRepository;
+import com.hoabanrestaurant.backend.repository.ComboItemRepository;
+import com.hoabanrestaurant.backend.repository.ComboRepository;
+import com.hoabanrestaurant.backend.repository.DishRepository;
+import com.hoabanrestaurant.backend.service.DishPopularityService;
+import com.hoabanrestaurant.backend.service.DishRecommendService;
+import com.hoabanrestaurant.backend.service.MenuSampleService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+// Danh sách combo phải tốn số lần truy vấn cố định, không tăng theo số combo (không N+1),
+// giá gợi ý cộng từ giá món của chính các dòng combo_items đã nạp
+class ComboServiceImplTest {
+
+    private final ComboRepository comboRepo = mock(ComboRepository.class);
+    private final ComboItemRepository itemRepo = mock(ComboItemRepository.class);
+    private final DishRepository dishRepo = mock(DishRepository.class);
+
+    private final ComboServiceImpl service = new ComboServiceImpl(comboRepo, itemRepo,
+            mock(ComboItemJdbcRepository.class), dishRepo, new ComboMapperImpl(), mock(MenuSampleService.class),
+            mock(DishPopularityService.class), mock(DishRecommendService.class), mock(ApplicationEventPublisher.class));
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 30, 200})
+    void listAllLoadsItemsOnceWhateverTheComboCount(int comboCount) {
+        List<Combo> combos = new ArrayList<>();
+        List<ComboItem> items = new ArrayList<>();
+        for (int i = 0; i < comboCount; i++) {
+            Combo c = Combo.builder().id(UUID.randomUUID()).name("Combo " + i)
+                    .price(BigDecimal.valueOf(100_000)).status(MenuStatus.ACTIVE).build();
+            combos.add(c);
+            items.addAll(itemsOf(c, i));
+        }
+        when(comboRepo.findByStatus(MenuStatus.ACTIVE)).thenReturn(combos);
+        when(itemRepo.findWithDishByComboIdIn(anyCollection())).thenReturn(items);
+
+        var result = service.listAll();
+
+        assertThat(result).hasSize(comboCount);
+        assertThat(result).allSatisfy(dto -> assertThat(dto.items()).hasSize(3));
+        for (int i = 0; i < comboCount; i++) {
+            assertThat(result.get(i).suggestedSum()).isEqualByComparingTo(expectedSum(i));
+        }
+        verify(comboRepo, times(1)).findByStatus(MenuStatus.ACTIVE);
+        verify(itemRepo, times(1)).findWithDishByComboIdIn(anyCollection());
+        verify(itemRepo, never()).findByCombo_Id(any());
+        verifyNoInteractions(dishRepo); // giá gợi ý lấy từ dish đã join sẵn
+    }
+
+    @Test
+    void getSumsRetailPricesOfItsDishes() {
+        Combo c = Combo.builder().id(UUID.randomUUID()).name("Combo gia đình")
+                .price(BigDecimal.valueOf(300_000)).status(MenuStatus.ACTIVE).build();
+        when(comboRepo.findById(c.getId())).thenReturn(Optional.of(c));
+        when(itemRepo.findByCombo_Id(c.getId())).thenReturn(itemsOf(c, 7));
+
+        var dto = service.get(c.getId());
+
+        assertThat(dto.suggestedSum()).isEqualByComparingTo(expectedSum(7));
+        verifyNoInteractions(dishRepo);
+    }
+
+    // món j của combo i: giá (i + j + 1) * 10.000, số lượng j + 1
+    private static List<ComboItem> itemsOf(Combo c, int i) {
+        List<ComboItem> items = new ArrayList<>();
+        for (int j = 0; j < 3; j++) {
+            Dish d = new Dish();
+            d.setId(UUID.randomUUID());
+            d.setName("Món " + j);
+            d.setPrice(BigDecimal.valueOf((i + j + 1) * 10_000L));
+            items.add(ComboItem.builder().id(new ComboItem.Id(c.getId(), d.getId()))
+                    .combo(c).dish(d).quantity(j + 1).build());
+        }
+        return items;
+    }
+
+    private static BigDecimal expectedSum(int i) {
+        long sum = 0;
+        for (int j = 0; j < 3; j++) sum += (i + j + 1) * 10_000L * (j + 1);
+        return BigDecimal.valueOf(sum);
+    }
+}
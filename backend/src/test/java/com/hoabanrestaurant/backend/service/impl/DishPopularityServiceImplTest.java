@@ -0,0 +1,133 @@
+package com.hoabanrestaurant.backend.service.impl;
+
+import com.hoabanrestaurant.backend.enums.MenuStatus;
+import com.hoabanrestaurant.backend.enums.OrderStatus;
+import com.hoabanrestaurant.backend.enums.OrderTypes;
+import com.hoabanrestaurant.backend.enums.Unit;
+import com.hoabanrestaurant.backend.event.OrderStatusChangedEvent;
+import com.hoabanrestaurant.backend.repository.DishPopularityJdbcRepository;
+import com.hoabanrestaurant.backend.repository.DishPopularityJdbcRepository.PaidLine;
+import com.hoabanrestaurant.backend.service.MenuSnapshotService;
+import com.hoabanrestaurant.backend.util.MenuSnapshot;
+import com.hoabanrestaurant.backend.util.MenuSnapshot.DishEntry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Flush định kỳ chỉ nạp lại bộ đếm khi thật sự có gì để ghi, và không làm mất phần chưa ghi được
+class DishPopularityServiceImplTest {
+
+    private final DishPopularityJdbcRepository repo = mock(DishPopularityJdbcRepository.class);
+    private final MenuSnapshotService menuSnapshot = mock(MenuSnapshotService.class);
+    private final TransactionTemplate tx = mock(TransactionTemplate.class);
+    private final DishPopularityServiceImpl service =
+            new DishPopularityServiceImpl(repo, menuSnapshot, new SimpleMeterRegistry(), tx);
+
+    private final UUID pho = UUID.randomUUID();
+    private final UUID bun = UUID.randomUUID();
+    private final UUID user = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "topSize", 10);
+        ReflectionTestUtils.setField(service, "userTopSize", 10);
+        ReflectionTestUtils.setField(service, "reloadIntervalMs", 600_000L);
+        doAnswer(inv -> {
+            inv.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(tx).executeWithoutResult(any());
+        when(menuSnapshot.current()).thenReturn(new MenuSnapshot(1, "x", Instant.now(), Map.of(),
+                Map.of(pho, dish(pho), bun, dish(bun)), Map.of()));
+        when(repo.findGlobal()).thenReturn(Map.of(pho, 5.0));
+        when(repo.findByUser(user)).thenReturn(Map.of(pho, 1.0));
+    }
+
+    @Test
+    void idleFlushKeepsCachedCounters() {
+        service.topDishes(5);
+        service.topDishesForUser(user, 5);
+
+        assertThat(service.flush()).isZero();
+        service.topDishes(5);
+        service.topDishesForUser(user, 5);
+
+        verify(repo, times(1)).findGlobal();
+        verify(repo, times(1)).findByUser(user);
+        verify(tx, never()).executeWithoutResult(any());
+    }
+
+    @Test
+    void flushWritesPendingThenReloadsFromDatabase() {
+        assertThat(service.topDishes(5)).containsExactly(pho);
+        paid(bun, 10); // bún vượt phở ngay trong bộ nhớ
+        assertThat(service.topDishes(5)).containsExactly(bun, pho);
+        assertThat(service.topDishesForUser(user, 5)).containsExactly(bun, pho);
+
+        // DB sau khi ghi đã có phần của bún
+        when(repo.findGlobal()).thenReturn(Map.of(pho, 5.0, bun, 10.0));
+        assertThat(service.flush()).isEqualTo(2);
+
+        verify(repo).addGlobal(anyMap());
+        verify(repo).addUser(anyMap());
+        verify(repo, times(2)).findGlobal();
+        assertThat(service.topDishes(5)).containsExactly(bun, pho);
+    }
+
+    @Test
+    void failedWriteKeepsDeltasForNextFlush() {
+        service.topDishes(5);
+        paid(bun, 10);
+        doThrow(new IllegalStateException("db down")).when(repo).addGlobal(anyMap());
+
+        assertThat(service.flush()).isZero();
+        verify(repo, times(1)).findGlobal(); // ghi hỏng: không nạp lại, giữ bộ đếm đang có
+        assertThat(service.topDishes(5)).containsExactly(bun, pho);
+
+        doAnswer(inv -> {
+            assertThat(inv.<Map<UUID, Double>>getArgument(0)).containsOnlyKeys(bun);
+            return null;
+        }).when(repo).addGlobal(anyMap());
+        assertThat(service.flush()).isEqualTo(2);
+    }
+
+    @Test
+    void deltasBeforeFirstLoadAreNotLost() {
+        paid(bun, 10); // chưa ai đọc: bộ đếm chưa nạp, phần này chỉ nằm trong pending
+
+        assertThat(service.topDishes(5)).containsExactly(bun, pho);
+        assertThat(service.topDishesForUser(user, 5)).containsExactly(bun, pho);
+    }
+
+    private void paid(UUID dishId, int quantity) {
+        UUID orderId = UUID.randomUUID();
+        when(repo.findDishLines(orderId)).thenReturn(List.of(new PaidLine(user, dishId, quantity)));
+        Instant now = Instant.now();
+        service.onStatusChanged(new OrderStatusChangedEvent(orderId, null, OrderTypes.DINE_IN,
+                OrderStatus.OPEN, OrderStatus.PAID, BigDecimal.ZERO, now, now));
+    }
+
+    private static DishEntry dish(UUID id) {
+        return new DishEntry(id, UUID.randomUUID(), "Món", null, null, Unit.BOWL, false,
+                BigDecimal.valueOf(50_000), MenuStatus.ACTIVE);
+    }
+}
@@ -0,0 +1,230 @@
+package com.hoabanrestaurant.backend.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hoabanrestaurant.backend.dto.response.DishImportResultDto;
+import com.hoabanrestaurant.backend.entity.Category;
+import com.hoabanrestaurant.backend.enums.ExportFormat;
+import com.hoabanrestaurant.backend.enums.MenuStatus;
+import com.hoabanrestaurant.backend.repository.CategoryRepository;
+import com.hoabanrestaurant.backend.repository.ComboJdbcRepository;
+import com.hoabanrestaurant.backend.repository.ComboJdbcRepository.ComboName;
+import com.hoabanrestaurant.backend.repository.ComboJdbcRepository.ComboRow;
+import com.hoabanrestaurant.backend.repository.DishJdbcRepository;
+import com.hoabanrestaurant.backend.repository.DishJdbcRepository.DishName;
+import com.hoabanrestaurant.backend.repository.DishJdbcRepository.DishRow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Nhập / xuất món và combo hàng loạt: kiểm tra hợp lệ từng dòng trong bộ nhớ, ghi theo lô, lô lỗi DB thì tách từng dòng
+class DishTransferServiceImplTest {
+
+    private final UUID drinks = UUID.randomUUID();
+    private final UUID mains = UUID.randomUUID();
+    private final UUID pho = UUID.randomUUID();
+    private final UUID chaGio = UUID.randomUUID();
+    private final UUID traDa = UUID.randomUUID();
+    private final UUID comboFamily = UUID.randomUUID();
+    private final DishJdbcRepository dishJdbcRepo = mock(DishJdbcRepository.class);
+    private final ComboJdbcRepository comboJdbcRepo = mock(ComboJdbcRepository.class);
+    private final CategoryRepository categoryRepo = mock(CategoryRepository.class);
+    private final TransactionTemplate tx = mock(TransactionTemplate.class);
+    private final List<List<DishRow>> batches = new ArrayList<>();
+    private final List<ComboRow> combos = new ArrayList<>();
+    private final DishTransferServiceImpl service = new DishTransferServiceImpl(dishJdbcRepo, comboJdbcRepo, categoryRepo,
+            tx, new ObjectMapper(), mock(ApplicationEventPublisher.class), new SimpleMeterRegistry());
+
+    DishTransferServiceImplTest() {
+        ReflectionTestUtils.setField(service, "batchSize", 1000);
+        when(categoryRepo.findAll()).thenReturn(List.of(
+                Category.builder().id(drinks).name("Đồ uống").build(),
+                Category.builder().id(mains).name("Món chính").build()));
+        when(dishJdbcRepo.findAllNames()).thenReturn(List.of(
+                new DishName(pho, mains, "Phở bò", MenuStatus.ACTIVE),
+                new DishName(UUID.randomUUID(), mains, "Bún bò", MenuStatus.ACTIVE),
+                new DishName(chaGio, mains, "Chả giò", MenuStatus.ACTIVE),
+                new DishName(UUID.randomUUID(), drinks, "Chả giò", MenuStatus.ACTIVE),  // cùng tên, khác danh mục
+                new DishName(traDa, drinks, "Trà đá", MenuStatus.ACTIVE),
+                new DishName(UUID.randomUUID(), drinks, "Nước mía", MenuStatus.INACTIVE)));
+        when(comboJdbcRepo.findAllNames()).thenReturn(List.of(new ComboName(comboFamily, "Combo gia đình")));
+        doAnswer(inv -> {
+            inv.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(tx).executeWithoutResult(any());
+        doAnswer(inv -> {
+            List<DishRow> rows = inv.getArgument(0);
+            if (rows.stream().anyMatch(r -> r.name().equals("Hỏng"))) throw new DataIntegrityViolationException("boom");
+            batches.add(rows);
+            return null;
+        }).when(dishJdbcRepo).upsert(anyList());
+        doAnswer(inv -> {
+            combos.addAll(inv.getArgument(0));
+            return null;
+        }).when(comboJdbcRepo).upsert(anyList());
+    }
+
+    @Test
+    void reportsRowErrorsWithoutAbortingTheBatch() throws Exception {
+        String csv = """
+                \uFEFFcategory,name,description,unit,price,status,signature
+                Món chính,PHỞ BÒ,"Nước dùng ""đặc biệt"", hầm 12h",BOWL,55000,ACTIVE,true
+                Món chính,Bún chả,,PLATE,45000,,
+                Không có,Gỏi cuốn,,PLATE,30000,,
+                Đồ uống,Trà đá,,GLASS,-1,,
+                Đồ uống,Trà đá,,XYZ,5000,,
+                Món chính,bún chả,,PLATE,45000,,
+                Món chính,Hỏng,,PLATE,1000,,
+                """;
+
+        DishImportResultDto r = service.importDishes(in(csv), ExportFormat.CSV);
+
+        assertThat(r.total()).isEqualTo(7);
+        assertThat(r.updated()).isEqualTo(1);   // PHỞ BÒ ghi đè "Phở bò" đang có
+        assertThat(r.inserted()).isEqualTo(1);  // Bún chả
+        assertThat(r.failed()).isEqualTo(5);
+        assertThat(r.errors()).extracting(DishImportResultDto.RowError::row).containsExactly(3L, 4L, 5L, 6L, 7L);
+        DishRow pho = batches.get(0).get(0);
+        assertThat(pho.name()).isEqualTo("Phở bò");
+        assertThat(pho.description()).isEqualTo("Nước dùng \"đặc biệt\", hầm 12h");
+        assertThat(pho.signature()).isTrue();
+    }
+
+    @Test
+    void importsNdjson() throws Exception {
+        String ndjson = """
+                {"category":"Đồ uống","name":"Cà phê sữa","unit":"GLASS","price":"29000"}
+                {"category_id":"%s","name":"Cơm tấm","unit":"PLATE","price":50000}
+                """.formatted(mains);
+
+        DishImportResultDto r = service.importDishes(in(ndjson), ExportFormat.NDJSON);
+
+        assertThat(r.inserted()).isEqualTo(2);
+        assertThat(r.failed()).isZero();
+    }
+
+    // file xuất ra có cột id: đổi tên rồi nhập lại phải cập nhật đúng món đó, không tạo món mới
+    @Test
+    void upsertsByIdWhenPresent() throws Exception {
+        UUID restored = UUID.randomUUID();
+        String csv = """
+                id,category_id,name,unit,price
+                %s,%s,Phở bò đặc biệt,BOWL,65000
+                %s,%s,Chè khúc bạch,BOWL,30000
+                %s,%s,Bún bò,BOWL,50000
+                not-a-uuid,%s,Nem rán,PLATE,40000
+                ,%s,Bún bò,BOWL,52000
+                """.formatted(pho, mains, restored, drinks, UUID.randomUUID(), mains, mains, mains);
+
+        DishImportResultDto r = service.importDishes(in(csv), ExportFormat.CSV);
+
+        assertThat(r.updated()).isEqualTo(2);   // Phở bò theo id, Bún bò theo tên
+        assertThat(r.inserted()).isEqualTo(1);  // id chưa có (sao lưu từ chi nhánh khác) -> thêm giữ nguyên id
+        assertThat(r.errors()).extracting(DishImportResultDto.RowError::row).containsExactly(3L, 4L);
+        List<DishRow> rows = batches.get(0);
+        assertThat(rows).extracting(DishRow::id).containsExactly(pho, restored, null);
+        assertThat(rows.get(0).name()).isEqualTo("Phở bò đặc biệt");
+    }
+
+    // món trong combo ghi theo tên, tra trên chỉ mục tên món; tên trùng ở 2 danh mục phải dùng id
+    @Test
+    void importsCombosResolvingDishNames() throws Exception {
+        String csv = """
+                name,price,min_people,max_people,items
+                COMBO GIA ĐÌNH,299000,4,6,Phở bò*2|trà đá*4|Trà đá
+                Combo đôi,159000,,,%s*2|Phở bò
+                Combo chả giò,99000,,,Chả giò*2
+                Combo nước,20000,,,Nước mía
+                Combo trống,10000,,,
+                Combo lạ,10000,,,Bánh xèo*2
+                Combo sai số,10000,3,2,Phở bò
+                Combo đôi,159000,,,Phở bò
+                """.formatted(chaGio);
+
+        DishImportResultDto r = service.importCombos(in(csv), ExportFormat.CSV);
+
+        assertThat(r.updated()).isEqualTo(1);   // khớp combo đang có theo tên, không phân biệt hoa thường
+        assertThat(r.inserted()).isEqualTo(1);
+        assertThat(r.errors()).extracting(DishImportResultDto.RowError::row).containsExactly(3L, 4L, 5L, 6L, 7L, 8L);
+        assertThat(r.errors().get(0).message()).contains("nhiều danh mục");
+        ComboRow family = combos.get(0);
+        assertThat(family.id()).isEqualTo(comboFamily);
+        assertThat(family.name()).isEqualTo("Combo gia đình");
+        assertThat(family.items()).isEqualTo(Map.of(pho, 2, traDa, 5));
+        assertThat(family.minPeople()).isEqualTo(4);
+        assertThat(combos.get(1).items()).isEqualTo(Map.of(chaGio, 2, pho, 1));
+        assertThat(combos.get(1).minPeople()).isNull();
+    }
+
+    @Test
+    void importsCombosFromNdjsonItemArrays() throws Exception {
+        String ndjson = """
+                {"id":"%s","name":"Combo gia đình 2","price":"329000","items":[{"dish_id":"%s","quantity":2},{"dish":"Trà đá"}]}
+                """.formatted(comboFamily, chaGio);
+
+        DishImportResultDto r = service.importCombos(in(ndjson), ExportFormat.NDJSON);
+
+        assertThat(r.updated()).isEqualTo(1);
+        assertThat(r.failed()).isZero();
+        assertThat(combos.get(0).name()).isEqualTo("Combo gia đình 2");
+        assertThat(combos.get(0).items()).isEqualTo(Map.of(chaGio, 2, traDa, 1));
+    }
+
+    // file xuất phải nhập lại được: tên món khi đọc ngược được, id khi tên trùng giữa các danh mục
+    @Test
+    void exportsCombosWithDishNames() throws Exception {
+        when(tx.getTransactionManager()).thenReturn(mock(PlatformTransactionManager.class));
+        doAnswer(inv -> {
+            ResultSet rs = mock(ResultSet.class);
+            Object[] row = {comboFamily, "Combo gia đình", "Cho 4, 6 người", "299000.00", "ACTIVE", null, 4, 6,
+                    String.join("|", chaGio + "*2", pho + "*1", traDa + "*4")};
+            for (int c = 0; c < row.length; c++) when(rs.getObject(c + 1)).thenReturn(row[c]);
+            inv.<RowCallbackHandler>getArgument(1).processRow(rs);
+            return null;
+        }).when(comboJdbcRepo).stream(anyInt(), any());
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        service.exportCombos(ExportFormat.CSV, csv);
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        service.exportCombos(ExportFormat.NDJSON, ndjson);
+
+        assertThat(csv.toString(StandardCharsets.UTF_8)).isEqualTo("\uFEFF"
+                + "id,name,description,price,status,image_url,min_people,max_people,items\r\n"
+                + comboFamily + ",Combo gia đình,\"Cho 4, 6 người\",299000.00,ACTIVE,,4,6,"
+                + chaGio + "*2|Phở bò|Trà đá*4\r\n");
+        assertThat(ndjson.toString(StandardCharsets.UTF_8)).contains(
+                "\"items\":[{\"dish_id\":\"" + chaGio + "\",\"dish\":\"Chả giò\",\"quantity\":2},");
+
+        // nhập lại chính file CSV vừa xuất: cập nhật đúng combo, đủ món
+        DishImportResultDto r = service.importCombos(new ByteArrayInputStream(csv.toByteArray()), ExportFormat.CSV);
+        assertThat(r.updated()).isEqualTo(1);
+        assertThat(r.failed()).isZero();
+        assertThat(combos.get(0).items()).isEqualTo(Map.of(chaGio, 2, pho, 1, traDa, 4));
+    }
+
+    private static ByteArrayInputStream in(String s) {
+        return new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,176 @@
+package com.hoabanrestaurant.backend.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hoabanrestaurant.backend.repository.EmailQueueJdbcRepository;
+import com.hoabanrestaurant.backend.repository.EmailQueueJdbcRepository.QueuedEmail;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.StringTemplateResolver;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Gửi hàng đợi email qua SMTP thật (GreenMail chạy trong JVM), bảng email_queue được mock
+class EmailServiceImplTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP.dynamicPort());
+
+    private static final String TEMPLATE = "<p>Xin chào <span th:text=\"${name}\">x</span></p>";
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final EmailQueueJdbcRepository queueRepo = mock(EmailQueueJdbcRepository.class);
+    private final CountingMailSender mailSender = new CountingMailSender();
+    private EmailServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        mailSender.setHost("localhost");
+        mailSender.setPort(greenMail.getSmtp().getPort());
+        mailSender.setDefaultEncoding("UTF-8");
+
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(new StringTemplateResolver());
+
+        service = new EmailServiceImpl(mailSender, templateEngine, queueRepo, new ObjectMapper(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "from", "Hoa Ban <no-reply@hoaban.vn>");
+        ReflectionTestUtils.setField(service, "workers", 1);
+        ReflectionTestUtils.setField(service, "batchSize", 50);
+        ReflectionTestUtils.setField(service, "maxAttempts", MAX_ATTEMPTS);
+        ReflectionTestUtils.setField(service, "backoffMs", 1000L);
+        ReflectionTestUtils.setField(service, "leaseMs", 60_000L);
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void sendsWholeBatchOverOneConnection() throws Exception {
+        List<QueuedEmail> batch = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) batch.add(queued(i, "khach" + i + "@hoaban.vn", 0));
+        when(queueRepo.claim(anyInt(), any(Duration.class))).thenReturn(batch);
+
+        assertThat(service.dispatchQueued()).isEqualTo(10);
+
+        assertThat(mailSender.connections.get()).isEqualTo(1);
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertThat(received).hasSize(10);
+        List<String> bodies = new ArrayList<>();
+        for (MimeMessage m : received) bodies.add((String) m.getContent());
+        assertThat(bodies).contains("<p>Xin chào <span>Khách 1</span></p>", "<p>Xin chào <span>Khách 10</span></p>");
+        assertThat(sentIds()).containsExactlyInAnyOrder(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L);
+        verify(queueRepo, never()).markFailed(anyLong(), anyBoolean(), any(), anyString());
+    }
+
+    @Test
+    void retriesOnlyTheMessagesTheServerRejected() {
+        when(queueRepo.claim(anyInt(), any(Duration.class))).thenReturn(List.of(
+                queued(1, "a@hoaban.vn", 0),
+                queued(2, "bounce-b@hoaban.vn", 0),
+                queued(3, "c@hoaban.vn", 0),
+                queued(4, "bounce-d@hoaban.vn", 1)));
+
+        service.dispatchQueued();
+
+        assertThat(greenMail.getReceivedMessages()).hasSize(2);
+        assertThat(sentIds()).containsExactlyInAnyOrder(1L, 3L);
+        verify(queueRepo).markFailed(eq(2L), eq(false), any(), anyString());
+        verify(queueRepo).markFailed(eq(4L), eq(false), any(), anyString());
+        verify(queueRepo, never()).markFailed(eq(1L), anyBoolean(), any(), anyString());
+        verify(queueRepo, never()).markFailed(eq(3L), anyBoolean(), any(), anyString());
+    }
+
+    @Test
+    void marksDeadAfterMaxAttempts() {
+        when(queueRepo.claim(anyInt(), any(Duration.class))).thenReturn(List.of(
+                queued(1, "bounce-1@hoaban.vn", MAX_ATTEMPTS - 2),   // lần thứ MAX-1: còn thử lại
+                queued(2, "bounce-2@hoaban.vn", MAX_ATTEMPTS - 1))); // lần thứ MAX: bỏ
+
+        service.dispatchQueued();
+
+        verify(queueRepo).markFailed(eq(1L), eq(false), any(), anyString());
+        verify(queueRepo).markFailed(eq(2L), eq(true), any(), anyString());
+        assertThat(sentIds()).isEmpty();
+        assertThat(greenMail.getReceivedMessages()).isEmpty();
+    }
+
+    @Test
+    void sameContentToSameRecipientGetsSameDedupeKey() {
+        service.queueTemplate("a@hoaban.vn", "OTP", TEMPLATE, Map.of("name", "An", "code", "123456"));
+        service.queueTemplate("a@hoaban.vn", "OTP", TEMPLATE, Map.of("code", "123456", "name", "An")); // khác thứ tự key
+        service.queueTemplate("a@hoaban.vn", "OTP", TEMPLATE, Map.of("name", "An", "code", "654321"));
+
+        ArgumentCaptor<String> keys = ArgumentCaptor.forClass(String.class);
+        verify(queueRepo, times(3)).enqueue(eq("a@hoaban.vn"), eq("OTP"), eq(TEMPLATE), anyString(), keys.capture());
+        assertThat(keys.getAllValues().get(0)).isEqualTo(keys.getAllValues().get(1));
+        assertThat(keys.getAllValues().get(2)).isNotEqualTo(keys.getAllValues().get(0));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> sentIds() {
+        ArgumentCaptor<List<Long>> ids = ArgumentCaptor.forClass(List.class);
+        verify(queueRepo).markSent(ids.capture());
+        return ids.getValue();
+    }
+
+    private static QueuedEmail queued(long id, String to, int attempts) {
+        String name = to.startsWith("khach") ? "Khách " + to.substring(5, to.indexOf('@')) : to;
+        return new QueuedEmail(id, to, "Thông báo #" + id, TEMPLATE, "{\"name\":\"" + name + "\"}", attempts);
+    }
+
+    // Đếm số lần mở kết nối SMTP; người nhận "bounce-*" bị từ chối như khi server trả 550 cho riêng message đó
+    static class CountingMailSender extends JavaMailSenderImpl {
+        final AtomicInteger connections = new AtomicInteger();
+
+        @Override
+        protected Transport connectTransport() throws MessagingException {
+            connections.incrementAndGet();
+            return super.connectTransport();
+        }
+
+        @Override
+        public MimeMessage createMimeMessage() {
+            return new MimeMessage(getSession()) {
+                @Override
+                public void saveChanges() throws MessagingException {
+                    super.saveChanges();
+                    if (Arrays.stream(getAllRecipients()).anyMatch(a -> a.toString().startsWith("bounce-"))) {
+                        throw new MessagingException("550 5.1.1 Mailbox unavailable");
+                    }
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.hoabanrestaurant.backend.service.impl;
+
+import com.hoabanrestaurant.backend.entity.Order;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderTotalsTest {
+
+    private static BigDecimal bd(String v) {
+        return new BigDecimal(v);
+    }
+
+    @Test
+    void appliesLineDeltasCumulatively() {
+        Order o = new Order();
+        OrderTotals.applyLineDelta(o, bd("100000"));  // thêm món
+        OrderTotals.applyLineDelta(o, bd("50000"));   // thêm món
+        OrderTotals.applyLineDelta(o, bd("-30000"));  // giảm số lượng
+
+        assertThat(o.getSubtotal()).isEqualByComparingTo("120000");
+        assertThat(o.getTax()).isEqualByComparingTo("9600.00");
+        assertThat(o.getTotal()).isEqualByComparingTo("129600.00");
+        assertThat(o.getUpdatedAt()).isNotNull();
+    }
+
+    @Test
+    void doesNotHideDriftBelowZero() {
+        Order o = new Order();
+        o.setSubtotal(bd("20000"));
+        OrderTotals.applyLineDelta(o, bd("-50000")); // trừ nhiều hơn đang có -> cộng dồn đã lệch
+
+        assertThat(o.getSubtotal()).isEqualByComparingTo("-30000");
+    }
+
+    @Test
+    void roundsTaxHalfUpToTwoDecimals() {
+        // 0.0625 * 8% = 0.005 -> 0.01 ; 0.0612 * 8% = 0.004896 -> 0.00
+        assertThat(OrderTotals.taxOf(bd("0.0625"), BigDecimal.ZERO)).isEqualByComparingTo("0.01");
+        assertThat(OrderTotals.taxOf(bd("0.0612"), BigDecimal.ZERO)).isEqualByComparingTo("0.00");
+        assertThat(OrderTotals.taxOf(bd("12345.67"), BigDecimal.ZERO)).isEqualTo(bd("987.65"));
+    }
+
+    @Test
+    void taxesAndTotalsAfterDiscount() {
+        Order o = new Order();
+        o.setSubtotal(bd("200000"));
+        o.setDiscount(bd("50000"));
+        OrderTotals.refresh(o);
+
+        assertThat(o.getTax()).isEqualByComparingTo("12000.00");
+        assertThat(o.getTotal()).isEqualByComparingTo("162000.00");
+
+        // discount lớn hơn subtotal: không thu thuế, total không âm
+        o.setDiscount(bd("250000"));
+        OrderTotals.refresh(o);
+        assertThat(o.getTax()).isEqualByComparingTo("0.00");
+        assertThat(o.getTotal()).isEqualByComparingTo("0");
+    }
+}
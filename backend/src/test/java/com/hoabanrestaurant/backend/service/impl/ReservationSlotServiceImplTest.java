@@ -0,0 +1,163 @@
+package com.hoabanrestaurant.backend.service.impl;
+
+import com.hoabanrestaurant.backend.dto.response.ReservationSlotDto;
+import com.hoabanrestaurant.backend.entity.RestaurantTable;
+import com.hoabanrestaurant.backend.enums.TableStatus;
+import com.hoabanrestaurant.backend.event.ReservationChangedEvent;
+import com.hoabanrestaurant.backend.exception.BusinessException;
+import com.hoabanrestaurant.backend.repository.ReservationTableJdbcRepository;
+import com.hoabanrestaurant.backend.repository.ReservationTableJdbcRepository.ActiveReservation;
+import com.hoabanrestaurant.backend.repository.RestaurantTableRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+// Sức chứa khung giờ: bàn đã gán chặn cả khung, lượt đặt chưa gán bàn trừ vào tổng ghế
+class ReservationSlotServiceImplTest {
+
+    private final LocalDate day = LocalDate.now().plusDays(7);
+    private final RestaurantTableRepository tableRepo = mock(RestaurantTableRepository.class);
+    private final ReservationTableJdbcRepository repo = mock(ReservationTableJdbcRepository.class);
+    private final ReservationSlotServiceImpl service = new ReservationSlotServiceImpl(tableRepo, repo);
+
+    ReservationSlotServiceImplTest() {
+        ReflectionTestUtils.setField(service, "openTime", "10:00");
+        ReflectionTestUtils.setField(service, "lastSeating", "22:00");
+        ReflectionTestUtils.setField(service, "stayMinutes", 120);
+        ReflectionTestUtils.setField(service, "horizonDays", 30);
+        ReflectionTestUtils.setField(service, "cacheDays", 31);
+    }
+
+    @Test
+    void countsAssignedTablesAndPendingGuestsIncrementally() {
+        UUID four = UUID.randomUUID();
+        UUID six = UUID.randomUUID();
+        when(tableRepo.findByStatusOrderByArea_NameAscCodeAsc(TableStatus.AVAILABLE))
+                .thenReturn(List.of(table(four, 4), table(six, 6)));
+        UUID pending = UUID.randomUUID();
+        when(repo.findActiveBetween(any(), any())).thenReturn(List.of(
+                new ActiveReservation(pending, at(18, 0), at(20, 0), 3, null),
+                new ActiveReservation(UUID.randomUUID(), at(19, 0), at(21, 0), 5, six)));
+
+        List<ReservationSlotDto> slots = service.slots(day, 2, 60);
+
+        assertThat(slots).hasSize(13);  // 10:00 .. 22:00
+        assertThat(slot(slots, 10).freeSeats()).isEqualTo(10);
+        assertThat(slot(slots, 17).freeSeats()).isEqualTo(7);   // 10 ghế, chừa 3 khách chưa gán bàn lúc 18h
+        assertThat(slot(slots, 18).freeSeats()).isEqualTo(1);   // bàn 6 bận từ 19h
+        assertThat(slot(slots, 18).available()).isFalse();
+
+        // khách chưa gán bàn huỷ, rồi một lượt khác được gán bàn 4 lúc 18h
+        service.onReservationChanged(new ReservationChangedEvent(pending, at(18, 0), at(20, 0), 3, List.of(), false));
+        assertThat(slot(service.slots(day, 2, 60), 18).freeSeats()).isEqualTo(4);
+        service.onReservationChanged(new ReservationChangedEvent(
+                UUID.randomUUID(), at(18, 0), at(20, 0), 4, List.of(four), true));
+        List<ReservationSlotDto> after = service.slots(day, 2, 60);
+        assertThat(slot(after, 18).freeSeats()).isZero();
+        assertThat(slot(after, 20).freeSeats()).isEqualTo(4);    // bàn 4 trả lúc 20h, bàn 6 bận đến 21h
+        assertThat(slot(after, 21).freeSeats()).isEqualTo(10);
+    }
+
+    @Test
+    void rejectsDatesOutsideBookingHorizon() {
+        LocalDate today = LocalDate.now();
+        assertThatThrownBy(() -> service.slots(today.minusDays(1), 2, 60)).isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> service.slots(today.plusDays(31), 2, 60)).isInstanceOf(BusinessException.class);
+        verifyNoInteractions(repo, tableRepo);
+    }
+
+    // 500 bàn, 10k lượt đặt rải trong 30 ngày (~330 lượt/ngày): cả ma trận một ngày, mọi bước và cỡ nhóm,
+    // so từng khung với cách tính thẳng từ danh sách lượt đặt
+    @Test
+    void computesWholeDayMatrixForManyTables() {
+        Random rnd = new Random(5);
+        List<RestaurantTable> tables = new ArrayList<>();
+        for (int i = 0; i < 500; i++) tables.add(table(UUID.randomUUID(), 2 + 2 * rnd.nextInt(4)));
+        when(tableRepo.findByStatusOrderByArea_NameAscCodeAsc(TableStatus.AVAILABLE)).thenReturn(tables);
+        List<ActiveReservation> rows = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            // ngày đầu dày hơn để có cả khung hết chỗ
+            int offset = i % 3 == 0 ? 0 : rnd.nextInt(30);
+            Instant start = day.plusDays(offset).atTime(10, 0).atZone(ZoneId.systemDefault()).toInstant()
+                    .plusSeconds(1800L * rnd.nextInt(25));
+            UUID table = rnd.nextInt(4) == 0 ? null : tables.get(rnd.nextInt(500)).getId();
+            rows.add(new ActiveReservation(UUID.randomUUID(), start, start.plusSeconds(7200), 1 + rnd.nextInt(6), table));
+        }
+        when(repo.findActiveBetween(any(), any())).thenAnswer(inv -> {
+            Instant from = inv.getArgument(0);
+            Instant to = inv.getArgument(1);
+            return rows.stream().filter(r -> r.start().isBefore(to) && r.end().isAfter(from)).toList();
+        });
+
+        Map<LocalTime, Integer> expectedByStart = new HashMap<>();
+        int available = 0;
+        int full = 0;
+        for (int step : new int[]{15, 30, 60}) {
+            for (int partySize = 1; partySize <= 8; partySize++) {
+                List<ReservationSlotDto> slots = service.slots(day, partySize, step);
+                assertThat(slots).isNotEmpty();
+                for (ReservationSlotDto s : slots) {
+                    int expected = expectedByStart.computeIfAbsent(s.start(), t -> bruteForceFreeSeats(tables, rows, t));
+                    assertThat(s.freeSeats()).as("%s, bước %d", s.start(), step).isEqualTo(expected);
+                    assertThat(s.available()).isEqualTo(expected >= partySize);
+                    if (s.available()) available++;
+                    else full++;
+                }
+            }
+        }
+        assertThat(available).isPositive();
+        assertThat(full).isPositive();
+    }
+
+    // ghế của các bàn không có lượt đặt nào chồng lên [from, from + 120'), trừ số khách chưa gán bàn
+    // cao nhất tại một thời điểm trong khung (lượt đặt bắt đầu ở mốc 30 phút nên xét từng mốc 15 phút là đủ)
+    private int bruteForceFreeSeats(List<RestaurantTable> tables, List<ActiveReservation> rows, LocalTime from) {
+        Instant start = day.atTime(from).atZone(ZoneId.systemDefault()).toInstant();
+        Instant end = start.plusSeconds(7200);
+        List<ActiveReservation> overlapping = rows.stream()
+                .filter(r -> r.start().isBefore(end) && r.end().isAfter(start)).toList();
+        Set<UUID> busy = new HashSet<>();
+        for (ActiveReservation r : overlapping) if (r.tableId() != null) busy.add(r.tableId());
+        int seats = 0;
+        for (RestaurantTable t : tables) if (!busy.contains(t.getId())) seats += t.getSeats();
+        int pending = 0;
+        for (Instant p = start; p.isBefore(end); p = p.plusSeconds(900)) {
+            Instant point = p;
+            pending = Math.max(pending, overlapping.stream()
+                    .filter(r -> r.tableId() == null && !r.start().isAfter(point) && r.end().isAfter(point))
+                    .mapToInt(ActiveReservation::partySize).sum());
+        }
+        return Math.max(0, seats - pending);
+    }
+
+    private Instant at(int hour, int minute) {
+        return day.atTime(hour, minute).atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    private static ReservationSlotDto slot(List<ReservationSlotDto> slots, int hour) {
+        return slots.stream().filter(s -> s.start().equals(LocalTime.of(hour, 0))).findFirst().orElseThrow();
+    }
+
+    private static RestaurantTable table(UUID id, int seats) {
+        return RestaurantTable.builder().id(id).code("T").seats(seats).status(TableStatus.AVAILABLE).build();
+    }
+}
@@ -0,0 +1,129 @@
+package com.hoabanrestaurant.backend.service.impl;
+
+import com.hoabanrestaurant.backend.event.ReservationChangedEvent;
+import com.hoabanrestaurant.backend.repository.ReservationTableJdbcRepository;
+import com.hoabanrestaurant.backend.repository.ReservationTableJdbcRepository.BookedTable;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Lịch đặt bàn trong bộ nhớ phải trả lời giống hệt điều kiện overlap của query cũ (start < end' AND end > start')
+class TableAvailabilityServiceImplTest {
+
+    // luôn ở tương lai: lượt đặt đã kết thúc bị bỏ khi nạp
+    private static final Instant T0 = Instant.now().truncatedTo(ChronoUnit.HOURS).plus(Duration.ofDays(1));
+
+    private final ReservationTableJdbcRepository repo = mock(ReservationTableJdbcRepository.class);
+    private final TableAvailabilityServiceImpl service = new TableAvailabilityServiceImpl(repo, new SimpleMeterRegistry());
+
+    @Test
+    void tracksAssignCancelAndReconcile() {
+        UUID t1 = UUID.randomUUID();
+        UUID t2 = UUID.randomUUID();
+        UUID r1 = UUID.randomUUID();
+        when(repo.findActive(any())).thenReturn(List.of(new BookedTable(r1, t1, T0, T0.plus(Duration.ofHours(2)))));
+
+        assertThat(service.isBooked(t1, T0.plus(Duration.ofHours(1)), T0.plus(Duration.ofHours(3)), null)).isTrue();
+        assertThat(service.isBooked(t1, T0.plus(Duration.ofHours(2)), T0.plus(Duration.ofHours(3)), null)).isFalse(); // chạm mép
+        assertThat(service.isBooked(t1, T0, T0.plus(Duration.ofHours(1)), r1)).isFalse(); // bỏ qua chính nó
+
+        // gán lại r1 sang t2, rồi huỷ
+        service.onReservationChanged(new ReservationChangedEvent(r1, T0, T0.plus(Duration.ofHours(2)), 4, List.of(t2), true));
+        assertThat(service.isBooked(t1, T0, T0.plus(Duration.ofHours(1)), null)).isFalse();
+        assertThat(service.anyBooked(List.of(t1, t2), T0, T0.plus(Duration.ofHours(1)), null)).isTrue();
+        service.onReservationChanged(new ReservationChangedEvent(r1, T0, T0.plus(Duration.ofHours(2)), 4, List.of(), false));
+        assertThat(service.isBooked(t2, T0, T0.plus(Duration.ofHours(1)), null)).isFalse();
+
+        // DB vẫn còn r1 trên t1 (vd. instance khác ghi): đối soát phát hiện lệch và nạp lại
+        assertThat(service.reconcile()).isEqualTo(1);
+        assertThat(service.isBooked(t1, T0, T0.plus(Duration.ofHours(1)), null)).isTrue();
+        assertThat(service.reconcile()).isZero();
+    }
+
+    // lượt đặt kết thúc quá grace-minutes không còn được nạp; đối soát bỏ chúng mà không tính là lệch
+    @Test
+    void reconcilePrunesEndedBookingsWithoutCountingDrift() {
+        ReflectionTestUtils.setField(service, "graceMinutes", 30);
+        UUID t1 = UUID.randomUUID();
+        UUID ended = UUID.randomUUID();
+        UUID upcoming = UUID.randomUUID();
+        Instant now = Instant.now();
+        BookedTable past = new BookedTable(ended, t1, now.minus(Duration.ofHours(3)), now.minus(Duration.ofHours(1)));
+        BookedTable next = new BookedTable(upcoming, t1, T0, T0.plus(Duration.ofHours(2)));
+        when(repo.findActive(any())).thenReturn(List.of(past, next));
+        service.reconcile();
+        assertThat(service.isBooked(t1, past.start(), past.end(), null)).isTrue();
+
+        // DB đã lọc theo end_time: lượt đã qua biến mất, lượt sắp tới mà biến mất vẫn là lệch
+        when(repo.findActive(any())).thenReturn(List.of(next));
+        assertThat(service.reconcile()).isZero();
+        assertThat(service.isBooked(t1, past.start(), past.end(), null)).isFalse();
+        when(repo.findActive(any())).thenReturn(List.of());
+        assertThat(service.reconcile()).isEqualTo(1);
+
+        ArgumentCaptor<Instant> endAfter = ArgumentCaptor.forClass(Instant.class);
+        verify(repo, atLeastOnce()).findActive(endAfter.capture());
+        assertThat(endAfter.getValue()).isBetween(now.minus(Duration.ofMinutes(31)), Instant.now().minus(Duration.ofMinutes(30)));
+    }
+
+    // 500 bàn x 10k lượt đặt (1-3 bàn mỗi lượt, rải trong 60 ngày): phải khớp quét tuyến tính
+    @Test
+    void matchesLinearScanForFiveHundredTablesAndTenThousandReservations() {
+        Random rnd = new Random(11);
+        List<UUID> tables = new ArrayList<>();
+        for (int i = 0; i < 500; i++) tables.add(UUID.randomUUID());
+        List<BookedTable> rows = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            UUID res = UUID.randomUUID();
+            Instant start = T0.plus(Duration.ofMinutes(30L * rnd.nextInt(60 * 48)));
+            Instant end = start.plus(Duration.ofMinutes(60 + 30L * rnd.nextInt(4)));
+            int n = 1 + rnd.nextInt(3);
+            for (int k = 0; k < n; k++) rows.add(new BookedTable(res, tables.get(rnd.nextInt(500)), start, end));
+        }
+        when(repo.findActive(any())).thenReturn(rows);
+
+        service.reconcile();
+
+        int windows = 2_000;
+        Instant[] starts = new Instant[windows];
+        for (int w = 0; w < windows; w++) starts[w] = T0.plus(Duration.ofMinutes(15L * rnd.nextInt(60 * 96)));
+
+        int free = 0;
+        for (Instant s : starts) {
+            Instant e = s.plus(Duration.ofHours(2));
+            for (UUID t : tables) if (!service.isBooked(t, s, e, null)) free++;
+        }
+
+        // đối chiếu với quét tuyến tính trên danh sách lượt đặt của từng bàn
+        Map<UUID, List<BookedTable>> byTable = rows.stream().collect(Collectors.groupingBy(BookedTable::tableId));
+        int expected = 0;
+        for (Instant s : starts) {
+            Instant e = s.plus(Duration.ofHours(2));
+            for (UUID t : tables) {
+                boolean booked = byTable.getOrDefault(t, List.of()).stream()
+                        .anyMatch(r -> r.start().isBefore(e) && r.end().isAfter(s));
+                if (!booked) expected++;
+            }
+        }
+        assertThat(free).isEqualTo(expected);
+        assertThat(free).isPositive();
+    }
+}
@@ -0,0 +1,75 @@
+package com.hoabanrestaurant.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CooccurrenceMatrixTest {
+
+    @Test
+    void ranksNeighboursByNormalizedCooccurrence() {
+        // 0 = phở, 1 = quẩy, 2 = trà đá (gọi với mọi thứ), 3 = gà nướng
+        CooccurrenceMatrix m = new CooccurrenceMatrix(4, 64);
+        for (int i = 0; i < 10; i++) m.addBasket(new int[]{0, 1, 2}, 3);
+        for (int i = 0; i < 30; i++) m.addBasket(new int[]{3, 2, 2}, 3); // trùng món trong 1 order chỉ tính 1
+        m.addBasket(new int[]{0, 3}, 2); // chỉ 1 lần, dưới min-support
+
+        CooccurrenceMatrix.Neighbours nb = m.topNeighbours(2, 2);
+
+        assertThat(m.baskets()).isEqualTo(41);
+        assertThat(nb.ids()[0]).containsExactly(1, 2); // quẩy đi với phở sát hơn trà đá
+        assertThat(nb.ids()[3]).containsExactly(2);
+        assertThat(nb.scores()[0][0]).isEqualTo(10 / (float) Math.sqrt(11 * 10));
+    }
+
+    @Test
+    void countsEachDistinctPairOncePerBasket() {
+        CooccurrenceMatrix m = new CooccurrenceMatrix(4, 64);
+        m.addBasket(new int[]{0, 1, 2}, 3);
+        m.addBasket(new int[]{1, 0}, 2);
+        m.addBasket(new int[]{0, 1}, 2);
+        m.addBasket(new int[]{1, 2, 2, 1}, 4);
+        m.addBasket(new int[]{0, 2, 0}, 3);
+        m.addBasket(new int[]{3}, 1);
+        m.addBasket(new int[]{9}, 0); // giỏ rỗng không tính
+
+        assertThat(m.baskets()).isEqualTo(6);
+        assertThat(m.pairCount()).isEqualTo(3);
+        assertThat(m.count(0, 1)).isEqualTo(3);
+        assertThat(m.count(1, 0)).isEqualTo(3);
+        assertThat(m.count(0, 2)).isEqualTo(2);
+        assertThat(m.count(1, 2)).isEqualTo(2);
+        assertThat(m.count(0, 3)).isZero();
+        assertThat(m.count(0, 0)).isEqualTo(4);
+        assertThat(m.count(3, 3)).isEqualTo(1);
+    }
+
+    @Test
+    void capsBasketAtMaxBasketDistinctItems() {
+        CooccurrenceMatrix m = new CooccurrenceMatrix(4, 2, new SplittableRandom(3));
+        m.addBasket(new int[]{2, 1, 1, 0}, 4); // bỏ trùng còn 0, 1, 2 -> giữ ngẫu nhiên 2 món
+
+        assertThat(m.pairCount()).isEqualTo(1);
+        assertThat(m.count(0, 0) + m.count(1, 1) + m.count(2, 2)).isEqualTo(2);
+        assertThat(m.count(0, 1) + m.count(0, 2) + m.count(1, 2)).isEqualTo(1);
+    }
+
+    // giỏ quá cỡ lặp lại nhiều lần: mọi món đều có cơ hội được giữ như nhau, không thiên về chỉ số nhỏ
+    @Test
+    void samplesOversizeBasketsUniformly() {
+        CooccurrenceMatrix m = new CooccurrenceMatrix(10, 3, new SplittableRandom(11));
+        int[] basket = new int[10];
+        for (int round = 0; round < 3_000; round++) {
+            for (int i = 0; i < 10; i++) basket[i] = 9 - i;
+            m.addBasket(basket, 10);
+        }
+
+        // kỳ vọng 3000 * 3 / 10 = 900 lần mỗi món, cặp 3000 * 3 / 45 = 200
+        for (int i = 0; i < 10; i++) assertThat(m.count(i, i)).isBetween(800, 1000);
+        assertThat(m.count(0, 1)).isBetween(140, 260);
+        assertThat(m.count(8, 9)).isBetween(140, 260);
+        assertThat(m.pairCount()).isEqualTo(45);
+    }
+}
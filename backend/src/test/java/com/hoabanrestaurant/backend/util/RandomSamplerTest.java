@@ -0,0 +1,39 @@
+package com.hoabanrestaurant.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RandomSamplerTest {
+
+    @Test
+    void returnsKDistinctIndicesInRange() {
+        Random rnd = new Random(3);
+        for (int n = 1; n <= 50; n++) {
+            for (int k = 1; k <= n; k++) {
+                int[] idx = RandomSampler.sample(n, k, rnd);
+                assertThat(idx).hasSize(k);
+                assertThat(Arrays.stream(idx).distinct().count()).isEqualTo(k);
+                for (int i : idx) assertThat(i).isBetween(0, n - 1);
+            }
+        }
+    }
+
+    @Test
+    void returnsWholeRangeWhenKAtLeastN() {
+        int[] idx = RandomSampler.sample(5, 8, new Random(1));
+        Arrays.sort(idx);
+        assertThat(idx).containsExactly(0, 1, 2, 3, 4);
+        assertThat(RandomSampler.sample(5, 5, new Random(1))).hasSize(5);
+    }
+
+    @Test
+    void emptyForNonPositiveKOrN() {
+        assertThat(RandomSampler.sample(0, 3, new Random(1))).isEmpty();
+        assertThat(RandomSampler.sample(10, 0, new Random(1))).isEmpty();
+        assertThat(RandomSampler.sample(10, -2, new Random(1))).isEmpty();
+    }
+}
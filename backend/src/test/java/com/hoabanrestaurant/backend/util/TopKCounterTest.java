@@ -0,0 +1,41 @@
+package com.hoabanrestaurant.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TopKCounterTest {
+
+    @Test
+    void keepsTopKAsScoresGrow() {
+        UUID a = UUID.randomUUID(), b = UUID.randomUUID(), c = UUID.randomUUID();
+        TopKCounter counter = new TopKCounter(2);
+        counter.add(a, 5);
+        counter.add(b, 3);
+        counter.add(c, 1); // ngoài top
+
+        assertThat(counter.top(5, id -> true)).containsExactly(a, b);
+
+        counter.add(c, 5); // 6 -> đẩy b ra
+        assertThat(counter.top(5, id -> true)).containsExactly(c, a);
+
+        counter.add(b, 10); // b quay lại với điểm tích luỹ 13, đẩy a ra
+        assertThat(counter.top(5, id -> true)).containsExactly(b, c);
+        assertThat(counter.top(5, id -> !id.equals(b))).containsExactly(c);
+    }
+
+    @Test
+    void recentSalesOutweighOldOnes() {
+        Instant now = Instant.parse("2026-06-01T00:00:00Z");
+        UUID oldFavourite = UUID.randomUUID(), trending = UUID.randomUUID();
+        TopKCounter counter = new TopKCounter(10);
+        // 10 phần cách đây 3 chu kỳ bán rã (= 1.25 phần hôm nay) so với 2 phần hôm nay
+        counter.add(oldFavourite, 10 * PopularityDecay.weight(now.minus(PopularityDecay.HALF_LIFE.multipliedBy(3))));
+        counter.add(trending, 2 * PopularityDecay.weight(now));
+
+        assertThat(counter.top(1, id -> true)).containsExactly(trending);
+    }
+}
@@ -0,0 +1,65 @@
+package com.hoabanrestaurant.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrigramIndexTest {
+
+    private static final List<TrigramIndex.Doc<String>> MENU = List.of(
+            new TrigramIndex.Doc<>("pho-bo", "Phở bò tái nạm", "Nước dùng hầm xương 12 tiếng"),
+            new TrigramIndex.Doc<>("bun-cha", "Bún chả Hà Nội", "Chả nướng than hoa"),
+            new TrigramIndex.Doc<>("ga-nuong", "Gà nướng mật ong", null),
+            new TrigramIndex.Doc<>("dau-hu", "Đậu hũ chiên sả", "Món chay"),
+            new TrigramIndex.Doc<>("combo-gd", "Combo gia đình", "Phở bò, gà nướng, nước ngọt"));
+
+    @Test
+    void normalizesVietnamese() {
+        assertThat(VietnameseText.normalize("Đậu Hũ  chiên-sả!")).isEqualTo("dau hu chien sa");
+        assertThat(VietnameseText.normalize(null)).isEmpty();
+    }
+
+    @Test
+    void matchesWithoutDiacriticsAndWithTypos() {
+        TrigramIndex<String> index = TrigramIndex.build(MENU);
+
+        assertThat(top(index, "pho bo")).isEqualTo("pho-bo");
+        assertThat(top(index, "dau hu")).isEqualTo("dau-hu");
+        assertThat(top(index, "ga nuogn")).isEqualTo("ga-nuong"); // đảo 2 ký tự
+        assertThat(top(index, "bun chaa")).isEqualTo("bun-cha");
+        // mô tả cũng được tìm, nhưng khớp tên xếp trên
+        assertThat(index.search("pho bo", 5, 0.3)).extracting(TrigramIndex.Hit::value)
+                .containsSubsequence("pho-bo", "combo-gd");
+        assertThat(index.search("xyz", 5, 0.3)).isEmpty();
+    }
+
+    @Test
+    void rebuildReusesUnchangedDocs() {
+        TrigramIndex<String> first = TrigramIndex.build(MENU);
+        List<TrigramIndex.Doc<String>> changed = new ArrayList<>(MENU);
+        changed.set(2, new TrigramIndex.Doc<>("ga-nuong", "Gà rán giòn", null));
+
+        TrigramIndex<String> second = TrigramIndex.build(changed, first);
+
+        assertThat(top(second, "ga ran")).isEqualTo("ga-nuong");
+        assertThat(second.search("mat ong", 5, 0.3)).isEmpty();
+    }
+
+    @Test
+    void repeatedSearchesDoNotCarryCountsOver() {
+        TrigramIndex<String> index = TrigramIndex.build(MENU);
+        var first = index.search("pho bo", 5, 0.0);
+        index.search("ga nuong", 5, 0.0);
+        index.search("nuoc", 1, 0.9); // bị loại hết vì minScore, vẫn phải xoá bộ đếm
+
+        assertThat(index.search("pho bo", 5, 0.0)).isEqualTo(first);
+    }
+
+    private static String top(TrigramIndex<String> index, String q) {
+        var hits = index.search(q, 1, 0.3);
+        return hits.isEmpty() ? null : hits.get(0).value();
+    }
+}
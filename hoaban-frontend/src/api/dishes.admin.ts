@@ -1,16 +1,19 @@
 import http from "./http";
-import type { Dish, CreateDishRequest, UpdateDishRequest } from "@/types/dish.types";
-import type { PaginatedResponse } from "@/types/user.types";
+import type {
+  Dish,
+  CreateDishRequest,
+  UpdateDishRequest,
+  ListDishesParams,
+  MenuStatus,
+} from "@/types/dish.types";
+import type { CursorPage } from "@/types/user.types";
 
-export interface ListDishesAdminParams {
-  page?: number;
-  size?: number;
-  sortBy?: string;
-  direction?: string;
+export interface ListDishesAdminParams extends ListDishesParams {
+  status?: MenuStatus;
 }
 
 export const listDishesAdmin = (params?: ListDishesAdminParams) =>
-  http.get<PaginatedResponse<Dish>>("/v1/dishes/all", { params });
+  http.get<CursorPage<Dish>>("/v1/dishes/all", { params });
 
 export const createDish = (payload: CreateDishRequest) => http.post<Dish>("/v1/dishes", payload);
 
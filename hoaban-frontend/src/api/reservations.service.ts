@@ -4,12 +4,17 @@ import type {
   CreateReservationRequest,
   AssignTablesRequest,
   CancelReservationRequest,
+  ReservationSlot,
 } from "@/types/reservation.types";
 
 // Customer creates a reservation (PENDING) without tables
 export const createReservation = (payload: CreateReservationRequest) =>
   http.post<Reservation>("/v1/reservations", payload);
 
+// Khung giờ còn đủ ghế cho ngày + số khách (public)
+export const getReservationSlots = (date: string, partySize: number, step = 30) =>
+  http.get<ReservationSlot[]>("/v1/reservations/slots", { params: { date, partySize, step } });
+
 // Customer: own reservations
 export const listMyReservations = () => http.get<Reservation[]>("/v1/reservations/me");
 
@@ -40,7 +40,7 @@ export const useCartStore = defineStore("cart", {
       try {
         if (this._dishesCache.length === 0) {
           const response = await listDishes();
-          const dishesData = response?.content || response?.data?.content || response?.data || [];
+          const dishesData = response?.items || response?.data?.items || response?.data || [];
           this._dishesCache = Array.isArray(dishesData) ? dishesData : [];
         }
         if (this._combosCache.length === 0) {
@@ -28,6 +28,9 @@ export interface CreateDishRequest {
 export interface UpdateDishRequest extends CreateDishRequest {}
 
 export interface ListDishesParams {
-  page?: number;
-  size?: number;
+  cursor?: string;
+  limit?: number;
+  sortBy?: "name" | "price" | "createdAt";
+  direction?: "asc" | "desc";
+  withTotal?: boolean;
 }
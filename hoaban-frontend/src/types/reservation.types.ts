@@ -27,3 +27,11 @@ export interface AssignTablesRequest {
 export interface CancelReservationRequest {
   reason?: string;
 }
+
+// Khung giờ đặt bàn trong ngày (start/end dạng "HH:mm:ss"), available = còn đủ ghế cho số khách
+export interface ReservationSlot {
+  start: string;
+  end: string;
+  freeSeats: number;
+  available: boolean;
+}
@@ -31,6 +31,14 @@ export interface PaginatedResponse<T> {
   number: number;
 }
 
+// Trang keyset: gửi lại nextCursor để lấy trang sau; total chỉ có khi gọi với withTotal=true
+export interface CursorPage<T> {
+  items: T[];
+  nextCursor: string | null;
+  hasMore: boolean;
+  total?: number;
+}
+
 export interface ListUsersParams {
   page?: number;
   size?: number;